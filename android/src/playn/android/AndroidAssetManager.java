@@ -18,6 +18,7 @@ package playn.android;
 import static playn.core.PlayN.log;
 
 import java.io.BufferedReader;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
@@ -31,6 +32,9 @@ import playn.core.AbstractAssetManager;
 import playn.core.Image;
 import playn.core.ResourceCallback;
 import playn.core.Sound;
+import playn.core.util.WeightedCache;
+import playn.java.AssetBundle;
+import android.content.res.AssetFileDescriptor;
 import android.content.res.AssetManager;
 import android.graphics.Bitmap;
 import android.graphics.BitmapFactory;
@@ -41,16 +45,54 @@ public class AndroidAssetManager extends AbstractAssetManager {
 
   public String pathPrefix = null;
   public AssetManager assets;
+  private volatile AssetBundle bundle;
+
+  // decoded bitmaps, by default limited to an eighth of the memory available to the VM
+  private final WeightedCache<String, Bitmap> bitmaps = new WeightedCache<String, Bitmap>(
+    (int) Math.min(Runtime.getRuntime().maxMemory() / 8, Integer.MAX_VALUE),
+    new WeightedCache.Weigher<String, Bitmap>() {
+      public int weigh(String path, Bitmap bitmap) {
+        return bitmap.getRowBytes() * bitmap.getHeight();
+      }
+    });
 
   public void setPathPrefix(String prefix) {
     pathPrefix = prefix;
   }
 
+  /**
+   * Configures a bundle from which to load assets in preference to the
+   * application's resources.
+   */
+  public void setBundle(AssetBundle bundle) {
+    this.bundle = bundle;
+  }
+
+  /**
+   * Maps the bundle with the specified name from the application's assets, and
+   * loads assets from it in preference to the application's resources. The
+   * bundle must be stored uncompressed in the APK (see aapt's {@code -0} option),
+   * so that it can be mapped.
+   */
+  public void useBundle(String name) throws IOException {
+    AssetFileDescriptor fd = assets.openFd(name);
+    try {
+      FileInputStream in = fd.createInputStream();
+      setBundle(new AssetBundle(in.getChannel(), fd.getStartOffset(), fd.getLength()));
+    } finally {
+      fd.close();
+    }
+  }
+
   /**
    * Attempts to open the asset with the given name, throwing an
    * {@link IOException} in case of failure.
    */
   private InputStream openAsset(String path) throws IOException {
+    AssetBundle bundle = this.bundle;
+    if (bundle != null && bundle.contains(path)) {
+      return bundle.open(path);
+    }
     // Insert a slash to make this consistent with the Java asset manager
     InputStream is = getClass().getClassLoader().getResourceAsStream(pathPrefix + "/" + path);
     if (is == null)
@@ -58,26 +100,58 @@ public class AndroidAssetManager extends AbstractAssetManager {
     return is;
   }
 
+  /**
+   * Returns the cache of decoded bitmaps, via which its budget may be configured and its hit,
+   * miss and eviction counts obtained. The cache must only be accessed while synchronized on it.
+   */
+  public WeightedCache<String, Bitmap> bitmapCache() {
+    return bitmaps;
+  }
+
   @Override
   protected Image doGetImage(String path) {
-    return new AndroidImage(path, doGetBitmap(path));
+    return new AndroidImage(path, getBitmap(path));
   }
 
   /**
-   * Decodes a resource to a bitmap. Always succeeds, returning an error
-   * placeholder if something goes wrong.
+   * Returns the bitmap for the specified resource, from the cache if possible, and otherwise by
+   * decoding it (and caching the result). Always succeeds, returning an error placeholder if
+   * something goes wrong.
    */
-  Bitmap doGetBitmap(String path) {
-    try {
-      InputStream is = openAsset(path);
+  Bitmap getBitmap(String path) {
+    Bitmap bitmap;
+    synchronized (bitmaps) {
+      bitmap = bitmaps.get(path);
+    }
+    if (bitmap == null) {
       try {
-        Bitmap bitmap = decodeBitmap(is);
-        return bitmap;
-      } finally {
-        is.close();
+        bitmap = doGetBitmap(path);
+      } catch (IOException e) {
+        // the placeholder is not cached, so the resource will be tried again when next needed
+        return createErrorBitmap(e);
       }
-    } catch (IOException e) {
-      return createErrorBitmap(e);
+      synchronized (bitmaps) {
+        bitmaps.put(path, bitmap);
+      }
+    }
+    return bitmap;
+  }
+
+  /**
+   * Decodes a resource to a bitmap.
+   *
+   * @throws IOException if the resource could not be read or decoded.
+   */
+  Bitmap doGetBitmap(String path) throws IOException {
+    InputStream is = openAsset(path);
+    try {
+      Bitmap bitmap = decodeBitmap(is);
+      if (bitmap == null) {
+        throw new IOException("Unable to decode image: " + path);
+      }
+      return bitmap;
+    } finally {
+      is.close();
     }
   }
 
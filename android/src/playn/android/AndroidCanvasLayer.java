@@ -19,6 +19,8 @@ import playn.core.Asserts;
 import playn.core.Canvas;
 import playn.core.CanvasLayer;
 import playn.core.InternalTransform;
+import playn.core.PlayN;
+import playn.core.Stats;
 
 class AndroidCanvasLayer extends AndroidLayer implements CanvasLayer {
 
@@ -41,10 +43,16 @@ class AndroidCanvasLayer extends AndroidLayer implements CanvasLayer {
     image = null;
   }
 
+  @Override
+  public boolean culled(InternalTransform parentTransform, float viewWidth, float viewHeight) {
+    return image != null && culled(parentTransform, width(), height(), viewWidth, viewHeight);
+  }
+
   @Override
   public void paint(InternalTransform parentTransform, float parentAlpha) {
     if (!visible())
       return;
+    PlayN.stats().increment(Stats.Count.LAYERS_DRAWN);
 
     int tex = image.ensureTexture(gfx, false, false);
     if (tex != -1) {
@@ -69,11 +77,11 @@ class AndroidCanvasLayer extends AndroidLayer implements CanvasLayer {
 
   @Override
   public float scaledWidth() {
-    return transform().scaleX() * width();
+    return transform.scaleX() * width();
   }
 
   @Override
   public float scaledHeight() {
-    return transform().scaleY() * height();
+    return transform.scaleY() * height();
   }
 }
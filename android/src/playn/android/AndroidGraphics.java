@@ -38,6 +38,8 @@ import playn.core.ImageLayer;
 import playn.core.InternalTransform;
 import playn.core.Path;
 import playn.core.Pattern;
+import playn.core.PlayN;
+import playn.core.Stats;
 import playn.core.StockInternalTransform;
 import playn.core.Surface;
 import playn.core.SurfaceLayer;
@@ -55,8 +57,9 @@ class AndroidGraphics implements Graphics {
   public static final boolean CHECK_ERRORS = true;
 
   private static final int VERTEX_SIZE = 10; // 10 floats per vertex
-  private static final int MAX_VERTS = 4;
-  private static final int MAX_ELEMS = 6;
+  private static final int MAX_QUADS = 4096; // quads per batch
+  private static final int MAX_VERTS = MAX_QUADS * 4; // 4 verts per quad (fits in 16 bits)
+  private static final int MAX_ELEMS = MAX_QUADS * 6; // 6 elements per quad
   private static final int FLOAT_SIZE_BYTES = 4;
   private static final int SHORT_SIZE_BYTES = 2;
   private static final int VERTEX_STRIDE = VERTEX_SIZE * FLOAT_SIZE_BYTES;
@@ -137,8 +140,10 @@ class AndroidGraphics implements Graphics {
       gl20.glBufferData(GL20.GL_ELEMENT_ARRAY_BUFFER, elementOffset * SHORT_SIZE_BYTES,
           elementData, GL20.GL_STREAM_DRAW);
       checkGlError("Shader.flush BufferData");
-      gl20.glDrawElements(GL20.GL_TRIANGLE_STRIP, elementOffset, GL20.GL_UNSIGNED_SHORT, 0);
+      gl20.glDrawElements(GL20.GL_TRIANGLES, elementOffset, GL20.GL_UNSIGNED_SHORT, 0);
       vertexOffset = elementOffset = 0;
+      ++drawCalls;
+      PlayN.stats().increment(Stats.Count.FLUSHES);
       checkGlError("Shader.flush DrawElements");
     }
 
@@ -330,7 +335,7 @@ class AndroidGraphics implements Graphics {
   private Set<Surface> surfaces = new HashSet<Surface>();
 
   // Debug
-  private int texCount;
+  private int texCount, drawCalls, lastDrawCalls;
 
   // Shaders & Meshes
   private Shader curShader;
@@ -526,6 +531,16 @@ class AndroidGraphics implements Graphics {
     startingScreenHeight = height;
   }
 
+  /** Returns the width of the currently bound framebuffer. */
+  int fbufWidth() {
+    return fbufWidth;
+  }
+
+  /** Returns the height of the currently bound framebuffer. */
+  int fbufHeight() {
+    return fbufHeight;
+  }
+
   void bindFramebuffer() {
     bindFramebuffer(0, viewWidth, viewHeight);
   }
@@ -585,6 +600,17 @@ class AndroidGraphics implements Graphics {
 
     // Guarantee a flush
     useShader(null);
+
+    lastDrawCalls = drawCalls;
+    drawCalls = 0;
+  }
+
+  /**
+   * @return The number of draw calls (batch flushes) issued while painting the most recently
+   *         completed frame.
+   */
+  int drawCalls() {
+    return lastDrawCalls;
   }
 
   void refreshGL() {
@@ -594,8 +620,11 @@ class AndroidGraphics implements Graphics {
   }
 
   void updateTexture(int texture, Bitmap image) {
+    // Flush in case this texture is queued up to be drawn with its old contents
+    flush();
     gl20.glBindTexture(GL20.GL_TEXTURE_2D, texture);
     texImage2D(GL20.GL_TEXTURE_2D, 0, image, 0);
+    PlayN.stats().increment(Stats.Count.TEXTURE_UPLOADS);
     checkGlError("updateTexture end");
   }
 
@@ -619,7 +648,7 @@ class AndroidGraphics implements Graphics {
     sy /= texHeight;
     sh /= texHeight;
 
-    int idx = texShader.beginPrimitive(4, 4);
+    int idx = texShader.beginPrimitive(4, 6);
     texShader.buildVertex(local, dx, dy, sx, sy);
     texShader.buildVertex(local, dx + dw, dy, sx + sw, sy);
     texShader.buildVertex(local, dx, dy + dh, sx, sy + sh);
@@ -628,7 +657,9 @@ class AndroidGraphics implements Graphics {
     texShader.addElement(idx + 0);
     texShader.addElement(idx + 1);
     texShader.addElement(idx + 2);
+    texShader.addElement(idx + 1);
     texShader.addElement(idx + 3);
+    texShader.addElement(idx + 2);
     checkGlError("drawTexture end");
   }
 
@@ -639,16 +670,18 @@ class AndroidGraphics implements Graphics {
     float sx = dx / texWidth, sy = dy / texHeight;
     float sw = dw / texWidth, sh = dh / texHeight;
 
-    int idx = texShader.beginPrimitive(4, 4);
+    int idx = texShader.beginPrimitive(4, 6);
     texShader.buildVertex(local, dx, dy, sx, sy);
     texShader.buildVertex(local, dx + dw, dy, sx + sw, sy);
     texShader.buildVertex(local, dx, dy + dh, sx, sy + sh);
-    texShader.buildVertex(local, dx + dw, dy + sy, sx + sw, sy + sh);
+    texShader.buildVertex(local, dx + dw, dy + dh, sx + sw, sy + sh);
 
     texShader.addElement(idx + 0);
     texShader.addElement(idx + 1);
     texShader.addElement(idx + 2);
+    texShader.addElement(idx + 1);
     texShader.addElement(idx + 3);
+    texShader.addElement(idx + 2);
   }
 
   void fillRect(InternalTransform local, float dx, float dy, float dw, float dh, int color,
@@ -656,7 +689,7 @@ class AndroidGraphics implements Graphics {
     colorShader.prepare(color, alpha);
     checkGlError("fillRect shader prepared");
 
-    int idx = colorShader.beginPrimitive(4, 4);
+    int idx = colorShader.beginPrimitive(4, 6);
     colorShader.buildVertex(local, dx, dy);
     colorShader.buildVertex(local, dx + dw, dy);
     colorShader.buildVertex(local, dx, dy + dh);
@@ -665,7 +698,9 @@ class AndroidGraphics implements Graphics {
     colorShader.addElement(idx + 0);
     colorShader.addElement(idx + 1);
     colorShader.addElement(idx + 2);
+    colorShader.addElement(idx + 1);
     colorShader.addElement(idx + 3);
+    colorShader.addElement(idx + 2);
     checkGlError("fillRect done");
   }
 
@@ -675,10 +710,8 @@ class AndroidGraphics implements Graphics {
   void fillPoly(InternalTransform local, float[] positions, int color, float alpha) {
     colorShader.prepare(color, alpha);
 
-    // FIXME: Rewrite to take advantage of GL_TRIANGLE_STRIP
-    int idx = colorShader.beginPrimitive(4, 6); // FIXME: This won't scale for
-                                                // non-line polys.
     int points = positions.length / 2;
+    int idx = colorShader.beginPrimitive(points, (points - 2) * 3);
     for (int i = 0; i < points; ++i) {
       float dx = positions[i * 2];
       float dy = positions[i * 2 + 1];
@@ -17,7 +17,6 @@ package playn.android;
 
 import static playn.core.PlayN.log;
 
-import java.lang.ref.SoftReference;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -32,12 +31,14 @@ import playn.core.gl.GLUtil;
 import android.graphics.Bitmap;
 
 /**
- * Android implementation of CanvasImage class. Prioritizes the SoftReference to
- * the bitmap, and only holds a hard reference if the game has requested that a
- * Canvas be created.
+ * Android implementation of CanvasImage class. Images loaded from a path leave
+ * their bitmap in the asset manager's bitmap cache, which may evict it (in which
+ * case it is decoded again when next needed), and only hold a hard reference if
+ * the game has requested that a Canvas be created.
  */
 class AndroidImage implements CanvasImage {
-  private SoftReference<Bitmap> bitmapRef;
+  // a hard reference to our bitmap, used only if we have no path to reload it from
+  private Bitmap bitmap;
   private AndroidCanvas canvas;
   private Bitmap canvasBitmap;
   private List<ResourceCallback<Image>> callbacks = new ArrayList<ResourceCallback<Image>>();
@@ -50,8 +51,10 @@ class AndroidImage implements CanvasImage {
 
   public AndroidImage(String path, Bitmap bitmap) {
     this.path = path;
-    //Use a soft reference if we have a path to restore the bitmap from.
-    bitmapRef = new SoftReference<Bitmap>(bitmap);
+    // the asset manager caches the bitmap if we have a path to restore it from
+    if (path == null) {
+      this.bitmap = bitmap;
+    }
     width = bitmap.getWidth();
     height = bitmap.getHeight();
   }
@@ -60,7 +63,6 @@ class AndroidImage implements CanvasImage {
     // TODO: Why not always use the preferredBitmapConfig?  (Preserved from pre-GL code)
     canvasBitmap = Bitmap.createBitmap(w, h, alpha
         ? AndroidPlatform.instance.preferredBitmapConfig : Bitmap.Config.ARGB_8888);
-    bitmapRef = null;
     width = w;
     height = h;
   }
@@ -77,13 +79,18 @@ class AndroidImage implements CanvasImage {
   public Canvas canvas() {
     if (canvas == null) {
       canvasBitmap = getBitmap();
+      if (canvasBitmap != null && path != null) {
+        // the cached bitmap may be shared with other images, so draw into a copy
+        canvasBitmap = canvasBitmap.copy(canvasBitmap.getConfig(), true);
+      }
       if (canvasBitmap != null) {
         canvas = new AndroidCanvas(canvasBitmap);
       } else {
         canvas = new AndroidCanvas(width, height);
       }
     }
-    bitmapRef = null;
+    bitmap = null;
+    path = null;
     return canvas;
   }
 
@@ -107,17 +114,17 @@ class AndroidImage implements CanvasImage {
 
   @Override
   public boolean isReady() {
-    return bitmapRef != null || canvas != null;
+    return path != null || bitmap != null || canvas != null;
   }
 
   @Override
   public void replaceWith(Image image) {
     Asserts.checkArgument(image instanceof AndroidImage);
     AndroidImage aimg = (AndroidImage) image;
-    bitmapRef = new SoftReference<Bitmap>(aimg.getBitmap());
+    path = aimg.getPath();
+    bitmap = (path == null) ? aimg.getBitmap() : null;
     width = image.width();
     height = image.height();
-    path = aimg.getPath();
     canvas = null;
     tex = pow2tex = -1;
     if (AndroidPlatform.instance != null && AndroidPlatform.instance.graphics() != null) {
@@ -126,25 +133,23 @@ class AndroidImage implements CanvasImage {
   }
 
   /*
-   * getBitmap() can be exceptionally slow, as it will likely
-   * need to retrieve the bitmap from the file path.  As such
-   * it should only be called when a direct reference to the
-   * Bitmap is necessary.  (Note that this is less of an
-   * issue for an AndroidImage that has had a canvas built,
-   * as a hard reference to the bitmap is held in memory then).
+   * getBitmap() can be exceptionally slow, as it may need to
+   * retrieve the bitmap from the file path if it has been
+   * evicted from the bitmap cache.  As such it should only be
+   * called when a direct reference to the Bitmap is necessary.
+   * (Note that this is not an issue for an AndroidImage that
+   * has had a canvas built, as a hard reference to the bitmap
+   * is held in memory then).
    */
   Bitmap getBitmap() {
     if (canvasBitmap != null) {
       return canvasBitmap;
     }
-    if (bitmapRef != null) {
-      Bitmap bm = bitmapRef.get();
-      if (bm == null && path != null) {
-        if (AndroidPlatform.DEBUG_LOGS) log().debug("Bitmap " + path + " fell out of memory");
-        bitmapRef = new SoftReference<Bitmap>(
-            bm = AndroidPlatform.instance.assetManager().doGetBitmap(path));
-      }
-      return bm;
+    if (bitmap != null) {
+      return bitmap;
+    }
+    if (path != null) {
+      return AndroidPlatform.instance.assetManager().getBitmap(path);
     }
     return null;
   }
@@ -19,6 +19,8 @@ import playn.core.Asserts;
 import playn.core.Image;
 import playn.core.ImageLayer;
 import playn.core.InternalTransform;
+import playn.core.PlayN;
+import playn.core.Stats;
 
 class AndroidImageLayer extends AndroidLayer implements ImageLayer {
 
@@ -42,6 +44,7 @@ class AndroidImageLayer extends AndroidLayer implements ImageLayer {
   @Override
   public void clearHeight() {
     heightSet = false;
+    boundsChanged();
   }
 
   @Override
@@ -52,6 +55,7 @@ class AndroidImageLayer extends AndroidLayer implements ImageLayer {
   @Override
   public void clearWidth() {
     widthSet = false;
+    boundsChanged();
   }
 
   @Override
@@ -65,12 +69,14 @@ class AndroidImageLayer extends AndroidLayer implements ImageLayer {
 
     heightSet = true;
     this.height = height;
+    boundsChanged();
   }
 
   @Override
   public void setImage(Image image) {
     Asserts.checkArgument(image instanceof AndroidImage);
     this.image = (AndroidImage) image;
+    boundsChanged();
   }
 
   @Override
@@ -95,6 +101,7 @@ class AndroidImageLayer extends AndroidLayer implements ImageLayer {
   public void setSize(float width, float height) {
     setWidth(width);
     setHeight(height);
+    boundsChanged();
   }
 
   @Override
@@ -114,12 +121,19 @@ class AndroidImageLayer extends AndroidLayer implements ImageLayer {
 
     widthSet = true;
     this.width = width;
+    boundsChanged();
+  }
+
+  @Override
+  public boolean culled(InternalTransform parentTransform, float viewWidth, float viewHeight) {
+    return image != null && culled(parentTransform, width(), height(), viewWidth, viewHeight);
   }
 
   @Override
   public void paint(InternalTransform parentTransform, float parentAlpha) {
     if (!visible())
       return;
+    PlayN.stats().increment(Stats.Count.LAYERS_DRAWN);
 
     gfx.checkGlError("AndroidImageLayer.paint start");
     if (sourceRectSet) Asserts.check(repeatX == false && repeatY == false);
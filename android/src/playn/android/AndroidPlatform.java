@@ -15,11 +15,14 @@
  */
 package playn.android;
 
+import playn.core.Binary;
 import playn.core.Game;
 import playn.core.Json;
 import playn.core.Mouse;
 import playn.core.Platform;
 import playn.core.PlayN;
+import playn.core.Stats;
+import playn.java.JavaBinary;
 import playn.java.JavaJson;
 import android.app.ActivityManager;
 import android.content.Context;
@@ -46,6 +49,7 @@ public class AndroidPlatform implements Platform {
   private AndroidAudio audio;
   private AndroidGraphics graphics;
   private JavaJson json;
+  private JavaBinary binary;
   private AndroidKeyboard keyboard;
   private AndroidLog log;
   private AndroidNet net;
@@ -55,6 +59,7 @@ public class AndroidPlatform implements Platform {
   private AndroidTouchEventHandler touchHandler;
   private AndroidAssetManager assetManager;
   private AndroidAnalytics analytics;
+  private Stats stats = new Stats();
 
   public Bitmap.Config preferredBitmapConfig;
 
@@ -64,6 +69,7 @@ public class AndroidPlatform implements Platform {
     audio = new AndroidAudio();
     graphics = new AndroidGraphics(gl20);
     json = new JavaJson();
+    binary = new JavaBinary();
     keyboard = new AndroidKeyboard();
     log = new AndroidLog();
     net = new AndroidNet();
@@ -106,6 +112,11 @@ public class AndroidPlatform implements Platform {
     return analytics;
   }
 
+  @Override
+  public Stats stats() {
+    return stats;
+  }
+
   @Override
   public AndroidAudio audio() {
     return audio;
@@ -121,6 +132,11 @@ public class AndroidPlatform implements Platform {
     return json;
   }
 
+  @Override
+  public Binary binary() {
+    return binary;
+  }
+
   @Override
   public AndroidKeyboard keyboard() {
     return keyboard;
@@ -46,4 +46,9 @@ public class AndroidStorage implements Storage {
   public boolean isPersisted() {
     return true;
   }
+
+  @Override
+  public void flush() {
+    // changes are written as they are made
+  }
 }
@@ -16,9 +16,12 @@
 package playn.android;
 
 import static playn.core.PlayN.log;
+import static playn.core.PlayN.stats;
 
 import java.util.concurrent.atomic.AtomicBoolean;
 
+import playn.core.Stats;
+
 public class GameLoop implements Runnable {
   private static final boolean LOG_FPS = false;
   private static final int MAX_DELTA = 100;
@@ -62,8 +65,10 @@ public class GameLoop implements Runnable {
     if (!running.get())
       return;
 
+    Stats stats = stats();
     int now = time();
     float delta = now - lastTime;
+    stats.addTime(Stats.Phase.FRAME, delta);
     if (delta > MAX_DELTA)
       delta = MAX_DELTA;
     lastTime = now;
@@ -78,15 +83,17 @@ public class GameLoop implements Runnable {
         accum -= updateRate;
       }
     }
+    stats.addTime(Stats.Phase.UPDATE, time() - now);
 
     paintAlpha = (updateRate == 0) ? 0 : accum / updateRate;
     paint();
+    stats.endFrame();
 
     if (LOG_FPS) {
       totalTime += delta / 1000;
       framesPainted++;
       if (totalTime > 1) {
-        log().info("FPS: " + framesPainted / totalTime);
+        log().info("FPS: " + framesPainted / totalTime + ", draw calls: " + gfx.drawCalls());
         totalTime = framesPainted = 0;
       }
     }
@@ -104,10 +111,14 @@ public class GameLoop implements Runnable {
   }
 
   protected void paint() {
+    int start = time();
     gfx.bindFramebuffer();
     AndroidPlatform.instance.game.paint(paintAlpha); // Run the game's custom
                                                      // layer-painting code
+    int painted = time();
+    stats().addTime(Stats.Phase.PAINT, painted - start);
     gfx.paintLayers(); // Actually draw to the screen
+    stats().addTime(Stats.Phase.LAYERS, time() - painted);
   }
 
 }
@@ -19,17 +19,30 @@ public abstract class AbstractAssetManager implements AssetManager {
     }
   };
 
-  @SuppressWarnings("unchecked")
   @Override
   public final Image getImage(String path) {
+    return getImage(path, Priority.IMMEDIATE);
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public final Image getImage(String path, Priority priority) {
     incrementRequestCount();
-    Image image = doGetImage(path);
+    Image image = doGetImage(path, priority);
     image.addCallback(callback);
     return image;
   }
 
   protected abstract Image doGetImage(String path);
 
+  /**
+   * Loads an image with the specified priority. Platforms that don't prioritize loads needn't
+   * override this.
+   */
+  protected Image doGetImage(String path, Priority priority) {
+    return doGetImage(path);
+  }
+
   @Override
   public final Sound getSound(String path) {
     Sound sound = doGetSound(path);
@@ -0,0 +1,768 @@
+/**
+ * Copyright 2011 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package playn.core;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Base {@link Binary} implementation shared among platforms. The encoding and decoding of the
+ * format are done here; platforms supply the storage for the encoded bytes, via {@link Bytes}.
+ */
+public abstract class AbstractBinary implements Binary {
+
+  /**
+   * Storage for encoded data, implemented by each platform using its native byte buffers.
+   * Multi-byte values are big-endian, as the format requires.
+   */
+  protected static abstract class Bytes {
+    /** Returns the number of bytes that may be stored. */
+    public abstract int capacity();
+
+    /** Grows the storage to at least the specified capacity, preserving its contents. */
+    public abstract void reserve(int capacity);
+
+    /** Copies {@code length} bytes from {@code from} to {@code to}. The ranges may overlap. */
+    public abstract void move(int from, int to, int length);
+
+    public abstract void setByte(int pos, int value);
+    public abstract void setShort(int pos, int value);
+    public abstract void setInt(int pos, int value);
+    public abstract void setFloat(int pos, float value);
+    public abstract void setDouble(int pos, double value);
+
+    /** Returns the unsigned byte at the specified position. */
+    public abstract int getByte(int pos);
+    /** Returns the signed short at the specified position. */
+    public abstract int getShort(int pos);
+    public abstract int getInt(int pos);
+    public abstract float getFloat(int pos);
+    public abstract double getDouble(int pos);
+
+    /**
+     * Encodes the first {@code length} bytes in base64.
+     */
+    public String toBase64(int length) {
+      StringBuilder buf = new StringBuilder((length + 2) / 3 * 4);
+      for (int ii = 0; ii < length; ii += 3) {
+        int b0 = getByte(ii);
+        int b1 = (ii + 1 < length) ? getByte(ii + 1) : 0;
+        int b2 = (ii + 2 < length) ? getByte(ii + 2) : 0;
+        buf.append(BASE64.charAt(b0 >> 2));
+        buf.append(BASE64.charAt(((b0 & 0x3) << 4) | (b1 >> 4)));
+        buf.append((ii + 1 < length) ? BASE64.charAt(((b1 & 0xF) << 2) | (b2 >> 6)) : '=');
+        buf.append((ii + 2 < length) ? BASE64.charAt(b2 & 0x3F) : '=');
+      }
+      return buf.toString();
+    }
+
+    /**
+     * Decodes the supplied base64 data into this storage, growing it if necessary, and returns
+     * the number of bytes decoded.
+     */
+    public int fromBase64(String data) {
+      int dlength = data.length();
+      while (dlength > 0 && data.charAt(dlength - 1) == '=') {
+        dlength--;
+      }
+      int length = dlength * 3 / 4;
+      if (capacity() < length) {
+        reserve(length);
+      }
+      int bits = 0, nbits = 0, pos = 0;
+      for (int ii = 0; ii < dlength; ii++) {
+        int value = BASE64.indexOf(data.charAt(ii));
+        if (value < 0) {
+          throw new IllegalArgumentException("Invalid base64 character at " + ii);
+        }
+        bits = (bits << 6) | value;
+        nbits += 6;
+        if (nbits >= 8) {
+          nbits -= 8;
+          setByte(pos++, (bits >> nbits) & 0xFF);
+        }
+      }
+      return pos;
+    }
+  }
+
+  @Override
+  public Binary.Writer newWriter() {
+    return new BinaryWriter();
+  }
+
+  @Override
+  public Json.Object parse(String data) {
+    Bytes bytes = createBytes(data.length() * 3 / 4 + 1);
+    int length = bytes.fromBase64(data);
+    if (length == 0 || !isMap(bytes.getByte(0))) {
+      throw new IllegalArgumentException("Top-level value is not an object");
+    }
+    return new BinaryObject(bytes, 0);
+  }
+
+  /**
+   * Creates storage with (at least) the specified initial capacity.
+   */
+  protected abstract Bytes createBytes(int capacity);
+
+  protected class BinaryWriter implements Binary.Writer {
+    // the scopes that may enclose the writer
+    private static final byte EMPTY_DOCUMENT = 0;
+    private static final byte NONEMPTY_DOCUMENT = 1;
+    private static final byte ARRAY = 2;
+    private static final byte OBJECT = 3;
+    private static final byte DANGLING_KEY = 4;
+
+    private final Bytes bytes = createBytes(256);
+    private int pos;
+
+    // the scope of each enclosing container, where its header goes, and its entry count
+    private byte[] scopes = new byte[16];
+    private int[] starts = new int[16], counts = new int[16];
+    private int top;
+
+    public BinaryWriter() {
+      reset();
+    }
+
+    @Override
+    public Binary.Writer key(String key) {
+      if (key == null) {
+        throw new IllegalStateException("Null key.");
+      }
+      if (scopes[top - 1] != OBJECT) {
+        throw new IllegalStateException("Misplaced key.");
+      }
+      writeString(key);
+      counts[top - 1]++;
+      scopes[top - 1] = DANGLING_KEY;
+      return this;
+    }
+
+    @Override
+    public Binary.Writer value(boolean x) {
+      beforeValue();
+      ensure(1);
+      bytes.setByte(pos++, x ? 0xC3 : 0xC2);
+      return this;
+    }
+
+    @Override
+    public Binary.Writer value(int x) {
+      beforeValue();
+      writeInt(x);
+      return this;
+    }
+
+    @Override
+    public Binary.Writer value(float x) {
+      beforeValue();
+      if (x == (int) x && (x != 0 || 1 / x > 0)) {
+        writeInt((int) x);
+      } else {
+        ensure(5);
+        bytes.setByte(pos, 0xCA);
+        bytes.setFloat(pos + 1, x);
+        pos += 5;
+      }
+      return this;
+    }
+
+    @Override
+    public Binary.Writer value(double x) {
+      beforeValue();
+      if (x == (int) x && (x != 0 || 1 / x > 0)) {
+        writeInt((int) x);
+      } else if ((float) x == x) {
+        // no precision is lost by storing the value as a float
+        ensure(5);
+        bytes.setByte(pos, 0xCA);
+        bytes.setFloat(pos + 1, (float) x);
+        pos += 5;
+      } else {
+        ensure(9);
+        bytes.setByte(pos, 0xCB);
+        bytes.setDouble(pos + 1, x);
+        pos += 9;
+      }
+      return this;
+    }
+
+    @Override
+    public Binary.Writer value(String x) {
+      beforeValue();
+      if (x == null) {
+        ensure(1);
+        bytes.setByte(pos++, 0xC0);
+      } else {
+        writeString(x);
+      }
+      return this;
+    }
+
+    @Override
+    public Binary.Writer object() {
+      beforeValue();
+      push(OBJECT);
+      return this;
+    }
+
+    @Override
+    public Binary.Writer endObject() {
+      if (scopes[top - 1] != OBJECT) {
+        throw new IllegalStateException("Misplaced endObject.");
+      }
+      pop(0x80, 0xDE, 0xDF);
+      return this;
+    }
+
+    @Override
+    public Binary.Writer array() {
+      beforeValue();
+      push(ARRAY);
+      return this;
+    }
+
+    @Override
+    public Binary.Writer endArray() {
+      if (scopes[top - 1] != ARRAY) {
+        throw new IllegalStateException("Misplaced endArray.");
+      }
+      pop(0x90, 0xDC, 0xDD);
+      return this;
+    }
+
+    @Override
+    public String write() {
+      String result = bytes.toBase64(pos);
+      reset();
+      return result;
+    }
+
+    private void reset() {
+      pos = 0;
+      top = 0;
+      scopes[top++] = EMPTY_DOCUMENT;
+    }
+
+    private void ensure(int count) {
+      if (pos + count > bytes.capacity()) {
+        bytes.reserve(Math.max(bytes.capacity() * 2, pos + count));
+      }
+    }
+
+    private void beforeValue() {
+      switch (scopes[top - 1]) {
+      case EMPTY_DOCUMENT:
+        scopes[top - 1] = NONEMPTY_DOCUMENT;
+        break;
+      case ARRAY:
+        counts[top - 1]++;
+        break;
+      case DANGLING_KEY:
+        scopes[top - 1] = OBJECT;
+        break;
+      default:
+        throw new IllegalStateException("Value out of sequence.");
+      }
+    }
+
+    private void push(byte scope) {
+      if (top == scopes.length) {
+        byte[] nscopes = new byte[top * 2];
+        System.arraycopy(scopes, 0, nscopes, 0, top);
+        scopes = nscopes;
+        int[] nstarts = new int[top * 2], ncounts = new int[top * 2];
+        System.arraycopy(starts, 0, nstarts, 0, top);
+        System.arraycopy(counts, 0, ncounts, 0, top);
+        starts = nstarts;
+        counts = ncounts;
+      }
+      scopes[top] = scope;
+      starts[top] = pos;
+      counts[top] = 0;
+      top++;
+      // we don't know the number of entries yet, so reserve space for the smallest header and
+      // make room for a larger one when the container ends, which is rarely needed
+      ensure(1);
+      pos++;
+    }
+
+    private void pop(int fixType, int type16, int type32) {
+      top--;
+      int start = starts[top], count = counts[top];
+      if (count < 16) {
+        bytes.setByte(start, fixType | count);
+        return;
+      }
+      int extra = (count < 0x10000) ? 2 : 4;
+      ensure(extra);
+      bytes.move(start + 1, start + 1 + extra, pos - start - 1);
+      pos += extra;
+      if (extra == 2) {
+        bytes.setByte(start, type16);
+        bytes.setShort(start + 1, count);
+      } else {
+        bytes.setByte(start, type32);
+        bytes.setInt(start + 1, count);
+      }
+    }
+
+    private void writeInt(int x) {
+      ensure(5);
+      if (x >= 0) {
+        if (x < 0x80) {
+          bytes.setByte(pos++, x);
+        } else if (x < 0x100) {
+          bytes.setByte(pos, 0xCC);
+          bytes.setByte(pos + 1, x);
+          pos += 2;
+        } else if (x < 0x10000) {
+          bytes.setByte(pos, 0xCD);
+          bytes.setShort(pos + 1, x);
+          pos += 3;
+        } else {
+          bytes.setByte(pos, 0xCE);
+          bytes.setInt(pos + 1, x);
+          pos += 5;
+        }
+      } else {
+        if (x >= -32) {
+          bytes.setByte(pos++, x & 0xFF);
+        } else if (x >= -0x80) {
+          bytes.setByte(pos, 0xD0);
+          bytes.setByte(pos + 1, x & 0xFF);
+          pos += 2;
+        } else if (x >= -0x8000) {
+          bytes.setByte(pos, 0xD1);
+          bytes.setShort(pos + 1, x);
+          pos += 3;
+        } else {
+          bytes.setByte(pos, 0xD2);
+          bytes.setInt(pos + 1, x);
+          pos += 5;
+        }
+      }
+    }
+
+    private void writeString(String x) {
+      int slength = x.length(), length = 0;
+      for (int ii = 0; ii < slength; ii++) {
+        char c = x.charAt(ii);
+        if (c < 0x80) {
+          length += 1;
+        } else if (c < 0x800) {
+          length += 2;
+        } else if (isSurrogatePair(x, ii)) {
+          length += 4;
+          ii++;
+        } else {
+          length += 3;
+        }
+      }
+
+      ensure(5 + length);
+      if (length < 32) {
+        bytes.setByte(pos++, 0xA0 | length);
+      } else if (length < 0x100) {
+        bytes.setByte(pos, 0xD9);
+        bytes.setByte(pos + 1, length);
+        pos += 2;
+      } else if (length < 0x10000) {
+        bytes.setByte(pos, 0xDA);
+        bytes.setShort(pos + 1, length);
+        pos += 3;
+      } else {
+        bytes.setByte(pos, 0xDB);
+        bytes.setInt(pos + 1, length);
+        pos += 5;
+      }
+
+      for (int ii = 0; ii < slength; ii++) {
+        int c = x.charAt(ii);
+        if (c < 0x80) {
+          bytes.setByte(pos++, c);
+        } else if (c < 0x800) {
+          bytes.setByte(pos++, 0xC0 | (c >> 6));
+          bytes.setByte(pos++, 0x80 | (c & 0x3F));
+        } else if (isSurrogatePair(x, ii)) {
+          c = 0x10000 + ((c - 0xD800) << 10) + (x.charAt(++ii) - 0xDC00);
+          bytes.setByte(pos++, 0xF0 | (c >> 18));
+          bytes.setByte(pos++, 0x80 | ((c >> 12) & 0x3F));
+          bytes.setByte(pos++, 0x80 | ((c >> 6) & 0x3F));
+          bytes.setByte(pos++, 0x80 | (c & 0x3F));
+        } else {
+          bytes.setByte(pos++, 0xE0 | (c >> 12));
+          bytes.setByte(pos++, 0x80 | ((c >> 6) & 0x3F));
+          bytes.setByte(pos++, 0x80 | (c & 0x3F));
+        }
+      }
+    }
+  }
+
+  protected static class BinaryObject implements Json.Object {
+    // beyond this many keys, we look keys up via a hash map rather than a linear search
+    private static final int MAX_LINEAR_KEYS = 8;
+
+    private final Bytes bytes;
+    private final int start;
+    private final String[] keys;
+    private final int[] values;
+    // entries are read as they are first needed, so that looking up a nested value does not skip
+    // over the whole of every container that encloses it
+    private int indexed;
+    private Map<String, Integer> index;
+
+    BinaryObject(Bytes bytes, int pos) {
+      this.bytes = bytes;
+      int count = containerCount(bytes, pos);
+      keys = new String[count];
+      values = new int[count];
+      start = containerStart(bytes, pos);
+      if (count > MAX_LINEAR_KEYS) {
+        index = new HashMap<String, Integer>();
+      }
+    }
+
+    public boolean getBoolean(String key) {
+      int pos = find(key);
+      return (pos >= 0) && readBoolean(bytes, pos);
+    }
+
+    public int getInt(String key) {
+      int pos = find(key);
+      return (pos < 0) ? 0 : readInt(bytes, pos);
+    }
+
+    public double getNumber(String key) {
+      int pos = find(key);
+      return (pos < 0) ? 0 : readNumber(bytes, pos);
+    }
+
+    public String getString(String key) {
+      int pos = find(key);
+      return (pos < 0) ? null : readString(bytes, pos);
+    }
+
+    public Json.Object getObject(String key) {
+      int pos = find(key);
+      return (pos >= 0 && isMap(bytes.getByte(pos))) ? new BinaryObject(bytes, pos) : null;
+    }
+
+    public Json.Array getArray(String key) {
+      int pos = find(key);
+      return (pos >= 0 && isArray(bytes.getByte(pos))) ? new BinaryArray(bytes, pos) : null;
+    }
+
+    public <T> Json.TypedArray<T> getArray(String key, Class<T> valueType) {
+      return arrayBuilder.build(getArray(key), valueType);
+    }
+
+    public boolean containsKey(String key) {
+      return find(key) >= 0;
+    }
+
+    public Json.TypedArray<String> getKeys() {
+      return new Json.TypedArray<String>() {
+        @Override
+        public int length() {
+          return keys.length;
+        }
+        @Override
+        protected String getImpl(int index) {
+          while (indexed <= index) {
+            indexNext();
+          }
+          return keys[index];
+        }
+      };
+    }
+
+    private int find(String key) {
+      if (index != null) {
+        Integer pos = index.get(key);
+        if (pos != null) {
+          return pos;
+        }
+        // otherwise it may be among the entries not yet read
+        while (indexed < keys.length) {
+          indexNext();
+          if (keys[indexed - 1].equals(key)) {
+            return values[indexed - 1];
+          }
+        }
+        return -1;
+      }
+      for (int ii = 0; ii < keys.length; ii++) {
+        if (ii == indexed) {
+          indexNext();
+        }
+        if (keys[ii].equals(key)) {
+          return values[ii];
+        }
+      }
+      return -1;
+    }
+
+    // reads the key of the next entry, and the position of its value
+    private void indexNext() {
+      // the previous value is skipped only now, as it may have been the one sought
+      int pos = (indexed == 0) ? start : skip(bytes, values[indexed - 1]);
+      String key = readString(bytes, pos);
+      keys[indexed] = key;
+      values[indexed] = skip(bytes, pos);
+      if (index != null && !index.containsKey(key)) {
+        index.put(key, values[indexed]);
+      }
+      indexed++;
+    }
+  }
+
+  protected static class BinaryArray implements Json.Array {
+    private final Bytes bytes;
+    private final int[] values;
+    // as with objects, the positions of values are found as they are first needed
+    private int indexed;
+
+    BinaryArray(Bytes bytes, int pos) {
+      this.bytes = bytes;
+      values = new int[containerCount(bytes, pos)];
+      if (values.length > 0) {
+        values[0] = containerStart(bytes, pos);
+        indexed = 1;
+      }
+    }
+
+    public int length() {
+      return values.length;
+    }
+
+    public boolean getBoolean(int index) {
+      return inBounds(index) && readBoolean(bytes, position(index));
+    }
+
+    public int getInt(int index) {
+      return inBounds(index) ? readInt(bytes, position(index)) : 0;
+    }
+
+    public double getNumber(int index) {
+      return inBounds(index) ? readNumber(bytes, position(index)) : 0;
+    }
+
+    public String getString(int index) {
+      return inBounds(index) ? readString(bytes, position(index)) : null;
+    }
+
+    public Json.Object getObject(int index) {
+      return (inBounds(index) && isMap(bytes.getByte(position(index)))) ?
+        new BinaryObject(bytes, position(index)) : null;
+    }
+
+    public Json.Array getArray(int index) {
+      return (inBounds(index) && isArray(bytes.getByte(position(index)))) ?
+        new BinaryArray(bytes, position(index)) : null;
+    }
+
+    public <T> Json.TypedArray<T> getArray(int index, Class<T> valueType) {
+      return arrayBuilder.build(getArray(index), valueType);
+    }
+
+    private boolean inBounds(int index) {
+      return index >= 0 && index < values.length;
+    }
+
+    private int position(int index) {
+      for (; indexed <= index; indexed++) {
+        values[indexed] = skip(bytes, values[indexed - 1]);
+      }
+      return values[index];
+    }
+  }
+
+  private static boolean isMap(int type) {
+    return (type >= 0x80 && type <= 0x8F) || type == 0xDE || type == 0xDF;
+  }
+
+  private static boolean isArray(int type) {
+    return (type >= 0x90 && type <= 0x9F) || type == 0xDC || type == 0xDD;
+  }
+
+  private static boolean isSurrogatePair(String x, int index) {
+    char c = x.charAt(index);
+    return c >= 0xD800 && c < 0xDC00 && index + 1 < x.length() &&
+      x.charAt(index + 1) >= 0xDC00 && x.charAt(index + 1) < 0xE000;
+  }
+
+  // returns the number of entries in the map or array at pos
+  private static int containerCount(Bytes bytes, int pos) {
+    int type = bytes.getByte(pos);
+    if (type <= 0x9F) return type & 0xF;
+    if (type == 0xDC || type == 0xDE) return bytes.getShort(pos + 1) & 0xFFFF;
+    return bytes.getInt(pos + 1);
+  }
+
+  // returns the position of the first entry in the map or array at pos
+  private static int containerStart(Bytes bytes, int pos) {
+    int type = bytes.getByte(pos);
+    if (type <= 0x9F) return pos + 1;
+    return (type == 0xDC || type == 0xDE) ? pos + 3 : pos + 5;
+  }
+
+  // returns the position just past the value at pos
+  private static int skip(Bytes bytes, int pos) {
+    int type = bytes.getByte(pos);
+    if (type < 0x80 || type >= 0xE0) return pos + 1;
+    if (type <= 0x9F) {
+      int count = containerCount(bytes, pos) * (isMap(type) ? 2 : 1);
+      pos = containerStart(bytes, pos);
+      for (int ii = 0; ii < count; ii++) pos = skip(bytes, pos);
+      return pos;
+    }
+    if (type <= 0xBF) return pos + 1 + (type & 0x1F);
+    switch (type) {
+    case 0xC0: case 0xC2: case 0xC3: return pos + 1;
+    case 0xCC: case 0xD0: return pos + 2;
+    case 0xCD: case 0xD1: return pos + 3;
+    case 0xCA: case 0xCE: case 0xD2: return pos + 5;
+    case 0xCB: case 0xCF: case 0xD3: return pos + 9;
+    case 0xD4: return pos + 3;
+    case 0xD5: return pos + 4;
+    case 0xD6: return pos + 6;
+    case 0xD7: return pos + 10;
+    case 0xD8: return pos + 18;
+    case 0xC4: case 0xD9: return pos + 2 + bytes.getByte(pos + 1);
+    case 0xC5: case 0xDA: return pos + 3 + (bytes.getShort(pos + 1) & 0xFFFF);
+    case 0xC6: case 0xDB: return pos + 5 + bytes.getInt(pos + 1);
+    case 0xC7: return pos + 3 + bytes.getByte(pos + 1);
+    case 0xC8: return pos + 4 + (bytes.getShort(pos + 1) & 0xFFFF);
+    case 0xC9: return pos + 6 + bytes.getInt(pos + 1);
+    case 0xDC: case 0xDD: case 0xDE: case 0xDF: {
+      int count = containerCount(bytes, pos) * (isMap(type) ? 2 : 1);
+      pos = containerStart(bytes, pos);
+      for (int ii = 0; ii < count; ii++) pos = skip(bytes, pos);
+      return pos;
+    }
+    default:
+      throw new IllegalArgumentException("Invalid type " + type + " at " + pos);
+    }
+  }
+
+  private static boolean readBoolean(Bytes bytes, int pos) {
+    return bytes.getByte(pos) == 0xC3;
+  }
+
+  private static int readInt(Bytes bytes, int pos) {
+    int type = bytes.getByte(pos);
+    if (type < 0x80) return type;
+    if (type >= 0xE0) return type - 0x100;
+    switch (type) {
+    case 0xCC: return bytes.getByte(pos + 1);
+    case 0xCD: return bytes.getShort(pos + 1) & 0xFFFF;
+    case 0xCE: case 0xD2: return bytes.getInt(pos + 1);
+    case 0xD0: return (byte) bytes.getByte(pos + 1);
+    case 0xD1: return bytes.getShort(pos + 1);
+    default: return (int) readNumber(bytes, pos);
+    }
+  }
+
+  private static double readNumber(Bytes bytes, int pos) {
+    int type = bytes.getByte(pos);
+    switch (type) {
+    case 0xCA: return bytes.getFloat(pos + 1);
+    case 0xCB: return bytes.getDouble(pos + 1);
+    case 0xCE: {
+      int value = bytes.getInt(pos + 1);
+      return (value < 0) ? value + 4294967296d : value;
+    }
+    case 0xCF: case 0xD3: {
+      int hi = bytes.getInt(pos + 1), lo = bytes.getInt(pos + 5);
+      double high = (type == 0xCF && hi < 0) ? hi + 4294967296d : hi;
+      return high * 4294967296d + ((lo < 0) ? lo + 4294967296d : lo);
+    }
+    default:
+      if (type < 0x80 || type >= 0xE0 || (type >= 0xCC && type <= 0xD2)) {
+        return readInt(bytes, pos);
+      }
+      return 0;
+    }
+  }
+
+  private static String readString(Bytes bytes, int pos) {
+    int type = bytes.getByte(pos), length;
+    if (type >= 0xA0 && type <= 0xBF) {
+      length = type & 0x1F;
+      pos += 1;
+    } else if (type == 0xD9) {
+      length = bytes.getByte(pos + 1);
+      pos += 2;
+    } else if (type == 0xDA) {
+      length = bytes.getShort(pos + 1) & 0xFFFF;
+      pos += 3;
+    } else if (type == 0xDB) {
+      length = bytes.getInt(pos + 1);
+      pos += 5;
+    } else {
+      return null;
+    }
+
+    char[] chars = new char[length];
+    int count = 0;
+    for (int end = pos + length; pos < end; ) {
+      int b = bytes.getByte(pos++);
+      if (b < 0x80) {
+        chars[count++] = (char) b;
+      } else if (b < 0xE0) {
+        chars[count++] = (char) (((b & 0x1F) << 6) | (bytes.getByte(pos++) & 0x3F));
+      } else if (b < 0xF0) {
+        int c = ((b & 0x0F) << 12) | ((bytes.getByte(pos) & 0x3F) << 6) |
+          (bytes.getByte(pos + 1) & 0x3F);
+        chars[count++] = (char) c;
+        pos += 2;
+      } else {
+        int c = ((b & 0x07) << 18) | ((bytes.getByte(pos) & 0x3F) << 12) |
+          ((bytes.getByte(pos + 1) & 0x3F) << 6) | (bytes.getByte(pos + 2) & 0x3F);
+        c -= 0x10000;
+        chars[count++] = (char) (0xD800 + (c >> 10));
+        chars[count++] = (char) (0xDC00 + (c & 0x3FF));
+        pos += 3;
+      }
+    }
+    return new String(chars, 0, count);
+  }
+
+  private static TypedArrayBuilder<Json.Array> arrayBuilder = new TypedArrayBuilder<Json.Array>() {
+    public int length(Json.Array array) {
+      return array.length();
+    }
+    public Json.Object getObject(Json.Array array, int index) {
+      return array.getObject(index);
+    }
+    public Boolean getBoolean(Json.Array array, int index) {
+      return array.getBoolean(index);
+    }
+    public Integer getInt(Json.Array array, int index) {
+      return array.getInt(index);
+    }
+    public Double getNumber(Json.Array array, int index) {
+      return array.getNumber(index);
+    }
+    public String getString(Json.Array array, int index) {
+      return array.getString(index);
+    }
+  };
+
+  private static final String BASE64 =
+    "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/";
+}
@@ -3,32 +3,113 @@ package playn.core;
 import java.util.HashMap;
 import java.util.Map;
 
+import playn.core.util.WeightedCache;
+
+/**
+ * An asset manager that caches the images and sounds it loads. Images are held in a {@link
+ * WeightedCache}, weighed by the memory their pixels occupy, and are evicted once the cache
+ * exceeds its budget (unless they are pinned, via {@link #pinImage}). Sounds are few and their
+ * size can't be determined, so they are simply retained.
+ */
 public abstract class AbstractCachingAssetManager extends AbstractAssetManager {
 
-  Map<String, Object> cache = new HashMap<String, Object>();
+  /** The default budget for cached images, in bytes. */
+  public static final int DEFAULT_IMAGE_BUDGET = 64 * 1024 * 1024;
+
+  private final WeightedCache<String, Image> images = new WeightedCache<String, Image>(
+    DEFAULT_IMAGE_BUDGET, new WeightedCache.Weigher<String, Image>() {
+      public int weigh(String path, Image image) {
+        return AbstractCachingAssetManager.this.weigh(image);
+      }
+    }) {
+    @Override
+    protected void evicted(String path, Image image) {
+      paths.remove(image);
+    }
+  };
+
+  // maps cached images back to their paths, so that they can be pinned
+  private final Map<Image, String> paths = new HashMap<Image, String>();
+
+  private final Map<String, Sound> sounds = new HashMap<String, Sound>();
+
+  /**
+   * Returns the image cache, via which its budget may be configured and its hit, miss and
+   * eviction counts obtained.
+   */
+  public WeightedCache<String, Image> imageCache() {
+    return images;
+  }
+
+  /**
+   * Prevents the supplied image from being evicted from the cache until it is unpinned. Pins are
+   * counted, so each call must be balanced by a call to {@link #unpinImage}. This has no effect
+   * on images that are not cached.
+   */
+  public void pinImage(Image image) {
+    String path = paths.get(image);
+    if (path != null) {
+      images.pin(path);
+    }
+  }
+
+  /**
+   * Releases a pin obtained via {@link #pinImage}.
+   */
+  public void unpinImage(Image image) {
+    String path = paths.get(image);
+    if (path != null) {
+      images.unpin(path);
+    }
+  }
 
   @Override
   protected final Image doGetImage(String path) {
-    Object object = null;
-    if ((object = cache.get(path)) == null) {
-      object = loadImage(path);
-      cache.put(path, object);
+    Image image = images.get(path);
+    if (image == null) {
+      image = loadImage(path);
+      Image old = images.put(path, image);
+      if (old != null) {
+        paths.remove(old);
+      }
+      if (images.containsKey(path)) {
+        paths.put(image, path);
+      }
+      if (!image.isReady()) {
+        final String fpath = path;
+        image.addCallback(new ResourceCallback<Image>() {
+          @Override
+          public void done(Image resource) {
+            // we only know the image's size now that it's loaded
+            images.reweigh(fpath);
+          }
+          @Override
+          public void error(Throwable err) {
+          }
+        });
+      }
     }
-
-    return (Image) object;
+    return image;
   }
 
   protected abstract Image loadImage(String path);
 
+  /**
+   * Returns the number of bytes occupied by the supplied image, for the purposes of the image
+   * cache. By default this assumes four bytes per pixel.
+   */
+  protected int weigh(Image image) {
+    return image.width() * image.height() * 4;
+  }
+
   @Override
   protected final Sound doGetSound(String path) {
-    Object object = null;
-    if ((object = cache.get(path)) == null) {
-      object = loadSound(path);
-      cache.put(path, object);
+    Sound sound = sounds.get(path);
+    if (sound == null) {
+      sound = loadSound(path);
+      sounds.put(path, sound);
     }
-
-    return (Sound) object;
+    return sound;
   }
 
   protected abstract Sound loadSound(String path);
@@ -13,6 +13,7 @@
  */
 package playn.core;
 
+import pythagoras.f.Point;
 import pythagoras.f.Transform;
 
 import playn.core.Layer;
@@ -26,7 +27,9 @@ public abstract class AbstractLayer implements Layer {
   protected static enum Flag {
     DESTROYED(1 << 0),
     VISIBLE(1 << 1),
-    SHOWN(1 << 2); // used by HtmlLayerDom
+    SHOWN(1 << 2), // used by HtmlLayerDom
+    DIRTY(1 << 3), // set when a property affecting this layer's appearance changes
+    WORLD_DIRTY(1 << 4); // set when this layer's transform, origin, alpha or parent changes
 
     public final int bitmask;
 
@@ -43,10 +46,21 @@ public abstract class AbstractLayer implements Layer {
   protected float depth;
   protected int flags;
 
+  /** This layer's transform concatenated with those of its ancestors (see {@link #updateWorld}). */
+  protected InternalTransform worldTransform;
+  /** This layer's alpha multiplied by those of its ancestors (see {@link #updateWorld}). */
+  protected float worldAlpha;
+  /** Incremented every time {@link #worldTransform} and {@link #worldAlpha} are recomputed. */
+  protected int worldVersion;
+  // the version of our parent's world state from which ours was last computed
+  private int parentWorldVersion;
+
   protected AbstractLayer() {
     transform = createTransform();
     alpha = 1;
     setFlag(Flag.VISIBLE, true);
+    setFlag(Flag.DIRTY, true);
+    setFlag(Flag.WORLD_DIRTY, true);
   }
 
   @Override
@@ -70,6 +84,7 @@ public abstract class AbstractLayer implements Layer {
   @Override
   public void setVisible(boolean visible) {
     setFlag(Flag.VISIBLE, visible);
+    setFlag(Flag.DIRTY, true);
   }
 
   @Override
@@ -86,6 +101,8 @@ public abstract class AbstractLayer implements Layer {
     } else {
       this.alpha = alpha;
     }
+    setFlag(Flag.DIRTY, true);
+    setFlag(Flag.WORLD_DIRTY, true);
   }
 
   @Override
@@ -102,6 +119,9 @@ public abstract class AbstractLayer implements Layer {
   public void setOrigin(float x, float y) {
     this.originX = x;
     this.originY = y;
+    setFlag(Flag.DIRTY, true);
+    setFlag(Flag.WORLD_DIRTY, true);
+    boundsChanged();
   }
 
   @Override
@@ -114,6 +134,7 @@ public abstract class AbstractLayer implements Layer {
     float oldDepth = this.depth;
     if (depth != oldDepth) {
       this.depth = depth;
+      setFlag(Flag.DIRTY, true);
       if (parent != null) {
         ((ParentLayer)parent).depthChanged(this, oldDepth);
       }
@@ -123,27 +144,51 @@ public abstract class AbstractLayer implements Layer {
   @Override
   public void setRotation(float angle) {
     transform.setRotation(angle);
+    setFlag(Flag.DIRTY, true);
+    setFlag(Flag.WORLD_DIRTY, true);
+    boundsChanged();
   }
 
   @Override
   public void setScale(float s) {
     Asserts.checkArgument(s != 0, "Scale must be non-zero");
     transform.setUniformScale(s);
+    setFlag(Flag.DIRTY, true);
+    setFlag(Flag.WORLD_DIRTY, true);
+    boundsChanged();
   }
 
   @Override
   public void setScale(float x, float y) {
     Asserts.checkArgument(x != 0 && y != 0, "Scale must be non-zero (got x=%s, y=%s)", x, y);
     transform.setScale(x, y);
+    setFlag(Flag.DIRTY, true);
+    setFlag(Flag.WORLD_DIRTY, true);
+    boundsChanged();
   }
 
   @Override
   public void setTranslation(float x, float y) {
     transform.setTranslation(x, y);
+    setFlag(Flag.DIRTY, true);
+    setFlag(Flag.WORLD_DIRTY, true);
+    boundsChanged();
   }
 
   @Override
   public Transform transform() {
+    // the caller may modify the returned transform, so we must assume that it changes
+    setFlag(Flag.WORLD_DIRTY, true);
+    boundsChanged();
+    return transform;
+  }
+
+  /**
+   * Returns this layer's transform without assuming that the caller will change it, so that
+   * reading it does not invalidate the cached world transforms. The returned transform must not be
+   * modified.
+   */
+  Transform localTransform() {
     return transform;
   }
 
@@ -161,6 +206,114 @@ public abstract class AbstractLayer implements Layer {
 
   public void setParent(GroupLayer parent) {
     this.parent = parent;
+    setFlag(Flag.DIRTY, true);
+    setFlag(Flag.WORLD_DIRTY, true);
+  }
+
+  @Override
+  public Layer hitTest(float x, float y) {
+    if (!visible()) {
+      return null;
+    }
+    Point p = worldTransform().inverseTransform(new Point(x, y), new Point());
+    return hitTestLocal(p.x, p.y) ? this : null;
+  }
+
+  /**
+   * Returns true if the supplied point, in this layer's coordinates, lies within this layer. By
+   * default layers with a size contain the points within their bounds, and other layers contain
+   * no points.
+   */
+  protected boolean hitTestLocal(float x, float y) {
+    if (!hasBounds()) {
+      return false;
+    }
+    HasSize sized = (HasSize) this;
+    return x >= 0 && y >= 0 && x <= sized.width() && y <= sized.height();
+  }
+
+  /**
+   * Returns true if this layer currently has a size, against which it can be hit tested.
+   */
+  boolean hasBounds() {
+    if (!(this instanceof HasSize) ||
+        (this instanceof ImageLayer && ((ImageLayer) this).image() == null)) {
+      return false;
+    }
+    HasSize sized = (HasSize) this;
+    return sized.width() > 0 && sized.height() > 0;
+  }
+
+  /**
+   * Notifies our parent that this layer's bounds in its coordinates have changed (because this
+   * layer was moved or resized), so that it can update any index of its children.
+   */
+  protected void boundsChanged() {
+    if (parent instanceof ParentLayer) {
+      ((ParentLayer) parent).childBoundsChanged(this);
+    }
+  }
+
+  /**
+   * Returns this layer's transform concatenated with those of its ancestors, recomputing it (and
+   * those of its ancestors) only if something has changed since it was last computed. The returned
+   * transform must not be modified.
+   */
+  public InternalTransform worldTransform() {
+    validateWorld();
+    return worldTransform;
+  }
+
+  /**
+   * Returns this layer's alpha multiplied by those of its ancestors. See {@link #worldTransform}.
+   */
+  public float worldAlpha() {
+    validateWorld();
+    return worldAlpha;
+  }
+
+  /**
+   * Brings the world state of this layer and its ancestors up to date.
+   */
+  protected void validateWorld() {
+    AbstractLayer parent = (AbstractLayer) this.parent;
+    if (parent == null) {
+      updateWorld(null, 1, 0);
+    } else {
+      parent.validateWorld();
+      updateWorld(parent.worldTransform, parent.worldAlpha, parent.worldVersion);
+    }
+  }
+
+  /**
+   * Recomputes {@link #worldTransform} and {@link #worldAlpha} from our parent's world state, if
+   * this layer has changed since they were last computed or {@code parentVersion} differs from the
+   * parent's {@link #worldVersion} from which they were computed. Renderers call this during
+   * traversal (once the parent is up to date) so that layers which have not moved cost no matrix
+   * math.
+   *
+   * @param parentTransform the parent's world transform, or null if this layer is a root.
+   * @return true if the world state was recomputed.
+   */
+  protected boolean updateWorld(InternalTransform parentTransform, float parentAlpha,
+                                int parentVersion) {
+    if (!isSet(Flag.WORLD_DIRTY) && parentVersion == parentWorldVersion && worldTransform != null) {
+      return false;
+    }
+    if (worldTransform == null) {
+      worldTransform = createTransform();
+    }
+    if (parentTransform == null) {
+      worldTransform.setTransform(1, 0, 0, 1, 0, 0);
+    } else {
+      worldTransform.set(parentTransform);
+    }
+    worldTransform.concatenate(transform, originX, originY);
+    worldAlpha = parentAlpha * alpha;
+    parentWorldVersion = parentVersion;
+    worldVersion++;
+    setFlag(Flag.WORLD_DIRTY, false);
+    return true;
   }
 
   protected boolean isSet(Flag flag) {
@@ -21,6 +21,17 @@ package playn.core;
  */
 public interface AssetManager {
 
+  /**
+   * The urgency of an asset request, used by platforms that load assets in the background to
+   * decide which to load first.
+   */
+  enum Priority {
+    /** The asset is needed right away, for example because it's visible on screen. */
+    IMMEDIATE,
+    /** The asset is being loaded ahead of time, and may wait for more urgent requests. */
+    PREFETCH
+  }
+
   /**
    * Return an Image, given a path to the image resource.
    *
@@ -29,6 +40,17 @@ public interface AssetManager {
    */
   Image getImage(String path);
 
+  /**
+   * Return an Image, given a path to the image resource and the urgency with which it is needed.
+   * Requests for an image that is already being loaded share that load, raising its priority if
+   * need be.
+   *
+   * @param path a path to the resource
+   * @param priority the urgency of the request
+   * @return the image
+   */
+  Image getImage(String path, Priority priority);
+
   /**
    * Return a Sound, given a path to the sound resource.
    *
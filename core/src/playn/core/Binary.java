@@ -0,0 +1,68 @@
+/**
+ * Copyright 2011 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package playn.core;
+
+/**
+ * PlayN binary serialization interface. Data is written and read with the same interfaces as
+ * {@link Json}, so code that serializes state via a {@link Json.Writer} and restores it from a
+ * {@link Json.Object} can use either format, but the binary format is several times more compact
+ * and much cheaper to produce and parse, since numbers are stored as binary values rather than as
+ * decimal text.
+ *
+ * <p> The format is <a href="http://msgpack.org/">MessagePack</a>. Because {@link Storage} and
+ * {@link Net} move strings, the encoded bytes are transported in base64. </p>
+ */
+public interface Binary {
+
+  /**
+   * A writer for serializing data to the binary format.
+   */
+  interface Writer extends Json.Writer {
+
+    // these narrow the return types so that calls can be chained through value(float)
+    Writer key(String key);
+    Writer value(boolean x);
+    Writer value(int x);
+    Writer value(double x);
+    Writer value(String x);
+    Writer object();
+    Writer endObject();
+    Writer array();
+    Writer endArray();
+
+    /**
+     * Writes a single precision float value. This takes five bytes, rather than the nine needed
+     * for a double that can't be represented exactly as a float.
+     */
+    Writer value(float x);
+
+    /**
+     * Serializes the data written to this writer, encoded in base64. The writer may be reused
+     * after this call.
+     */
+    String write();
+  }
+
+  /**
+   * Creates a new {@link Writer}, which can be used to serialize data into the binary format.
+   */
+  Writer newWriter();
+
+  /**
+   * Parses the given base64 encoded data, as produced by {@link Writer#write}, whose top-level
+   * value must be an object, into an {@link Json.Object} that can be dynamically introspected.
+   * Values are decoded on demand from the binary data as they are requested.
+   */
+  Json.Object parse(String data);
+}
@@ -49,7 +49,7 @@ public class Events {
     // TODO(mdb): a mechanism to determine which modifier keys are pressed, if any
 
     abstract class Impl implements Input {
-      private final double time;
+      private double time;
       private boolean preventDefault; // default false
 
       @Override
@@ -61,6 +61,15 @@ public class Events {
         this.time = time;
       }
 
+      /**
+       * Reinitializes this event, so that it may be reused for a new event rather than a new
+       * instance being created. See {@link InputQueue}.
+       */
+      protected void reset(double time) {
+        this.time = time;
+        this.preventDefault = false;
+      }
+
       @Override
       public void setPreventDefault(boolean preventDefault) {
         this.preventDefault = preventDefault;
@@ -101,8 +110,18 @@ public class Events {
      */
     float y();
 
+    /**
+     * Returns the topmost layer under this event's position, as determined by {@link
+     * Layer#hitTest} on the root layer, or null if no layer is under it. The layer is looked up
+     * when first requested (and then remembered), so events whose targets are not needed cost
+     * nothing extra.
+     */
+    Layer hit();
+
     abstract class Impl extends Input.Impl implements Position {
-      private final float x, y;
+      private float x, y;
+      private Layer hit;
+      private boolean hitTested;
 
       @Override
       public float x() {
@@ -114,12 +133,29 @@ public class Events {
         return y;
       }
 
+      @Override
+      public Layer hit() {
+        if (!hitTested) {
+          hit = PlayN.graphics().rootLayer().hitTest(x, y);
+          hitTested = true;
+        }
+        return hit;
+      }
+
       protected Impl(double time, float x, float y) {
         super(time);
         this.x = x;
         this.y = y;
       }
 
+      protected void reset(double time, float x, float y) {
+        reset(time);
+        this.x = x;
+        this.y = y;
+        hit = null;
+        hitTested = false;
+      }
+
       @Override
       protected String name() {
         return "Events.Position";
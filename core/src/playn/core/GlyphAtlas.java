@@ -0,0 +1,256 @@
+/**
+ * Copyright 2011 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package playn.core;
+
+import static playn.core.PlayN.graphics;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import pythagoras.i.Rectangle;
+
+import playn.core.util.SkylinePacker;
+
+/**
+ * Draws single lines of text from glyphs that are rendered once, in a particular {@link
+ * TextFormat}, and packed into a few shared pages. Text that changes often (scores, timers, chat)
+ * can thus be redrawn by copying regions of those pages, which on GL surfaces means drawing a
+ * textured quad per glyph, rather than laying out the text, rendering it into a new canvas and
+ * uploading that to a texture whenever it changes.
+ *
+ * <pre>{@code
+ * GlyphAtlas digits = new GlyphAtlas(new TextFormat().withFont(font));
+ * digits.prepare("0123456789");
+ * // in paint:
+ * digits.draw(surface, String.valueOf(score), 10, 10);
+ * }</pre>
+ *
+ * <p> Glyphs are placed according to their advance widths, without kerning, ligatures or
+ * bidirectional reordering, so the results may differ slightly from those of {@link
+ * Graphics#layoutText}; this is best suited to short labels in simple scripts. Each {@code char}
+ * is treated as a glyph, so characters outside the Basic Multilingual Plane are not supported.
+ * The format's wrap width and alignment are ignored. </p>
+ */
+public class GlyphAtlas {
+
+  /** The default width and height of an atlas page. */
+  public static final int DEFAULT_PAGE_SIZE = 256;
+
+  // a glyph whose width is measured between two of these, to obtain the advance of the glyph
+  // regardless of whether the platform measures text by its advance or its visual bounds
+  private static final String SENTINEL = "|";
+
+  /** A glyph, and its location in an atlas page. */
+  protected static class Glyph {
+    /** The page that contains the glyph, or null if it has no visible pixels. */
+    public final CanvasImage page;
+    /** The bounds of the glyph in its page. */
+    public final int x, y, width, height;
+    /** The offset from the pen position at which to draw the glyph. */
+    public final float offset;
+    /** The distance the pen advances after drawing the glyph. */
+    public final float advance;
+
+    public Glyph(CanvasImage page, int x, int y, int width, int height, float offset,
+                 float advance) {
+      this.page = page;
+      this.x = x;
+      this.y = y;
+      this.width = width;
+      this.height = height;
+      this.offset = offset;
+      this.advance = advance;
+    }
+  }
+
+  protected final TextFormat format;
+  protected final int pageWidth, pageHeight;
+  protected final List<Page> pages = new ArrayList<Page>();
+  protected final Map<Character, Glyph> glyphs = new HashMap<Character, Glyph>();
+
+  // the width and height of a line of text, computed lazily so that an atlas may be created
+  // before the platform is ready
+  private float sentinelWidth = -1, height;
+
+  /**
+   * Creates an atlas for glyphs in the specified format, with {@link #DEFAULT_PAGE_SIZE} square
+   * pages.
+   */
+  public GlyphAtlas(TextFormat format) {
+    this(format, DEFAULT_PAGE_SIZE, DEFAULT_PAGE_SIZE);
+  }
+
+  /**
+   * Creates an atlas for glyphs in the specified format, with pages of the specified size.
+   */
+  public GlyphAtlas(TextFormat format, int pageWidth, int pageHeight) {
+    Asserts.checkArgument(pageWidth > 0 && pageHeight > 0, "Page size must be > 0");
+    this.format = format.withWrapping(Float.MAX_VALUE, TextFormat.Alignment.LEFT);
+    this.pageWidth = pageWidth;
+    this.pageHeight = pageHeight;
+  }
+
+  /**
+   * Returns the format in which this atlas renders its glyphs.
+   */
+  public TextFormat format() {
+    return format;
+  }
+
+  /**
+   * Renders the glyphs for the supplied characters now, if they have not been already. Otherwise
+   * glyphs are rendered as they are first drawn or measured.
+   */
+  public void prepare(String chars) {
+    for (int ii = 0, ll = chars.length(); ii < ll; ii++) {
+      glyph(chars.charAt(ii));
+    }
+  }
+
+  /**
+   * Returns the width of the supplied text, when drawn by this atlas.
+   */
+  public float width(String text) {
+    float width = 0;
+    for (int ii = 0, ll = text.length(); ii < ll; ii++) {
+      width += glyph(text.charAt(ii)).advance;
+    }
+    return width;
+  }
+
+  /**
+   * Returns the height of a line of text drawn by this atlas.
+   */
+  public float height() {
+    measure();
+    return height;
+  }
+
+  /**
+   * Draws the supplied text with its upper left at the specified location.
+   */
+  public void draw(Surface surface, String text, float x, float y) {
+    for (int ii = 0, ll = text.length(); ii < ll; ii++) {
+      Glyph glyph = glyph(text.charAt(ii));
+      if (glyph.page != null) {
+        // snap to whole pixels, so that glyphs are copied from their pages without filtering
+        surface.drawImage(glyph.page, Math.round(x + glyph.offset), Math.round(y),
+                          glyph.width, glyph.height, glyph.x, glyph.y, glyph.width, glyph.height);
+      }
+      x += glyph.advance;
+    }
+  }
+
+  /**
+   * Draws the supplied text with its upper left at the specified location.
+   */
+  public void draw(Canvas canvas, String text, float x, float y) {
+    for (int ii = 0, ll = text.length(); ii < ll; ii++) {
+      Glyph glyph = glyph(text.charAt(ii));
+      if (glyph.page != null) {
+        canvas.drawImage(glyph.page, Math.round(x + glyph.offset), Math.round(y),
+                         glyph.width, glyph.height, glyph.x, glyph.y, glyph.width, glyph.height);
+      }
+      x += glyph.advance;
+    }
+  }
+
+  /**
+   * Returns the number of glyphs this atlas has rendered.
+   */
+  public int glyphCount() {
+    return glyphs.size();
+  }
+
+  /**
+   * Returns the number of pages this atlas has created.
+   */
+  public int pageCount() {
+    return pages.size();
+  }
+
+  protected Glyph glyph(char c) {
+    Glyph glyph = glyphs.get(c);
+    if (glyph == null) {
+      glyphs.put(c, glyph = render(c));
+    }
+    return glyph;
+  }
+
+  protected Glyph render(char c) {
+    measure();
+    String text = String.valueOf(c);
+    TextLayout layout = graphics().layoutText(text, format);
+    float advance = graphics().layoutText(SENTINEL + text + SENTINEL, format).width() -
+      sentinelWidth;
+    // the layout may span only the glyph's visible pixels, rather than its advance, in which case
+    // we centre those pixels in the advance, which approximates the glyph's side bearings
+    float extra = format.effect.adjustWidth(0);
+    float offset = (advance - (layout.width() - extra)) / 2 - inset(format.effect);
+    int w = (int)Math.ceil(layout.width()), h = (int)Math.ceil(layout.height());
+    if (layout.width() <= extra || h == 0) {
+      return new Glyph(null, 0, 0, 0, 0, offset, advance); // whitespace
+    }
+
+    Rectangle rect = null;
+    Page page = null;
+    for (int ii = 0, ll = pages.size(); ii < ll && rect == null; ii++) {
+      page = pages.get(ii);
+      rect = page.packer.pack(w + 1, h + 1);
+    }
+    if (rect == null) {
+      // a glyph too large for a page gets a page of its own
+      int pw = Math.max(pageWidth, w + 1), ph = Math.max(pageHeight, h + 1);
+      page = new Page(graphics().createImage(pw, ph), new SkylinePacker(pw, ph));
+      pages.add(page);
+      rect = page.packer.pack(w + 1, h + 1);
+    }
+    page.image.canvas().drawText(layout, rect.x, rect.y);
+    return new Glyph(page.image, rect.x, rect.y, w, h, offset, advance);
+  }
+
+  protected void measure() {
+    if (sentinelWidth < 0) {
+      TextLayout layout = graphics().layoutText(SENTINEL + SENTINEL, format);
+      sentinelWidth = layout.width();
+      height = layout.height();
+    }
+  }
+
+  /**
+   * Returns the distance from the left of a layout at which the glyph itself is drawn, given the
+   * space occupied by the specified effect.
+   */
+  protected static float inset(TextFormat.Effect effect) {
+    if (effect instanceof TextFormat.Effect.Shadow) {
+      return Math.max(0, -((TextFormat.Effect.Shadow)effect).shadowOffsetX);
+    } else if (effect instanceof TextFormat.Effect.Outline) {
+      return 1;
+    } else {
+      return 0;
+    }
+  }
+
+  protected static class Page {
+    public final CanvasImage image;
+    public final SkylinePacker packer;
+
+    public Page(CanvasImage image, SkylinePacker packer) {
+      this.image = image;
+      this.packer = packer;
+    }
+  }
+}
@@ -63,4 +63,27 @@ public interface GroupLayer extends Layer {
    * Returns the number of layers in this group.
    */
   int size();
+
+  /**
+   * Configures whether children that lie entirely outside the viewport are skipped when this group
+   * is rendered. Culling is enabled by default; disable it for groups whose children are too
+   * dynamic to benefit, or which draw outside of their reported bounds. Only the immediate
+   * children of this group are affected.
+   */
+  void setCulling(boolean culling);
+
+  /**
+   * Configures a spatial index of this group's children, which makes {@link #hitTest} take time
+   * proportional to the number of children near the point rather than the number of children in
+   * the group. This is worthwhile for groups with many children, such as tile maps. Children are
+   * bucketed into square cells of the specified size (in this group's coordinates), which should
+   * be roughly the size of a typical child. A size of zero (the default) disables the index.
+   */
+  void setHitIndex(float cellSize);
+
+  /**
+   * Returns whether this group culls children that lie outside the viewport. See {@link
+   * #setCulling}.
+   */
+  boolean culling();
 }
@@ -16,40 +16,62 @@
 
 package playn.core;
 
-import java.util.List;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import pythagoras.f.Point;
+
+import playn.core.util.SpatialGrid;
+import playn.core.util.TreapList;
 
 /**
  * Provides implementations for per-platform concrete {@link GroupLayer}s. Because of single
  * inheritance (and lack of traits) we have to delegate this implementation rather than provide an
  * abstract base class.
+ *
+ * <p> Children are kept in a balanced tree, so adding, removing and re-depthing a child are all
+ * O(log n) operations, even in groups with many children at the same depth. </p>
  */
 public class GroupLayerImpl<L extends AbstractLayer>
 {
-  /** This group's children. */
-  public List<L> children = new ArrayList<L>();
+  /** This group's children, in paint order (lowest depth first). */
+  public final List<L> children;
+
+  /** Whether to cull children outside the viewport; see {@link GroupLayer#setCulling}. */
+  public boolean culling = true;
+
+  private final DepthList<L> sorted;
+
+  // indexes our children by their bounds, if enabled (see GroupLayer#setHitIndex)
+  private SpatialGrid<L> hitIndex;
+  // children that have moved since they were indexed, or that have no bounds to index
+  private final Set<L> unindexed = new HashSet<L>();
+
+  public GroupLayerImpl() {
+    children = sorted = new DepthList<L>();
+  }
 
   /**
    * @return the index into the children array at which the layer was inserted (based on depth).
    */
   public int add(GroupLayer self, L child) {
-    // if this child has equal or greater depth to the last child, we can append directly and avoid
-    // a log(N) search; this is helpful when all children have the same depth
-    int count = children.size(), index;
-    if (count == 0 || children.get(count-1).depth() <= child.depth()) {
-      index = count;
-    } else {
-      // otherwise find the appropriate insertion point via binary search
-      index = findInsertion(child.depth());
-    }
-
     // remove the child from any existing parent, preventing multiple parents
     if (child.parent() != null) {
       child.parent().remove(child);
     }
+    // children with equal depth are painted in the order in which they were added
+    int index = sorted.insertionIndex(child.depth());
     children.add(index, child);
     child.setParent(self);
     child.onAdd();
+    if (hitIndex != null) {
+      unindexed.add(child);
+    }
     return index;
   }
 
@@ -62,10 +84,13 @@ public class GroupLayerImpl<L extends AbstractLayer>
     children.add(index, child);
     child.setParent(self);
     child.onAdd();
+    if (hitIndex != null) {
+      unindexed.add(child);
+    }
   }
 
   public void remove(GroupLayer self, L child) {
-    int index = findChild(child, child.depth());
+    int index = children.indexOf(child);
     if (index < 0) {
       throw new UnsupportedOperationException(
         "Could not remove Layer because it is not a child of the GroupLayer");
@@ -114,73 +139,137 @@ public class GroupLayerImpl<L extends AbstractLayer>
     // making AbstractLayer and ParentLayer more complex than is worth it
     @SuppressWarnings("unchecked") L child = (L)layer;
 
-    // locate the child whose depth changed
-    int oldIndex = findChild(child, oldDepth);
-
     // fast path for depth changes that don't change ordering
     float newDepth = child.depth();
-    boolean leftCorrect = (oldIndex == 0 || children.get(oldIndex-1).depth() <= newDepth);
-    boolean rightCorrect = (oldIndex == children.size()-1 ||
-                            children.get(oldIndex+1).depth() >= newDepth);
-    if (leftCorrect && rightCorrect) {
-      return oldIndex;
+    if (sorted.isOrdered(child, newDepth)) {
+      return children.indexOf(child);
     }
 
-    // it would be great if we could move an element from one place in an ArrayList to another
-    // (portably), but instead we have to remove and re-add
-    children.remove(oldIndex);
-    int newIndex = findInsertion(newDepth);
+    children.remove(child);
+    int newIndex = sorted.insertionIndex(newDepth);
     children.add(newIndex, child);
     return newIndex;
   }
 
-  private void remove(int index) {
-    L child = children.remove(index);
-    child.onRemove();
-    child.setParent(null);
+  /**
+   * Configures our spatial index. See {@link GroupLayer#setHitIndex}.
+   */
+  public void setHitIndex(float cellSize) {
+    Asserts.checkArgument(cellSize >= 0, "Cell size must be >= 0");
+    unindexed.clear();
+    if (cellSize == 0) {
+      hitIndex = null;
+    } else {
+      hitIndex = new SpatialGrid<L>(cellSize);
+      unindexed.addAll(children);
+    }
+  }
+
+  public void childBoundsChanged(GroupLayer self, Layer layer) {
+    if (hitIndex != null) {
+      @SuppressWarnings("unchecked") L child = (L)layer;
+      hitIndex.remove(child);
+      unindexed.add(child);
+    }
   }
 
-  // uses depth to improve upon a full linear search
-  private int findChild(L child, float depth) {
-    // findInsertion will find us some element with the same depth as the to-be-removed child
-    int startIdx = findInsertion(depth);
-    // search down for our child
-    for (int ii = startIdx-1; ii >= 0; ii--) {
-      L c = children.get(ii);
-      if (c == child) {
-        return ii;
+  /**
+   * Returns the topmost layer in {@code self} (or its descendants) that contains the supplied
+   * screen coordinates. See {@link Layer#hitTest}.
+   */
+  public Layer hitTest(AbstractLayer self, float x, float y) {
+    if (!self.visible()) {
+      return null;
+    }
+    if (hitIndex == null) {
+      for (Iterator<L> it = sorted.descendingIterator(); it.hasNext(); ) {
+        Layer hit = it.next().hitTest(x, y);
+        if (hit != null) {
+          return hit;
+        }
       }
-      if (c.depth() != depth) {
-        break;
+      return null;
+    }
+
+    // index any children that have moved, or that have acquired a size since we last looked
+    for (Iterator<L> it = unindexed.iterator(); it.hasNext(); ) {
+      L child = it.next();
+      if (child.hasBounds()) {
+        indexChild(child);
+        it.remove();
       }
     }
-    // search up for our child
-    for (int ii = startIdx, ll = children.size(); ii < ll; ii++) {
-      L c = children.get(ii);
-      if (c == child) {
-        return ii;
+
+    // the candidates are those indexed near the point, plus those we couldn't index; test them
+    // topmost first
+    Point p = self.worldTransform().inverseTransform(new Point(x, y), new Point());
+    List<L> candidates = new ArrayList<L>(unindexed);
+    hitIndex.query(p.x, p.y, candidates);
+    Collections.sort(candidates, new Comparator<L>() {
+      public int compare(L a, L b) {
+        return children.indexOf(b) - children.indexOf(a);
       }
-      if (c.depth() != depth) {
-        break;
+    });
+    for (L child : candidates) {
+      Layer hit = child.hitTest(x, y);
+      if (hit != null) {
+        return hit;
       }
     }
-    return -1;
-  }
-
-  // who says you never have to write binary search?
-  private int findInsertion(float depth) {
-    int low = 0, high = children.size()-1;
-    while (low <= high) {
-      int mid = (low + high) >>> 1;
-      float midDepth = children.get(mid).depth();
-      if (depth > midDepth) {
-        low = mid + 1;
-      } else if (depth < midDepth) {
-        high = mid - 1;
-      } else {
-        return mid;
+    return null;
+  }
+
+  // adds the supplied child to our index using its bounds in our coordinate system
+  private void indexChild(L child) {
+    Layer.HasSize sized = (Layer.HasSize) child;
+    float w = sized.width(), h = sized.height();
+    InternalTransform xf = child.transform;
+    // the child maps a point p to t + M(p - origin)
+    float tx = xf.tx() - xf.m00() * child.originX - xf.m10() * child.originY;
+    float ty = xf.ty() - xf.m01() * child.originX - xf.m11() * child.originY;
+    float ax = xf.m00() * w, ay = xf.m01() * w, bx = xf.m10() * h, by = xf.m11() * h;
+    hitIndex.put(child,
+                 tx + Math.min(0, ax) + Math.min(0, bx), ty + Math.min(0, ay) + Math.min(0, by),
+                 tx + Math.max(0, ax) + Math.max(0, bx), ty + Math.max(0, ay) + Math.max(0, by));
+  }
+
+  private void remove(int index) {
+    L child = children.remove(index);
+    if (hitIndex != null) {
+      hitIndex.remove(child);
+      unindexed.remove(child);
+    }
+    child.onRemove();
+    child.setParent(null);
+  }
+
+  /** Our children list, which can search by depth in O(log n) time. */
+  protected static class DepthList<L extends AbstractLayer> extends TreapList<L> {
+    /**
+     * Returns the index just past the last child whose depth is less than or equal to {@code
+     * depth}.
+     */
+    public int insertionIndex(float depth) {
+      int index = 0;
+      for (Node<L> node = root; node != null; ) {
+        if (node.value.depth() <= depth) {
+          index += size(node.left) + 1;
+          node = node.right;
+        } else {
+          node = node.left;
+        }
       }
+      return index;
+    }
+
+    /**
+     * Returns true if {@code child} would remain correctly ordered relative to its neighbors if
+     * its depth were {@code depth}.
+     */
+    public boolean isOrdered(L child, float depth) {
+      Node<L> node = nodes.get(child);
+      return (node.prev == null || node.prev.value.depth() <= depth) &&
+        (node.next == null || node.next.value.depth() >= depth);
     }
-    return low;
   }
 }
@@ -0,0 +1,279 @@
+/**
+ * Copyright 2011 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package playn.core;
+
+import static playn.core.PlayN.assetManager;
+import static playn.core.PlayN.graphics;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import pythagoras.i.Rectangle;
+
+import playn.core.util.SkylinePacker;
+
+/**
+ * Packs many small images into a few large pages, so that the layers that display them share a
+ * handful of textures rather than each binding their own. Images are packed at runtime as they
+ * finish loading; alternatively, an atlas packed offline (see {@code playn.java.AtlasTool}) can be
+ * registered via {@link #addPacked}.
+ *
+ * <pre>{@code
+ * ImageAtlas atlas = new ImageAtlas();
+ * ImageLayer layer = atlas.add("images/ship.png").createLayer();
+ * }</pre>
+ */
+public class ImageAtlas {
+
+  /** The default width and height of an atlas page. */
+  public static final int DEFAULT_PAGE_SIZE = 1024;
+
+  /**
+   * A region of an atlas page (or, for images that could not be packed, an entire standalone
+   * image).
+   */
+  public static class Region {
+    private Image image;
+    private int x, y, width, height;
+    private List<ImageLayer> pending;
+
+    /**
+     * Returns the image that contains this region, or null if the source image has not yet loaded.
+     */
+    public Image image() {
+      return image;
+    }
+
+    /** Returns the x offset of this region in {@link #image}. */
+    public int x() {
+      return x;
+    }
+
+    /** Returns the y offset of this region in {@link #image}. */
+    public int y() {
+      return y;
+    }
+
+    /** Returns the width of this region. */
+    public int width() {
+      return width;
+    }
+
+    /** Returns the height of this region. */
+    public int height() {
+      return height;
+    }
+
+    /**
+     * Returns true if this region has been resolved to an image and may be drawn.
+     */
+    public boolean isReady() {
+      return image != null;
+    }
+
+    /**
+     * Configures the supplied layer to display this region. If the region is not yet ready, the
+     * layer will be configured once it is.
+     */
+    public void applyTo(ImageLayer layer) {
+      if (isReady()) {
+        configure(layer);
+      } else {
+        if (pending == null) {
+          pending = new ArrayList<ImageLayer>();
+        }
+        pending.add(layer);
+      }
+    }
+
+    /**
+     * Creates an image layer that displays this region.
+     */
+    public ImageLayer createLayer() {
+      ImageLayer layer = graphics().createImageLayer();
+      applyTo(layer);
+      return layer;
+    }
+
+    void resolve(Image image, int x, int y, int width, int height) {
+      this.image = image;
+      this.x = x;
+      this.y = y;
+      this.width = width;
+      this.height = height;
+      if (pending != null) {
+        for (ImageLayer layer : pending) {
+          configure(layer);
+        }
+        pending = null;
+      }
+    }
+
+    protected void configure(ImageLayer layer) {
+      layer.setImage(image);
+      layer.setSourceRect(x, y, width, height);
+      layer.setSize(width, height);
+    }
+  }
+
+  protected final int pageWidth, pageHeight, padding;
+  protected final List<Page> pages = new ArrayList<Page>();
+  protected final Map<String, Region> regions = new HashMap<String, Region>();
+
+  /**
+   * Creates an atlas with {@link #DEFAULT_PAGE_SIZE} square pages and one pixel of padding between
+   * packed images.
+   */
+  public ImageAtlas() {
+    this(DEFAULT_PAGE_SIZE, DEFAULT_PAGE_SIZE, 1);
+  }
+
+  /**
+   * Creates an atlas with the specified page dimensions and padding between packed images. Images
+   * larger than half a page in either dimension are not packed; their regions refer to the
+   * original image.
+   */
+  public ImageAtlas(int pageWidth, int pageHeight, int padding) {
+    Asserts.checkArgument(pageWidth > 0 && pageHeight > 0, "Page size must be > 0");
+    Asserts.checkArgument(padding >= 0, "Padding must be >= 0");
+    this.pageWidth = pageWidth;
+    this.pageHeight = pageHeight;
+    this.padding = padding;
+  }
+
+  /**
+   * Loads the image at the specified path via the {@link AssetManager} and packs it into this
+   * atlas once it has loaded. Repeated calls with the same path return the same region.
+   */
+  public Region add(String path) {
+    Region region = regions.get(path);
+    if (region == null) {
+      regions.put(path, region = add(assetManager().getImage(path)));
+    }
+    return region;
+  }
+
+  /**
+   * Packs the supplied image into this atlas once it has loaded.
+   */
+  public Region add(Image image) {
+    final Region region = new Region();
+    image.addCallback(new ResourceCallback<Image>() {
+      @Override
+      public void done(Image image) {
+        pack(region, image);
+      }
+
+      @Override
+      public void error(Throwable err) {
+        PlayN.log().warn("Failed to load image for atlas", err);
+      }
+    });
+    return region;
+  }
+
+  /**
+   * Returns the region previously registered for the specified path via {@link #add(String)} or
+   * {@link #addPacked}, or null.
+   */
+  public Region get(String path) {
+    return regions.get(path);
+  }
+
+  /**
+   * Registers the regions of an atlas that was packed offline. The index has the form:
+   *
+   * <pre>{@code
+   * { "pages": [ { "image": "atlas-0.png",
+   *                "regions": { "images/ship.png": { "x": 0, "y": 0, "w": 32, "h": 32 }, ... } },
+   *              ... ] }
+   * }</pre>
+   *
+   * Page images are loaded via the {@link AssetManager} relative to {@code pathPrefix} (which
+   * should generally be the directory that contains the index).
+   */
+  public void addPacked(Json.Object index, String pathPrefix) {
+    for (Json.Object page : index.getArray("pages", Json.Object.class)) {
+      Image image = assetManager().getImage(pathPrefix + page.getString("image"));
+      Json.Object pregions = page.getObject("regions");
+      for (String path : pregions.getKeys()) {
+        Json.Object bounds = pregions.getObject(path);
+        regions.put(path, addPacked(image, bounds.getInt("x"), bounds.getInt("y"),
+                                    bounds.getInt("w"), bounds.getInt("h")));
+      }
+    }
+  }
+
+  /**
+   * Returns the number of pages this atlas has created for runtime packing.
+   */
+  public int pageCount() {
+    return pages.size();
+  }
+
+  protected Region addPacked(Image page, final int x, final int y, final int w, final int h) {
+    final Region region = new Region();
+    page.addCallback(new ResourceCallback<Image>() {
+      @Override
+      public void done(Image page) {
+        region.resolve(page, x, y, w, h);
+      }
+
+      @Override
+      public void error(Throwable err) {
+        PlayN.log().warn("Failed to load atlas page", err);
+      }
+    });
+    return region;
+  }
+
+  protected void pack(Region region, Image image) {
+    int w = image.width(), h = image.height();
+    int pw = w + 2 * padding, ph = h + 2 * padding;
+    // large images gain little from sharing a page and waste a lot of space doing so
+    if (pw > pageWidth / 2 || ph > pageHeight / 2) {
+      region.resolve(image, 0, 0, w, h);
+      return;
+    }
+
+    Rectangle rect = null;
+    Page page = null;
+    for (int ii = 0, ll = pages.size(); ii < ll && rect == null; ii++) {
+      page = pages.get(ii);
+      rect = page.packer.pack(pw, ph);
+    }
+    if (rect == null) {
+      page = new Page(graphics().createImage(pageWidth, pageHeight),
+                      new SkylinePacker(pageWidth, pageHeight));
+      pages.add(page);
+      rect = page.packer.pack(pw, ph);
+    }
+
+    int x = rect.x + padding, y = rect.y + padding;
+    page.image.canvas().drawImage(image, x, y);
+    region.resolve(page.image, x, y, w, h);
+  }
+
+  protected static class Page {
+    public final CanvasImage image;
+    public final SkylinePacker packer;
+
+    public Page(CanvasImage image, SkylinePacker packer) {
+      this.image = image;
+      this.packer = packer;
+    }
+  }
+}
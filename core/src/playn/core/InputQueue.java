@@ -0,0 +1,308 @@
+/**
+ * Copyright 2011 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package playn.core;
+
+/**
+ * Queues mouse, pointer and keyboard events as they arrive from the platform, and delivers them to
+ * the game's listeners at a defined point in each frame (before {@link Game#update}), rather than
+ * whenever the platform happens to report them.
+ *
+ * <p> Events are recorded in a ring buffer of primitive arrays, and delivered via a single,
+ * reused event instance of each type, so a flood of input allocates nothing. Consequently,
+ * listeners must not retain the events they are passed once they return. Because the platform has
+ * finished with its native event by the time it is delivered, {@link
+ * Events.Input#setPreventDefault} has no effect on queued events. </p>
+ *
+ * <p> Consecutive mouse moves (and pointer drags) may be coalesced, so that only the latest
+ * position is delivered; this is enabled by default. Moves and drags, which some platforms report
+ * in alternation, are coalesced separately, so that neither interrupts a run of the other. </p>
+ *
+ * <p> Events may be posted from a different thread than that which delivers them. </p>
+ */
+public class InputQueue {
+
+  /** The initial number of events that may be queued before the buffer must be enlarged. */
+  public static final int DEFAULT_CAPACITY = 64;
+
+  // the types of event
+  private static final int MOUSE_DOWN = 0, MOUSE_UP = 1, MOUSE_MOVE = 2, MOUSE_WHEEL = 3;
+  private static final int POINTER_START = 4, POINTER_DRAG = 5, POINTER_END = 6;
+  private static final int KEY_DOWN = 7, KEY_UP = 8;
+
+  // the queued events: the ring buffer occupies [head, head+size) modulo the capacity
+  private int[] types;
+  private double[] times, arrivals;
+  private float[] xs, ys;
+  private int[] codes;
+  private int head, size;
+  private boolean coalesceMoves = true;
+  private int coalesced;
+  // the slots of the queued mouse move and pointer drag into which later ones may be merged, or
+  // -1; a move may be merged across drags (and vice versa), but not across any other event
+  private int lastMove = -1, lastDrag = -1;
+
+  private Mouse.Listener mouseListener;
+  private Pointer.Listener pointerListener;
+  private Keyboard.Listener keyboardListener;
+
+  // the event instances via which events are delivered
+  private final Mouse.ButtonEvent.Impl buttonEvent = new Mouse.ButtonEvent.Impl(0, 0, 0, 0);
+  private final Mouse.MotionEvent.Impl motionEvent = new Mouse.MotionEvent.Impl(0, 0, 0);
+  private final Mouse.WheelEvent.Impl wheelEvent = new Mouse.WheelEvent.Impl(0, 0);
+  private final Pointer.Event.Impl pointerEvent = new Pointer.Event.Impl(0, 0, 0);
+  private final Keyboard.Event.Impl keyEvent = new Keyboard.Event.Impl(0, 0);
+
+  public InputQueue() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  public InputQueue(int capacity) {
+    Asserts.checkArgument(capacity > 0, "Capacity must be > 0");
+    allocate(capacity);
+  }
+
+  /**
+   * Configures whether consecutive mouse moves and pointer drags are coalesced into a single
+   * event.
+   */
+  public void setCoalesceMoves(boolean coalesceMoves) {
+    this.coalesceMoves = coalesceMoves;
+  }
+
+  public void setMouseListener(Mouse.Listener listener) {
+    mouseListener = listener;
+  }
+
+  public void setPointerListener(Pointer.Listener listener) {
+    pointerListener = listener;
+  }
+
+  public void setKeyboardListener(Keyboard.Listener listener) {
+    keyboardListener = listener;
+  }
+
+  /**
+   * Returns the number of events waiting to be delivered.
+   */
+  public synchronized int size() {
+    return size;
+  }
+
+  public void mouseDown(double time, float x, float y, int button) {
+    post(MOUSE_DOWN, time, x, y, button);
+  }
+
+  public void mouseUp(double time, float x, float y, int button) {
+    post(MOUSE_UP, time, x, y, button);
+  }
+
+  public void mouseMove(double time, float x, float y) {
+    post(MOUSE_MOVE, time, x, y, 0);
+  }
+
+  public void mouseWheel(double time, float velocity) {
+    post(MOUSE_WHEEL, time, velocity, 0, 0);
+  }
+
+  public void pointerStart(double time, float x, float y) {
+    post(POINTER_START, time, x, y, 0);
+  }
+
+  public void pointerDrag(double time, float x, float y) {
+    post(POINTER_DRAG, time, x, y, 0);
+  }
+
+  public void pointerEnd(double time, float x, float y) {
+    post(POINTER_END, time, x, y, 0);
+  }
+
+  public void keyDown(double time, int keyCode) {
+    post(KEY_DOWN, time, 0, 0, keyCode);
+  }
+
+  public void keyUp(double time, int keyCode) {
+    post(KEY_UP, time, 0, 0, keyCode);
+  }
+
+  /**
+   * Delivers the events queued so far to the listeners, and reports their latency to the supplied
+   * stats. Events posted during delivery are left for the next call. This is called by the
+   * platform once per frame, before the game is updated.
+   *
+   * @param now the current time, in the same timebase as the times of the posted events.
+   */
+  public void dispatch(double now, Stats stats) {
+    int count, merged;
+    synchronized (this) {
+      count = size;
+      merged = coalesced;
+      coalesced = 0;
+    }
+    int delivered = 0;
+    for (; delivered < count; delivered++) {
+      int type, code;
+      double time, arrival;
+      float x, y;
+      synchronized (this) {
+        if (size == 0) {
+          break; // we were cleared by a listener
+        }
+        type = types[head];
+        time = times[head];
+        arrival = arrivals[head];
+        x = xs[head];
+        y = ys[head];
+        code = codes[head];
+        if (head == lastMove) {
+          lastMove = -1;
+        } else if (head == lastDrag) {
+          lastDrag = -1;
+        }
+        head = (head + 1) % types.length;
+        size--;
+      }
+      stats.addInputLatency((float) (now - arrival));
+      deliver(type, time, x, y, code);
+    }
+    stats.add(Stats.Count.INPUT_EVENTS, delivered);
+    stats.add(Stats.Count.INPUT_COALESCED, merged);
+  }
+
+  /**
+   * Discards any queued events.
+   */
+  public synchronized void clear() {
+    head = size = coalesced = 0;
+    lastMove = lastDrag = -1;
+  }
+
+  private void deliver(int type, double time, float x, float y, int code) {
+    switch (type) {
+    case MOUSE_DOWN:
+    case MOUSE_UP:
+      if (mouseListener != null) {
+        buttonEvent.reset(time, x, y, code);
+        if (type == MOUSE_DOWN) {
+          mouseListener.onMouseDown(buttonEvent);
+        } else {
+          mouseListener.onMouseUp(buttonEvent);
+        }
+      }
+      break;
+
+    case MOUSE_MOVE:
+      if (mouseListener != null) {
+        motionEvent.reset(time, x, y);
+        mouseListener.onMouseMove(motionEvent);
+      }
+      break;
+
+    case MOUSE_WHEEL:
+      if (mouseListener != null) {
+        wheelEvent.reset(time, x);
+        mouseListener.onMouseWheelScroll(wheelEvent);
+      }
+      break;
+
+    case POINTER_START:
+    case POINTER_DRAG:
+    case POINTER_END:
+      if (pointerListener != null) {
+        pointerEvent.reset(time, x, y);
+        if (type == POINTER_START) {
+          pointerListener.onPointerStart(pointerEvent);
+        } else if (type == POINTER_DRAG) {
+          pointerListener.onPointerDrag(pointerEvent);
+        } else {
+          pointerListener.onPointerEnd(pointerEvent);
+        }
+      }
+      break;
+
+    case KEY_DOWN:
+    case KEY_UP:
+      if (keyboardListener != null) {
+        keyEvent.reset(time, code);
+        if (type == KEY_DOWN) {
+          keyboardListener.onKeyDown(keyEvent);
+        } else {
+          keyboardListener.onKeyUp(keyEvent);
+        }
+      }
+      break;
+    }
+  }
+
+  private synchronized void post(int type, double time, float x, float y, int code) {
+    int last = (type == MOUSE_MOVE) ? lastMove : (type == POINTER_DRAG) ? lastDrag : -1;
+    if (last >= 0 && coalesceMoves) {
+      // keep the time at which the first of the merged events arrived, for latency reporting
+      times[last] = time;
+      xs[last] = x;
+      ys[last] = y;
+      coalesced++;
+      return;
+    }
+    if (size == types.length) {
+      // rather than drop events (and perhaps leave a key or button stuck down), enlarge the buffer
+      grow();
+    }
+    int tail = (head + size) % types.length;
+    types[tail] = type;
+    times[tail] = arrivals[tail] = time;
+    xs[tail] = x;
+    ys[tail] = y;
+    codes[tail] = code;
+    size++;
+    if (type == MOUSE_MOVE) {
+      lastMove = tail;
+    } else if (type == POINTER_DRAG) {
+      lastDrag = tail;
+    } else {
+      lastMove = lastDrag = -1;
+    }
+  }
+
+  private void grow() {
+    int[] otypes = types, ocodes = codes;
+    double[] otimes = times, oarrivals = arrivals;
+    float[] oxs = xs, oys = ys;
+    allocate(otypes.length * 2);
+    for (int ii = 0; ii < size; ii++) {
+      int idx = (head + ii) % otypes.length;
+      types[ii] = otypes[idx];
+      times[ii] = otimes[idx];
+      arrivals[ii] = oarrivals[idx];
+      xs[ii] = oxs[idx];
+      ys[ii] = oys[idx];
+      codes[ii] = ocodes[idx];
+    }
+    if (lastMove >= 0) {
+      lastMove = (lastMove - head + otypes.length) % otypes.length;
+    }
+    if (lastDrag >= 0) {
+      lastDrag = (lastDrag - head + otypes.length) % otypes.length;
+    }
+    head = 0;
+  }
+
+  private void allocate(int capacity) {
+    types = new int[capacity];
+    times = new double[capacity];
+    arrivals = new double[capacity];
+    xs = new float[capacity];
+    ys = new float[capacity];
+    codes = new int[capacity];
+  }
+}
@@ -77,6 +77,95 @@ public interface Json {
     String write();
   }
 
+  /**
+   * The kinds of token produced by a {@link Reader}.
+   */
+  enum Token {
+    BEGIN_OBJECT, END_OBJECT, BEGIN_ARRAY, END_ARRAY, KEY, STRING, NUMBER, BOOLEAN, NULL,
+    END_DOCUMENT
+  }
+
+  /**
+   * A cursor over the tokens of a JSON document. Unlike {@link Json#parse}, a reader does not
+   * build the document in memory: it reads the document one token at a time, and values are read
+   * from the current token via primitive getters, so large documents can be read with little
+   * garbage.
+   *
+   * <code>
+   * Json.Reader r = json.newReader(text);
+   * r.next(); // BEGIN_OBJECT
+   * while (r.next() == Json.Token.KEY) {
+   *   if (r.keyEquals("x")) { r.next(); x = r.getNumber(); }
+   *   else { r.next(); r.skip(); }
+   * }
+   * </code>
+   */
+  interface Reader {
+
+    /**
+     * Advances to the next token and returns its type. Once the document has been read, this
+     * returns {@link Token#END_DOCUMENT}.
+     *
+     * @throws RuntimeException if the document is malformed.
+     */
+    Token next();
+
+    /**
+     * Returns the type of the current token, or <code>null</code> if {@link #next} has not yet
+     * been called.
+     */
+    Token token();
+
+    /**
+     * Returns the number of objects and arrays that enclose the current token. A {@link
+     * Token#BEGIN_OBJECT} or {@link Token#BEGIN_ARRAY} token counts the container it begins, while
+     * the matching end token does not.
+     */
+    int depth();
+
+    /**
+     * If the current token begins an object or array, advances to the token that ends it. If the
+     * current token is a key, advances past the key's value. Otherwise does nothing.
+     */
+    void skip();
+
+    /**
+     * Returns true if the current token is a key or string equal to the supplied string. This
+     * does not allocate, so it is the cheapest way to dispatch on keys.
+     */
+    boolean keyEquals(String key);
+
+    /**
+     * Returns the current key or string, or the text of the current number or boolean, or
+     * <code>null</code> for other tokens.
+     */
+    String getString();
+
+    /**
+     * Returns the value of the current number (truncated if necessary), or <code>0</code> if the
+     * current token is not a number.
+     */
+    int getInt();
+
+    /**
+     * Returns the value of the current number (truncated if necessary), or <code>0</code> if the
+     * current token is not a number.
+     */
+    long getLong();
+
+    /**
+     * Returns the value of the current number, or <code>0</code> if the current token is not a
+     * number.
+     */
+    double getNumber();
+
+    /**
+     * Returns the value of the current boolean, or <code>false</code> if the current token is not
+     * a boolean.
+     */
+    boolean getBoolean();
+  }
+
   /**
    * A JSON array that assumes all values are of a uniform JSON type.
    */
@@ -298,4 +387,10 @@ public interface Json {
    * Parses the given JSON string into an {@link Object} that can be dynamically introspected.
    */
   Object parse(String json);
+
+  /**
+   * Creates a {@link Reader} over the given JSON string, which reads the document a token at a
+   * time rather than building it in memory.
+   */
+  Reader newReader(String json);
 }
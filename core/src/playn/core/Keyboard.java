@@ -40,6 +40,11 @@ public interface Keyboard {
         this.keyCode = keyCode;
       }
 
+      protected void reset(double time, int keyCode) {
+        reset(time);
+        this.keyCode = keyCode;
+      }
+
       @Override
       protected String name() {
         return "Keyboard.Event";
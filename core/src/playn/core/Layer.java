@@ -172,6 +172,14 @@ public interface Layer {
    */
   void setRotation(float angle);
 
+  /**
+   * Returns the topmost visible layer, out of this layer and its descendants, that contains the
+   * supplied point in screen coordinates, or null if no such layer exists. Layers with a size
+   * contain the points within their bounds; other layers (such as groups) contain no points of
+   * their own.
+   */
+  Layer hitTest(float x, float y);
+
   /**
    * Interface for {@link Layer}s containing explicit sizes.
    */
@@ -234,7 +242,7 @@ public interface Layer {
         }
         into.x -= layer.originX();
         into.y -= layer.originY();
-        layer.transform().transform(into, into);
+        localTransform(layer).transform(into, into);
         layer = layer.parent();
       }
       return into;
@@ -275,7 +283,7 @@ public interface Layer {
      * into {@code into}, which is returned for convenience.
      */
     public static Point parentToLayer(Layer layer, IPoint point, Point into) {
-      into = layer.transform().inverseTransform(point, into);
+      into = localTransform(layer).inverseTransform(point, into);
       into.x += layer.originX();
       into.y += layer.originY();
       return into;
@@ -304,5 +312,11 @@ public interface Layer {
           point.x() >= 0 &&  point.y() >= 0 &&
           point.x() <= layer.width() && point.y() <= layer.height());
     }
+
+    // conversions only read the transform, so they must not invalidate cached world transforms
+    private static Transform localTransform(Layer layer) {
+      return (layer instanceof AbstractLayer) ? ((AbstractLayer) layer).localTransform() :
+        layer.transform();
+    }
   }
 }
@@ -50,6 +50,11 @@ public interface Mouse {
         this.button = button;
       }
 
+      protected void reset(double time, float x, float y, int button) {
+        reset(time, x, y);
+        this.button = button;
+      }
+
       @Override
       protected String name() {
         return "ButtonEvent";
@@ -100,6 +105,11 @@ public interface Mouse {
         this.velocity = velocity;
       }
 
+      protected void reset(double time, float velocity) {
+        reset(time);
+        this.velocity = velocity;
+      }
+
       @Override
       protected String name() {
         return "WheelEvent";
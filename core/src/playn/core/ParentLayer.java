@@ -26,4 +26,9 @@ public interface ParentLayer {
    * Called by a {@link Layer} when its depth changes.
    */
   void depthChanged(Layer layer, float oldDepth);
+
+  /**
+   * Called by a {@link Layer} when it moves or changes size.
+   */
+  void childBoundsChanged(Layer layer);
 }
@@ -29,6 +29,8 @@ public interface Platform {
 
   Json json();
 
+  Binary binary();
+
   Keyboard keyboard();
 
   Log log();
@@ -45,6 +47,8 @@ public interface Platform {
 
   Analytics analytics();
 
+  Stats stats();
+
   float random();
 
   void run(Game game);
@@ -64,6 +64,13 @@ public class PlayN {
     return platform.assetManager();
   }
 
+  /**
+   * Gets the {@link Stats} collector for the current platform.
+   */
+  public static Stats stats() {
+    return platform.stats();
+  }
+
   /**
    * Gets the {@link Json} interface.
    */
@@ -71,6 +78,13 @@ public class PlayN {
     return platform.json();
   }
 
+  /**
+   * Gets the {@link Binary} interface.
+   */
+  public static Binary binary() {
+    return platform.binary();
+  }
+
   /**
    * Gets the {@link Keyboard} input interface.
    */
@@ -0,0 +1,307 @@
+/**
+ * Copyright 2011 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package playn.core;
+
+import static playn.core.PlayN.graphics;
+
+import java.util.Arrays;
+
+/**
+ * Collects per-frame timing and rendering statistics. Each platform reports into the instance
+ * returned by {@link PlayN#stats}; games can inspect the recent history of any measurement, or
+ * display a summary via {@link #createOverlay}.
+ *
+ * <p> Statistics are only collected while enabled (see {@link #setEnabled}), so that the hooks
+ * cost next to nothing otherwise. </p>
+ */
+public class Stats {
+
+  /** The phases of a frame whose durations are recorded. */
+  public static enum Phase {
+    /** Time spent delivering queued input events (see {@link InputQueue}). */
+    INPUT,
+    /** Time spent in (all calls to) {@link Game#update} during the frame. */
+    UPDATE,
+    /** Time spent in {@link Game#paint}. */
+    PAINT,
+    /** Time spent traversing and rendering the layer tree. */
+    LAYERS,
+    /** Total time from the start of one frame to the start of the next. */
+    FRAME
+  }
+
+  /** The events that are counted during each frame. */
+  public static enum Count {
+    /** Batches flushed to the GPU (i.e. draw calls). */
+    FLUSHES,
+    /** Images uploaded into textures. */
+    TEXTURE_UPLOADS,
+    /** Layers visited while traversing the layer tree. */
+    LAYERS_VISITED,
+    /** Layers that actually drew something. */
+    LAYERS_DRAWN,
+    /** Input events delivered from an {@link InputQueue}. */
+    INPUT_EVENTS,
+    /** Input events that were merged into the preceding event rather than being delivered. */
+    INPUT_COALESCED
+  }
+
+  /**
+   * A fixed size ring buffer of samples, from which summary statistics can be computed.
+   */
+  public static class Histogram {
+    private final float[] samples;
+    private int size, next;
+    private float[] sorted;
+
+    public Histogram(int capacity) {
+      Asserts.checkArgument(capacity > 0, "Capacity must be > 0");
+      samples = new float[capacity];
+    }
+
+    /** Adds a sample, overwriting the oldest sample if the buffer is full. */
+    public void add(float sample) {
+      samples[next] = sample;
+      next = (next + 1) % samples.length;
+      if (size < samples.length) {
+        size++;
+      }
+      sorted = null;
+    }
+
+    /** Returns the number of samples in the buffer. */
+    public int size() {
+      return size;
+    }
+
+    /** Returns the most recently added sample, or zero if the buffer is empty. */
+    public float last() {
+      return (size == 0) ? 0 : samples[(next + samples.length - 1) % samples.length];
+    }
+
+    /** Returns the mean of the buffered samples, or zero if the buffer is empty. */
+    public float mean() {
+      if (size == 0) {
+        return 0;
+      }
+      float total = 0;
+      for (int ii = 0; ii < size; ii++) {
+        total += samples[ii];
+      }
+      return total / size;
+    }
+
+    /** Returns the largest buffered sample, or zero if the buffer is empty. */
+    public float max() {
+      return percentile(1);
+    }
+
+    /**
+     * Returns the smallest sample that is greater than or equal to the specified fraction (between
+     * 0 and 1) of the buffered samples, or zero if the buffer is empty.
+     */
+    public float percentile(float fraction) {
+      if (size == 0) {
+        return 0;
+      }
+      if (sorted == null) {
+        sorted = new float[size];
+        System.arraycopy(samples, 0, sorted, 0, size);
+        Arrays.sort(sorted);
+      }
+      int index = (int) Math.ceil(fraction * size) - 1;
+      return sorted[Math.max(0, Math.min(size - 1, index))];
+    }
+
+    /** Discards all buffered samples. */
+    public void clear() {
+      size = next = 0;
+      sorted = null;
+    }
+  }
+
+  /** The number of frames of history retained by default. */
+  public static final int DEFAULT_HISTORY = 120;
+
+  // the number of frames between refreshes of the overlay
+  private static final int OVERLAY_INTERVAL = 30;
+  private static final int OVERLAY_LINE_HEIGHT = 14;
+
+  private final Histogram[] times = new Histogram[Phase.values().length];
+  private final Histogram[] counts = new Histogram[Count.values().length];
+  private final float[] frameTimes = new float[Phase.values().length];
+  private final int[] frameCounts = new int[Count.values().length];
+  private final Histogram inputLatency;
+  private float frameInputLatency;
+  private boolean enabled;
+  private int frames;
+  private CanvasLayer overlay;
+
+  public Stats() {
+    this(DEFAULT_HISTORY);
+  }
+
+  /**
+   * Creates a stats collector that retains the specified number of frames of history.
+   */
+  public Stats(int history) {
+    for (int ii = 0; ii < times.length; ii++) {
+      times[ii] = new Histogram(history);
+    }
+    for (int ii = 0; ii < counts.length; ii++) {
+      counts[ii] = new Histogram(history);
+    }
+    inputLatency = new Histogram(history);
+  }
+
+  /** Returns whether statistics are being collected. */
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Enables or disables the collection of statistics. Collection is disabled by default.
+   */
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  /**
+   * Records time spent in the specified phase of the current frame.
+   */
+  public void addTime(Phase phase, float millis) {
+    if (enabled) {
+      frameTimes[phase.ordinal()] += millis;
+    }
+  }
+
+  /**
+   * Increments the count of the specified event for the current frame.
+   */
+  public void increment(Count count) {
+    if (enabled) {
+      frameCounts[count.ordinal()]++;
+    }
+  }
+
+  /**
+   * Adds to the count of the specified event for the current frame.
+   */
+  public void add(Count count, int amount) {
+    if (enabled) {
+      frameCounts[count.ordinal()] += amount;
+    }
+  }
+
+  /**
+   * Records the delay between an input event occurring and its being delivered to the game. The
+   * longest delay in each frame is retained.
+   */
+  public void addInputLatency(float millis) {
+    if (enabled) {
+      frameInputLatency = Math.max(frameInputLatency, millis);
+    }
+  }
+
+  /**
+   * Completes the current frame, adding its measurements to the history. Called by the platform
+   * once per frame, after the layers have been rendered.
+   */
+  public void endFrame() {
+    if (!enabled) {
+      return;
+    }
+    for (int ii = 0; ii < times.length; ii++) {
+      times[ii].add(frameTimes[ii]);
+      frameTimes[ii] = 0;
+    }
+    for (int ii = 0; ii < counts.length; ii++) {
+      counts[ii].add(frameCounts[ii]);
+      frameCounts[ii] = 0;
+    }
+    inputLatency.add(frameInputLatency);
+    frameInputLatency = 0;
+    if (overlay != null && ++frames % OVERLAY_INTERVAL == 0) {
+      updateOverlay();
+    }
+  }
+
+  /** Returns the recent history of the durations of the specified phase, in milliseconds. */
+  public Histogram times(Phase phase) {
+    return times[phase.ordinal()];
+  }
+
+  /** Returns the recent history of the per-frame counts of the specified event. */
+  public Histogram counts(Count count) {
+    return counts[count.ordinal()];
+  }
+
+  /**
+   * Returns the recent history of the longest input latency in each frame, in milliseconds. See
+   * {@link #addInputLatency}.
+   */
+  public Histogram inputLatency() {
+    return inputLatency;
+  }
+
+  /**
+   * Returns a short, multi-line summary of the recent statistics.
+   */
+  public String summary() {
+    StringBuilder buf = new StringBuilder();
+    float frame = times(Phase.FRAME).mean();
+    buf.append("fps: ").append(format(frame == 0 ? 0 : 1000 / frame)).append("\n");
+    for (Phase phase : Phase.values()) {
+      Histogram hist = times(phase);
+      buf.append(phase.name().toLowerCase()).append(": ").append(format(hist.mean())).
+        append(" ms (p95 ").append(format(hist.percentile(0.95f))).append(")\n");
+    }
+    for (Count count : Count.values()) {
+      buf.append(count.name().toLowerCase()).append(": ").
+        append(format(counts(count).mean())).append("\n");
+    }
+    buf.append("input latency: ").append(format(inputLatency.mean())).
+      append(" ms (p95 ").append(format(inputLatency.percentile(0.95f))).append(")\n");
+    return buf.toString();
+  }
+
+  /**
+   * Creates a layer that displays {@link #summary} and is refreshed periodically while stats are
+   * enabled. The caller is responsible for adding the layer to the scene graph (generally on top
+   * of everything else).
+   */
+  public CanvasLayer createOverlay() {
+    int lines = 2 + Phase.values().length + Count.values().length;
+    overlay = graphics().createCanvasLayer(200, lines * OVERLAY_LINE_HEIGHT + 4);
+    updateOverlay();
+    return overlay;
+  }
+
+  protected void updateOverlay() {
+    Canvas canvas = overlay.canvas();
+    canvas.clear();
+    canvas.setFillColor(0x80000000);
+    canvas.fillRect(0, 0, canvas.width(), canvas.height());
+    canvas.setFillColor(0xFFFFFFFF);
+    String[] lines = summary().split("\n");
+    for (int ii = 0; ii < lines.length; ii++) {
+      canvas.drawText(lines[ii], 4, (ii + 1) * OVERLAY_LINE_HEIGHT);
+    }
+  }
+
+  // formats a value to one decimal place (String.format is not available in GWT)
+  private static String format(float value) {
+    return String.valueOf(Math.round(value * 10) / 10f);
+  }
+}
@@ -52,4 +52,10 @@ public interface Storage {
    * Returns true if the Storage data will be persistent across restarts.
    */
   public boolean isPersisted();
+
+  /**
+   * Writes any changes that have not yet been written to persistent storage, blocking until they
+   * are. Platforms that write changes as they are made do nothing.
+   */
+  public void flush();
 }
@@ -17,7 +17,7 @@ package playn.core;
 
 /**
  * Contains configuration for laying out and drawing single- or multi-line text to a {@link
- * Canvas}.
+ * Canvas}. Formats are compared by value, so they may be used as (part of) a cache key.
  */
 public class TextFormat {
 
@@ -96,6 +96,22 @@ public class TextFormat {
         return shadowColor;
       }
 
+      @Override
+      public int hashCode() {
+        return shadowColor ^ (int)shadowOffsetX ^ (31 * (int)shadowOffsetY);
+      }
+
+      @Override
+      public boolean equals(Object other) {
+        if (other instanceof Shadow) {
+          Shadow oshadow = (Shadow)other;
+          return shadowColor == oshadow.shadowColor && shadowOffsetX == oshadow.shadowOffsetX &&
+            shadowOffsetY == oshadow.shadowOffsetY;
+        } else {
+          return false;
+        }
+      }
+
       @Override
       public String toString() {
         return "shadow [color=" + Integer.toHexString(shadowColor) +
@@ -125,6 +141,16 @@ public class TextFormat {
         return outlineColor;
       }
 
+      @Override
+      public int hashCode() {
+        return outlineColor;
+      }
+
+      @Override
+      public boolean equals(Object other) {
+        return (other instanceof Outline) && outlineColor == ((Outline)other).outlineColor;
+      }
+
       @Override
       public String toString() {
         return "outline [color=" + Integer.toHexString(outlineColor) + "]";
@@ -216,6 +242,24 @@ public class TextFormat {
     return new TextFormat(this.font, this.wrapWidth, this.align, this.textColor, effect);
   }
 
+  @Override
+  public int hashCode() {
+    return (font == null ? 0 : font.hashCode()) ^ (int)wrapWidth ^
+      align.hashCode() ^ textColor ^ effect.hashCode();
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    if (other instanceof TextFormat) {
+      TextFormat oformat = (TextFormat)other;
+      return (font == null ? oformat.font == null : font.equals(oformat.font)) &&
+        wrapWidth == oformat.wrapWidth && align == oformat.align &&
+        textColor == oformat.textColor && effect.equals(oformat.effect);
+    } else {
+      return false;
+    }
+  }
+
   @Override
   public String toString() {
     String wrapStr = shouldWrap() ? ""+wrapWidth : "n/a";
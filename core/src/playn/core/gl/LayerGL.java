@@ -19,11 +19,64 @@ import playn.core.AbstractLayer;
 import playn.core.InternalTransform;
 
 public abstract class LayerGL extends AbstractLayer {
-  private final InternalTransform savedLocal = createTransform();
 
+  // the transform supplied by the renderer when we were last painted as a root
+  private InternalTransform rootTransform;
+
+  // our world space bounding box, and the world transform version and size it was computed from
+  private float minX, minY, maxX, maxY, boundsWidth, boundsHeight;
+  private int boundsVersion = -1;
+
+  /**
+   * Returns this layer's world transform, given that of its parent. The transform is cached and
+   * only recomputed if this layer or one of its ancestors has changed since the last call, so the
+   * returned transform must not be modified.
+   */
   protected InternalTransform localTransform(InternalTransform parentTransform) {
-    savedLocal.set(parentTransform);
-    return savedLocal.concatenate(transform, originX, originY);
+    LayerGL parent = (LayerGL) parent();
+    if (parent == null) {
+      // renderers paint the root with a constant transform (generally the identity), so we need
+      // only recompute if they start supplying a different one
+      if (parentTransform != rootTransform) {
+        rootTransform = parentTransform;
+        setFlag(Flag.WORLD_DIRTY, true);
+      }
+      updateWorld(parentTransform, 1, 0);
+    } else {
+      updateWorld(parent.worldTransform, parent.worldAlpha, parent.worldVersion);
+    }
+    return worldTransform;
+  }
+
+  /**
+   * Returns true if this layer lies entirely outside the {@code (0, 0, viewWidth, viewHeight)}
+   * viewport, and thus need not be painted. Culling groups call this before painting each child.
+   * Layers without well defined bounds (such as groups) are never culled.
+   */
+  public boolean culled(InternalTransform parentTransform, float viewWidth, float viewHeight) {
+    return false;
+  }
+
+  /**
+   * Implements {@link #culled} for a layer that covers {@code (0, 0, width, height)} in its own
+   * coordinates. The layer's world bounds are only recomputed when it moves or changes size.
+   */
+  protected boolean culled(InternalTransform parentTransform, float width, float height,
+                           float viewWidth, float viewHeight) {
+    InternalTransform xf = localTransform(parentTransform);
+    if (boundsVersion != worldVersion || boundsWidth != width || boundsHeight != height) {
+      float tx = xf.tx(), ty = xf.ty();
+      float ax = xf.m00() * width, ay = xf.m01() * width;
+      float bx = xf.m10() * height, by = xf.m11() * height;
+      minX = tx + Math.min(0, ax) + Math.min(0, bx);
+      maxX = tx + Math.max(0, ax) + Math.max(0, bx);
+      minY = ty + Math.min(0, ay) + Math.min(0, by);
+      maxY = ty + Math.max(0, ay) + Math.max(0, by);
+      boundsVersion = worldVersion;
+      boundsWidth = width;
+      boundsHeight = height;
+    }
+    return maxX <= 0 || maxY <= 0 || minX >= viewWidth || minY >= viewHeight;
   }
 
   public abstract void paint(InternalTransform parentTransform, float parentAlpha);
@@ -0,0 +1,460 @@
+/**
+ * Copyright 2011 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package playn.core.util;
+
+import playn.core.Json;
+
+/**
+ * A pull parser for JSON, shared among platforms. The document is read through a fixed size
+ * buffer, and each token is decoded into a reusable scratch array, so reading a document
+ * allocates nothing beyond the strings that the caller asks for.
+ *
+ * <p> By default the document is read from a string. Subclasses may instead stream it from
+ * elsewhere by overriding {@link #fill}. </p>
+ */
+public class JsonReader implements Json.Reader {
+
+  // the scopes that may enclose the cursor
+  private static final byte EMPTY_DOCUMENT = 0;
+  private static final byte NONEMPTY_DOCUMENT = 1;
+  private static final byte EMPTY_ARRAY = 2;
+  private static final byte NONEMPTY_ARRAY = 3;
+  private static final byte EMPTY_OBJECT = 4;
+  private static final byte DANGLING_KEY = 5;
+  private static final byte NONEMPTY_OBJECT = 6;
+
+  // powers of ten that are exactly representable as doubles
+  private static final double[] POW10 = {
+    1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16,
+    1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+  };
+
+  private static final int BUFFER_SIZE = 8192;
+
+  private final String source;
+  private int sourcePos;
+
+  private final char[] buf = new char[BUFFER_SIZE];
+  private int pos, limit;
+  private int offset; // the offset in the document of buf[0]
+
+  private byte[] scopes = new byte[32];
+  private int top;
+
+  private Json.Token token;
+  private char[] chars = new char[64];
+  private int length;
+  private boolean bool, integral;
+  private long longValue;
+  private double doubleValue;
+
+  /**
+   * Creates a reader over the supplied JSON string.
+   */
+  public JsonReader(String json) {
+    this.source = json;
+    scopes[top++] = EMPTY_DOCUMENT;
+  }
+
+  /**
+   * Creates a reader whose document is supplied by {@link #fill}.
+   */
+  protected JsonReader() {
+    this(null);
+  }
+
+  @Override
+  public Json.Token next() {
+    switch (scopes[top - 1]) {
+    case EMPTY_DOCUMENT:
+      scopes[top - 1] = NONEMPTY_DOCUMENT;
+      return value(nextNonWhitespace());
+
+    case NONEMPTY_DOCUMENT: {
+      int c = nextNonWhitespace();
+      if (c != -1) {
+        throw syntaxError("Unexpected content after document");
+      }
+      return token = Json.Token.END_DOCUMENT;
+    }
+
+    case EMPTY_ARRAY: {
+      scopes[top - 1] = NONEMPTY_ARRAY;
+      int c = nextNonWhitespace();
+      if (c == ']') {
+        top--;
+        return token = Json.Token.END_ARRAY;
+      }
+      return value(c);
+    }
+
+    case NONEMPTY_ARRAY: {
+      int c = nextNonWhitespace();
+      if (c == ']') {
+        top--;
+        return token = Json.Token.END_ARRAY;
+      }
+      if (c != ',') {
+        throw syntaxError("Expected ',' or ']'");
+      }
+      return value(nextNonWhitespace());
+    }
+
+    case EMPTY_OBJECT:
+    case NONEMPTY_OBJECT: {
+      int c = nextNonWhitespace();
+      if (c == '}') {
+        top--;
+        return token = Json.Token.END_OBJECT;
+      }
+      if (scopes[top - 1] == NONEMPTY_OBJECT) {
+        if (c != ',') {
+          throw syntaxError("Expected ',' or '}'");
+        }
+        c = nextNonWhitespace();
+      }
+      if (c != '"') {
+        throw syntaxError("Expected key");
+      }
+      readString();
+      scopes[top - 1] = DANGLING_KEY;
+      return token = Json.Token.KEY;
+    }
+
+    case DANGLING_KEY:
+      if (nextNonWhitespace() != ':') {
+        throw syntaxError("Expected ':'");
+      }
+      scopes[top - 1] = NONEMPTY_OBJECT;
+      return value(nextNonWhitespace());
+
+    default:
+      throw new AssertionError();
+    }
+  }
+
+  @Override
+  public Json.Token token() {
+    return token;
+  }
+
+  @Override
+  public int depth() {
+    return top - 1;
+  }
+
+  @Override
+  public void skip() {
+    if (token == Json.Token.KEY) {
+      next();
+    }
+    if (token == Json.Token.BEGIN_OBJECT || token == Json.Token.BEGIN_ARRAY) {
+      int depth = depth() - 1;
+      do {
+        next();
+      } while (depth() > depth);
+    }
+  }
+
+  @Override
+  public boolean keyEquals(String key) {
+    if ((token != Json.Token.KEY && token != Json.Token.STRING) || key.length() != length) {
+      return false;
+    }
+    for (int ii = 0; ii < length; ii++) {
+      if (chars[ii] != key.charAt(ii)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public String getString() {
+    if (token == Json.Token.KEY || token == Json.Token.STRING || token == Json.Token.NUMBER) {
+      return new String(chars, 0, length);
+    }
+    if (token == Json.Token.BOOLEAN) {
+      return bool ? "true" : "false";
+    }
+    return null;
+  }
+
+  @Override
+  public int getInt() {
+    return (int) getLong();
+  }
+
+  @Override
+  public long getLong() {
+    if (token != Json.Token.NUMBER) {
+      return 0;
+    }
+    return integral ? longValue : (long) doubleValue;
+  }
+
+  @Override
+  public double getNumber() {
+    return (token == Json.Token.NUMBER) ? doubleValue : 0;
+  }
+
+  @Override
+  public boolean getBoolean() {
+    return (token == Json.Token.BOOLEAN) && bool;
+  }
+
+  /**
+   * Reads up to {@code length} characters of the document into {@code buffer} at {@code offset}.
+   * Returns the number of characters read, or -1 if the end of the document has been reached.
+   */
+  protected int fill(char[] buffer, int offset, int length) {
+    int remain = source.length() - sourcePos;
+    if (remain <= 0) {
+      return -1;
+    }
+    int count = Math.min(remain, length);
+    source.getChars(sourcePos, sourcePos + count, buffer, offset);
+    sourcePos += count;
+    return count;
+  }
+
+  private Json.Token value(int c) {
+    switch (c) {
+    case '{':
+      push(EMPTY_OBJECT);
+      return token = Json.Token.BEGIN_OBJECT;
+    case '[':
+      push(EMPTY_ARRAY);
+      return token = Json.Token.BEGIN_ARRAY;
+    case '"':
+      readString();
+      return token = Json.Token.STRING;
+    case 't':
+      readLiteral("rue");
+      bool = true;
+      return token = Json.Token.BOOLEAN;
+    case 'f':
+      readLiteral("alse");
+      bool = false;
+      return token = Json.Token.BOOLEAN;
+    case 'n':
+      readLiteral("ull");
+      return token = Json.Token.NULL;
+    case -1:
+      throw syntaxError("Unexpected end of document");
+    default:
+      if (c == '-' || (c >= '0' && c <= '9')) {
+        readNumber(c);
+        return token = Json.Token.NUMBER;
+      }
+      throw syntaxError("Unexpected character '" + (char) c + "'");
+    }
+  }
+
+  private void push(byte scope) {
+    if (top == scopes.length) {
+      byte[] nscopes = new byte[top * 2];
+      System.arraycopy(scopes, 0, nscopes, 0, top);
+      scopes = nscopes;
+    }
+    scopes[top++] = scope;
+  }
+
+  private boolean refill() {
+    offset += limit;
+    pos = 0;
+    limit = Math.max(fill(buf, 0, buf.length), 0);
+    return limit > 0;
+  }
+
+  private int read() {
+    if (pos == limit && !refill()) {
+      return -1;
+    }
+    return buf[pos++];
+  }
+
+  private int nextNonWhitespace() {
+    while (true) {
+      if (pos == limit && !refill()) {
+        return -1;
+      }
+      char c = buf[pos++];
+      if (c != ' ' && c != '\n' && c != '\r' && c != '\t') {
+        return c;
+      }
+    }
+  }
+
+  private void append(char c) {
+    if (length == chars.length) {
+      char[] nchars = new char[length * 2];
+      System.arraycopy(chars, 0, nchars, 0, length);
+      chars = nchars;
+    }
+    chars[length++] = c;
+  }
+
+  private void readString() {
+    length = 0;
+    while (true) {
+      // copy runs of plain characters straight out of the buffer
+      int start = pos;
+      while (pos < limit) {
+        char c = buf[pos];
+        if (c == '"' || c == '\\') {
+          break;
+        }
+        pos++;
+      }
+      int count = pos - start;
+      if (count > 0) {
+        if (length + count > chars.length) {
+          char[] nchars = new char[Math.max(chars.length * 2, length + count)];
+          System.arraycopy(chars, 0, nchars, 0, length);
+          chars = nchars;
+        }
+        System.arraycopy(buf, start, chars, length, count);
+        length += count;
+      }
+
+      int c = read();
+      if (c == '"') {
+        return;
+      } else if (c == '\\') {
+        append(readEscape());
+      } else if (c == -1) {
+        throw syntaxError("Unterminated string");
+      } else {
+        append((char) c); // the run ended at the end of the buffer
+      }
+    }
+  }
+
+  private char readEscape() {
+    int c = read();
+    switch (c) {
+    case 'b': return '\b';
+    case 'f': return '\f';
+    case 'n': return '\n';
+    case 'r': return '\r';
+    case 't': return '\t';
+    case '"': case '\\': case '/': return (char) c;
+    case 'u':
+      int value = 0;
+      for (int ii = 0; ii < 4; ii++) {
+        int h = read();
+        int digit = (h >= '0' && h <= '9') ? h - '0' :
+          (h >= 'a' && h <= 'f') ? h - 'a' + 10 : (h >= 'A' && h <= 'F') ? h - 'A' + 10 : -1;
+        if (digit < 0) {
+          throw syntaxError("Malformed unicode escape");
+        }
+        value = (value << 4) | digit;
+      }
+      return (char) value;
+    default:
+      throw syntaxError("Invalid escape");
+    }
+  }
+
+  private void readLiteral(String rest) {
+    for (int ii = 0, ll = rest.length(); ii < ll; ii++) {
+      if (read() != rest.charAt(ii)) {
+        throw syntaxError("Malformed literal");
+      }
+    }
+  }
+
+  private void readNumber(int first) {
+    length = 0;
+    append((char) first);
+    while (pos < limit || refill()) {
+      char c = buf[pos];
+      if ((c >= '0' && c <= '9') || c == '.' || c == 'e' || c == 'E' || c == '-' || c == '+') {
+        append(c);
+        pos++;
+      } else {
+        break;
+      }
+    }
+
+    // fast path: accumulate the digits into a long and scale by an exact power of ten, which
+    // rounds only once and so yields the correctly rounded result
+    int ii = 0;
+    boolean negative = chars[0] == '-';
+    if (negative) {
+      ii++;
+    }
+    long mantissa = 0;
+    int digits = 0, scale = 0, intDigits = 0;
+    boolean exact = true;
+    for (; ii < length && chars[ii] >= '0' && chars[ii] <= '9'; ii++, intDigits++) {
+      if (digits < 18) {
+        mantissa = mantissa * 10 + (chars[ii] - '0');
+        if (mantissa > 0) digits++;
+      } else {
+        exact = false;
+      }
+    }
+    integral = true;
+    if (ii < length && chars[ii] == '.') {
+      integral = false;
+      int fracStart = ++ii;
+      for (; ii < length && chars[ii] >= '0' && chars[ii] <= '9'; ii++) {
+        if (digits < 18) {
+          mantissa = mantissa * 10 + (chars[ii] - '0');
+          if (mantissa > 0) digits++;
+          scale--;
+        } else {
+          exact = false;
+        }
+      }
+      if (ii == fracStart) {
+        throw syntaxError("Malformed number");
+      }
+    }
+    if (ii < length && (chars[ii] == 'e' || chars[ii] == 'E')) {
+      integral = false;
+      ii++;
+      boolean negexp = false;
+      if (ii < length && (chars[ii] == '+' || chars[ii] == '-')) {
+        negexp = chars[ii++] == '-';
+      }
+      int expStart = ii, exp = 0;
+      for (; ii < length && chars[ii] >= '0' && chars[ii] <= '9'; ii++) {
+        if (exp < 10000) exp = exp * 10 + (chars[ii] - '0');
+      }
+      if (ii == expStart) {
+        throw syntaxError("Malformed number");
+      }
+      scale += negexp ? -exp : exp;
+    }
+    if (ii != length || intDigits == 0) {
+      throw syntaxError("Malformed number");
+    }
+
+    integral &= exact;
+    longValue = negative ? -mantissa : mantissa;
+    if (exact && mantissa < (1L << 53) && scale >= -22 && scale <= 22) {
+      double value = (scale >= 0) ? mantissa * POW10[scale] : mantissa / POW10[-scale];
+      doubleValue = negative ? -value : value;
+    } else {
+      doubleValue = Double.parseDouble(new String(chars, 0, length));
+    }
+  }
+
+  private RuntimeException syntaxError(String message) {
+    return new RuntimeException(message + " at offset " + (offset + pos));
+  }
+}
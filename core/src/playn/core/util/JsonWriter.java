@@ -0,0 +1,230 @@
+/**
+ * Copyright 2011 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package playn.core.util;
+
+import playn.core.Json;
+
+/**
+ * A {@link Json.Writer} that appends tokens directly to a reusable character buffer, shared among
+ * platforms. Numbers and strings are formatted in place, without boxing or intermediate strings,
+ * and in the same form as the {@code org.json} writer.
+ */
+public class JsonWriter implements Json.Writer {
+
+  // the scopes that may enclose the writer
+  private static final byte EMPTY_DOCUMENT = 0;
+  private static final byte NONEMPTY_DOCUMENT = 1;
+  private static final byte EMPTY_ARRAY = 2;
+  private static final byte NONEMPTY_ARRAY = 3;
+  private static final byte EMPTY_OBJECT = 4;
+  private static final byte DANGLING_KEY = 5;
+  private static final byte NONEMPTY_OBJECT = 6;
+
+  private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+  private final StringBuilder buf = new StringBuilder();
+  private byte[] scopes = new byte[32];
+  private int top;
+
+  public JsonWriter() {
+    reset();
+  }
+
+  @Override
+  public Json.Writer key(String key) {
+    if (key == null) {
+      throw new IllegalStateException("Null key.");
+    }
+    byte scope = scopes[top - 1];
+    if (scope != EMPTY_OBJECT && scope != NONEMPTY_OBJECT) {
+      throw new IllegalStateException("Misplaced key.");
+    }
+    if (scope == NONEMPTY_OBJECT) {
+      buf.append(',');
+    }
+    quote(key);
+    buf.append(':');
+    scopes[top - 1] = DANGLING_KEY;
+    return this;
+  }
+
+  @Override
+  public Json.Writer value(boolean x) {
+    beforeValue();
+    buf.append(x ? "true" : "false");
+    return this;
+  }
+
+  @Override
+  public Json.Writer value(int x) {
+    beforeValue();
+    buf.append(x);
+    return this;
+  }
+
+  @Override
+  public Json.Writer value(double x) {
+    if (Double.isNaN(x) || Double.isInfinite(x)) {
+      throw new IllegalArgumentException("JSON does not allow non-finite numbers.");
+    }
+    beforeValue();
+    int start = buf.length();
+    buf.append(x);
+    // shave off trailing zeros and the decimal point, if possible
+    int end = buf.length();
+    boolean point = false;
+    for (int ii = start; ii < end; ii++) {
+      char c = buf.charAt(ii);
+      if (c == 'e' || c == 'E') {
+        return this;
+      }
+      point |= (c == '.');
+    }
+    if (point) {
+      while (buf.charAt(end - 1) == '0') {
+        end--;
+      }
+      if (buf.charAt(end - 1) == '.') {
+        end--;
+      }
+      buf.setLength(end);
+    }
+    return this;
+  }
+
+  @Override
+  public Json.Writer value(String x) {
+    beforeValue();
+    if (x == null) {
+      buf.append("null");
+    } else {
+      quote(x);
+    }
+    return this;
+  }
+
+  @Override
+  public Json.Writer object() {
+    beforeValue();
+    push(EMPTY_OBJECT);
+    buf.append('{');
+    return this;
+  }
+
+  @Override
+  public Json.Writer endObject() {
+    byte scope = scopes[top - 1];
+    if (scope != EMPTY_OBJECT && scope != NONEMPTY_OBJECT) {
+      throw new IllegalStateException("Misplaced endObject.");
+    }
+    top--;
+    buf.append('}');
+    return this;
+  }
+
+  @Override
+  public Json.Writer array() {
+    beforeValue();
+    push(EMPTY_ARRAY);
+    buf.append('[');
+    return this;
+  }
+
+  @Override
+  public Json.Writer endArray() {
+    byte scope = scopes[top - 1];
+    if (scope != EMPTY_ARRAY && scope != NONEMPTY_ARRAY) {
+      throw new IllegalStateException("Misplaced endArray.");
+    }
+    top--;
+    buf.append(']');
+    return this;
+  }
+
+  @Override
+  public String write() {
+    String result = buf.toString();
+    reset();
+    return result;
+  }
+
+  private void reset() {
+    buf.setLength(0);
+    top = 0;
+    scopes[top++] = EMPTY_DOCUMENT;
+  }
+
+  private void beforeValue() {
+    switch (scopes[top - 1]) {
+    case EMPTY_DOCUMENT:
+      scopes[top - 1] = NONEMPTY_DOCUMENT;
+      break;
+    case EMPTY_ARRAY:
+      scopes[top - 1] = NONEMPTY_ARRAY;
+      break;
+    case NONEMPTY_ARRAY:
+      buf.append(',');
+      break;
+    case DANGLING_KEY:
+      scopes[top - 1] = NONEMPTY_OBJECT;
+      break;
+    default:
+      throw new IllegalStateException("Value out of sequence.");
+    }
+  }
+
+  private void push(byte scope) {
+    if (top == scopes.length) {
+      byte[] nscopes = new byte[top * 2];
+      System.arraycopy(scopes, 0, nscopes, 0, top);
+      scopes = nscopes;
+    }
+    scopes[top++] = scope;
+  }
+
+  private void quote(String string) {
+    buf.append('"');
+    char c = 0;
+    for (int ii = 0, ll = string.length(); ii < ll; ii++) {
+      char b = c;
+      c = string.charAt(ii);
+      switch (c) {
+      case '\\':
+      case '"':
+        buf.append('\\').append(c);
+        break;
+      case '/':
+        // escape "</" so that the output can be embedded in an HTML script tag
+        if (b == '<') {
+          buf.append('\\');
+        }
+        buf.append(c);
+        break;
+      case '\b': buf.append("\\b"); break;
+      case '\t': buf.append("\\t"); break;
+      case '\n': buf.append("\\n"); break;
+      case '\f': buf.append("\\f"); break;
+      case '\r': buf.append("\\r"); break;
+      default:
+        if (c < ' ' || (c >= '\u0080' && c < '\u00a0') || (c >= '\u2000' && c < '\u2100')) {
+          buf.append("\\u").append(HEX[(c >> 12) & 0xF]).append(HEX[(c >> 8) & 0xF]).
+            append(HEX[(c >> 4) & 0xF]).append(HEX[c & 0xF]);
+        } else {
+          buf.append(c);
+        }
+      }
+    }
+    buf.append('"');
+  }
+}
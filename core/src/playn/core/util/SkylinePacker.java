@@ -0,0 +1,150 @@
+/**
+ * Copyright 2011 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package playn.core.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import pythagoras.i.Rectangle;
+
+/**
+ * Packs rectangles into a fixed size bin using the skyline bottom-left heuristic. The packer
+ * tracks the upper edge (the "skyline") of the rectangles packed so far and places each new
+ * rectangle wherever its top edge would be lowest.
+ */
+public class SkylinePacker
+{
+  /** The dimensions of our bin. */
+  protected final int width, height;
+
+  /** The upper edge of the packed rectangles, ordered from left to right. */
+  protected final List<Segment> skyline = new ArrayList<Segment>();
+
+  /** The area consumed by rectangles packed so far. */
+  protected int usedArea;
+
+  /**
+   * Creates a packer for a bin of the specified dimensions.
+   */
+  public SkylinePacker(int width, int height) {
+    this.width = width;
+    this.height = height;
+    skyline.add(new Segment(0, 0, width));
+  }
+
+  /** Returns the width of this packer's bin. */
+  public int width() {
+    return width;
+  }
+
+  /** Returns the height of this packer's bin. */
+  public int height() {
+    return height;
+  }
+
+  /** Returns the total area of the rectangles packed so far. */
+  public int usedArea() {
+    return usedArea;
+  }
+
+  /**
+   * Reserves space for a rectangle of the specified size.
+   *
+   * @return the location of the packed rectangle, or null if it will not fit in the bin.
+   */
+  public Rectangle pack(int w, int h) {
+    int bestIdx = -1, bestTop = Integer.MAX_VALUE, bestWidth = Integer.MAX_VALUE, bestY = 0;
+    for (int ii = 0, ll = skyline.size(); ii < ll; ii++) {
+      int y = fit(ii, w, h);
+      if (y < 0) continue;
+      Segment seg = skyline.get(ii);
+      // prefer the lowest top edge, break ties by favoring the narrowest segment
+      if (y + h < bestTop || (y + h == bestTop && seg.width < bestWidth)) {
+        bestIdx = ii;
+        bestTop = y + h;
+        bestWidth = seg.width;
+        bestY = y;
+      }
+    }
+    if (bestIdx < 0) {
+      return null;
+    }
+
+    Rectangle rect = new Rectangle(skyline.get(bestIdx).x, bestY, w, h);
+    addSegment(bestIdx, rect);
+    usedArea += w * h;
+    return rect;
+  }
+
+  /**
+   * Returns the y coordinate at which a rectangle of the supplied size would rest if its left edge
+   * were aligned with the segment at {@code index}, or -1 if it would not fit.
+   */
+  protected int fit(int index, int w, int h) {
+    int x = skyline.get(index).x;
+    if (x + w > width) {
+      return -1;
+    }
+    int y = 0, remain = w;
+    for (int ii = index; remain > 0; ii++) {
+      Segment seg = skyline.get(ii);
+      y = Math.max(y, seg.y);
+      if (y + h > height) {
+        return -1;
+      }
+      remain -= seg.width;
+    }
+    return y;
+  }
+
+  protected void addSegment(int index, Rectangle rect) {
+    skyline.add(index, new Segment(rect.x, rect.y + rect.height, rect.width));
+
+    // shrink or remove the segments now covered by the new one
+    for (int ii = index + 1; ii < skyline.size(); ii++) {
+      Segment prev = skyline.get(ii - 1), seg = skyline.get(ii);
+      int overlap = prev.x + prev.width - seg.x;
+      if (overlap <= 0) {
+        break;
+      }
+      seg.x += overlap;
+      seg.width -= overlap;
+      if (seg.width > 0) {
+        break;
+      }
+      skyline.remove(ii--);
+    }
+
+    // merge adjacent segments at the same height
+    for (int ii = 0; ii < skyline.size() - 1; ) {
+      Segment seg = skyline.get(ii), next = skyline.get(ii + 1);
+      if (seg.y == next.y) {
+        seg.width += next.width;
+        skyline.remove(ii + 1);
+      } else {
+        ii++;
+      }
+    }
+  }
+
+  protected static class Segment {
+    public int x, y, width;
+
+    public Segment(int x, int y, int width) {
+      this.x = x;
+      this.y = y;
+      this.width = width;
+    }
+  }
+}
@@ -0,0 +1,144 @@
+/**
+ * Copyright 2011 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package playn.core.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import playn.core.Asserts;
+
+/**
+ * A uniform grid of square cells that indexes values by their axis-aligned bounds, so that the
+ * values whose bounds may contain a point can be found without examining every value. Queries
+ * return candidates only; callers are expected to perform an exact test on each.
+ */
+public class SpatialGrid<T>
+{
+  // values that would span more than this many cells are kept in a separate list, which is
+  // included in every query, rather than bloating the grid
+  private static final int MAX_CELLS = 64;
+
+  private final float cellSize;
+  private final Map<Integer, List<T>> cells = new HashMap<Integer, List<T>>();
+  private final Map<T, int[]> ranges = new HashMap<T, int[]>();
+  private final List<T> large = new ArrayList<T>();
+
+  /**
+   * Creates a grid with cells of the specified size.
+   */
+  public SpatialGrid(float cellSize) {
+    Asserts.checkArgument(cellSize > 0, "Cell size must be > 0");
+    this.cellSize = cellSize;
+  }
+
+  /**
+   * Adds {@code value} to the grid with the specified bounds, replacing any bounds with which it
+   * was previously added.
+   */
+  public void put(T value, float minX, float minY, float maxX, float maxY) {
+    remove(value);
+    int x0 = cell(minX), y0 = cell(minY), x1 = cell(maxX), y1 = cell(maxY);
+    int[] range = new int[] { x0, y0, x1, y1 };
+    ranges.put(value, range);
+    if ((long)(x1 - x0 + 1) * (y1 - y0 + 1) > MAX_CELLS) {
+      large.add(value);
+      return;
+    }
+    for (int yy = y0; yy <= y1; yy++) {
+      for (int xx = x0; xx <= x1; xx++) {
+        Integer key = key(xx, yy);
+        List<T> list = cells.get(key);
+        if (list == null) {
+          cells.put(key, list = new ArrayList<T>());
+        }
+        list.add(value);
+      }
+    }
+  }
+
+  /**
+   * Removes {@code value} from the grid. Returns false if it was not in the grid.
+   */
+  public boolean remove(T value) {
+    int[] range = ranges.remove(value);
+    if (range == null) {
+      return false;
+    }
+    if (large.remove(value)) {
+      return true;
+    }
+    for (int yy = range[1]; yy <= range[3]; yy++) {
+      for (int xx = range[0]; xx <= range[2]; xx++) {
+        Integer key = key(xx, yy);
+        List<T> list = cells.get(key);
+        if (list != null && list.remove(value) && list.isEmpty()) {
+          cells.remove(key);
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns true if {@code value} is in the grid.
+   */
+  public boolean contains(T value) {
+    return ranges.containsKey(value);
+  }
+
+  /**
+   * Adds to {@code into} every value whose bounds may contain the specified point.
+   */
+  public void query(float x, float y, Collection<? super T> into) {
+    int cx = cell(x), cy = cell(y);
+    List<T> list = cells.get(key(cx, cy));
+    if (list != null) {
+      for (T value : list) {
+        // distant cells may share a key, so check that the value actually spans this cell
+        int[] range = ranges.get(value);
+        if (cx >= range[0] && cx <= range[2] && cy >= range[1] && cy <= range[3]) {
+          into.add(value);
+        }
+      }
+    }
+    into.addAll(large);
+  }
+
+  /**
+   * Returns the number of values in the grid.
+   */
+  public int size() {
+    return ranges.size();
+  }
+
+  /**
+   * Removes all values from the grid.
+   */
+  public void clear() {
+    cells.clear();
+    ranges.clear();
+    large.clear();
+  }
+
+  protected int cell(float coord) {
+    return (int)Math.floor(coord / cellSize);
+  }
+
+  protected static Integer key(int cx, int cy) {
+    return (cx << 16) ^ (cy & 0xFFFF);
+  }
+}
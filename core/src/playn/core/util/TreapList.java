@@ -0,0 +1,324 @@
+/**
+ * Copyright 2011 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package playn.core.util;
+
+import java.util.AbstractList;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * A list backed by a randomized balanced tree (an implicit treap) that supports insertion,
+ * removal and positional access in O(log n) time, and iteration in O(1) time per element.
+ * Elements are also indexed by identity, so {@link #indexOf}, {@link #contains} and {@link
+ * #remove(Object)} are O(log n) as well. Consequently, an element may appear in the list at most
+ * once, and elements must not change their {@code equals}/{@code hashCode} while in the list.
+ */
+public class TreapList<E> extends AbstractList<E>
+{
+  /** A node in the tree. Nodes are also threaded into a linked list in element order. */
+  protected static class Node<E> {
+    public final E value;
+    public final int priority;
+    public Node<E> left, right, parent;
+    public Node<E> prev, next;
+    public int size = 1;
+
+    public Node(E value, int priority) {
+      this.value = value;
+      this.priority = priority;
+    }
+  }
+
+  /** The root of our tree. */
+  protected Node<E> root;
+
+  /** The first node in element order. */
+  protected Node<E> head;
+
+  /** Maps elements to the nodes that hold them. */
+  protected final Map<E, Node<E>> nodes = new HashMap<E, Node<E>>();
+
+  // the results of the most recent split
+  private Node<E> splitLeft, splitRight;
+
+  // state for our (xorshift) priority generator
+  private int seed = 0x2545F491;
+
+  @Override
+  public int size() {
+    return size(root);
+  }
+
+  @Override
+  public E get(int index) {
+    return nodeAt(index).value;
+  }
+
+  @Override
+  public void add(int index, E element) {
+    if (index < 0 || index > size()) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+    }
+    if (nodes.containsKey(element)) {
+      throw new IllegalArgumentException("Element already in list: " + element);
+    }
+
+    Node<E> node = new Node<E>(element, nextPriority());
+    nodes.put(element, node);
+
+    // thread the node into our linked list
+    Node<E> next = (index == size()) ? null : nodeAt(index);
+    Node<E> prev = (next == null) ? last() : next.prev;
+    node.prev = prev;
+    node.next = next;
+    if (prev == null) head = node;
+    else prev.next = node;
+    if (next != null) next.prev = node;
+
+    split(root, index);
+    Node<E> left = splitLeft, right = splitRight;
+    root = merge(merge(left, node), right);
+    root.parent = null;
+    modCount++;
+  }
+
+  @Override
+  public E remove(int index) {
+    if (index < 0 || index >= size()) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+    }
+    Node<E> node = nodeAt(index);
+    unlink(node, index);
+    return node.value;
+  }
+
+  @Override
+  public boolean remove(Object element) {
+    Node<E> node = nodes.get(element);
+    if (node == null) {
+      return false;
+    }
+    unlink(node, rank(node));
+    return true;
+  }
+
+  @Override
+  public int indexOf(Object element) {
+    Node<E> node = nodes.get(element);
+    return (node == null) ? -1 : rank(node);
+  }
+
+  @Override
+  public int lastIndexOf(Object element) {
+    return indexOf(element);
+  }
+
+  @Override
+  public boolean contains(Object element) {
+    return nodes.containsKey(element);
+  }
+
+  @Override
+  public void clear() {
+    root = head = null;
+    nodes.clear();
+    modCount++;
+  }
+
+  @Override
+  public Iterator<E> iterator() {
+    return new Iterator<E>() {
+      private Node<E> next = head, last;
+      private int expectedModCount = modCount;
+
+      public boolean hasNext() {
+        return next != null;
+      }
+
+      public E next() {
+        if (modCount != expectedModCount) {
+          throw new ConcurrentModificationException();
+        }
+        if (next == null) {
+          throw new NoSuchElementException();
+        }
+        last = next;
+        next = next.next;
+        return last.value;
+      }
+
+      public void remove() {
+        if (last == null) {
+          throw new IllegalStateException();
+        }
+        if (modCount != expectedModCount) {
+          throw new ConcurrentModificationException();
+        }
+        TreapList.this.remove(last.value);
+        last = null;
+        expectedModCount = modCount;
+      }
+    };
+  }
+
+  /**
+   * Returns an iterator over this list's elements in reverse order. The iterator does not support
+   * removal.
+   */
+  public Iterator<E> descendingIterator() {
+    return new Iterator<E>() {
+      private Node<E> next = last();
+      private int expectedModCount = modCount;
+
+      public boolean hasNext() {
+        return next != null;
+      }
+
+      public E next() {
+        if (modCount != expectedModCount) {
+          throw new ConcurrentModificationException();
+        }
+        if (next == null) {
+          throw new NoSuchElementException();
+        }
+        E value = next.value;
+        next = next.prev;
+        return value;
+      }
+
+      public void remove() {
+        throw new UnsupportedOperationException();
+      }
+    };
+  }
+
+  /**
+   * Returns the node at the specified index.
+   */
+  protected Node<E> nodeAt(int index) {
+    if (index < 0 || index >= size()) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+    }
+    Node<E> node = root;
+    while (true) {
+      int lsize = size(node.left);
+      if (index < lsize) {
+        node = node.left;
+      } else if (index == lsize) {
+        return node;
+      } else {
+        index -= lsize + 1;
+        node = node.right;
+      }
+    }
+  }
+
+  /**
+   * Returns the index of the supplied node in the list.
+   */
+  protected int rank(Node<E> node) {
+    int rank = size(node.left);
+    for (Node<E> n = node; n.parent != null; n = n.parent) {
+      if (n == n.parent.right) {
+        rank += size(n.parent.left) + 1;
+      }
+    }
+    return rank;
+  }
+
+  protected Node<E> last() {
+    Node<E> node = root;
+    while (node != null && node.right != null) {
+      node = node.right;
+    }
+    return node;
+  }
+
+  protected void unlink(Node<E> node, int index) {
+    nodes.remove(node.value);
+    if (node.prev == null) head = node.next;
+    else node.prev.next = node.next;
+    if (node.next != null) node.next.prev = node.prev;
+
+    split(root, index);
+    Node<E> left = splitLeft;
+    split(splitRight, 1);
+    root = merge(left, splitRight);
+    if (root != null) root.parent = null;
+    node.prev = node.next = null;
+    modCount++;
+  }
+
+  /**
+   * Splits the supplied subtree into the nodes before {@code index} and those from it on, storing
+   * the results in {@link #splitLeft} and {@link #splitRight}.
+   */
+  protected void split(Node<E> node, int index) {
+    if (node == null) {
+      splitLeft = splitRight = null;
+      return;
+    }
+    if (size(node.left) >= index) {
+      split(node.left, index);
+      setLeft(node, splitRight);
+      splitRight = node;
+    } else {
+      split(node.right, index - size(node.left) - 1);
+      setRight(node, splitLeft);
+      splitLeft = node;
+    }
+    node.parent = null;
+  }
+
+  /**
+   * Merges two subtrees, all of whose elements in {@code a} precede those in {@code b}.
+   */
+  protected Node<E> merge(Node<E> a, Node<E> b) {
+    if (a == null) return b;
+    if (b == null) return a;
+    if (a.priority > b.priority) {
+      setRight(a, merge(a.right, b));
+      return a;
+    } else {
+      setLeft(b, merge(a, b.left));
+      return b;
+    }
+  }
+
+  private void setLeft(Node<E> node, Node<E> left) {
+    node.left = left;
+    if (left != null) left.parent = node;
+    node.size = size(left) + size(node.right) + 1;
+  }
+
+  private void setRight(Node<E> node, Node<E> right) {
+    node.right = right;
+    if (right != null) right.parent = node;
+    node.size = size(node.left) + size(right) + 1;
+  }
+
+  private int nextPriority() {
+    seed ^= seed << 13;
+    seed ^= seed >>> 17;
+    seed ^= seed << 5;
+    return seed;
+  }
+
+  protected static int size(Node<?> node) {
+    return (node == null) ? 0 : node.size;
+  }
+}
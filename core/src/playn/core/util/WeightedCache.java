@@ -0,0 +1,358 @@
+/**
+ * Copyright 2011 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package playn.core.util;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A cache whose entries are weighed (typically in bytes), and which evicts entries once their
+ * total weight exceeds a budget. Eviction follows a segmented LRU policy: new entries are placed
+ * on probation, and promoted to a protected segment (which may hold up to {@link
+ * #PROTECTED_FRACTION} of the budget) when they are requested again. Entries are evicted from the
+ * least recently used end of the probationary segment first, so a burst of entries that are used
+ * only once cannot flush out those that are used repeatedly.
+ *
+ * <p> Entries may be pinned, for example while they are displayed, in which case they are never
+ * evicted, though they still count against the budget. The cache also counts hits, misses and
+ * evictions, to aid in choosing a budget. </p>
+ */
+public class WeightedCache<K, V> {
+  /** Computes the weight of cache entries. */
+  public interface Weigher<K, V> {
+    /** Returns the weight of the specified entry, which must not be negative. */
+    int weigh(K key, V value);
+  }
+
+  /** The fraction of the budget that may be used by the protected segment. */
+  public static final float PROTECTED_FRACTION = 0.8f;
+
+  /** An entry in the cache, linked into a segment from least to most recently used. */
+  protected static class Entry<K, V> {
+    public final K key;
+    public final V value;
+    public int weight;
+    public int pins;
+
+    /** The head of the segment that holds this entry, or {@link #PINNED}. */
+    public Entry<?, ?> segment;
+    public Entry<K, V> prev, next;
+
+    public Entry(K key, V value, int weight) {
+      this.key = key;
+      this.value = value;
+      this.weight = weight;
+      prev = next = this;
+    }
+
+    /** Links this entry in as the most recently used entry of the specified segment. */
+    public void link(Entry<K, V> head) {
+      segment = head;
+      prev = head.prev;
+      next = head;
+      prev.next = this;
+      head.prev = this;
+    }
+
+    public void unlink() {
+      prev.next = next;
+      next.prev = prev;
+      prev = next = this;
+    }
+  }
+
+  /** Marks entries that are pinned, and hence in no segment. */
+  protected static final Entry<Object, Object> PINNED = new Entry<Object, Object>(null, null, 0);
+
+  protected final Weigher<? super K, ? super V> weigher;
+  protected final Map<K, Entry<K, V>> entries = new HashMap<K, Entry<K, V>>();
+
+  /** The heads of the probationary and protected segments. */
+  protected final Entry<K, V> probation = new Entry<K, V>(null, null, 0);
+  protected final Entry<K, V> protect = new Entry<K, V>(null, null, 0);
+
+  protected int budget, protectedBudget;
+  protected int weight, probationWeight, protectedWeight;
+  protected int hits, misses, evictions;
+
+  /**
+   * Creates a cache with the specified budget.
+   */
+  public WeightedCache(int budget, Weigher<? super K, ? super V> weigher) {
+    this.weigher = weigher;
+    setBudget(budget);
+  }
+
+  /**
+   * Returns the value cached for the specified key, or null. A hit marks the entry as recently
+   * used, and promotes it to the protected segment if it was on probation.
+   */
+  public V get(K key) {
+    Entry<K, V> entry = entries.get(key);
+    if (entry == null) {
+      misses++;
+      return null;
+    }
+    hits++;
+    if (entry.segment == probation) {
+      entry.unlink();
+      probationWeight -= entry.weight;
+      entry.link(protect);
+      protectedWeight += entry.weight;
+      demote();
+    } else if (entry.segment == protect) {
+      entry.unlink();
+      entry.link(protect);
+    }
+    return entry.value;
+  }
+
+  /**
+   * Returns true if the cache holds a value for the specified key. This does not count as a use
+   * of the entry.
+   */
+  public boolean containsKey(K key) {
+    return entries.containsKey(key);
+  }
+
+  /**
+   * Caches the specified value, replacing and returning any previous value for its key. Entries
+   * are evicted as needed to bring the cache back under budget, which may include this one, if it
+   * alone exceeds the budget.
+   */
+  public V put(K key, V value) {
+    Entry<K, V> old = entries.remove(key);
+    int pins = 0;
+    if (old != null) {
+      pins = old.pins;
+      unlink(old);
+    }
+    Entry<K, V> entry = new Entry<K, V>(key, value, weigh(key, value));
+    entries.put(key, entry);
+    weight += entry.weight;
+    entry.pins = pins;
+    if (pins > 0) {
+      entry.segment = PINNED;
+    } else {
+      entry.link(probation);
+      probationWeight += entry.weight;
+    }
+    evict();
+    return (old == null) ? null : old.value;
+  }
+
+  /**
+   * Removes and returns the value cached for the specified key, or null.
+   */
+  public V remove(K key) {
+    Entry<K, V> entry = entries.remove(key);
+    if (entry == null) {
+      return null;
+    }
+    unlink(entry);
+    return entry.value;
+  }
+
+  /**
+   * Removes all entries from the cache, including pinned entries.
+   */
+  public void clear() {
+    entries.clear();
+    probation.prev = probation.next = probation;
+    protect.prev = protect.next = protect;
+    weight = probationWeight = protectedWeight = 0;
+  }
+
+  /**
+   * Recomputes the weight of the entry for the specified key, which must be called if its value
+   * changes size (an image finishes loading, say). Entries are evicted if the cache is now over
+   * budget.
+   */
+  public void reweigh(K key) {
+    Entry<K, V> entry = entries.get(key);
+    if (entry == null) {
+      return;
+    }
+    int delta = weigh(key, entry.value) - entry.weight;
+    entry.weight += delta;
+    weight += delta;
+    if (entry.segment == probation) {
+      probationWeight += delta;
+    } else if (entry.segment == protect) {
+      protectedWeight += delta;
+      demote();
+    }
+    evict();
+  }
+
+  /**
+   * Pins the entry for the specified key, so that it will not be evicted until it is unpinned.
+   * Pins are counted: an entry that is pinned twice must be unpinned twice.
+   *
+   * @return false if the cache holds no entry for the key.
+   */
+  public boolean pin(K key) {
+    Entry<K, V> entry = entries.get(key);
+    if (entry == null) {
+      return false;
+    }
+    if (entry.pins++ == 0) {
+      unlink(entry);
+      weight += entry.weight; // unlink() deducted it, but pinned entries still count
+      entry.segment = PINNED;
+    }
+    return true;
+  }
+
+  /**
+   * Releases a pin obtained via {@link #pin}. Once its last pin is released, an entry is treated as
+   * recently used, and is once again subject to eviction.
+   */
+  public void unpin(K key) {
+    Entry<K, V> entry = entries.get(key);
+    if (entry == null || entry.pins == 0) {
+      return;
+    }
+    if (--entry.pins == 0) {
+      // it was in use, so it's worth protecting
+      entry.link(protect);
+      protectedWeight += entry.weight;
+      demote();
+      evict();
+    }
+  }
+
+  /**
+   * Returns true if the entry for the specified key is pinned.
+   */
+  public boolean isPinned(K key) {
+    Entry<K, V> entry = entries.get(key);
+    return entry != null && entry.pins > 0;
+  }
+
+  /**
+   * Configures the maximum total weight of the entries in the cache, evicting entries if the cache
+   * is now over budget.
+   */
+  public void setBudget(int budget) {
+    if (budget < 0) {
+      throw new IllegalArgumentException("Budget must not be negative: " + budget);
+    }
+    this.budget = budget;
+    this.protectedBudget = (int) (budget * PROTECTED_FRACTION);
+    demote();
+    evict();
+  }
+
+  /** Returns the maximum total weight of the entries in the cache. */
+  public int budget() {
+    return budget;
+  }
+
+  /** Returns the total weight of the entries in the cache, including pinned entries. */
+  public int weight() {
+    return weight;
+  }
+
+  /** Returns the number of entries in the cache. */
+  public int size() {
+    return entries.size();
+  }
+
+  /** Returns the number of calls to {@link #get} that found a value. */
+  public int hits() {
+    return hits;
+  }
+
+  /** Returns the number of calls to {@link #get} that found no value. */
+  public int misses() {
+    return misses;
+  }
+
+  /** Returns the number of entries evicted to keep the cache under budget. */
+  public int evictions() {
+    return evictions;
+  }
+
+  /**
+   * Resets the hit, miss and eviction counts to zero.
+   */
+  public void resetStats() {
+    hits = misses = evictions = 0;
+  }
+
+  @Override
+  public String toString() {
+    return "[size=" + size() + ", weight=" + weight + "/" + budget + ", hits=" + hits +
+      ", misses=" + misses + ", evictions=" + evictions + "]";
+  }
+
+  /**
+   * Called when an entry is evicted to keep the cache under budget (but not when it is removed or
+   * replaced explicitly).
+   */
+  protected void evicted(K key, V value) {
+  }
+
+  protected int weigh(K key, V value) {
+    int weight = weigher.weigh(key, value);
+    if (weight < 0) {
+      throw new IllegalArgumentException("Negative weight for " + key + ": " + weight);
+    }
+    return weight;
+  }
+
+  /** Moves entries from the protected segment back to probation while it is over budget. */
+  protected void demote() {
+    while (protectedWeight > protectedBudget && protect.next != protect) {
+      Entry<K, V> entry = protect.next;
+      entry.unlink();
+      protectedWeight -= entry.weight;
+      entry.link(probation);
+      probationWeight += entry.weight;
+    }
+  }
+
+  /** Evicts least recently used entries while the cache is over budget. */
+  protected void evict() {
+    while (weight > budget) {
+      Entry<K, V> entry;
+      if (probation.next != probation) {
+        entry = probation.next;
+      } else if (protect.next != protect) {
+        entry = protect.next;
+      } else {
+        return; // everything that's left is pinned
+      }
+      entries.remove(entry.key);
+      unlink(entry);
+      evictions++;
+      evicted(entry.key, entry.value);
+    }
+  }
+
+  /** Removes the supplied entry from its segment and deducts its weight. */
+  protected void unlink(Entry<K, V> entry) {
+    if (entry.segment == probation) {
+      probationWeight -= entry.weight;
+    } else if (entry.segment == protect) {
+      protectedWeight -= entry.weight;
+    }
+    if (entry.segment != PINNED) {
+      entry.unlink();
+    }
+    entry.segment = null;
+    weight -= entry.weight;
+  }
+}
@@ -0,0 +1,160 @@
+/**
+ * Copyright 2011 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package playn.core;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests {@link GlyphAtlas}.
+ */
+public class GlyphAtlasTest {
+
+  // the size of each glyph laid out by our stub graphics
+  private static final int GLYPH_WIDTH = 10, GLYPH_HEIGHT = 12;
+
+  // the text laid out, and the images drawn, via our stubs
+  private final List<String> layouts = new ArrayList<String>();
+  private final List<Object> drawn = new ArrayList<Object>();
+
+  @Before public void stubPlatform() {
+    final Graphics graphics = stub(Graphics.class, new InvocationHandler() {
+      public Object invoke(Object proxy, Method method, Object[] args) {
+        if (method.getName().equals("layoutText")) {
+          layouts.add((String) args[0]);
+          return layout((String) args[0]);
+        } else if (method.getName().equals("createImage")) {
+          return image();
+        }
+        return defaultValue(method);
+      }
+    });
+    PlayN.setPlatform(stub(Platform.class, new InvocationHandler() {
+      public Object invoke(Object proxy, Method method, Object[] args) {
+        return method.getName().equals("graphics") ? graphics : defaultValue(method);
+      }
+    }));
+  }
+
+  @After public void clearPlatform() {
+    PlayN.setPlatform(null);
+  }
+
+  @Test public void testReuse() {
+    GlyphAtlas atlas = new GlyphAtlas(new TextFormat());
+    Canvas canvas = canvas(drawn);
+    atlas.draw(canvas, "hello", 0, 0);
+    assertEquals(4, atlas.glyphCount());
+    assertEquals(1, atlas.pageCount());
+    assertEquals(5, drawn.size());
+    assertEquals(5 * GLYPH_WIDTH, atlas.width("hello"), 0);
+    assertEquals(GLYPH_HEIGHT, atlas.height(), 0);
+
+    // redrawing, or drawing other text made of the same glyphs, renders nothing new
+    int laidOut = layouts.size();
+    atlas.draw(canvas, "hello", 0, 0);
+    atlas.draw(canvas, "hole", 0, 0);
+    assertEquals(4, atlas.glyphCount());
+    assertEquals(1, atlas.pageCount());
+    assertEquals(laidOut, layouts.size());
+    assertEquals(14, drawn.size());
+  }
+
+  @Test public void testWhitespace() {
+    GlyphAtlas atlas = new GlyphAtlas(new TextFormat());
+    atlas.prepare(" \t");
+    assertEquals(2, atlas.glyphCount());
+    assertEquals(0, atlas.pageCount());
+    assertNull(atlas.glyph(' ').page);
+    assertEquals(GLYPH_WIDTH, atlas.glyph(' ').advance, 0);
+
+    // whitespace advances the pen, but draws nothing
+    atlas.draw(canvas(drawn), "a b", 0, 0);
+    assertEquals(2, drawn.size());
+    assertEquals(3 * GLYPH_WIDTH, atlas.width("a b"), 0);
+  }
+
+  @Test public void testNewPage() {
+    // pages that fit two glyphs (and their padding) side by side, and one row of them
+    GlyphAtlas atlas = new GlyphAtlas(new TextFormat(), 2 * (GLYPH_WIDTH + 1), GLYPH_HEIGHT + 1);
+    atlas.prepare("ab");
+    assertEquals(1, atlas.pageCount());
+    assertSame(atlas.glyph('a').page, atlas.glyph('b').page);
+
+    atlas.prepare("c");
+    assertEquals(2, atlas.pageCount());
+    assertNotSame(atlas.glyph('a').page, atlas.glyph('c').page);
+    atlas.prepare("d");
+    assertEquals(2, atlas.pageCount());
+    assertSame(atlas.glyph('c').page, atlas.glyph('d').page);
+  }
+
+  protected static TextLayout layout(final String text) {
+    // lay out each character as a fixed size glyph, and whitespace as having no visible pixels
+    final float width = text.trim().length() == 0 ? 0 : text.length() * GLYPH_WIDTH;
+    return stub(TextLayout.class, new InvocationHandler() {
+      public Object invoke(Object proxy, Method method, Object[] args) {
+        if (method.getName().equals("width")) {
+          return width;
+        } else if (method.getName().equals("height")) {
+          return (float) GLYPH_HEIGHT;
+        }
+        return defaultValue(method);
+      }
+    });
+  }
+
+  protected static CanvasImage image() {
+    final Canvas canvas = canvas(null);
+    return stub(CanvasImage.class, new InvocationHandler() {
+      public Object invoke(Object proxy, Method method, Object[] args) {
+        return method.getName().equals("canvas") ? canvas : defaultValue(method);
+      }
+    });
+  }
+
+  protected static Canvas canvas(final List<Object> drawn) {
+    return stub(Canvas.class, new InvocationHandler() {
+      public Object invoke(Object proxy, Method method, Object[] args) {
+        if (drawn != null && method.getName().equals("drawImage")) {
+          drawn.add(args[0]);
+        }
+        // the canvas's methods return the canvas, for chaining
+        return method.getReturnType() == Canvas.class ? proxy : defaultValue(method);
+      }
+    });
+  }
+
+  protected static <T> T stub(Class<T> type, InvocationHandler handler) {
+    return type.cast(Proxy.newProxyInstance(
+      GlyphAtlasTest.class.getClassLoader(), new Class<?>[] { type }, handler));
+  }
+
+  protected static Object defaultValue(Method method) {
+    Class<?> type = method.getReturnType();
+    if (type == boolean.class) return false;
+    if (type == int.class) return 0;
+    if (type == float.class) return 0f;
+    if (type == double.class) return 0d;
+    return null;
+  }
+}
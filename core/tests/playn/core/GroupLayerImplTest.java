@@ -68,6 +68,78 @@ public class GroupLayerImplTest {
     }
   }
 
+  @Test public void testSameDepthKeepsAddOrder() {
+    TestGroupLayer group = new TestGroupLayer();
+    List<TestLayer> layers = new ArrayList<TestLayer>();
+    for (int ii = 0; ii < 100; ii++) {
+      TestLayer layer = new TestLayer();
+      layers.add(layer);
+      group.add(layer);
+    }
+    // remove and re-add every other layer, and bounce one layer's depth; layers that move go to
+    // the end of their depth
+    List<TestLayer> expect = new ArrayList<TestLayer>();
+    for (int ii = 3; ii < layers.size(); ii += 2) expect.add(layers.get(ii));
+    for (int ii = 0; ii < layers.size(); ii += 2) expect.add(layers.get(ii));
+    expect.add(layers.get(1));
+
+    for (int ii = 0; ii < layers.size(); ii += 2) group.remove(layers.get(ii));
+    for (int ii = 0; ii < layers.size(); ii += 2) group.add(layers.get(ii));
+    layers.get(1).setDepth(1);
+    layers.get(1).setDepth(0);
+
+    assertEquals(expect.size(), group.size());
+    for (int ii = 0; ii < expect.size(); ii++) {
+      assertSame(expect.get(ii), group.get(ii));
+    }
+  }
+
+  @Test public void testHitTest() {
+    testHitTest(0);
+  }
+
+  @Test public void testIndexedHitTest() {
+    testHitTest(16);
+  }
+
+  protected void testHitTest(float cellSize) {
+    TestGroupLayer group = new TestGroupLayer();
+    group.setHitIndex(cellSize);
+    group.setTranslation(100, 100);
+
+    // a 10x10 grid of 10x10 tiles, with a big layer on top of the last row
+    SizedLayer[][] tiles = new SizedLayer[10][10];
+    for (int yy = 0; yy < 10; yy++) {
+      for (int xx = 0; xx < 10; xx++) {
+        tiles[yy][xx] = new SizedLayer(10, 10);
+        tiles[yy][xx].setTranslation(xx * 10, yy * 10);
+        group.add(tiles[yy][xx]);
+      }
+    }
+    SizedLayer top = new SizedLayer(100, 10);
+    top.setTranslation(0, 90);
+    top.setDepth(1);
+    group.add(top);
+
+    assertSame(tiles[2][3], group.hitTest(135, 125));
+    assertSame(top, group.hitTest(135, 195));
+    assertNull(group.hitTest(95, 125));
+    assertNull(group.hitTest(135, 205));
+
+    // moved and hidden layers should be noticed
+    tiles[2][3].setTranslation(200, 200);
+    assertNull(group.hitTest(135, 125));
+    assertSame(tiles[2][3], group.hitTest(305, 305));
+    top.setVisible(false);
+    assertSame(tiles[9][3], group.hitTest(135, 195));
+
+    // as should removed layers, and layers moved by way of their parent
+    group.remove(tiles[9][3]);
+    assertNull(group.hitTest(135, 195));
+    group.setTranslation(0, 0);
+    assertSame(tiles[2][4], group.hitTest(45, 25));
+  }
+
   protected List<TestLayer> createLayers() {
     int[] zs = { 0, 0, 0, 1, 1, 1, 2, 2, 2, 3, 3, 3, 4 };
     TestLayer[] layers = new TestLayer[zs.length];
@@ -88,6 +160,26 @@ public class GroupLayerImplTest {
   protected static class TestLayer extends AbstractLayer {
   }
 
+  protected static class SizedLayer extends TestLayer implements Layer.HasSize {
+    public final float width, height;
+    public SizedLayer(float width, float height) {
+      this.width = width;
+      this.height = height;
+    }
+    public float width() {
+      return width;
+    }
+    public float height() {
+      return height;
+    }
+    public float scaledWidth() {
+      return transform.scaleX() * width;
+    }
+    public float scaledHeight() {
+      return transform.scaleY() * height;
+    }
+  }
+
   protected static class TestGroupLayer extends AbstractLayer implements GroupLayer, ParentLayer {
     public final GroupLayerImpl<TestLayer> impl = new GroupLayerImpl<TestLayer>();
     public Layer get(int index) {
@@ -111,6 +203,21 @@ public class GroupLayerImplTest {
     public int size() {
       return impl.children.size();
     }
+    public void setCulling(boolean culling) {
+      impl.culling = culling;
+    }
+    public boolean culling() {
+      return impl.culling;
+    }
+    public void setHitIndex(float cellSize) {
+      impl.setHitIndex(cellSize);
+    }
+    @Override public Layer hitTest(float x, float y) {
+      return impl.hitTest(this, x, y);
+    }
+    public void childBoundsChanged(Layer layer) {
+      impl.childBoundsChanged(this, layer);
+    }
     public void depthChanged(Layer layer, float oldDepth) {
       impl.depthChanged(this, layer, oldDepth);
     }
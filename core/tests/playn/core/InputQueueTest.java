@@ -0,0 +1,179 @@
+/**
+ * Copyright 2011 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package playn.core;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests {@link InputQueue}.
+ */
+public class InputQueueTest {
+
+  @Test public void testDeliveryOrder() {
+    InputQueue queue = new InputQueue(2); // small, so that the buffer must grow
+    List<String> events = new ArrayList<String>();
+    listen(queue, events);
+    queue.keyDown(1, 65);
+    queue.mouseDown(2, 10, 20, Mouse.BUTTON_LEFT);
+    queue.pointerStart(3, 10, 20);
+    queue.mouseWheel(4, -1);
+    queue.mouseUp(5, 11, 21, Mouse.BUTTON_LEFT);
+    queue.keyUp(6, 65);
+    assertTrue(events.isEmpty());
+    assertEquals(6, queue.size());
+
+    queue.dispatch(10, new Stats());
+    assertEquals(0, queue.size());
+    assertEquals("[keyDown 65 @1.0, mouseDown 10.0,20.0 0, pointerStart 10.0,20.0, " +
+                 "wheel -1.0, mouseUp 11.0,21.0 0, keyUp 65 @6.0]", events.toString());
+  }
+
+  @Test public void testCoalescing() {
+    InputQueue queue = new InputQueue();
+    List<String> events = new ArrayList<String>();
+    listen(queue, events);
+    Stats stats = new Stats();
+    stats.setEnabled(true);
+
+    for (int ii = 0; ii < 100; ii++) {
+      queue.mouseMove(ii, ii, ii);
+    }
+    queue.mouseDown(100, 99, 99, Mouse.BUTTON_RIGHT);
+    queue.mouseMove(101, 5, 5);
+    queue.mouseMove(102, 6, 6);
+    assertEquals(3, queue.size());
+    queue.dispatch(110, stats);
+    stats.endFrame();
+    assertEquals("[mouseMove 99.0,99.0, mouseDown 99.0,99.0 2, mouseMove 6.0,6.0]",
+                 events.toString());
+    assertEquals(3, stats.counts(Stats.Count.INPUT_EVENTS).last(), 0);
+    assertEquals(100, stats.counts(Stats.Count.INPUT_COALESCED).last(), 0);
+    // latency is measured from the first of the coalesced moves
+    assertEquals(110, stats.inputLatency().last(), 0);
+
+    events.clear();
+    queue.setCoalesceMoves(false);
+    queue.mouseMove(1, 1, 1);
+    queue.mouseMove(2, 2, 2);
+    queue.dispatch(3, stats);
+    assertEquals(2, events.size());
+  }
+
+  @Test public void testInterleavedCoalescing() {
+    InputQueue queue = new InputQueue(2); // small, so that the buffer must grow
+    List<String> events = new ArrayList<String>();
+    listen(queue, events);
+    Stats stats = new Stats();
+    stats.setEnabled(true);
+
+    // some platforms report a mouse move alongside each pointer drag
+    queue.pointerStart(0, 0, 0);
+    for (int ii = 1; ii <= 50; ii++) {
+      queue.mouseMove(ii, ii, ii);
+      queue.pointerDrag(ii, ii, ii);
+    }
+    queue.keyDown(51, 65);
+    queue.pointerDrag(52, 60, 60);
+    queue.mouseMove(53, 61, 61);
+    queue.pointerDrag(54, 62, 62);
+    assertEquals(6, queue.size());
+    queue.dispatch(60, stats);
+    stats.endFrame();
+    assertEquals("[pointerStart 0.0,0.0, mouseMove 50.0,50.0, pointerDrag 50.0,50.0, " +
+                 "keyDown 65 @51.0, pointerDrag 62.0,62.0, mouseMove 61.0,61.0]",
+                 events.toString());
+    assertEquals(99, stats.counts(Stats.Count.INPUT_COALESCED).last(), 0);
+
+    // events that have been delivered are not merged into
+    events.clear();
+    queue.mouseMove(70, 70, 70);
+    queue.dispatch(70, stats);
+    assertEquals("[mouseMove 70.0,70.0]", events.toString());
+  }
+
+  @Test public void testReuse() {
+    InputQueue queue = new InputQueue();
+    final List<Object> events = new ArrayList<Object>();
+    final List<Boolean> prevented = new ArrayList<Boolean>();
+    queue.setMouseListener(new Mouse.Adapter() {
+      @Override public void onMouseMove(Mouse.MotionEvent event) {
+        events.add(event);
+        prevented.add(event.getPreventDefault());
+        event.setPreventDefault(true);
+      }
+    });
+    queue.setCoalesceMoves(false);
+    queue.mouseMove(1, 1, 1);
+    queue.mouseMove(2, 2, 2);
+    queue.dispatch(3, new Stats());
+    // the same instance is reinitialized for each event
+    assertSame(events.get(0), events.get(1));
+    assertEquals(2, ((Mouse.MotionEvent) events.get(1)).x(), 0);
+    assertEquals("[false, false]", prevented.toString());
+  }
+
+  @Test public void testPostDuringDispatch() {
+    final InputQueue queue = new InputQueue();
+    final List<Integer> keys = new ArrayList<Integer>();
+    queue.setKeyboardListener(new Keyboard.Adapter() {
+      @Override public void onKeyDown(Keyboard.Event event) {
+        keys.add(event.keyCode());
+        queue.keyDown(event.time() + 1, event.keyCode() + 1);
+      }
+    });
+    queue.keyDown(0, 1);
+    queue.dispatch(0, new Stats());
+    assertEquals(1, keys.size());
+    assertEquals(1, queue.size());
+    queue.dispatch(0, new Stats());
+    assertEquals(2, keys.size());
+  }
+
+  protected static void listen(InputQueue queue, final List<String> events) {
+    queue.setMouseListener(new Mouse.Listener() {
+      public void onMouseDown(Mouse.ButtonEvent event) {
+        events.add("mouseDown " + event.x() + "," + event.y() + " " + event.button());
+      }
+      public void onMouseUp(Mouse.ButtonEvent event) {
+        events.add("mouseUp " + event.x() + "," + event.y() + " " + event.button());
+      }
+      public void onMouseMove(Mouse.MotionEvent event) {
+        events.add("mouseMove " + event.x() + "," + event.y());
+      }
+      public void onMouseWheelScroll(Mouse.WheelEvent event) {
+        events.add("wheel " + event.velocity());
+      }
+    });
+    queue.setPointerListener(new Pointer.Adapter() {
+      @Override public void onPointerStart(Pointer.Event event) {
+        events.add("pointerStart " + event.x() + "," + event.y());
+      }
+      @Override public void onPointerDrag(Pointer.Event event) {
+        events.add("pointerDrag " + event.x() + "," + event.y());
+      }
+    });
+    queue.setKeyboardListener(new Keyboard.Adapter() {
+      @Override public void onKeyDown(Keyboard.Event event) {
+        events.add("keyDown " + event.keyCode() + " @" + event.time());
+      }
+      @Override public void onKeyUp(Keyboard.Event event) {
+        events.add("keyUp " + event.keyCode() + " @" + event.time());
+      }
+    });
+  }
+}
@@ -102,6 +102,52 @@ public class LayerUtilTest {
     root.clear();
   }
 
+  @Test public void testWorldTransform() {
+    TestGroupLayer root = new TestGroupLayer();
+    TestGroupLayer middle = new TestGroupLayer();
+    TestLayer child = new TestLayer();
+    root.add(middle);
+    middle.add(child);
+
+    middle.setTranslation(10, -10);
+    middle.setScale(2f);
+    middle.setAlpha(0.5f);
+    child.setOrigin(5, 5);
+    child.setRotation((float)Math.PI / 2);
+    child.setAlpha(0.5f);
+
+    // the world transform should agree with layerToScreen
+    Point local = new Point(3f, 4f);
+    Point expect = Layer.Util.layerToScreen(child, local, new Point());
+    Point actual = child.worldTransform().transform(local, new Point());
+    assertEquals(expect.x(), actual.x(), tol);
+    assertEquals(expect.y(), actual.y(), tol);
+    assertEquals(0.25f, child.worldAlpha(), tol);
+
+    // nothing changed, so nothing should be recomputed
+    int middleVersion = middle.worldVersion, childVersion = child.worldVersion;
+    child.worldTransform();
+    assertEquals(middleVersion, middle.worldVersion);
+    assertEquals(childVersion, child.worldVersion);
+
+    // coordinate conversions only read transforms, so they should not invalidate anything either
+    Layer.Util.screenToLayer(child, 50, 50);
+    Layer.Util.layerToScreen(child, 5, 5);
+    child.worldTransform();
+    assertEquals(middleVersion, middle.worldVersion);
+    assertEquals(childVersion, child.worldVersion);
+
+    // changing an ancestor should propagate to its descendants
+    middle.setTranslation(20, 0);
+    expect = Layer.Util.layerToScreen(child, local, new Point());
+    actual = child.worldTransform().transform(local, new Point());
+    assertEquals(expect.x(), actual.x(), tol);
+    assertEquals(expect.y(), actual.y(), tol);
+    assertTrue(child.worldVersion != childVersion);
+
+    root.clear();
+  }
+
   protected static class TestLayer extends AbstractLayer {
   }
 
@@ -128,5 +174,17 @@ public class LayerUtilTest {
     public int size() {
       return impl.children.size();
     }
+    public void setCulling(boolean culling) {
+      impl.culling = culling;
+    }
+    public boolean culling() {
+      return impl.culling;
+    }
+    public void setHitIndex(float cellSize) {
+      impl.setHitIndex(cellSize);
+    }
+    @Override public Layer hitTest(float x, float y) {
+      return impl.hitTest(this, x, y);
+    }
   }
 }
\ No newline at end of file
@@ -0,0 +1,68 @@
+/**
+ * Copyright 2011 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package playn.core;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests {@link Stats}.
+ */
+public class StatsTest {
+
+  @Test public void testHistogramWraps() {
+    Stats.Histogram hist = new Stats.Histogram(4);
+    assertEquals(0, hist.mean(), 0);
+    for (int ii = 1; ii <= 6; ii++) {
+      hist.add(ii);
+    }
+    // only 3, 4, 5 and 6 remain
+    assertEquals(4, hist.size());
+    assertEquals(6, hist.last(), 0);
+    assertEquals(4.5f, hist.mean(), 0.001f);
+    assertEquals(6, hist.max(), 0);
+  }
+
+  @Test public void testPercentile() {
+    Stats.Histogram hist = new Stats.Histogram(100);
+    for (int ii = 100; ii > 0; ii--) {
+      hist.add(ii);
+    }
+    assertEquals(1, hist.percentile(0), 0);
+    assertEquals(50, hist.percentile(0.5f), 0);
+    assertEquals(95, hist.percentile(0.95f), 0);
+    assertEquals(100, hist.percentile(1), 0);
+  }
+
+  @Test public void testFrames() {
+    Stats stats = new Stats(8);
+    stats.increment(Stats.Count.FLUSHES);
+    stats.endFrame();
+    assertEquals(0, stats.counts(Stats.Count.FLUSHES).size());
+
+    stats.setEnabled(true);
+    stats.addTime(Stats.Phase.UPDATE, 2);
+    stats.addTime(Stats.Phase.UPDATE, 3);
+    stats.add(Stats.Count.FLUSHES, 2);
+    stats.increment(Stats.Count.FLUSHES);
+    stats.endFrame();
+    stats.endFrame();
+    assertEquals(2, stats.times(Stats.Phase.UPDATE).size());
+    assertEquals(0, stats.times(Stats.Phase.UPDATE).last(), 0);
+    assertEquals(5, stats.times(Stats.Phase.UPDATE).max(), 0);
+    assertEquals(1.5f, stats.counts(Stats.Count.FLUSHES).mean(), 0.001f);
+  }
+}
@@ -0,0 +1,51 @@
+/**
+ * Copyright 2011 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package playn.core;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests {@link TextFormat}.
+ */
+public class TextFormatTest {
+
+  @Test public void testEquality() {
+    TextFormat format = new TextFormat();
+    assertEquals(format, new TextFormat());
+    assertEquals(format.hashCode(), new TextFormat().hashCode());
+
+    TextFormat styled = format.withFont(new TestFont("Helvetica", 12)).withTextColor(0xFFFF0000).
+      withEffect(TextFormat.Effect.shadow(0xFF000000, 2, 2));
+    TextFormat same = new TextFormat().withEffect(TextFormat.Effect.shadow(0xFF000000, 2, 2)).
+      withTextColor(0xFFFF0000).withFont(new TestFont("Helvetica", 12));
+    assertEquals(styled, same);
+    assertEquals(styled.hashCode(), same.hashCode());
+
+    assertFalse(format.equals(styled));
+    assertFalse(styled.equals(same.withFont(new TestFont("Helvetica", 14))));
+    assertFalse(styled.equals(same.withWrapWidth(100)));
+    assertFalse(styled.equals(same.withAlignment(TextFormat.Alignment.CENTER)));
+    assertFalse(styled.equals(same.withEffect(TextFormat.Effect.shadow(0xFF000000, 2, 3))));
+    assertFalse(styled.equals(same.withEffect(TextFormat.Effect.outline(0xFF000000))));
+    assertEquals(TextFormat.Effect.outline(0xFF00FF00), TextFormat.Effect.outline(0xFF00FF00));
+    assertFalse(TextFormat.Effect.NONE.equals(TextFormat.Effect.outline(0xFF00FF00)));
+  }
+
+  protected static class TestFont extends AbstractFont {
+    public TestFont(String name, float size) {
+      super(name, Font.Style.PLAIN, size);
+    }
+  }
+}
@@ -0,0 +1,69 @@
+/**
+ * Copyright 2011 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package playn.core.gl;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import playn.core.InternalTransform;
+import playn.core.StockInternalTransform;
+
+/**
+ * Tests the viewport culling in {@link LayerGL}.
+ */
+public class LayerGLTest {
+
+  @Test public void testCulled() {
+    TestLayer layer = new TestLayer(10, 10);
+    assertFalse(layer.culled(StockInternalTransform.IDENTITY, 100, 100));
+
+    // entirely off either edge of the viewport
+    layer.setTranslation(-10, 50);
+    assertTrue(layer.culled(StockInternalTransform.IDENTITY, 100, 100));
+    layer.setTranslation(50, 100);
+    assertTrue(layer.culled(StockInternalTransform.IDENTITY, 100, 100));
+
+    // partially on screen
+    layer.setTranslation(-5, 95);
+    assertFalse(layer.culled(StockInternalTransform.IDENTITY, 100, 100));
+
+    // an eighth turn about its center swings the layer from off the left edge back on screen
+    layer.setOrigin(5, 5);
+    layer.setTranslation(-6, 55);
+    assertTrue(layer.culled(StockInternalTransform.IDENTITY, 100, 100));
+    layer.setRotation((float)Math.PI / 4);
+    assertFalse(layer.culled(StockInternalTransform.IDENTITY, 100, 100));
+
+    // changes in size should be noticed as well
+    layer.setRotation(0);
+    layer.setOrigin(0, 0);
+    layer.setTranslation(-20, 50);
+    assertTrue(layer.culled(StockInternalTransform.IDENTITY, 100, 100));
+    layer.width = 25;
+    assertFalse(layer.culled(StockInternalTransform.IDENTITY, 100, 100));
+  }
+
+  protected static class TestLayer extends LayerGL {
+    public float width, height;
+    public TestLayer(float width, float height) {
+      this.width = width;
+      this.height = height;
+    }
+    @Override public boolean culled(InternalTransform parentTransform, float vw, float vh) {
+      return culled(parentTransform, width, height, vw, vh);
+    }
+    @Override public void paint(InternalTransform parentTransform, float parentAlpha) {
+    }
+  }
+}
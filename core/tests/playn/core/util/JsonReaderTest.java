@@ -0,0 +1,175 @@
+/**
+ * Copyright 2011 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package playn.core.util;
+
+import java.util.Random;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import playn.core.Json;
+import static playn.core.Json.Token.*;
+
+/**
+ * Tests {@link JsonReader}.
+ */
+public class JsonReaderTest {
+
+  @Test public void testTokens() {
+    Json.Reader r = new JsonReader(
+      " {\"a\": [1, -2.5, true, false, null, \"s\"], \"b\": {}, \"c\": []} ");
+    assertNull(r.token());
+    assertEquals(BEGIN_OBJECT, r.next());
+    assertEquals(1, r.depth());
+    assertEquals(KEY, r.next());
+    assertTrue(r.keyEquals("a"));
+    assertFalse(r.keyEquals("b"));
+    assertEquals(BEGIN_ARRAY, r.next());
+    assertEquals(2, r.depth());
+    assertEquals(NUMBER, r.next());
+    assertEquals(1, r.getInt());
+    assertEquals(NUMBER, r.next());
+    assertEquals(-2.5, r.getNumber(), 0);
+    assertEquals(-2, r.getInt());
+    assertEquals("-2.5", r.getString());
+    assertEquals(BOOLEAN, r.next());
+    assertTrue(r.getBoolean());
+    assertEquals(BOOLEAN, r.next());
+    assertFalse(r.getBoolean());
+    assertEquals(NULL, r.next());
+    assertNull(r.getString());
+    assertEquals(STRING, r.next());
+    assertEquals("s", r.getString());
+    assertEquals(0, r.getInt());
+    assertEquals(END_ARRAY, r.next());
+    assertEquals(1, r.depth());
+    assertEquals(KEY, r.next());
+    assertEquals("b", r.getString());
+    assertEquals(BEGIN_OBJECT, r.next());
+    assertEquals(END_OBJECT, r.next());
+    assertEquals(KEY, r.next());
+    assertEquals(BEGIN_ARRAY, r.next());
+    assertEquals(END_ARRAY, r.next());
+    assertEquals(END_OBJECT, r.next());
+    assertEquals(0, r.depth());
+    assertEquals(END_DOCUMENT, r.next());
+    assertEquals(END_DOCUMENT, r.next());
+  }
+
+  @Test public void testSkip() {
+    Json.Reader r = new JsonReader("{\"a\": {\"x\": [1, [2, {}]]}, \"b\": 3, \"c\": 4}");
+    r.next();
+    assertEquals(KEY, r.next());
+    r.skip();
+    assertEquals(END_OBJECT, r.token());
+    assertEquals(KEY, r.next());
+    assertTrue(r.keyEquals("b"));
+    r.next();
+    r.skip(); // no-op on a scalar
+    assertEquals(3, r.getInt());
+    assertEquals(KEY, r.next());
+    assertTrue(r.keyEquals("c"));
+  }
+
+  @Test public void testStrings() {
+    Json.Reader r = new JsonReader("[\"a\\\"b\\\\c\\/d\\n\\t\\u00e9\\u20AC\", \"\"]");
+    r.next();
+    assertEquals(STRING, r.next());
+    assertEquals("a\"b\\c/d\n\t\u00e9\u20ac", r.getString());
+    assertEquals(STRING, r.next());
+    assertEquals("", r.getString());
+    assertTrue(r.keyEquals(""));
+  }
+
+  @Test public void testNumbers() {
+    String[] nums = { "0", "-0", "7", "123456789012", "9007199254740993", "1e3", "2.5E-3",
+                      "0.1", "-1.7976931348623157e308", "4.9e-324", "1e400", "3.14159265358979",
+                      "12345678901234567890", "1.00000000000000000001" };
+    StringBuilder doc = new StringBuilder("[");
+    for (int ii = 0; ii < nums.length; ii++) {
+      doc.append(ii == 0 ? "" : ",").append(nums[ii]);
+    }
+    Json.Reader r = new JsonReader(doc.append("]").toString());
+    r.next();
+    for (String num : nums) {
+      assertEquals(NUMBER, r.next());
+      assertEquals(num, Double.doubleToLongBits(Double.parseDouble(num)),
+                   Double.doubleToLongBits(r.getNumber()));
+    }
+    r = new JsonReader("[9007199254740993, -42, 2.9]");
+    r.next();
+    r.next();
+    assertEquals(9007199254740993L, r.getLong());
+    r.next();
+    assertEquals(-42, r.getInt());
+    r.next();
+    assertEquals(2, r.getInt());
+  }
+
+  @Test public void testRandomDecimals() {
+    // the fast path must round exactly as Double.parseDouble does
+    Random rando = new Random(42);
+    StringBuilder doc = new StringBuilder("[");
+    String[] nums = new String[2000];
+    for (int ii = 0; ii < nums.length; ii++) {
+      double d = (rando.nextDouble() - 0.5) * Math.pow(10, rando.nextInt(20) - 10);
+      nums[ii] = (ii % 2 == 0) ? String.valueOf(d) : String.valueOf((float) d);
+      doc.append(ii == 0 ? "" : ",").append(nums[ii]);
+    }
+    Json.Reader r = new JsonReader(doc.append("]").toString());
+    r.next();
+    for (String num : nums) {
+      r.next();
+      assertEquals(num, Double.parseDouble(num), r.getNumber(), 0);
+    }
+  }
+
+  @Test public void testLongDocument() {
+    // exercise tokens that straddle buffer boundaries
+    StringBuilder doc = new StringBuilder("[");
+    for (int ii = 0; ii < 5000; ii++) {
+      doc.append(ii == 0 ? "" : ",").append("{\"k").append(ii).append("\":\"v\\u0041").append(ii).
+        append("\",\"n\":").append(ii).append(".5}");
+    }
+    Json.Reader r = new JsonReader(doc.append("]").toString());
+    assertEquals(BEGIN_ARRAY, r.next());
+    for (int ii = 0; ii < 5000; ii++) {
+      assertEquals(BEGIN_OBJECT, r.next());
+      r.next();
+      assertEquals("k" + ii, r.getString());
+      r.next();
+      assertEquals("vA" + ii, r.getString());
+      r.next();
+      r.next();
+      assertEquals(ii + 0.5, r.getNumber(), 0);
+      assertEquals(END_OBJECT, r.next());
+    }
+    assertEquals(END_ARRAY, r.next());
+    assertEquals(END_DOCUMENT, r.next());
+  }
+
+  @Test public void testMalformed() {
+    String[] docs = { "", "{", "{\"a\" 1}", "{\"a\":1,}", "[1 2]", "[tru]", "[\"a]", "{1:2}",
+                      "[1.]", "[-]", "[1e]", "[1] 2", "[\"\\x\"]" };
+    for (String doc : docs) {
+      Json.Reader r = new JsonReader(doc);
+      try {
+        while (r.next() != END_DOCUMENT) {}
+        fail("Expected failure parsing: " + doc);
+      } catch (RuntimeException e) {
+        // expected
+      }
+    }
+  }
+}
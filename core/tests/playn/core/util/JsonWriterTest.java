@@ -0,0 +1,84 @@
+/**
+ * Copyright 2011 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package playn.core.util;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import playn.core.Json;
+
+/**
+ * Tests {@link JsonWriter}.
+ */
+public class JsonWriterTest {
+
+  @Test public void testWrite() {
+    Json.Writer w = new JsonWriter();
+    w.object().key("x").value(10).key("y").value(2.5).key("z").value(3.0).key("e").value(1e30);
+    w.key("s").value("a\"b</c\n\u0001\u00e9").key("n").value((String) null);
+    w.key("o").object().key("t").value(true).key("f").value(false).endObject();
+    w.key("a").array().value(1).array().endArray().object().endObject().endArray();
+    w.endObject();
+    assertEquals("{\"x\":10,\"y\":2.5,\"z\":3,\"e\":1.0E30," +
+                 "\"s\":\"a\\\"b<\\/c\\n\\u0001\u00e9\",\"n\":null," +
+                 "\"o\":{\"t\":true,\"f\":false},\"a\":[1,[],{}]}", w.write());
+
+    // the writer is reset by write()
+    w.array().value(-0.125).endArray();
+    assertEquals("[-0.125]", w.write());
+  }
+
+  @Test public void testRoundTrip() {
+    Json.Writer w = new JsonWriter();
+    w.array();
+    for (int ii = 0; ii < 100; ii++) {
+      w.object().key("id").value(ii).key("pos").value(ii / 7.0).key("name").value("n" + ii).
+        endObject();
+    }
+    Json.Reader r = new JsonReader(w.endArray().write());
+    r.next();
+    for (int ii = 0; ii < 100; ii++) {
+      r.next();
+      r.next();
+      r.next();
+      assertEquals(ii, r.getInt());
+      r.next();
+      r.next();
+      assertEquals(ii / 7.0, r.getNumber(), 0);
+      r.next();
+      r.next();
+      assertEquals("n" + ii, r.getString());
+      r.next();
+    }
+  }
+
+  @Test public void testMisuse() {
+    try {
+      new JsonWriter().object().value(1);
+      fail();
+    } catch (IllegalStateException e) {}
+    try {
+      new JsonWriter().array().key("a");
+      fail();
+    } catch (IllegalStateException e) {}
+    try {
+      new JsonWriter().array().endObject();
+      fail();
+    } catch (IllegalStateException e) {}
+    try {
+      new JsonWriter().array().value(Double.NaN);
+      fail();
+    } catch (IllegalArgumentException e) {}
+  }
+}
@@ -0,0 +1,69 @@
+/**
+ * Copyright 2011 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package playn.core.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import pythagoras.i.Rectangle;
+
+/**
+ * Tests {@link SkylinePacker}.
+ */
+public class SkylinePackerTest {
+
+  @Test public void testFillsExactly() {
+    SkylinePacker packer = new SkylinePacker(64, 64);
+    for (int ii = 0; ii < 16; ii++) {
+      assertNotNull(packer.pack(16, 16));
+    }
+    assertEquals(64 * 64, packer.usedArea());
+    assertNull(packer.pack(1, 1));
+  }
+
+  @Test public void testRejectsOversized() {
+    SkylinePacker packer = new SkylinePacker(64, 64);
+    assertNull(packer.pack(65, 1));
+    assertNull(packer.pack(1, 65));
+    assertNotNull(packer.pack(64, 64));
+  }
+
+  @Test public void testNoOverlap() {
+    SkylinePacker packer = new SkylinePacker(256, 256);
+    List<Rectangle> packed = new ArrayList<Rectangle>();
+    Random rando = new Random(42);
+    for (int ii = 0; ii < 500; ii++) {
+      Rectangle rect = packer.pack(1 + rando.nextInt(24), 1 + rando.nextInt(24));
+      if (rect == null) continue;
+      assertTrue(rect.x >= 0 && rect.y >= 0);
+      assertTrue(rect.x + rect.width <= 256 && rect.y + rect.height <= 256);
+      for (Rectangle other : packed) {
+        assertFalse(rect + " overlaps " + other, overlaps(rect, other));
+      }
+      packed.add(rect);
+    }
+    assertTrue(packed.size() > 100);
+  }
+
+  protected static boolean overlaps(Rectangle a, Rectangle b) {
+    return a.x < b.x + b.width && b.x < a.x + a.width &&
+      a.y < b.y + b.height && b.y < a.y + a.height;
+  }
+}
@@ -0,0 +1,68 @@
+/**
+ * Copyright 2011 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package playn.core.util;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests {@link SpatialGrid}.
+ */
+public class SpatialGridTest {
+
+  @Test public void testQuery() {
+    SpatialGrid<String> grid = new SpatialGrid<String>(10);
+    grid.put("a", 0, 0, 5, 5);
+    grid.put("b", 15, -25, 35, -5);
+    grid.put("huge", -1000, -1000, 1000, 1000);
+
+    assertEquals(set("a", "huge"), query(grid, 2, 2));
+    assertEquals(set("b", "huge"), query(grid, 20, -20));
+    assertEquals(set("huge"), query(grid, 50, 50));
+
+    // re-putting moves a value, and removing removes it
+    grid.put("a", 20, -20, 22, -18);
+    assertEquals(set("huge"), query(grid, 2, 2));
+    assertEquals(set("a", "b", "huge"), query(grid, 21, -19));
+    assertTrue(grid.remove("b"));
+    assertFalse(grid.remove("b"));
+    assertTrue(grid.remove("huge"));
+    assertEquals(set("a"), query(grid, 21, -19));
+    assertEquals(1, grid.size());
+  }
+
+  @Test public void testDistantCells() {
+    // cells far enough apart share a hash key, but must not be confused
+    SpatialGrid<String> grid = new SpatialGrid<String>(1);
+    grid.put("near", 0, 0, 0.5f, 0.5f);
+    grid.put("far", 65536, 0, 65536.5f, 0.5f);
+    assertEquals(set("near"), query(grid, 0.25f, 0.25f));
+    assertEquals(set("far"), query(grid, 65536.25f, 0.25f));
+  }
+
+  protected static Set<String> query(SpatialGrid<String> grid, float x, float y) {
+    Set<String> into = new HashSet<String>();
+    grid.query(x, y, into);
+    return into;
+  }
+
+  protected static Set<String> set(String... values) {
+    Set<String> set = new HashSet<String>();
+    for (String value : values) set.add(value);
+    return set;
+  }
+}
@@ -0,0 +1,79 @@
+/**
+ * Copyright 2011 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package playn.core.util;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests {@link TreapList}.
+ */
+public class TreapListTest {
+
+  @Test public void testMatchesArrayList() {
+    TreapList<Integer> treap = new TreapList<Integer>();
+    List<Integer> list = new ArrayList<Integer>();
+    Random rando = new Random(42);
+    for (int ii = 0; ii < 5000; ii++) {
+      int op = rando.nextInt(4);
+      if (op < 2 || list.isEmpty()) {
+        int index = rando.nextInt(list.size() + 1);
+        treap.add(index, ii);
+        list.add(index, ii);
+      } else if (op == 2) {
+        int index = rando.nextInt(list.size());
+        assertEquals(list.remove(index), treap.remove(index));
+      } else {
+        Integer value = list.get(rando.nextInt(list.size()));
+        assertEquals(list.indexOf(value), treap.indexOf(value));
+        assertTrue(treap.remove(value));
+        list.remove(value);
+      }
+      if (ii % 100 == 0) {
+        assertEquals(list, treap);
+      }
+    }
+    assertEquals(list, treap);
+    for (int ii = 0; ii < list.size(); ii++) {
+      assertEquals(list.get(ii), treap.get(ii));
+      assertEquals(ii, treap.indexOf(list.get(ii)));
+    }
+  }
+
+  @Test public void testIteratorRemove() {
+    TreapList<String> treap = new TreapList<String>();
+    for (String s : new String[] { "a", "b", "c", "d" }) treap.add(s);
+    for (Iterator<String> iter = treap.iterator(); iter.hasNext(); ) {
+      if (iter.next().compareTo("b") <= 0) iter.remove();
+    }
+    assertEquals(2, treap.size());
+    assertEquals("c", treap.get(0));
+    assertFalse(treap.contains("a"));
+    assertEquals(-1, treap.indexOf("b"));
+  }
+
+  @Test(expected=IllegalArgumentException.class)
+  public void testRejectsDuplicates() {
+    TreapList<String> treap = new TreapList<String>();
+    treap.add("a");
+    treap.add("a");
+  }
+}
@@ -0,0 +1,113 @@
+/**
+ * Copyright 2011 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package playn.core.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests {@link WeightedCache}.
+ */
+public class WeightedCacheTest {
+
+  @Test public void testEvictLeastRecentlyUsed() {
+    WeightedCache<String, int[]> cache = create(30);
+    cache.put("a", new int[10]);
+    cache.put("b", new int[10]);
+    cache.put("c", new int[10]);
+    assertEquals(30, cache.weight());
+    cache.put("d", new int[10]);
+    assertNull(cache.get("a"));
+    assertNotNull(cache.get("d"));
+    assertEquals(3, cache.size());
+    assertEquals(30, cache.weight());
+    assertEquals(1, cache.hits());
+    assertEquals(1, cache.misses());
+    assertEquals(1, cache.evictions());
+  }
+
+  @Test public void testScanResistance() {
+    WeightedCache<String, int[]> cache = create(100);
+    cache.put("hot", new int[20]);
+    cache.get("hot");
+    // a stream of entries used only once must not evict an entry that was used again
+    for (int ii = 0; ii < 50; ii++) {
+      cache.put("cold" + ii, new int[10]);
+    }
+    assertNotNull(cache.get("hot"));
+    assertTrue(cache.weight() <= 100);
+  }
+
+  @Test public void testPinning() {
+    final List<String> evicted = new ArrayList<String>();
+    WeightedCache<String, int[]> cache = new WeightedCache<String, int[]>(20, WEIGHER) {
+      @Override protected void evicted(String key, int[] value) {
+        evicted.add(key);
+      }
+    };
+    cache.put("a", new int[10]);
+    assertTrue(cache.pin("a"));
+    assertTrue(cache.pin("a"));
+    assertFalse(cache.pin("missing"));
+    cache.put("b", new int[10]);
+    cache.put("c", new int[10]);
+    cache.put("d", new int[10]);
+    assertEquals(20, cache.weight());
+    assertTrue(cache.containsKey("a"));
+    assertEquals("[b, c]", evicted.toString());
+
+    // pinned entries may exceed the budget, but are evicted once unpinned
+    cache.setBudget(5);
+    assertEquals(10, cache.weight());
+    cache.unpin("a");
+    assertTrue(cache.isPinned("a"));
+    cache.unpin("a");
+    assertFalse(cache.containsKey("a"));
+    assertEquals(0, cache.weight());
+  }
+
+  @Test public void testReweigh() {
+    final int[] size = { 0 };
+    WeightedCache<String, int[]> cache = new WeightedCache<String, int[]>(
+      100, new WeightedCache.Weigher<String, int[]>() {
+        public int weigh(String key, int[] value) {
+          return key.equals("loading") ? size[0] : value.length;
+        }
+      });
+    cache.put("other", new int[50]);
+    cache.put("loading", new int[0]);
+    assertEquals(50, cache.weight());
+    size[0] = 70;
+    cache.reweigh("loading");
+    assertFalse(cache.containsKey("other"));
+    assertEquals(70, cache.weight());
+    cache.remove("loading");
+    assertEquals(0, cache.weight());
+    assertEquals(0, cache.size());
+  }
+
+  protected static WeightedCache<String, int[]> create(int budget) {
+    return new WeightedCache<String, int[]>(budget, WEIGHER);
+  }
+
+  protected static final WeightedCache.Weigher<String, int[]> WEIGHER =
+    new WeightedCache.Weigher<String, int[]>() {
+      public int weigh(String key, int[] value) {
+        return value.length;
+      }
+    };
+}
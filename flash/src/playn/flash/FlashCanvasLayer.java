@@ -220,11 +220,11 @@ public class FlashCanvasLayer extends FlashLayer implements CanvasLayer {
 
   @Override
   public float scaledWidth() {
-    return transform().scaleX() * width();
+    return transform.scaleX() * width();
   }
 
   @Override
   public float scaledHeight() {
-    return transform().scaleY() * height();
+    return transform.scaleY() * height();
   }
 }
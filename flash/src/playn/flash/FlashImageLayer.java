@@ -112,6 +112,7 @@ public class FlashImageLayer extends FlashLayer implements ImageLayer {
   public void clearHeight() {
     height = NOT_SET;
     dirty = true;
+    boundsChanged();
   }
 
   private void applySettingIfDirty() {
@@ -158,6 +159,7 @@ public class FlashImageLayer extends FlashLayer implements ImageLayer {
   public void clearWidth() {
     width = NOT_SET;
     dirty = true;
+    boundsChanged();
   }
 
   /* (non-Javadoc)
@@ -175,6 +177,7 @@ public class FlashImageLayer extends FlashLayer implements ImageLayer {
   public void setHeight(float height) {
     this.height = height;
     dirty = true;
+    boundsChanged();
   }
 
   /* (non-Javadoc)
@@ -183,6 +186,7 @@ public class FlashImageLayer extends FlashLayer implements ImageLayer {
   @Override
   public void setImage(Image image) {
     setBitmapData((FlashImage) image);
+    boundsChanged();
   }
 
   /* (non-Javadoc)
@@ -221,6 +225,7 @@ public class FlashImageLayer extends FlashLayer implements ImageLayer {
   public void setWidth(float width) {
     this.width = width;
     dirty = true;
+    boundsChanged();
   }
 
   /* (non-Javadoc)
@@ -247,12 +252,12 @@ public class FlashImageLayer extends FlashLayer implements ImageLayer {
 
   @Override
   public float scaledWidth() {
-    return transform().scaleX() * width();
+    return transform.scaleX() * width();
   }
 
   @Override
   public float scaledHeight() {
-    return transform().scaleY() * height();
+    return transform.scaleY() * height();
   }
 
   @Override
@@ -20,6 +20,7 @@ import java.util.ArrayList;
 import playn.core.Asserts;
 import playn.core.Json;
 import playn.core.TypedArrayBuilder;
+import playn.core.util.JsonReader;
 import playn.flash.json.JsonArray;
 import playn.flash.json.JsonBoolean;
 import playn.flash.json.JsonNumber;
@@ -34,6 +35,11 @@ class FlashJson implements Json {
     return new ObjectImpl((JsonObject) playn.flash.json.Json.instance().parse(json));
   }
 
+  @Override
+  public Reader newReader(String json) {
+    return new JsonReader(json);
+  }
+
   static class ArrayImpl implements Array {
 
     private final JsonArray arr;
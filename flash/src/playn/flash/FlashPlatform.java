@@ -23,6 +23,7 @@ import playn.core.Touch;
 import flash.events.Event;
 
 import playn.core.Storage;
+import playn.core.Stats;
 
 import flash.display.Sprite;
 
@@ -30,6 +31,7 @@ import flash.events.EventType;
 
 import playn.core.Analytics;
 import playn.core.Audio;
+import playn.core.Binary;
 import playn.core.PlayN;
 import playn.core.Game;
 import playn.core.Graphics;
@@ -85,6 +87,7 @@ public class FlashPlatform implements Platform {
   private TimerCallback updateCallback;
   private Storage storage;
   private Analytics analytics;
+  private Stats stats = new Stats();
 
   // Non-instantiable.
   public FlashPlatform() {
@@ -124,6 +127,12 @@ public class FlashPlatform implements Platform {
     return json;
   }
 
+  @Override
+  public Binary binary() {
+    throw new UnsupportedOperationException(
+      "Binary serialization is not yet supported on the Flash platform");
+  }
+
   @Override
   public Keyboard keyboard() {
     return keyboard;
@@ -274,4 +283,9 @@ public class FlashPlatform implements Platform {
   public Analytics analytics() {
     return analytics;
   }
+
+  @Override
+  public Stats stats() {
+    return stats;
+  }
 }
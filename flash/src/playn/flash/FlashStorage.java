@@ -93,4 +93,9 @@ public class FlashStorage implements Storage {
     data[key]=data2;
   }-*/;
 
+  @Override
+  public void flush() {
+    // changes are flushed as they are made
+  }
+
 }
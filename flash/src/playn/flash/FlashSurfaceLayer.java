@@ -62,11 +62,11 @@ public class FlashSurfaceLayer extends FlashLayer implements SurfaceLayer {
 
   @Override
   public float scaledWidth() {
-    return transform().scaleX() * width();
+    return transform.scaleX() * width();
   }
 
   @Override
   public float scaledHeight() {
-    return transform().scaleY() * height();
+    return transform.scaleY() * height();
   }
 }
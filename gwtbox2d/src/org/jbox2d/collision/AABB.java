@@ -158,18 +158,10 @@ public class AABB {
 	 * @return
 	 */
 	public final boolean contains(final AABB aabb) {
-		/*
-		 * boolean result = true;
-		 * result = result && lowerBound.x <= aabb.lowerBound.x;
-		 * result = result && lowerBound.y <= aabb.lowerBound.y;
-		 * result = result && aabb.upperBound.x <= upperBound.x;
-		 * result = result && aabb.upperBound.y <= upperBound.y;
-		 * return result;
-		 */
 		// djm: faster putting all of them together, as if one is false we leave the logic
 		// early
-		return lowerBound.x > aabb.lowerBound.x && lowerBound.y > aabb.lowerBound.y && aabb.upperBound.x > upperBound.x
-				&& aabb.upperBound.y > upperBound.y;
+		return lowerBound.x <= aabb.lowerBound.x && lowerBound.y <= aabb.lowerBound.y
+				&& aabb.upperBound.x <= upperBound.x && aabb.upperBound.y <= upperBound.y;
 	}
 	
 	/**
@@ -55,7 +55,7 @@ public class BroadPhase implements TreeCallback {
 	
 	private int m_proxyCount;
 	
-	private DynamicTreeNode[] m_moveBuffer;
+	private int[] m_moveBuffer;
 	private int m_moveCapacity;
 	private int m_moveCount;
 	
@@ -63,6 +63,7 @@ public class BroadPhase implements TreeCallback {
 	private int m_pairCapacity;
 	private int m_pairCount;
 	
+	private int m_queryProxyId;
 	private DynamicTreeNode m_queryProxy;
 	
 	public BroadPhase() {
@@ -77,9 +78,10 @@ public class BroadPhase implements TreeCallback {
 		
 		m_moveCapacity = 16;
 		m_moveCount = 0;
-		m_moveBuffer = new DynamicTreeNode[m_moveCapacity];
+		m_moveBuffer = new int[m_moveCapacity];
 		
 		m_tree = new DynamicTree();
+		m_queryProxyId = NULL_PROXY;
 		m_queryProxy = null;
 	}
 	
@@ -94,7 +96,7 @@ public class BroadPhase implements TreeCallback {
 	public final DynamicTreeNode createProxy(final AABB aabb, Object userData) {
 		DynamicTreeNode node = m_tree.createProxy(aabb, userData);
 		++m_proxyCount;
-		bufferMove(node);
+		bufferMove(node.id);
 		return node;
 	}
 	
@@ -104,7 +106,7 @@ public class BroadPhase implements TreeCallback {
 	 * @param proxyId
 	 */
 	public final void destroyProxy(DynamicTreeNode proxy) {
-		unbufferMove(proxy);
+		unbufferMove(proxy.id);
 		--m_proxyCount;
 		m_tree.destroyProxy(proxy);
 	}
@@ -116,23 +118,49 @@ public class BroadPhase implements TreeCallback {
 	public final void moveProxy(DynamicTreeNode proxy, final AABB aabb, final Vec2 displacement) {
 		boolean buffer = m_tree.moveProxy(proxy, aabb, displacement);
 		if (buffer) {
-			bufferMove(proxy);
+			bufferMove(proxy.id);
 		}
 	}
 	
+	/**
+	 * Call to trigger a re-processing of its pairs on the next call to UpdatePairs.
+	 */
+	public final void touchProxy(DynamicTreeNode proxy) {
+		bufferMove(proxy.id);
+	}
+	
+	/**
+	 * Sets the fat AABB of a proxy directly. This is used to restore a previously saved state.
+	 */
+	public final void setFatAABB(DynamicTreeNode proxy, final AABB aabb) {
+		m_tree.setFatAABB(proxy, aabb);
+	}
+	
+	/**
+	 * Get the number of proxies that have moved since the pairs were last updated (some of which
+	 * may since have been destroyed).
+	 */
+	public final int getMoveCount() {
+		return m_moveCount;
+	}
+	
+	/**
+	 * Get the specified moved proxy, or null if it has since been destroyed.
+	 */
+	public final DynamicTreeNode getMove(int index) {
+		int proxyId = m_moveBuffer[index];
+		return (proxyId == NULL_PROXY) ? null : m_tree.getProxy(proxyId);
+	}
+	
+	/**
+	 * Forget the proxies that have moved since the pairs were last updated.
+	 */
+	public final void clearMoves() {
+		m_moveCount = 0;
+	}
+	
 	public boolean testOverlap(DynamicTreeNode proxyA, DynamicTreeNode proxyB) {
-//		return AABB.testOverlap(proxyA.aabb, proxyB.aabb);
-		AABB a = proxyA.aabb;
-		AABB b = proxyB.aabb;
-		if (b.lowerBound.x - a.upperBound.x > 0.0f || b.lowerBound.y - a.upperBound.y > 0.0f) {
-			return false;
-		}
-		
-		if (a.lowerBound.x - b.upperBound.x > 0.0f || a.lowerBound.y - b.upperBound.y > 0.0f) {
-			return false;
-		}
-		
-		return true;
+		return m_tree.testOverlap(proxyA.id, proxyB.id);
 	}
 	
 	/**
@@ -160,19 +188,19 @@ public class BroadPhase implements TreeCallback {
 		
 		// Perform tree queries for all moving proxies.
 		for (int i = 0; i < m_moveCount; ++i) {
-			m_queryProxy = m_moveBuffer[i];
-			if (m_queryProxy == null) {
+			m_queryProxyId = m_moveBuffer[i];
+			if (m_queryProxyId == NULL_PROXY) {
 				continue;
 			}
+			m_queryProxy = m_tree.getProxy(m_queryProxyId);
 			
 			// We have to query the tree with the fat AABB so that
 			// we don't fail to create a pair that may touch later.
-			// final AABB fatAABB = m_tree.getFatAABB(m_queryProxy);
 			
 			// Query tree, create pairs and add them pair buffer.
-			// log.debug("quering aabb: "+m_queryProxy.aabb);
-			m_tree.query(this, m_queryProxy.aabb);
+			m_tree.query(this, m_queryProxyId);
 		}
+		m_queryProxy = null;
 		// log.debug("Number of pairs found: "+m_pairCount);
 		
 		// Reset move buffer
@@ -226,6 +254,14 @@ public class BroadPhase implements TreeCallback {
 		m_tree.query(callback, aabb);
 	}
 	
+	/**
+	 * Query an AABB for overlapping proxies, using the supplied traversal stack.
+	 * See {@link DynamicTree#query(TreeCallback, AABB, DynamicTree.Stack)}.
+	 */
+	public final void query(final TreeCallback callback, final AABB aabb, final DynamicTree.Stack stack) {
+		m_tree.query(callback, aabb, stack);
+	}
+	
 	/**
 	 * Ray-cast against the proxies in the tree. This relies on the callback
 	 * to perform a exact ray-cast in the case were the proxy contains a shape.
@@ -243,6 +279,22 @@ public class BroadPhase implements TreeCallback {
 		m_tree.raycast(callback, input);
 	}
 	
+	/**
+	 * Ray-cast against the proxies in the tree, using the supplied traversal stack.
+	 * See {@link DynamicTree#raycast(TreeRayCastCallback, RayCastInput, DynamicTree.Stack)}.
+	 */
+	public final void raycast(final TreeRayCastCallback callback, final RayCastInput input,
+			final DynamicTree.Stack stack) {
+		m_tree.raycast(callback, input, stack);
+	}
+	
+	/**
+	 * Returns the proxy with the specified id, see {@link DynamicTreeNode#getId}.
+	 */
+	public final DynamicTreeNode getProxy(int proxyId) {
+		return m_tree.getProxy(proxyId);
+	}
+	
 	/**
 	 * Compute the height of the embedded tree.
 	 * 
@@ -252,25 +304,22 @@ public class BroadPhase implements TreeCallback {
 		return m_tree.computeHeight();
 	}
 	
-	protected final void bufferMove(DynamicTreeNode node) {
+	protected final void bufferMove(int proxyId) {
 		if (m_moveCount == m_moveCapacity) {
-			DynamicTreeNode[] old = m_moveBuffer;
+			int[] old = m_moveBuffer;
 			m_moveCapacity *= 2;
-			m_moveBuffer = new DynamicTreeNode[m_moveCapacity];
-			for (int i = 0; i < old.length; i++) {
-				m_moveBuffer[i] = old[i];
-			}
+			m_moveBuffer = new int[m_moveCapacity];
+			System.arraycopy(old, 0, m_moveBuffer, 0, old.length);
 		}
 		
-		m_moveBuffer[m_moveCount] = node;
+		m_moveBuffer[m_moveCount] = proxyId;
 		++m_moveCount;
 	}
 	
-	protected final void unbufferMove(DynamicTreeNode proxy) {
+	protected final void unbufferMove(int proxyId) {
 		for (int i = 0; i < m_moveCount; i++) {
-			if (m_moveBuffer[i] == proxy) {
-				m_moveBuffer[i] = null;
-				return;
+			if (m_moveBuffer[i] == proxyId) {
+				m_moveBuffer[i] = NULL_PROXY;
 			}
 		}
 	}
@@ -283,7 +332,7 @@ public class BroadPhase implements TreeCallback {
 		
 		// log.debug("Got a proxy back");
 		// A proxy cannot form a pair with itself.
-		if (proxy == m_queryProxy) {
+		if (proxy.id == m_queryProxyId) {
 			// log.debug("It was us...");
 			return true;
 		}
@@ -26,8 +26,6 @@
  ******************************************************************************/
 package org.jbox2d.collision.broadphase;
 
-import java.util.Stack;
-
 import org.jbox2d.callbacks.DebugDraw;
 import org.jbox2d.callbacks.TreeCallback;
 import org.jbox2d.callbacks.TreeRayCastCallback;
@@ -37,9 +35,6 @@ import org.jbox2d.common.Color3f;
 import org.jbox2d.common.MathUtils;
 import org.jbox2d.common.Settings;
 import org.jbox2d.common.Vec2;
-import org.jbox2d.pooling.IOrderedStack;
-import org.jbox2d.pooling.OrderedStack;
-import org.jbox2d.pooling.OrderedStackVec2;
 
 // updated to rev 100
 /**
@@ -49,31 +44,62 @@ import org.jbox2d.pooling.OrderedStackVec2;
  * so that the proxy AABB is bigger than the client object. This allows the client
  * object to move by small amounts without triggering a tree update.
  * 
+ * Java note: nodes are identified by int ids and stored in parallel arrays (with freed
+ * nodes kept on a free list), so that traversals walk flat memory rather than chasing
+ * references. Each leaf is also represented by a {@link DynamicTreeNode}, which is the
+ * proxy handed out to clients.
+ * 
  * @author daniel
  */
 public class DynamicTree {
 	public static final int MAX_STACK_SIZE = 128;
 	
-	private DynamicTreeNode m_root;
+	public static final int NULL_NODE = -1;
+	
+	private int m_root;
 	
 	private int m_nodeCount;
+	private int m_nodeCapacity;
+	
+	// the (fat) AABB of each node
+	private float[] m_lowerX, m_lowerY, m_upperX, m_upperY;
+	// the parent of each node, or the next free node for nodes on the free list
+	private int[] m_parent;
+	// the children of each node, NULL_NODE for leaves
+	private int[] m_child1, m_child2;
+	// the proxy for each leaf
+	private DynamicTreeNode[] m_proxies;
 	
-	private DynamicTreeNode lastLeaf;
+	private int m_freeList;
 	
 	private int m_insertionCount;
 	
 	private int m_path;
 	
-	private final Stack<DynamicTreeNode> nodeStack = new Stack<DynamicTreeNode>();
+	// explicit traversal stack, shared by queries and ray casts; each traversal uses the part of
+	// it above that of any traversal in whose callback it was started
+	private final Stack m_stack = new Stack();
+	
 	private final Vec2[] drawVecs = new Vec2[4];
 	private int nodeCounter = 0;
 	
 	public DynamicTree() {
-		m_root = null;
+		m_root = NULL_NODE;
 		m_nodeCount = 0;
 		m_insertionCount = 0;
 		m_path = 0;
-		lastLeaf = null;
+		
+		m_nodeCapacity = 16;
+		m_lowerX = new float[m_nodeCapacity];
+		m_lowerY = new float[m_nodeCapacity];
+		m_upperX = new float[m_nodeCapacity];
+		m_upperY = new float[m_nodeCapacity];
+		m_parent = new int[m_nodeCapacity];
+		m_child1 = new int[m_nodeCapacity];
+		m_child2 = new int[m_nodeCapacity];
+		m_proxies = new DynamicTreeNode[m_nodeCapacity];
+		linkFreeNodes(0);
+		
 		for (int i = 0; i < drawVecs.length; i++) {
 			drawVecs[i] = new Vec2();
 		}
@@ -87,16 +113,18 @@ public class DynamicTree {
 	 * @return
 	 */
 	public final DynamicTreeNode createProxy(final AABB argAABB, Object argUserData) {
-		DynamicTreeNode proxy = allocateNode();
+		int node = allocateNode();
+		DynamicTreeNode proxy = new DynamicTreeNode();
+		proxy.id = node;
+		proxy.key = nodeCounter++;
+		proxy.userData = argUserData;
+		m_proxies[node] = proxy;
 		
 		// Fatten the aabb
-		proxy.aabb.lowerBound.x = argAABB.lowerBound.x - Settings.aabbExtension;
-		proxy.aabb.lowerBound.y = argAABB.lowerBound.y - Settings.aabbExtension;
-		proxy.aabb.upperBound.x = argAABB.upperBound.x + Settings.aabbExtension;
-		proxy.aabb.upperBound.y = argAABB.upperBound.y + Settings.aabbExtension;
-		proxy.userData = argUserData;
+		setAABB(node, argAABB.lowerBound.x - Settings.aabbExtension, argAABB.lowerBound.y - Settings.aabbExtension,
+				argAABB.upperBound.x + Settings.aabbExtension, argAABB.upperBound.y + Settings.aabbExtension);
 		
-		insertLeaf(proxy);
+		insertLeaf(node);
 		
 		int iterationCount = m_nodeCount >> 4;
 		int tryCount = 0;
@@ -117,15 +145,14 @@ public class DynamicTree {
 	 */
 	public final void destroyProxy(DynamicTreeNode argProxy) {
 		assert (argProxy != null);
-		assert (argProxy.isLeaf());
+		int node = argProxy.id;
+		assert (m_proxies[node] == argProxy);
 		
-		removeLeaf(argProxy);
-		freeNode(argProxy);
+		removeLeaf(node);
+		freeNode(node);
+		argProxy.id = NULL_NODE;
 	}
 	
-	// djm pooling
-	private final Vec2 d = new Vec2();
-	
 	/**
 	 * Move a proxy with a swepted AABB. If the proxy has moved outside of its fattened
 	 * AABB,
@@ -136,39 +163,85 @@ public class DynamicTree {
 	 */
 	public final boolean moveProxy(DynamicTreeNode argProxy, final AABB argAABB, Vec2 displacement) {
 		assert (argProxy != null);
-		assert (argProxy.isLeaf());
+		int node = argProxy.id;
+		assert (m_proxies[node] == argProxy);
 		
-		if (argProxy.aabb.contains(argAABB)) {
+		float lowerX = argAABB.lowerBound.x, lowerY = argAABB.lowerBound.y;
+		float upperX = argAABB.upperBound.x, upperY = argAABB.upperBound.y;
+		if (m_lowerX[node] <= lowerX && m_lowerY[node] <= lowerY && upperX <= m_upperX[node]
+				&& upperY <= m_upperY[node]) {
 			return false;
 		}
 		
-		removeLeaf(argProxy);
+		removeLeaf(node);
 		
 		// Extend AABB
-		argAABB.lowerBound.x -= Settings.aabbExtension;
-		argAABB.lowerBound.y -= Settings.aabbExtension;
-		argAABB.upperBound.x += Settings.aabbExtension;
-		argAABB.upperBound.y += Settings.aabbExtension;
+		lowerX -= Settings.aabbExtension;
+		lowerY -= Settings.aabbExtension;
+		upperX += Settings.aabbExtension;
+		upperY += Settings.aabbExtension;
 		
 		// Predict AABB displacement.
-		d.set(displacement).mulLocal(Settings.aabbMultiplier);
-		if (d.x < 0.0f) {
-			argAABB.lowerBound.x += d.x;
+		float dx = displacement.x * Settings.aabbMultiplier;
+		float dy = displacement.y * Settings.aabbMultiplier;
+		if (dx < 0.0f) {
+			lowerX += dx;
 		}
 		else {
-			argAABB.upperBound.x += d.x;
+			upperX += dx;
 		}
 		
-		if (d.y < 0.0f) {
-			argAABB.lowerBound.y += d.y;
+		if (dy < 0.0f) {
+			lowerY += dy;
 		}
 		else {
-			argAABB.upperBound.y += d.y;
+			upperY += dy;
+		}
+		
+		setAABB(node, lowerX, lowerY, upperX, upperY);
+		
+		insertLeaf(node);
+		return true;
+	}
+	
+	/**
+	 * Sets the fat AABB of a proxy directly, reinserting it if it changed. This is used to restore
+	 * a previously saved state.
+	 */
+	public final void setFatAABB(DynamicTreeNode argProxy, AABB argAABB) {
+		int node = argProxy.id;
+		assert (m_proxies[node] == argProxy);
+		
+		AABB aabb = argProxy.aabb;
+		if (aabb.lowerBound.x == argAABB.lowerBound.x && aabb.lowerBound.y == argAABB.lowerBound.y
+				&& aabb.upperBound.x == argAABB.upperBound.x && aabb.upperBound.y == argAABB.upperBound.y) {
+			return;
+		}
+		
+		removeLeaf(node);
+		setAABB(node, argAABB.lowerBound.x, argAABB.lowerBound.y, argAABB.upperBound.x, argAABB.upperBound.y);
+		insertLeaf(node);
+	}
+	
+	/**
+	 * Returns the proxy for the specified leaf node.
+	 */
+	public final DynamicTreeNode getProxy(int argNode) {
+		return m_proxies[argNode];
+	}
+	
+	/**
+	 * Returns true if the fat AABBs of the two specified nodes overlap.
+	 */
+	public final boolean testOverlap(int argNodeA, int argNodeB) {
+		if (m_lowerX[argNodeB] - m_upperX[argNodeA] > 0.0f || m_lowerY[argNodeB] - m_upperY[argNodeA] > 0.0f) {
+			return false;
 		}
 		
-		argProxy.aabb.set(argAABB);
+		if (m_lowerX[argNodeA] - m_upperX[argNodeB] > 0.0f || m_lowerY[argNodeA] - m_upperY[argNodeB] > 0.0f) {
+			return false;
+		}
 		
-		insertLeaf(argProxy);
 		return true;
 	}
 	
@@ -181,21 +254,21 @@ public class DynamicTree {
 	 * @param argIterations
 	 */
 	public final void rebalance(int argIterations) {
-		if (m_root == null) {
+		if (m_root == NULL_NODE) {
 			return;
 		}
-		DynamicTreeNode currNode;
+		int currNode;
 		for (int i = 0; i < argIterations; i++) {
 			currNode = m_root;
 			
 			int bit = 0;
-			while (currNode.isLeaf() == false) {
+			while (m_child1[currNode] != NULL_NODE) {
 				int goLeft = (m_path >> bit) & 1;
 				if (goLeft == 0) {
-					currNode = currNode.child1;
+					currNode = m_child1[currNode];
 				}
 				else {
-					currNode = currNode.child2;
+					currNode = m_child2[currNode];
 				}
 				bit = (bit + 1) & 31;
 			}
@@ -214,46 +287,73 @@ public class DynamicTree {
 	 * @param argAABB
 	 */
 	public final void query(TreeCallback argCallback, AABB argAABB) {
-		query(argCallback, argAABB, m_root, 1);
+		query(argCallback, argAABB, m_stack);
+	}
+	
+	/**
+	 * Query an AABB for overlapping proxies, using the supplied stack for the
+	 * traversal. This does not modify the tree, so it may be called from several
+	 * threads at once, each with its own stack, as long as the tree is not being
+	 * modified at the same time.
+	 */
+	public final void query(TreeCallback argCallback, AABB argAABB, Stack argStack) {
+		query(argCallback, argAABB.lowerBound.x, argAABB.lowerBound.y, argAABB.upperBound.x,
+				argAABB.upperBound.y, argStack);
+	}
+	
+	/**
+	 * Query the fat AABB of the specified node for overlapping proxies.
+	 */
+	public final void query(TreeCallback argCallback, int argNode) {
+		query(argCallback, m_lowerX[argNode], m_lowerY[argNode], m_upperX[argNode], m_upperY[argNode],
+				m_stack);
 	}
 	
-	// recursive query
-	// returns if to proceed
-	private final boolean query(TreeCallback argCallback, AABB argAABB, DynamicTreeNode argNode, int count) {
-		if (argNode == null) {
-			return true;
+	private final void query(TreeCallback argCallback, float lowerX, float lowerY, float upperX,
+			float upperY, Stack argStack) {
+		if (m_root == NULL_NODE) {
+			return;
 		}
 		
-		if (AABB.testOverlap(argAABB, argNode.aabb)) {
-			
-			if (argNode.isLeaf()) {
-				boolean proceed = argCallback.treeCallback(argNode);
-				if (!proceed) {
-					return false;
+		int base = argStack.m_top, count = base;
+		int[] stack = argStack.m_nodes;
+		if (count == stack.length) {
+			stack = argStack.grow();
+		}
+		stack[count++] = m_root;
+		try {
+			while (count > base) {
+				int node = stack[--count];
+				
+				if (lowerX - m_upperX[node] > 0.0f || lowerY - m_upperY[node] > 0.0f
+						|| m_lowerX[node] - upperX > 0.0f || m_lowerY[node] - upperY > 0.0f) {
+					continue;
 				}
-			}
-			else {
-				if (count < MAX_STACK_SIZE) {
-					boolean proceed = query(argCallback, argAABB, argNode.child1, ++count);
+				
+				if (m_child1[node] == NULL_NODE) {
+					// the callback may start another traversal, which must leave ours intact
+					argStack.m_top = count;
+					boolean proceed = argCallback.treeCallback(m_proxies[node]);
+					stack = argStack.m_nodes;
 					if (!proceed) {
-						return false;
+						return;
 					}
 				}
-				if (count < MAX_STACK_SIZE) {
-					boolean proceed = query(argCallback, argAABB, argNode.child2, ++count);
-					if (!proceed) {
-						return false;
+				else {
+					// push child2 first so that child1 is visited first
+					if (count + 2 > stack.length) {
+						stack = argStack.grow();
 					}
+					stack[count++] = m_child2[node];
+					stack[count++] = m_child1[node];
 				}
 			}
 		}
-		return true;
+		finally {
+			argStack.m_top = base;
+		}
 	}
 	
-	// stacks because it's recursive
-	private final IOrderedStack<Vec2> vec2s = new OrderedStackVec2(MAX_STACK_SIZE * 3 + 4, 10);
-	private final AABB aabb = new AABB();
-	private final RayCastInput subInput = new RayCastInput();
 	/**
 	 * Ray-cast against the proxies in the tree. This relies on the callback
 	 * to perform a exact ray-cast in the case were the proxy contains a shape.
@@ -268,103 +368,107 @@ public class DynamicTree {
 	 *            a callback class that is called for each proxy that is hit by the ray.
 	 */
 	public void raycast(TreeRayCastCallback argCallback, RayCastInput argInput) {
+		// the callback may cast another ray, so this cannot be shared
+		RayCastInput subInput = new RayCastInput();
+		subInput.p1.set(argInput.p1);
+		subInput.p2.set(argInput.p2);
+		subInput.maxFraction = argInput.maxFraction;
+		raycast(argCallback, subInput, m_stack);
+	}
+	
+	/**
+	 * Ray-cast against the proxies in the tree, using the supplied stack for the
+	 * traversal. The input is passed on to the callback, with its max fraction
+	 * clipped as the callback reports hits. This does not modify the tree, so it
+	 * may be called from several threads at once, each with its own input and
+	 * stack, as long as the tree is not being modified at the same time.
+	 */
+	public void raycast(TreeRayCastCallback argCallback, RayCastInput argInput, Stack argStack) {
+		if (m_root == NULL_NODE) {
+			return;
+		}
 		
-		final Vec2 r = vec2s.pop();
-		final Vec2 v = vec2s.pop();
-		final Vec2 absV = vec2s.pop();
-		
-		Vec2 p1 = argInput.p1;
-		Vec2 p2 = argInput.p2;
-		r.set(p2).subLocal(p1);
-		assert (r.lengthSquared() > 0f);
-		r.normalize();
+		float p1x = argInput.p1.x, p1y = argInput.p1.y;
+		float p2x = argInput.p2.x, p2y = argInput.p2.y;
+		float rx = p2x - p1x, ry = p2y - p1y;
+		float rlen = MathUtils.sqrt(rx * rx + ry * ry);
+		assert (rlen > 0f);
+		rx /= rlen;
+		ry /= rlen;
 		
 		// v is perpendicular to the segment.
-		Vec2.crossToOut(1f, r, v);
-		absV.set(v).absLocal();
+		float vx = -ry, vy = rx;
+		float absVx = MathUtils.abs(vx), absVy = MathUtils.abs(vy);
 		
 		// Separating axis for segment (Gino, p80).
 		// |dot(v, p1 - c)| > dot(|v|, h)
 		
-		float[] maxFraction = new float[1];
-		maxFraction[0] = argInput.maxFraction;
+		float maxFraction = argInput.maxFraction;
 		
 		// Build a bounding box for the segment.
-		final AABB segAABB = aabb;
-		// b2Vec2 t = p1 + maxFraction * (p2 - p1);
-		final Vec2 temp = vec2s.pop();
-		temp.set(p2).subLocal(p1).mulLocal(maxFraction[0]).addLocal(p1);
-		Vec2.minToOut(p1, temp, segAABB.lowerBound);
-		Vec2.maxToOut(p1, temp, segAABB.upperBound);
-		
-		raycast(m_root, argInput, 0, segAABB, v, p1, p2, absV, maxFraction, argCallback);
-		vec2s.push(4);
-	}
-	
-	public boolean raycast(DynamicTreeNode argNode, RayCastInput argInput, int argCount, AABB argSegAABB, Vec2 argV,
-			Vec2 argP1, Vec2 argP2, Vec2 argAbs_v, float[] argMaxFraction, TreeRayCastCallback argCallback) {
-		// start part from c++ code that's in the while loop
-		if (argNode == null) {
-			return false;
+		float tx = p1x + maxFraction * (p2x - p1x), ty = p1y + maxFraction * (p2y - p1y);
+		float segLowerX = MathUtils.min(p1x, tx), segLowerY = MathUtils.min(p1y, ty);
+		float segUpperX = MathUtils.max(p1x, tx), segUpperY = MathUtils.max(p1y, ty);
+		
+		int base = argStack.m_top, count = base;
+		int[] stack = argStack.m_nodes;
+		if (count == stack.length) {
+			stack = argStack.grow();
 		}
-		
-		if (AABB.testOverlap(argNode.aabb, argSegAABB) == false) {
-			return false;
-		}
-		
-		final Vec2 temp = vec2s.pop();
-		final Vec2 c = vec2s.pop();
-		final Vec2 h = vec2s.pop();
-		argNode.aabb.getCenterToOut(c);
-		argNode.aabb.getExtentsToOut(h);
-		
-		temp.set(argP1).subLocal(c);
-		float separation = MathUtils.abs(Vec2.dot(argV, temp)) - Vec2.dot(argAbs_v, h);
-		
-		if (separation > 0f) {
-			vec2s.push(3);
-			return false;
-		}
-		
-		if (argNode.isLeaf()) {
-			subInput.p1.set(argInput.p1);
-			subInput.p2.set(argInput.p2);
-			subInput.maxFraction = argMaxFraction[0];
-			
-			float value = argCallback.raycastCallback(subInput, argNode);
-			
-			if (value == 0f) {
-				vec2s.push(3);
-				// The client has terminated the ray cast.
-				return true;
-			}
-			
-			if (value > 0f) {
-				// Update segment bounding box
-				argMaxFraction[0] = value;
-				temp.set(argP2).subLocal(argP1).mulLocal(value).addLocal(argP1);
-				Vec2.minToOut(argP1, temp, argSegAABB.lowerBound);
-				Vec2.maxToOut(argP1, temp, argSegAABB.upperBound);
-			}
-		}
-		else {
-			if (argCount < MAX_STACK_SIZE) {
-				if (raycast(argNode.child1, argInput, ++argCount, argSegAABB, argV, argP1, argP2, argAbs_v,
-						argMaxFraction, argCallback)) {
-					vec2s.push(3);
-					return true; // to stop whole raycast
+		stack[count++] = m_root;
+		try {
+			while (count > base) {
+				int node = stack[--count];
+				
+				if (segLowerX - m_upperX[node] > 0.0f || segLowerY - m_upperY[node] > 0.0f
+						|| m_lowerX[node] - segUpperX > 0.0f || m_lowerY[node] - segUpperY > 0.0f) {
+					continue;
 				}
-			}
-			if (argCount < MAX_STACK_SIZE) {
-				if (raycast(argNode.child2, argInput, ++argCount, argSegAABB, argV, argP1, argP2, argAbs_v,
-						argMaxFraction, argCallback)) {
-					vec2s.push(3);
-					return true; // to stop whole raycast
+				
+				float cx = (m_lowerX[node] + m_upperX[node]) * .5f, cy = (m_lowerY[node] + m_upperY[node]) * .5f;
+				float hx = (m_upperX[node] - m_lowerX[node]) * .5f, hy = (m_upperY[node] - m_lowerY[node]) * .5f;
+				float separation = MathUtils.abs(vx * (p1x - cx) + vy * (p1y - cy)) - (absVx * hx + absVy * hy);
+				if (separation > 0f) {
+					continue;
+				}
+				
+				if (m_child1[node] == NULL_NODE) {
+					argInput.maxFraction = maxFraction;
+					
+					// the callback may start another traversal, which must leave ours intact
+					argStack.m_top = count;
+					float value = argCallback.raycastCallback(argInput, m_proxies[node]);
+					stack = argStack.m_nodes;
+					
+					if (value == 0f) {
+						// The client has terminated the ray cast.
+						return;
+					}
+					
+					if (value > 0f) {
+						// Update segment bounding box
+						maxFraction = value;
+						tx = p1x + value * (p2x - p1x);
+						ty = p1y + value * (p2y - p1y);
+						segLowerX = MathUtils.min(p1x, tx);
+						segLowerY = MathUtils.min(p1y, ty);
+						segUpperX = MathUtils.max(p1x, tx);
+						segUpperY = MathUtils.max(p1y, ty);
+					}
+				}
+				else {
+					// push child2 first so that child1 is visited first
+					if (count + 2 > stack.length) {
+						stack = argStack.grow();
+					}
+					stack[count++] = m_child2[node];
+					stack[count++] = m_child1[node];
 				}
 			}
 		}
-		vec2s.push(3);
-		return false;
+		finally {
+			argStack.m_top = base;
+		}
 	}
 	
 	/**
@@ -374,32 +478,38 @@ public class DynamicTree {
 		return computeHeight(m_root);
 	}
 	
-	private final int computeHeight(DynamicTreeNode argNode) {
-		if (argNode == null) {
+	private final int computeHeight(int argNode) {
+		if (argNode == NULL_NODE) {
 			return 0;
 		}
 		
-		assert (argNode != null);
-		int height1 = computeHeight(argNode.child1);
-		int height2 = computeHeight(argNode.child2);
+		int height1 = computeHeight(m_child1[argNode]);
+		int height2 = computeHeight(m_child2[argNode]);
 		return 1 + MathUtils.max(height1, height2);
 	}
 	
-	private final DynamicTreeNode allocateNode() {
-		if (nodeStack.isEmpty()) {
-			nodeStack.push(new DynamicTreeNode());
-			nodeStack.push(new DynamicTreeNode());
-			nodeStack.push(new DynamicTreeNode());
-			nodeStack.push(new DynamicTreeNode());
-			nodeStack.push(new DynamicTreeNode());
-			nodeStack.push(new DynamicTreeNode());
-		}
-		DynamicTreeNode node = nodeStack.pop();
-		node.parent = null;
-		node.child1 = null;
-		node.child2 = null;
-		node.userData = null;
-		node.key = nodeCounter++;
+	private final int allocateNode() {
+		if (m_freeList == NULL_NODE) {
+			assert (m_nodeCount == m_nodeCapacity);
+			int oldCapacity = m_nodeCapacity;
+			m_nodeCapacity *= 2;
+			m_lowerX = grow(m_lowerX, m_nodeCapacity);
+			m_lowerY = grow(m_lowerY, m_nodeCapacity);
+			m_upperX = grow(m_upperX, m_nodeCapacity);
+			m_upperY = grow(m_upperY, m_nodeCapacity);
+			m_parent = grow(m_parent, m_nodeCapacity);
+			m_child1 = grow(m_child1, m_nodeCapacity);
+			m_child2 = grow(m_child2, m_nodeCapacity);
+			DynamicTreeNode[] proxies = new DynamicTreeNode[m_nodeCapacity];
+			System.arraycopy(m_proxies, 0, proxies, 0, oldCapacity);
+			m_proxies = proxies;
+			linkFreeNodes(oldCapacity);
+		}
+		int node = m_freeList;
+		m_freeList = m_parent[node];
+		m_parent[node] = NULL_NODE;
+		m_child1[node] = NULL_NODE;
+		m_child2[node] = NULL_NODE;
 		m_nodeCount++;
 		return node;
 	}
@@ -409,159 +519,180 @@ public class DynamicTree {
 	 * 
 	 * @param argNode
 	 */
-	private final void freeNode(DynamicTreeNode argNode) {
-		assert (argNode != null);
+	private final void freeNode(int argNode) {
 		assert (0 < m_nodeCount);
-		nodeStack.push(argNode);
+		m_proxies[argNode] = null;
+		m_parent[argNode] = m_freeList;
+		m_freeList = argNode;
 		m_nodeCount--;
 	}
 	
-	private final Vec2 center = new Vec2();
-	private final Vec2 delta1 = new Vec2();
-	private final Vec2 delta2 = new Vec2();
+	// puts the nodes from start to capacity on the free list
+	private final void linkFreeNodes(int start) {
+		for (int i = start; i < m_nodeCapacity - 1; i++) {
+			m_parent[i] = i + 1;
+		}
+		m_parent[m_nodeCapacity - 1] = NULL_NODE;
+		m_freeList = start;
+	}
+	
+	private static float[] grow(float[] array, int capacity) {
+		float[] grown = new float[capacity];
+		System.arraycopy(array, 0, grown, 0, array.length);
+		return grown;
+	}
+	
+	private static int[] grow(int[] array, int capacity) {
+		int[] grown = new int[capacity];
+		System.arraycopy(array, 0, grown, 0, array.length);
+		return grown;
+	}
+	
+	private final void setAABB(int node, float lowerX, float lowerY, float upperX, float upperY) {
+		m_lowerX[node] = lowerX;
+		m_lowerY[node] = lowerY;
+		m_upperX[node] = upperX;
+		m_upperY[node] = upperY;
+		
+		// keep the proxy's copy in sync for clients that read it
+		DynamicTreeNode proxy = m_proxies[node];
+		if (proxy != null) {
+			proxy.aabb.lowerBound.x = lowerX;
+			proxy.aabb.lowerBound.y = lowerY;
+			proxy.aabb.upperBound.x = upperX;
+			proxy.aabb.upperBound.y = upperY;
+		}
+	}
+	
+	// sets the AABB of the node to the union of those of the two other nodes
+	private final void combine(int node, int a, int b) {
+		m_lowerX[node] = MathUtils.min(m_lowerX[a], m_lowerX[b]);
+		m_lowerY[node] = MathUtils.min(m_lowerY[a], m_lowerY[b]);
+		m_upperX[node] = MathUtils.max(m_upperX[a], m_upperX[b]);
+		m_upperY[node] = MathUtils.max(m_upperY[a], m_upperY[b]);
+	}
 	
-	private final void insertLeaf(DynamicTreeNode argNode) {
+	private final void insertLeaf(int argNode) {
 		m_insertionCount++;
 		
-		if (m_root == null) {
+		if (m_root == NULL_NODE) {
 			m_root = argNode;
-			argNode.parent = null;
+			m_parent[argNode] = NULL_NODE;
 			return;
 		}
 		
 		// find the best sibling
 		
-		argNode.aabb.getCenterToOut(center);
-		DynamicTreeNode sibling = m_root;
+		float centerX = (m_lowerX[argNode] + m_upperX[argNode]) * .5f;
+		float centerY = (m_lowerY[argNode] + m_upperY[argNode]) * .5f;
+		int sibling = m_root;
 		
-		DynamicTreeNode child1, child2;
-		if (sibling.isLeaf() == false) {
-			do {
-				child1 = sibling.child1;
-				child2 = sibling.child2;
-				
-				child1.aabb.getCenterToOut(delta1);
-				child2.aabb.getCenterToOut(delta2);
-				delta1.subLocal(center).absLocal();
-				delta2.subLocal(center).absLocal();
-				
-				float norm1 = delta1.x + delta1.y;
-				float norm2 = delta2.x + delta2.y;
-				
-				if (norm1 < norm2) {
-					sibling = child1;
-				}
-				else {
-					sibling = child2;
-				}
-				
+		while (m_child1[sibling] != NULL_NODE) {
+			int child1 = m_child1[sibling];
+			int child2 = m_child2[sibling];
+			
+			float norm1 = MathUtils.abs((m_lowerX[child1] + m_upperX[child1]) * .5f - centerX)
+					+ MathUtils.abs((m_lowerY[child1] + m_upperY[child1]) * .5f - centerY);
+			float norm2 = MathUtils.abs((m_lowerX[child2] + m_upperX[child2]) * .5f - centerX)
+					+ MathUtils.abs((m_lowerY[child2] + m_upperY[child2]) * .5f - centerY);
+			
+			if (norm1 < norm2) {
+				sibling = child1;
+			}
+			else {
+				sibling = child2;
 			}
-			while (sibling.isLeaf() == false);
 		}
 		
 		// Create a parent for the siblings
-		DynamicTreeNode node1 = sibling.parent;
-		DynamicTreeNode node2 = allocateNode();
-		node2.parent = node1;
-		node2.userData = null;
-		node2.aabb.combine(argNode.aabb, sibling.aabb);
+		int node1 = m_parent[sibling];
+		int node2 = allocateNode();
+		m_parent[node2] = node1;
+		combine(node2, argNode, sibling);
+		
+		m_child1[node2] = sibling;
+		m_child2[node2] = argNode;
+		m_parent[sibling] = node2;
+		m_parent[argNode] = node2;
 		
 		// was that the head node?
-		if (node1 != null) {
-			if (sibling.parent.child1 == sibling) {
-				node1.child1 = node2;
+		if (node1 != NULL_NODE) {
+			if (m_child1[node1] == sibling) {
+				m_child1[node1] = node2;
 			}
 			else {
-				node1.child2 = node2;
+				m_child2[node1] = node2;
 			}
 			
-			node2.child1 = sibling;
-			node2.child2 = argNode;
-			sibling.parent = node2;
-			argNode.parent = node2;
-			
 			// build the aabb's up in case we expanded them out
 			do {
-				if (node1.aabb.contains(node2.aabb)) {
+				if (m_lowerX[node1] <= m_lowerX[node2] && m_lowerY[node1] <= m_lowerY[node2]
+						&& m_upperX[node2] <= m_upperX[node1] && m_upperY[node2] <= m_upperY[node1]) {
 					break;
 				}
 				
-				node1.aabb.combine(node1.child1.aabb, node1.child2.aabb);
+				combine(node1, m_child1[node1], m_child2[node1]);
 				node2 = node1;
-				node1 = node1.parent;
+				node1 = m_parent[node1];
 			}
-			while (node1 != null);
+			while (node1 != NULL_NODE);
 		}
 		else {
-			node2.child1 = sibling;
-			node2.child2 = argNode;
-			sibling.parent = node2;
-			argNode.parent = node2;
 			m_root = node2;
 		}
 	}
 	
-	private final AABB oldAABB = new AABB();
-	
-	private final void removeLeaf(DynamicTreeNode argNode) {
+	private final void removeLeaf(int argNode) {
 		if (argNode == m_root) {
-			m_root = null;
-			
-			if (lastLeaf == argNode) {
-				lastLeaf = null;
-			}
+			m_root = NULL_NODE;
 			return;
 		}
 		
-		DynamicTreeNode node2 = argNode.parent;
-		DynamicTreeNode node1 = node2.parent;
-		DynamicTreeNode sibling;
-		if (node2.child1 == argNode) {
-			sibling = node2.child2;
+		int node2 = m_parent[argNode];
+		int node1 = m_parent[node2];
+		int sibling;
+		if (m_child1[node2] == argNode) {
+			sibling = m_child2[node2];
 		}
 		else {
-			sibling = node2.child1;
+			sibling = m_child1[node2];
 		}
 		
-		if (node1 != null) {
+		if (node1 != NULL_NODE) {
 			// Destroy node2 and connect node1 to sibling.
-			if (node1.child1 == node2) {
-				node1.child1 = sibling;
+			if (m_child1[node1] == node2) {
+				m_child1[node1] = sibling;
 			}
 			else {
-				node1.child2 = sibling;
+				m_child2[node1] = sibling;
 			}
 			
-			sibling.parent = node1;
+			m_parent[sibling] = node1;
 			freeNode(node2);
 			
 			// Adjust ancestor bounds. if the old one was larger, we just keep it
-			while (node1 != null) {
-				oldAABB.set(node1.aabb);
-				node1.aabb.combine(node1.child1.aabb, node1.child2.aabb);
+			while (node1 != NULL_NODE) {
+				float oldLowerX = m_lowerX[node1], oldLowerY = m_lowerY[node1];
+				float oldUpperX = m_upperX[node1], oldUpperY = m_upperY[node1];
+				combine(node1, m_child1[node1], m_child2[node1]);
 				
-				if (oldAABB.contains(node1.aabb)) {
+				if (oldLowerX <= m_lowerX[node1] && oldLowerY <= m_lowerY[node1]
+						&& m_upperX[node1] <= oldUpperX && m_upperY[node1] <= oldUpperY) {
 					break;
 				}
 				
-				node1 = node1.parent;
+				node1 = m_parent[node1];
 			}
 		}
 		else {
 			m_root = sibling;
-			sibling.parent = null;
+			m_parent[sibling] = NULL_NODE;
 			freeNode(node2);
 		}
-		
-		// in case we just removed our last leaf
-		// (this is for rebalancing)
-		if (lastLeaf == argNode) {
-			lastLeaf = m_root;
-		}
 	}
 	
 	public void drawTree(DebugDraw argDraw) {
-		if (m_root == null) {
+		if (m_root == NULL_NODE) {
 			return;
 		}
 		int height = computeHeight();
@@ -571,20 +702,38 @@ public class DynamicTree {
 	private final Color3f color = new Color3f();
 	private final Vec2 textVec = new Vec2();
 	
-	public void drawTree(DebugDraw argDraw, DynamicTreeNode argNode, int spot, int height) {
-		argNode.aabb.getVertices(drawVecs);
+	public void drawTree(DebugDraw argDraw, int argNode, int spot, int height) {
+		drawVecs[0].set(m_lowerX[argNode], m_lowerY[argNode]);
+		drawVecs[1].set(m_upperX[argNode], m_lowerY[argNode]);
+		drawVecs[2].set(m_upperX[argNode], m_upperY[argNode]);
+		drawVecs[3].set(m_lowerX[argNode], m_upperY[argNode]);
 		
 		color.set(1, (height - spot) * 1f / height, (height - spot) * 1f / height);
 		argDraw.drawPolygon(drawVecs, 4, color);
 		
-		argDraw.getViewportTranform().getWorldToScreen(argNode.aabb.upperBound, textVec);
+		argDraw.getViewportTranform().getWorldToScreen(drawVecs[2], textVec);
 		argDraw.drawString(textVec.x, textVec.y, (spot + 1) + "/" + height, color);
 		
-		if (argNode.child1 != null) {
-			drawTree(argDraw, argNode.child1, spot + 1, height);
+		if (m_child1[argNode] != NULL_NODE) {
+			drawTree(argDraw, m_child1[argNode], spot + 1, height);
+			drawTree(argDraw, m_child2[argNode], spot + 1, height);
 		}
-		if (argNode.child2 != null) {
-			drawTree(argDraw, argNode.child2, spot + 1, height);
+	}
+	
+	/**
+	 * Scratch space for traversing the tree. Each thread that queries the tree
+	 * needs its own. A traversal started from the callback of another may share
+	 * its stack, as it uses only the space above the entries of the first.
+	 */
+	public static final class Stack {
+		private int[] m_nodes = new int[MAX_STACK_SIZE];
+		// the end of the entries of the traversals in progress
+		private int m_top;
+		
+		private int[] grow() {
+			int[] nodes = new int[m_nodes.length * 2];
+			System.arraycopy(m_nodes, 0, nodes, 0, m_nodes.length);
+			return m_nodes = nodes;
 		}
 	}
 }
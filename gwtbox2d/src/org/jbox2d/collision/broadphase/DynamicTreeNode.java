@@ -28,19 +28,22 @@ package org.jbox2d.collision.broadphase;
 
 import org.jbox2d.collision.AABB;
 
+/**
+ * A proxy in a {@link DynamicTree}. The tree itself is stored in arrays indexed by node id;
+ * this is the client's handle on a leaf of that tree.
+ */
 public class DynamicTreeNode {
 	/**
-	 * This is the fattened AABB
+	 * This is the fattened AABB. It is a copy of the tree's data; don't modify.
 	 */
 	public final AABB aabb = new AABB();
 	
 	public Object userData;
 	
-	protected DynamicTreeNode parent;
-	protected DynamicTreeNode next;
-	
-	protected DynamicTreeNode child1;
-	protected DynamicTreeNode child2;
+	/**
+	 * the id of this proxy's leaf in the tree
+	 */
+	protected int id;
 	
 	/**
 	 * used for sorting purposes, don't modify
@@ -48,7 +51,15 @@ public class DynamicTreeNode {
 	public int key;
 	
 	public final boolean isLeaf() {
-		return child1 == null;
+		return true;
+	}
+	
+	/**
+	 * Returns the id of this proxy, which is stable for as long as the proxy
+	 * exists.
+	 */
+	public final int getId() {
+		return id;
 	}
 	
 	public Object getUserData() {
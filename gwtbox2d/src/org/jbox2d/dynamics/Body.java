@@ -1103,7 +1103,17 @@ public class Body {
 		}
 	}
 	
+	/**
+	 * Updates the transform to match the sweep, after a solver has moved this body. Static bodies
+	 * never move (their transform is set directly by {@link #setTransform}), and one may be shared
+	 * by islands that are solved concurrently, so their transform is left untouched; recomputing it
+	 * would expose half-written values to the other islands' solvers.
+	 */
 	public final void synchronizeTransform() {
+		if (m_type == BodyType.STATIC) {
+			return;
+		}
+		
 		// m_xf.R.set(m_sweep.a);
 		//
 		// //m_xf.position = m_sweep.c - Mul(m_xf.R, m_sweep.localCenter);
@@ -0,0 +1,34 @@
+/**
+ * Copyright 2011 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.jbox2d.dynamics;
+
+import org.jbox2d.dynamics.contacts.Contact;
+
+/**
+ * Computes contact manifolds during the narrow phase of a {@link World#step}. Each contact's
+ * manifold depends only on its own fixtures, so an executor may update them in any order, or
+ * concurrently.
+ * 
+ * @see World#setContactExecutor
+ * @see ParallelExecutor
+ */
+public interface ContactExecutor {
+
+	/**
+	 * Calls {@link Contact#updateManifold} on the first <code>count</code> contacts. This must not
+	 * return until all of the contacts have been updated. The contact manager then finishes the
+	 * updates, and notifies the contact listener, on the world's thread.
+	 */
+	void updateManifolds(Contact[] contacts, int count);
+}
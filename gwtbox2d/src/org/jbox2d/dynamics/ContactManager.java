@@ -47,9 +47,19 @@ public class ContactManager implements PairCallback {
 	public int m_contactCount;
 	public ContactFilter m_contactFilter;
 	public ContactListener m_contactListener;
+	public ContactExecutor m_contactExecutor;
 	
 	private final World pool;
 	
+	// what a deferred collide does with each contact, in list order
+	private static final byte UPDATE = 0, DESTROY = 1, SLEEPING = 2;
+	
+	// the contacts visited by a deferred collide and what is to be done with each, and the subset
+	// whose manifolds are computed by the executor
+	private Contact[] m_visited = new Contact[16];
+	private byte[] m_actions = new byte[16];
+	private Contact[] m_updates = new Contact[16];
+	
 	public ContactManager(World argPool) {
 		m_contactList = null;
 		m_contactCount = 0;
@@ -109,12 +119,19 @@ public class ContactManager implements PairCallback {
 		
 		// Call the factory.
 		Contact c = pool.popContact(fixtureA, fixtureB);
-		
+		link(c);
+	}
+	
+	/**
+	 * Inserts a contact, newly obtained from the pool, at the head of the world's contact list and
+	 * connects it to its bodies.
+	 */
+	public void link(Contact c) {
 		// Contact creation may swap fixtures.
-		fixtureA = c.getFixtureA();
-		fixtureB = c.getFixtureB();
-		bodyA = fixtureA.getBody();
-		bodyB = fixtureB.getBody();
+		Fixture fixtureA = c.getFixtureA();
+		Fixture fixtureB = c.getFixtureB();
+		Body bodyA = fixtureA.getBody();
+		Body bodyB = fixtureB.getBody();
 		
 		// Insert into the world.
 		c.m_prev = null;
@@ -151,6 +168,23 @@ public class ContactManager implements PairCallback {
 		++m_contactCount;
 	}
 	
+	/**
+	 * Returns all contacts to the pool without notifying the listener. This is used when
+	 * restoring a previously saved state.
+	 */
+	public void clear() {
+		Contact c = m_contactList;
+		while (c != null) {
+			Contact next = c.m_next;
+			c.getFixtureA().getBody().m_contactList = null;
+			c.getFixtureB().getBody().m_contactList = null;
+			pool.pushContact(c);
+			c = next;
+		}
+		m_contactList = null;
+		m_contactCount = 0;
+	}
+	
 	public void findNewContacts() {
 		m_broadPhase.updatePairs(this);
 	}
@@ -215,6 +249,11 @@ public class ContactManager implements PairCallback {
 	 * contact list.
 	 */
 	public void collide() {
+		if (m_contactExecutor != null) {
+			collideDeferred();
+			return;
+		}
+		
 		// Update awake contacts.
 		Contact c = m_contactList;
 		while (c != null) {
@@ -223,48 +262,139 @@ public class ContactManager implements PairCallback {
 			Body bodyA = fixtureA.getBody();
 			Body bodyB = fixtureB.getBody();
 			
-			if (bodyA.isAwake() == false && bodyB.isAwake() == false) {
+			if (isActive(bodyA) == false && isActive(bodyB) == false) {
 				c = c.getNext();
 				continue;
 			}
 			
-			// is this contact flagged for filtering?
-			if ((c.m_flags & Contact.FILTER_FLAG) == Contact.FILTER_FLAG) {
-				// Should these bodies collide?
-				if (bodyB.shouldCollide(bodyA) == false) {
-					Contact cNuke = c;
-					c = cNuke.getNext();
-					destroy(cNuke);
-					continue;
+			Contact next = c.getNext();
+			if (filter(c)) {
+				// The contact persists.
+				c.update(m_contactListener);
+			}
+			c = next;
+		}
+	}
+	
+	/**
+	 * Collides as above, but computes the manifolds via the contact executor. Contacts are first
+	 * classified without side effects, and then destroyed or finished in list order, so that the
+	 * listener sees exactly the sequence of callbacks of a serial pass.
+	 */
+	private void collideDeferred() {
+		int visitedCount = 0, updateCount = 0;
+		for (Contact c = m_contactList; c != null; c = c.getNext()) {
+			if (visitedCount == m_visited.length) {
+				m_visited = grow(m_visited);
+				byte[] actions = new byte[m_visited.length];
+				System.arraycopy(m_actions, 0, actions, 0, m_actions.length);
+				m_actions = actions;
+			}
+			byte action;
+			if (isActive(c.getFixtureA().getBody()) == false
+					&& isActive(c.getFixtureB().getBody()) == false) {
+				action = SLEEPING;
+			}
+			else if (persists(c)) {
+				if (updateCount == m_updates.length) {
+					m_updates = grow(m_updates);
 				}
-				
-				// Check user filtering.
-				if (m_contactFilter != null && m_contactFilter.shouldCollide(fixtureA, fixtureB) == false) {
-					Contact cNuke = c;
-					c = cNuke.getNext();
-					destroy(cNuke);
-					continue;
+				m_updates[updateCount++] = c;
+				action = UPDATE;
+			}
+			else {
+				action = DESTROY;
+			}
+			m_visited[visitedCount] = c;
+			m_actions[visitedCount++] = action;
+		}
+		
+		m_contactExecutor.updateManifolds(m_updates, updateCount);
+		for (int i = 0; i < updateCount; ++i) {
+			m_updates[i] = null;
+		}
+		
+		for (int i = 0; i < visitedCount; ++i) {
+			Contact c = m_visited[i];
+			m_visited[i] = null;
+			switch (m_actions[i]) {
+			case UPDATE:
+				c.finishUpdate(m_contactListener);
+				break;
+			case DESTROY:
+				destroy(c);
+				break;
+			default:
+				// finishing an earlier contact may have woken one of this contact's bodies, in which
+				// case a serial pass would have updated it on reaching it
+				if (isActive(c.getFixtureA().getBody()) || isActive(c.getFixtureB().getBody())) {
+					if (filter(c)) {
+						c.update(m_contactListener);
+					}
 				}
-				
-				// Clear the filtering flag.
-				c.m_flags &= ~Contact.FILTER_FLAG;
+				break;
+			}
+		}
+	}
+	
+	/**
+	 * Returns true if the body may have moved since the last step, so that its contacts need
+	 * updating. Static bodies never move, so whether they are awake (which depends only on the
+	 * islands in which they were last solved) is irrelevant.
+	 */
+	private static boolean isActive(Body body) {
+		return body.isAwake() && body.getType() != BodyType.STATIC;
+	}
+	
+	/**
+	 * Applies filtering to a contact and checks that its proxies still overlap, destroying it if
+	 * not.
+	 * 
+	 * @return true if the contact persists.
+	 */
+	private boolean filter(Contact c) {
+		if (persists(c)) {
+			return true;
+		}
+		destroy(c);
+		return false;
+	}
+	
+	/**
+	 * Applies filtering to a contact and checks that its proxies still overlap.
+	 * 
+	 * @return true if the contact persists, false if it should be destroyed.
+	 */
+	private boolean persists(Contact c) {
+		Fixture fixtureA = c.getFixtureA();
+		Fixture fixtureB = c.getFixtureB();
+		
+		// is this contact flagged for filtering?
+		if ((c.m_flags & Contact.FILTER_FLAG) == Contact.FILTER_FLAG) {
+			// Should these bodies collide?
+			if (fixtureB.getBody().shouldCollide(fixtureA.getBody()) == false) {
+				return false;
 			}
 			
-			DynamicTreeNode proxyIdA = fixtureA.m_proxy;
-			DynamicTreeNode proxyIdB = fixtureB.m_proxy;
-			boolean overlap = m_broadPhase.testOverlap(proxyIdA, proxyIdB);
-			
-			// Here we destroy contacts that cease to overlap in the broad-phase.
-			if (overlap == false) {
-				Contact cNuke = c;
-				c = cNuke.getNext();
-				destroy(cNuke);
-				continue;
+			// Check user filtering.
+			if (m_contactFilter != null && m_contactFilter.shouldCollide(fixtureA, fixtureB) == false) {
+				return false;
 			}
 			
-			// The contact persists.
-			c.update(m_contactListener);
-			c = c.getNext();
+			// Clear the filtering flag.
+			c.m_flags &= ~Contact.FILTER_FLAG;
 		}
+		
+		DynamicTreeNode proxyIdA = fixtureA.m_proxy;
+		DynamicTreeNode proxyIdB = fixtureB.m_proxy;
+		
+		// Here we destroy contacts that cease to overlap in the broad-phase.
+		return m_broadPhase.testOverlap(proxyIdA, proxyIdB);
+	}
+	
+	private static Contact[] grow(Contact[] contacts) {
+		Contact[] grown = new Contact[contacts.length * 2];
+		System.arraycopy(contacts, 0, grown, 0, contacts.length);
+		return grown;
 	}
 }
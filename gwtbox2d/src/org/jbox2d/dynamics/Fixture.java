@@ -69,6 +69,9 @@ public class Fixture {
 	
 	public boolean m_isSensor;
 	
+	// scratch index, assigned when saving a snapshot of the world
+	public int m_index;
+	
 	public Object m_userData;
 	
 	public Fixture(){
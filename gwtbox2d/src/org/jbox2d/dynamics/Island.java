@@ -235,6 +235,16 @@ public class Island {
 	private final Vec2 translation = new Vec2();
 	
 	public void solve(TimeStep step, Vec2 gravity, boolean allowSleep){
+		solve(step, gravity, allowSleep, false);
+	}
+	
+	/**
+	 * Solves this island. If <code>deferred</code> is true, this island writes nothing that is
+	 * shared with other islands (static bodies are never moved, nor put to sleep), so that
+	 * independent islands may be solved concurrently. The contact listener is not notified until
+	 * {@link #finish} is called.
+	 */
+	public void solve(TimeStep step, Vec2 gravity, boolean allowSleep, boolean deferred){
 		// Integrate velocities and apply damping.
 		for (int i = 0; i < m_bodyCount; ++i){
 			Body b = m_bodies[i];
@@ -367,7 +377,9 @@ public class Island {
 			}
 		}
 
-		report(contactSolver.m_constraints);
+		if (!deferred){
+			report(contactSolver.m_constraints);
+		}
 
 		if (allowSleep){
 			float minSleepTime = Float.MAX_VALUE;
@@ -401,12 +413,24 @@ public class Island {
 			if (minSleepTime >= Settings.timeToSleep){
 				for (int i = 0; i < m_bodyCount; ++i){
 					Body b = m_bodies[i];
+					if (deferred && b.getType() == BodyType.STATIC){
+						continue;
+					}
 					b.setAwake(false);
 				}
 			}
 		}
 	}
 	
+	/**
+	 * Completes a deferred solve by reporting the contact impulses to the listener. Islands must be
+	 * finished on the world's thread, in the order in which they were built, for the listener to
+	 * see the same sequence of reports as for a serial solve.
+	 */
+	public void finish(){
+		report(contactSolver.m_constraints);
+	}
+	
 	public void add(Body body){
 		assert(m_bodyCount < m_bodyCapacity);
 		body.m_islandIndex = m_bodyCount;
@@ -0,0 +1,33 @@
+/**
+ * Copyright 2011 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.jbox2d.dynamics;
+
+import org.jbox2d.common.Vec2;
+
+/**
+ * Solves the islands built during a {@link World#step}. Islands share no dynamic bodies, contacts
+ * or joints, so an executor may solve them in any order, or concurrently.
+ * 
+ * @see World#setIslandExecutor
+ * @see ParallelExecutor
+ */
+public interface IslandExecutor {
+
+	/**
+	 * Solves the first <code>count</code> islands, each via {@link Island#solve(TimeStep, Vec2,
+	 * boolean, boolean)} with <code>deferred</code> set. This must not return until all of the
+	 * islands have been solved. The world finishes the islands once this returns.
+	 */
+	void solve(Island[] islands, int count, TimeStep step, Vec2 gravity, boolean allowSleep);
+}
@@ -0,0 +1,208 @@
+/**
+ * Copyright 2011 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.jbox2d.dynamics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jbox2d.common.Vec2;
+import org.jbox2d.dynamics.contacts.Contact;
+import org.jbox2d.dynamics.joints.Joint;
+import org.jbox2d.pooling.IWorldPool;
+import org.jbox2d.pooling.WorldPool;
+
+/**
+ * Solves islands and updates contacts concurrently on a fixed pool of worker threads. The calling
+ * thread works alongside the pool, and each thread claims work in small batches until none
+ * remains, so that a few expensive items don't hold up the rest. Every thread has its own {@link
+ * IWorldPool}, which is used in place of the world's pool for the work done on that thread.
+ * 
+ * <p>This class is not available in GWT. An executor may be shared by several worlds, as long as
+ * they are not stepped at the same time.</p>
+ * 
+ * @see World#setIslandExecutor
+ * @see World#setContactExecutor
+ */
+public class ParallelExecutor implements IslandExecutor, ContactExecutor {
+
+	/** The number of contacts claimed by a thread at a time. */
+	public static final int CONTACT_BATCH_SIZE = 64;
+
+	/** Work that is split across threads. */
+	protected interface Task {
+		/** Processes the items in [start, end), using the supplied pool for temporaries. */
+		void run(int start, int end, IWorldPool pool);
+	}
+
+	private final ExecutorService m_executor;
+	private final int m_threadCount;
+
+	private final ThreadLocal<IWorldPool> m_pools = new ThreadLocal<IWorldPool>() {
+		@Override
+		protected IWorldPool initialValue() {
+			return new WorldPool(World.WORLD_POOL_SIZE, World.WORLD_POOL_CONTAINER_SIZE);
+		}
+	};
+
+	/**
+	 * Creates an executor that uses one thread per available processor (including the caller).
+	 */
+	public ParallelExecutor() {
+		this(Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Creates an executor that uses up to <code>threadCount</code> threads, one of which is the
+	 * thread that steps the world.
+	 */
+	public ParallelExecutor(int threadCount) {
+		if (threadCount < 1) {
+			throw new IllegalArgumentException("threadCount must be >= 1");
+		}
+		m_threadCount = threadCount;
+		m_executor = (threadCount == 1) ? null : Executors.newFixedThreadPool(threadCount - 1,
+				new ThreadFactory() {
+					private final AtomicInteger m_count = new AtomicInteger();
+
+					public Thread newThread(Runnable r) {
+						Thread thread = new Thread(r, "jbox2d worker " + m_count.incrementAndGet());
+						thread.setDaemon(true);
+						return thread;
+					}
+				});
+	}
+
+	/**
+	 * Stops the worker threads. The executor must not be used after it has been shut down.
+	 */
+	public void shutdown() {
+		if (m_executor != null) {
+			m_executor.shutdown();
+		}
+	}
+
+	public void solve(final Island[] islands, int count, final TimeStep step, final Vec2 gravity,
+			final boolean allowSleep) {
+		run(count, 1, new Task() {
+			public void run(int start, int end, IWorldPool pool) {
+				for (int i = start; i < end; ++i) {
+					solve(islands[i], pool, step, gravity, allowSleep);
+				}
+			}
+		});
+	}
+
+	public void updateManifolds(final Contact[] contacts, int count) {
+		run(count, CONTACT_BATCH_SIZE, new Task() {
+			public void run(int start, int end, IWorldPool pool) {
+				for (int i = start; i < end; ++i) {
+					contacts[i].updateManifold(pool);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Runs the supplied task over <code>count</code> items, in batches of <code>batchSize</code>,
+	 * and waits for it to complete.
+	 */
+	protected void run(final int count, final int batchSize, final Task task) {
+		int batches = (count + batchSize - 1) / batchSize;
+		int workers = Math.min(m_threadCount, batches);
+		if (workers < 2) {
+			if (count > 0) {
+				task.run(0, count, m_pools.get());
+			}
+			return;
+		}
+
+		final AtomicInteger next = new AtomicInteger();
+		Runnable worker = new Runnable() {
+			public void run() {
+				IWorldPool pool = m_pools.get();
+				int start;
+				while ((start = next.getAndAdd(batchSize)) < count) {
+					task.run(start, Math.min(start + batchSize, count), pool);
+				}
+			}
+		};
+
+		List<Future<?>> futures = new ArrayList<Future<?>>(workers - 1);
+		for (int i = 1; i < workers; ++i) {
+			futures.add(m_executor.submit(worker));
+		}
+		Throwable failure = null;
+		try {
+			worker.run();
+		}
+		catch (Throwable t) {
+			// keep the other workers from claiming more work
+			next.set(count);
+			failure = t;
+		}
+
+		// wait for the workers, which also makes their writes visible to this thread
+		boolean interrupted = false;
+		for (int i = 0; i < futures.size(); ++i) {
+			try {
+				futures.get(i).get();
+			}
+			catch (InterruptedException e) {
+				interrupted = true;
+				--i;
+			}
+			catch (ExecutionException e) {
+				if (failure == null) {
+					failure = e.getCause();
+				}
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+		if (failure instanceof RuntimeException) {
+			throw (RuntimeException) failure;
+		}
+		if (failure instanceof Error) {
+			throw (Error) failure;
+		}
+		if (failure != null) {
+			throw new RuntimeException(failure);
+		}
+	}
+
+	private static void solve(Island island, IWorldPool pool, TimeStep step, Vec2 gravity,
+			boolean allowSleep) {
+		IWorldPool worldPool = null;
+		for (int j = 0; j < island.m_jointCount; ++j) {
+			Joint joint = island.m_joints[j];
+			worldPool = joint.getPool();
+			joint.setPool(pool);
+		}
+		try {
+			island.solve(step, gravity, allowSleep, true);
+		}
+		finally {
+			for (int j = 0; j < island.m_jointCount; ++j) {
+				island.m_joints[j].setPool(worldPool);
+			}
+		}
+	}
+}
@@ -35,6 +35,8 @@ import org.jbox2d.callbacks.RayCastCallback;
 import org.jbox2d.callbacks.TreeCallback;
 import org.jbox2d.callbacks.TreeRayCastCallback;
 import org.jbox2d.collision.AABB;
+import org.jbox2d.collision.Manifold;
+import org.jbox2d.collision.ManifoldPoint;
 import org.jbox2d.collision.RayCastInput;
 import org.jbox2d.collision.RayCastOutput;
 import org.jbox2d.collision.TimeOfImpact.TOIInput;
@@ -591,6 +593,238 @@ public class World {
 		}
 	}
 	
+	/**
+	 * Saves the simulation state of this world: everything that changes as the world is stepped,
+	 * but not its structure. See {@link WorldSnapshot}.
+	 * 
+	 * @param out
+	 *            the snapshot into which to write the state, or null to create a new one.
+	 * @return the snapshot.
+	 */
+	public WorldSnapshot snapshot(WorldSnapshot out) {
+		assert (isLocked() == false);
+		if (out == null) {
+			out = new WorldSnapshot();
+		}
+		out.reset();
+		
+		out.putInt(m_bodyCount);
+		out.putInt(m_jointCount);
+		out.putInt(m_contactManager.m_contactCount);
+		out.putFloat(m_inv_dt0);
+		
+		int fixtureIndex = 0;
+		for (Body b = m_bodyList; b != null; b = b.m_next) {
+			out.putInt(b.m_fixtureCount);
+			out.putInt(b.m_flags & Body.e_awakeFlag);
+			out.putVec2(b.m_xf.position);
+			out.putFloat(b.m_xf.R.m11);
+			out.putFloat(b.m_xf.R.m12);
+			out.putFloat(b.m_xf.R.m21);
+			out.putFloat(b.m_xf.R.m22);
+			out.putVec2(b.m_sweep.localCenter);
+			out.putVec2(b.m_sweep.c0);
+			out.putVec2(b.m_sweep.c);
+			out.putFloat(b.m_sweep.a0);
+			out.putFloat(b.m_sweep.a);
+			out.putVec2(b.m_linearVelocity);
+			out.putFloat(b.m_angularVelocity);
+			out.putVec2(b.m_force);
+			out.putFloat(b.m_torque);
+			out.putFloat(b.m_sleepTime);
+			
+			for (Fixture f = b.m_fixtureList; f != null; f = f.m_next) {
+				f.m_index = fixtureIndex++;
+				out.putVec2(f.m_aabb.lowerBound);
+				out.putVec2(f.m_aabb.upperBound);
+				if (f.m_proxy == null) {
+					out.putInt(0);
+				}
+				else {
+					out.putInt(1);
+					out.putVec2(f.m_proxy.aabb.lowerBound);
+					out.putVec2(f.m_proxy.aabb.upperBound);
+				}
+			}
+		}
+		
+		for (Joint j = m_jointList; j != null; j = j.m_next) {
+			out.putInt(j.m_type.ordinal());
+			j.saveState(out);
+		}
+		
+		// contacts are saved in list order, which is also the order in which they were created
+		for (Contact c = m_contactManager.m_contactList; c != null; c = c.m_next) {
+			out.putInt(c.m_fixtureA.m_index);
+			out.putInt(c.m_fixtureB.m_index);
+			out.putInt(c.m_flags);
+			out.putFloat(c.m_toiCount);
+			
+			Manifold m = c.m_manifold;
+			out.putInt(m.type == null ? -1 : m.type.ordinal());
+			out.putVec2(m.localNormal);
+			out.putVec2(m.localPoint);
+			out.putInt(m.pointCount);
+			for (int i = 0; i < m.pointCount; ++i) {
+				ManifoldPoint mp = m.points[i];
+				out.putVec2(mp.localPoint);
+				out.putFloat(mp.normalImpulse);
+				out.putFloat(mp.tangentImpulse);
+				out.putInt(mp.id.features.referenceEdge);
+				out.putInt(mp.id.features.incidentEdge);
+				out.putInt(mp.id.features.incidentVertex);
+				out.putInt(mp.id.features.flip);
+			}
+		}
+		
+		// proxies that moved during the last step, whose pairs are yet to be found
+		BroadPhase broadPhase = m_contactManager.m_broadPhase;
+		int moveCount = 0;
+		for (int i = 0; i < broadPhase.getMoveCount(); ++i) {
+			if (broadPhase.getMove(i) != null) {
+				++moveCount;
+			}
+		}
+		out.putInt(moveCount);
+		for (int i = 0; i < broadPhase.getMoveCount(); ++i) {
+			DynamicTreeNode proxy = broadPhase.getMove(i);
+			if (proxy != null) {
+				out.putInt(((Fixture) proxy.userData).m_index);
+			}
+		}
+		return out;
+	}
+	
+	private Fixture[] restoreFixtures = new Fixture[0];
+	private Contact[] restoreContacts = new Contact[0];
+	private final AABB restoreAABB = new AABB();
+	
+	/**
+	 * Restores the simulation state saved by {@link #snapshot}. Stepping the world from the
+	 * restored state reproduces the original simulation exactly (given the same inputs). No
+	 * contact listener callbacks are made for contacts that are added or removed by restoring.
+	 * 
+	 * @throws IllegalStateException
+	 *             if the bodies, fixtures or joints of this world have changed since the snapshot
+	 *             was taken.
+	 */
+	public void restore(WorldSnapshot snapshot) {
+		assert (isLocked() == false);
+		snapshot.rewind();
+		
+		if (snapshot.getInt() != m_bodyCount || snapshot.getInt() != m_jointCount) {
+			throw new IllegalStateException("World structure has changed since snapshot");
+		}
+		int contactCount = snapshot.getInt();
+		m_inv_dt0 = snapshot.getFloat();
+		
+		// discard the current contacts (and their manifolds and accumulated impulses) without
+		// waking bodies or notifying the listener; the snapshot's contacts are rebuilt below so
+		// that warm starting resumes from exactly the impulses that were saved
+		m_contactManager.clear();
+		
+		BroadPhase broadPhase = m_contactManager.m_broadPhase;
+		int fixtureIndex = 0;
+		for (Body b = m_bodyList; b != null; b = b.m_next) {
+			if (snapshot.getInt() != b.m_fixtureCount) {
+				throw new IllegalStateException("World structure has changed since snapshot");
+			}
+			if (snapshot.getInt() != 0) {
+				b.m_flags |= Body.e_awakeFlag;
+			}
+			else {
+				b.m_flags &= ~Body.e_awakeFlag;
+			}
+			snapshot.getVec2(b.m_xf.position);
+			b.m_xf.R.m11 = snapshot.getFloat();
+			b.m_xf.R.m12 = snapshot.getFloat();
+			b.m_xf.R.m21 = snapshot.getFloat();
+			b.m_xf.R.m22 = snapshot.getFloat();
+			snapshot.getVec2(b.m_sweep.localCenter);
+			snapshot.getVec2(b.m_sweep.c0);
+			snapshot.getVec2(b.m_sweep.c);
+			b.m_sweep.a0 = snapshot.getFloat();
+			b.m_sweep.a = snapshot.getFloat();
+			snapshot.getVec2(b.m_linearVelocity);
+			b.m_angularVelocity = snapshot.getFloat();
+			snapshot.getVec2(b.m_force);
+			b.m_torque = snapshot.getFloat();
+			b.m_sleepTime = snapshot.getFloat();
+			
+			for (Fixture f = b.m_fixtureList; f != null; f = f.m_next) {
+				if (fixtureIndex == restoreFixtures.length) {
+					Fixture[] fixtures = new Fixture[Math.max(16, fixtureIndex * 2)];
+					System.arraycopy(restoreFixtures, 0, fixtures, 0, fixtureIndex);
+					restoreFixtures = fixtures;
+				}
+				restoreFixtures[fixtureIndex++] = f;
+				snapshot.getVec2(f.m_aabb.lowerBound);
+				snapshot.getVec2(f.m_aabb.upperBound);
+				boolean hasProxy = snapshot.getInt() != 0;
+				if (hasProxy != (f.m_proxy != null)) {
+					throw new IllegalStateException("World structure has changed since snapshot");
+				}
+				if (hasProxy) {
+					snapshot.getVec2(restoreAABB.lowerBound);
+					snapshot.getVec2(restoreAABB.upperBound);
+					broadPhase.setFatAABB(f.m_proxy, restoreAABB);
+				}
+			}
+		}
+		
+		for (Joint j = m_jointList; j != null; j = j.m_next) {
+			if (snapshot.getInt() != j.m_type.ordinal()) {
+				throw new IllegalStateException("World structure has changed since snapshot");
+			}
+			j.restoreState(snapshot);
+		}
+		
+		if (restoreContacts.length < contactCount) {
+			restoreContacts = new Contact[contactCount];
+		}
+		for (int i = 0; i < contactCount; ++i) {
+			Fixture fixtureA = restoreFixtures[snapshot.getInt()];
+			Fixture fixtureB = restoreFixtures[snapshot.getInt()];
+			Contact c = popContact(fixtureA, fixtureB);
+			assert (c.m_fixtureA == fixtureA);
+			c.m_flags = snapshot.getInt();
+			c.m_toiCount = snapshot.getFloat();
+			
+			Manifold m = c.m_manifold;
+			int type = snapshot.getInt();
+			m.type = (type < 0) ? null : Manifold.ManifoldType.values()[type];
+			snapshot.getVec2(m.localNormal);
+			snapshot.getVec2(m.localPoint);
+			m.pointCount = snapshot.getInt();
+			for (int p = 0; p < m.pointCount; ++p) {
+				ManifoldPoint mp = m.points[p];
+				snapshot.getVec2(mp.localPoint);
+				mp.normalImpulse = snapshot.getFloat();
+				mp.tangentImpulse = snapshot.getFloat();
+				mp.id.features.referenceEdge = snapshot.getInt();
+				mp.id.features.incidentEdge = snapshot.getInt();
+				mp.id.features.incidentVertex = snapshot.getInt();
+				mp.id.features.flip = snapshot.getInt();
+			}
+			restoreContacts[i] = c;
+		}
+		// contacts are linked in at the head of the list, so we link them in reverse, which also
+		// restores the order of each body's contact edges
+		for (int i = contactCount - 1; i >= 0; --i) {
+			m_contactManager.link(restoreContacts[i]);
+			restoreContacts[i] = null;
+		}
+		
+		broadPhase.clearMoves();
+		for (int i = 0, moveCount = snapshot.getInt(); i < moveCount; ++i) {
+			broadPhase.touchProxy(restoreFixtures[snapshot.getInt()].m_proxy);
+		}
+		
+		for (int i = 0; i < fixtureIndex; ++i) {
+			restoreFixtures[i] = null;
+		}
+	}
+	
 	private final Color3f color = new Color3f();
 	private final Transform xf = new Transform();
 	private final Vec2 cA = new Vec2();
@@ -699,6 +933,7 @@ public class World {
 	 *            a user implemented callback class.
 	 * @param aabb
 	 *            the query box.
+	 * @see WorldQuery
 	 */
 	public void queryAABB(QueryCallback callback, AABB aabb) {
 		wqwrapper.broadPhase = m_contactManager.m_broadPhase;
@@ -720,6 +955,7 @@ public class World {
 	 *            the ray starting point
 	 * @param point2
 	 *            the ray ending point
+	 * @see WorldQuery
 	 */
 	public void raycast(RayCastCallback callback, Vec2 point1, Vec2 point2) {
 		wrcwrapper.broadPhase = m_contactManager.m_broadPhase;
@@ -865,9 +1101,48 @@ public class World {
 		return (m_flags & CLEAR_FORCES) == CLEAR_FORCES;
 	}
 	
+	/**
+	 * Sets the executor used to solve the islands in each time step. By default (or if
+	 * <code>executor</code> is null) islands are solved one at a time on the calling thread. The
+	 * results of a step do not depend on the executor: the contact listener is notified on the
+	 * calling thread, in the same order as when solving serially. The one exception is that a
+	 * deferred solve never puts static bodies to sleep, as they may be shared between islands;
+	 * the simulation ignores whether static bodies are awake.
+	 */
+	public void setIslandExecutor(IslandExecutor executor) {
+		m_islandExecutor = executor;
+	}
+	
+	/**
+	 * Returns the executor used to solve islands, or null if they are solved serially.
+	 */
+	public IslandExecutor getIslandExecutor() {
+		return m_islandExecutor;
+	}
+	
+	/**
+	 * Sets the executor used to compute contact manifolds in each time step. By default (or if
+	 * <code>executor</code> is null) contacts are updated one at a time on the calling thread.
+	 * Either way, the contact listener is notified on the calling thread, in contact order.
+	 */
+	public void setContactExecutor(ContactExecutor executor) {
+		m_contactManager.m_contactExecutor = executor;
+	}
+	
+	/**
+	 * Returns the executor used to compute contact manifolds, or null if they are computed
+	 * serially.
+	 */
+	public ContactExecutor getContactExecutor() {
+		return m_contactManager.m_contactExecutor;
+	}
+	
 	private final Island island = new Island();
 	private Body[] stack = new Body[10]; // TODO djm find a good initial stack number;
 	
+	private IslandExecutor m_islandExecutor;
+	private Island[] m_islands = new Island[0];
+	
 	private void solve(TimeStep step) {
 		// Size the island for the worst case.
 		island.init(m_bodyCount, m_contactManager.m_contactCount, m_jointCount, m_contactManager.m_contactListener);
@@ -888,6 +1163,7 @@ public class World {
 		if (stack.length < stackSize) {
 			stack = new Body[stackSize];
 		}
+		int islandCount = 0;
 		for (Body seed = m_bodyList; seed != null; seed = seed.m_next) {
 			if ((seed.m_flags & Body.e_islandFlag) == Body.e_islandFlag) {
 				continue;
@@ -986,7 +1262,13 @@ public class World {
 				}
 			}
 			
-			island.solve(step, m_gravity, m_allowSleep);
+			if (m_islandExecutor != null) {
+				// copy the island out, to be solved along with the others once they're all built
+				copyIsland(islandCount++);
+			}
+			else {
+				island.solve(step, m_gravity, m_allowSleep);
+			}
 			
 			// Post solve cleanup.
 			for (int i = 0; i < island.m_bodyCount; ++i) {
@@ -998,6 +1280,13 @@ public class World {
 			}
 		}
 		
+		if (islandCount > 0) {
+			m_islandExecutor.solve(m_islands, islandCount, step, m_gravity, m_allowSleep);
+			for (int i = 0; i < islandCount; ++i) {
+				m_islands[i].finish();
+			}
+		}
+		
 		// Synchronize fixtures, check for out of range bodies.
 		for (Body b = m_bodyList; b != null; b = b.getNext()) {
 			// If a body was not in an island then it did not move.
@@ -1017,6 +1306,28 @@ public class World {
 		m_contactManager.findNewContacts();
 	}
 	
+	private void copyIsland(int index) {
+		if (index == m_islands.length) {
+			Island[] islands = new Island[Math.max(4, index * 2)];
+			System.arraycopy(m_islands, 0, islands, 0, index);
+			m_islands = islands;
+		}
+		Island copy = m_islands[index];
+		if (copy == null) {
+			copy = m_islands[index] = new Island();
+		}
+		copy.init(island.m_bodyCount, island.m_contactCount, island.m_jointCount, island.m_listener);
+		for (int i = 0; i < island.m_bodyCount; ++i) {
+			copy.add(island.m_bodies[i]);
+		}
+		for (int i = 0; i < island.m_contactCount; ++i) {
+			copy.add(island.m_contacts[i]);
+		}
+		for (int i = 0; i < island.m_jointCount; ++i) {
+			copy.add(island.m_joints[i]);
+		}
+	}
+	
 	private void solveTOI() {
 		// Prepare all contacts.
 		for (Contact c = m_contactManager.m_contactList; c != null; c = c.m_next) {
@@ -0,0 +1,357 @@
+/**
+ * Copyright 2011 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.jbox2d.dynamics;
+
+import org.jbox2d.callbacks.TreeCallback;
+import org.jbox2d.callbacks.TreeRayCastCallback;
+import org.jbox2d.collision.AABB;
+import org.jbox2d.collision.RayCastInput;
+import org.jbox2d.collision.broadphase.BroadPhase;
+import org.jbox2d.collision.broadphase.DynamicTree;
+import org.jbox2d.collision.broadphase.DynamicTreeNode;
+import org.jbox2d.collision.shapes.CircleShape;
+import org.jbox2d.collision.shapes.PolygonShape;
+import org.jbox2d.collision.shapes.Shape;
+import org.jbox2d.collision.shapes.ShapeType;
+import org.jbox2d.common.Mat22;
+import org.jbox2d.common.MathUtils;
+import org.jbox2d.common.Settings;
+import org.jbox2d.common.Transform;
+import org.jbox2d.common.Vec2;
+
+/**
+ * Runs batches of ray casts and AABB queries against a world, writing the results into primitive
+ * arrays. Unlike {@link World#raycast} and {@link World#queryAABB}, a query keeps all of its
+ * scratch state to itself and only reads the world, so several threads may query the same world
+ * at once, each with its own <code>WorldQuery</code>, as long as the world is not being stepped
+ * or modified meanwhile (i.e. between calls to {@link World#step}).
+ *
+ * <p>Rays are supplied as <code>x1, y1, x2, y2</code> and boxes as <code>lowerX, lowerY, upperX,
+ * upperY</code>, packed one after another into a float array. Fixtures are reported by the id of
+ * their broad-phase proxy, which {@link #getFixture} maps back to the fixture.</p>
+ */
+public class WorldQuery implements TreeCallback, TreeRayCastCallback {
+
+	/** The fixture id reported for rays that hit nothing. */
+	public static final int NO_FIXTURE = -1;
+
+	private final World m_world;
+	private final DynamicTree.Stack m_stack = new DynamicTree.Stack();
+	private final RayCastInput m_input = new RayCastInput();
+	private final AABB m_aabb = new AABB();
+
+	private int m_categoryMask = 0xFFFF;
+	private boolean m_ignoreSensors;
+
+	// the state of the current query
+	private boolean m_anyHit;
+	private int m_hitFixture;
+	private float m_hitFraction, m_hitNormalX, m_hitNormalY;
+	private int[] m_results;
+	private int m_resultCount;
+
+	public WorldQuery(World world) {
+		m_world = world;
+	}
+
+	/**
+	 * Configures the fixtures that queries consider: only those whose category bits intersect the
+	 * supplied mask are reported. All categories are considered by default.
+	 */
+	public void setCategoryMask(int mask) {
+		m_categoryMask = mask;
+	}
+
+	/**
+	 * Configures whether queries skip sensor fixtures. Sensors are considered by default.
+	 */
+	public void setIgnoreSensors(boolean ignore) {
+		m_ignoreSensors = ignore;
+	}
+
+	/**
+	 * Returns the fixture with the specified id, as reported by a query.
+	 */
+	public Fixture getFixture(int fixtureId) {
+		return (Fixture) broadPhase().getProxy(fixtureId).userData;
+	}
+
+	/**
+	 * Finds the closest fixture hit by each of the supplied rays. Like {@link World#raycast}, rays
+	 * ignore shapes that contain their starting point.
+	 *
+	 * @param rays the rays, four floats each.
+	 * @param count the number of rays.
+	 * @param fixtures receives the id of the fixture hit by each ray, or {@link #NO_FIXTURE}.
+	 * @param fractions receives the fraction along each ray at which it hits, or 1 if it hits
+	 * nothing. May be null.
+	 * @param normals receives the surface normal at each hit, two floats per ray. May be null.
+	 * @return the number of rays that hit something.
+	 */
+	public int raycast(float[] rays, int count, int[] fixtures, float[] fractions, float[] normals) {
+		BroadPhase broadPhase = broadPhase();
+		m_anyHit = false;
+		int hits = 0;
+		for (int i = 0, r = 0; i < count; i++, r += 4) {
+			m_hitFixture = NO_FIXTURE;
+			m_hitFraction = 1f;
+			m_hitNormalX = m_hitNormalY = 0f;
+			cast(broadPhase, rays, r);
+			if (m_hitFixture != NO_FIXTURE) {
+				hits++;
+			}
+			fixtures[i] = m_hitFixture;
+			if (fractions != null) {
+				fractions[i] = m_hitFraction;
+			}
+			if (normals != null) {
+				normals[2 * i] = m_hitNormalX;
+				normals[2 * i + 1] = m_hitNormalY;
+			}
+		}
+		return hits;
+	}
+
+	/**
+	 * Determines which of the supplied rays hit no fixture at all. This stops at the first hit
+	 * along each ray, so it is cheaper than finding the closest hit.
+	 *
+	 * @param rays the rays, four floats each.
+	 * @param count the number of rays.
+	 * @param clear receives true for each ray that hits nothing.
+	 * @return the number of clear rays.
+	 */
+	public int lineOfSight(float[] rays, int count, boolean[] clear) {
+		BroadPhase broadPhase = broadPhase();
+		m_anyHit = true;
+		int clearCount = 0;
+		for (int i = 0, r = 0; i < count; i++, r += 4) {
+			m_hitFixture = NO_FIXTURE;
+			cast(broadPhase, rays, r);
+			clear[i] = (m_hitFixture == NO_FIXTURE);
+			if (clear[i]) {
+				clearCount++;
+			}
+		}
+		return clearCount;
+	}
+
+	/**
+	 * Finds the fixtures that potentially overlap each of the supplied boxes (i.e. whose fat AABBs
+	 * overlap them). The ids of the fixtures for box <code>i</code> are written to
+	 * <code>fixtures[offsets[i]]</code> through <code>fixtures[offsets[i+1]-1]</code>. If
+	 * <code>fixtures</code> fills up, the remaining results are dropped, but still counted, so that
+	 * the caller can retry with a larger array.
+	 *
+	 * @param boxes the boxes, four floats each.
+	 * @param count the number of boxes.
+	 * @param fixtures receives the fixture ids.
+	 * @param offsets receives the offset of each box's results, <code>count+1</code> ints.
+	 * @return the total number of results, which exceeds <code>fixtures.length</code> if some were
+	 * dropped.
+	 */
+	public int queryAABB(float[] boxes, int count, int[] fixtures, int[] offsets) {
+		BroadPhase broadPhase = broadPhase();
+		m_results = fixtures;
+		m_resultCount = 0;
+		for (int i = 0, b = 0; i < count; i++, b += 4) {
+			offsets[i] = Math.min(m_resultCount, fixtures.length);
+			m_aabb.lowerBound.set(boxes[b], boxes[b + 1]);
+			m_aabb.upperBound.set(boxes[b + 2], boxes[b + 3]);
+			broadPhase.query(this, m_aabb, m_stack);
+		}
+		offsets[count] = Math.min(m_resultCount, fixtures.length);
+		m_results = null;
+		return m_resultCount;
+	}
+
+	public boolean treeCallback(DynamicTreeNode proxy) {
+		if (accept((Fixture) proxy.userData)) {
+			if (m_resultCount < m_results.length) {
+				m_results[m_resultCount] = proxy.getId();
+			}
+			m_resultCount++;
+		}
+		return true;
+	}
+
+	public float raycastCallback(RayCastInput input, DynamicTreeNode proxy) {
+		Fixture fixture = (Fixture) proxy.userData;
+		if (!accept(fixture)) {
+			return -1f;
+		}
+		Shape shape = fixture.m_shape;
+		boolean hit = (shape.m_type == ShapeType.CIRCLE) ?
+			raycastCircle((CircleShape) shape, fixture.m_body.m_xf, input) :
+			raycastPolygon((PolygonShape) shape, fixture.m_body.m_xf, input);
+		if (!hit) {
+			return input.maxFraction;
+		}
+		m_hitFixture = proxy.getId();
+		return m_anyHit ? 0f : m_hitFraction;
+	}
+
+	protected final BroadPhase broadPhase() {
+		return m_world.m_contactManager.m_broadPhase;
+	}
+
+	protected boolean accept(Fixture fixture) {
+		return (fixture.m_filter.categoryBits & m_categoryMask) != 0
+			&& !(m_ignoreSensors && fixture.m_isSensor);
+	}
+
+	private void cast(BroadPhase broadPhase, float[] rays, int r) {
+		float x1 = rays[r], y1 = rays[r + 1], x2 = rays[r + 2], y2 = rays[r + 3];
+		if (x1 == x2 && y1 == y2) {
+			return; // the tree can't cast zero length rays
+		}
+		m_input.p1.set(x1, y1);
+		m_input.p2.set(x2, y2);
+		m_input.maxFraction = 1f;
+		broadPhase.raycast(this, m_input, m_stack);
+	}
+
+	// these mirror CircleShape.raycast and PolygonShape.raycast, which use shared scratch vectors
+
+	private boolean raycastCircle(CircleShape circle, Transform xf, RayCastInput input) {
+		Mat22 R = xf.R;
+		Vec2 p = circle.m_p;
+		float px = R.m11 * p.x + R.m21 * p.y + xf.position.x;
+		float py = R.m12 * p.x + R.m22 * p.y + xf.position.y;
+		float sx = input.p1.x - px, sy = input.p1.y - py;
+		float b = sx * sx + sy * sy - circle.m_radius * circle.m_radius;
+
+		// Solve quadratic equation.
+		float rx = input.p2.x - input.p1.x, ry = input.p2.y - input.p1.y;
+		float c = sx * rx + sy * ry;
+		float rr = rx * rx + ry * ry;
+		float sigma = c * c - rr * b;
+
+		// Check for negative discriminant and short segment.
+		if (sigma < 0.0f || rr < Settings.EPSILON) {
+			return false;
+		}
+
+		// Find the point of intersection of the line with the circle.
+		float a = -(c + MathUtils.sqrt(sigma));
+
+		// Is the intersection point on the segment?
+		if (0.0f <= a && a <= input.maxFraction * rr) {
+			a /= rr;
+			float nx = rx * a + sx, ny = ry * a + sy;
+			float length = MathUtils.sqrt(nx * nx + ny * ny);
+			if (length >= Settings.EPSILON) {
+				float invLength = 1.0f / length;
+				nx *= invLength;
+				ny *= invLength;
+			}
+			m_hitFraction = a;
+			m_hitNormalX = nx;
+			m_hitNormalY = ny;
+			return true;
+		}
+		return false;
+	}
+
+	private boolean raycastPolygon(PolygonShape poly, Transform xf, RayCastInput input) {
+		Mat22 R = xf.R;
+		float tx = input.p1.x - xf.position.x, ty = input.p1.y - xf.position.y;
+		float p1x = tx * R.m11 + ty * R.m12, p1y = tx * R.m21 + ty * R.m22;
+		tx = input.p2.x - xf.position.x;
+		ty = input.p2.y - xf.position.y;
+		float p2x = tx * R.m11 + ty * R.m12, p2y = tx * R.m21 + ty * R.m22;
+		float dx = p2x - p1x, dy = p2y - p1y;
+		Vec2[] vertices = poly.m_vertices, normals = poly.m_normals;
+
+		float nx, ny, fraction;
+		if (poly.m_vertexCount == 2) {
+			Vec2 v1 = vertices[0], v2 = vertices[1], normal = normals[0];
+
+			// q = p1 + t * d
+			// dot(normal, q - v1) = 0
+			// dot(normal, p1 - v1) + t * dot(normal, d) = 0
+			float numerator = normal.x * (v1.x - p1x) + normal.y * (v1.y - p1y);
+			float denominator = normal.x * dx + normal.y * dy;
+			if (denominator == 0.0f) {
+				return false;
+			}
+			float t = numerator / denominator;
+			// PolygonShape tests edges against the whole ray, rather than its clipped length
+			if (t < 0.0f || 1.0f < t) {
+				return false;
+			}
+
+			// q = v1 + s * r
+			// s = dot(q - v1, r) / dot(r, r)
+			float qx = p1x + dx * t, qy = p1y + dy * t;
+			float rx = v2.x - v1.x, ry = v2.y - v1.y;
+			float rr = rx * rx + ry * ry;
+			if (rr == 0.0f) {
+				return false;
+			}
+			float s = ((qx - v1.x) * rx + (qy - v1.y) * ry) / rr;
+			if (s < 0.0f || 1.0f < s) {
+				return false;
+			}
+
+			fraction = t;
+			nx = (numerator > 0.0f) ? -normal.x : normal.x;
+			ny = (numerator > 0.0f) ? -normal.y : normal.y;
+		}
+		else {
+			float lower = 0, upper = input.maxFraction;
+			int index = -1;
+			for (int i = 0; i < poly.m_vertexCount; ++i) {
+				// p = p1 + a * d
+				// dot(normal, p - v) = 0
+				// dot(normal, p1 - v) + a * dot(normal, d) = 0
+				Vec2 v = vertices[i], normal = normals[i];
+				float numerator = normal.x * (v.x - p1x) + normal.y * (v.y - p1y);
+				float denominator = normal.x * dx + normal.y * dy;
+
+				if (denominator == 0.0f) {
+					if (numerator < 0.0f) {
+						return false;
+					}
+				}
+				else if (denominator < 0.0f && numerator < lower * denominator) {
+					// The segment enters this half-space.
+					lower = numerator / denominator;
+					index = i;
+				}
+				else if (denominator > 0.0f && numerator < upper * denominator) {
+					// The segment exits this half-space.
+					upper = numerator / denominator;
+				}
+
+				if (upper < lower) {
+					return false;
+				}
+			}
+			if (index < 0) {
+				return false;
+			}
+
+			Vec2 normal = normals[index];
+			fraction = lower;
+			nx = R.m11 * normal.x + R.m21 * normal.y;
+			ny = R.m12 * normal.x + R.m22 * normal.y;
+		}
+
+		m_hitFraction = fraction;
+		m_hitNormalX = nx;
+		m_hitNormalY = ny;
+		return true;
+	}
+}
@@ -0,0 +1,281 @@
+/**
+ * Copyright 2011 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.jbox2d.dynamics;
+
+import org.jbox2d.common.Vec2;
+
+/**
+ * The simulation state of a {@link World}, stored in flat primitive arrays. A snapshot records
+ * everything that evolves as the world is stepped: body positions and velocities, fixture
+ * proxies in the broad-phase, joint and contact impulses (used for warm starting) and the set of
+ * contacts. It does not record the world's structure (which bodies, fixtures and joints exist, and
+ * their properties), so it can only be restored into the world from which it was taken, and only
+ * while that world has the same structure.
+ * 
+ * <p>The arrays may be sent over the network or saved as is, and a snapshot recreated from them
+ * via {@link #WorldSnapshot(float[], int, int[], int)}. Consecutive snapshots are generally very
+ * similar, so they may be sent more compactly as a {@link Delta}.</p>
+ * 
+ * @see World#snapshot(WorldSnapshot)
+ * @see World#restore(WorldSnapshot)
+ */
+public class WorldSnapshot {
+
+	/**
+	 * The differences between two snapshots, stored as runs of changed values.
+	 */
+	public static class Delta {
+		// [floatCount, intCount, floatRunCount, (start, length)*, intRunCount, (start, length)*,
+		// changed int values*]
+		private int[] m_ints;
+		private int m_intCount;
+		// changed float values
+		private float[] m_floats;
+		private int m_floatCount;
+
+		public Delta() {
+			this(new float[16], 0, new int[16], 0);
+		}
+
+		/**
+		 * Creates a delta from arrays previously obtained via {@link #floats} and {@link #ints}.
+		 */
+		public Delta(float[] floats, int floatCount, int[] ints, int intCount) {
+			m_floats = floats;
+			m_floatCount = floatCount;
+			m_ints = ints;
+			m_intCount = intCount;
+		}
+
+		/** Returns the float data in this delta. Only the first {@link #floatCount} are used. */
+		public float[] floats() {
+			return m_floats;
+		}
+
+		public int floatCount() {
+			return m_floatCount;
+		}
+
+		/** Returns the int data in this delta. Only the first {@link #intCount} are used. */
+		public int[] ints() {
+			return m_ints;
+		}
+
+		public int intCount() {
+			return m_intCount;
+		}
+
+		private void putInt(int value) {
+			if (m_intCount == m_ints.length) {
+				m_ints = grow(m_ints, m_intCount + 1);
+			}
+			m_ints[m_intCount++] = value;
+		}
+
+		private void putFloat(float value) {
+			if (m_floatCount == m_floats.length) {
+				m_floats = grow(m_floats, m_floatCount + 1);
+			}
+			m_floats[m_floatCount++] = value;
+		}
+	}
+
+	private float[] m_floats;
+	private int m_floatCount;
+	private int[] m_ints;
+	private int m_intCount;
+
+	// read positions, used when restoring
+	private int m_floatPos, m_intPos;
+
+	public WorldSnapshot() {
+		this(new float[64], 0, new int[64], 0);
+	}
+
+	/**
+	 * Creates a snapshot from arrays previously obtained via {@link #floats} and {@link #ints}.
+	 */
+	public WorldSnapshot(float[] floats, int floatCount, int[] ints, int intCount) {
+		m_floats = floats;
+		m_floatCount = floatCount;
+		m_ints = ints;
+		m_intCount = intCount;
+	}
+
+	/** Returns the float data in this snapshot. Only the first {@link #floatCount} are used. */
+	public float[] floats() {
+		return m_floats;
+	}
+
+	public int floatCount() {
+		return m_floatCount;
+	}
+
+	/** Returns the int data in this snapshot. Only the first {@link #intCount} are used. */
+	public int[] ints() {
+		return m_ints;
+	}
+
+	public int intCount() {
+		return m_intCount;
+	}
+
+	/**
+	 * Computes the changes from <code>base</code> to this snapshot.
+	 * 
+	 * @param out
+	 *            the delta into which to write the changes, or null to create a new one.
+	 * @return the delta.
+	 */
+	public Delta delta(WorldSnapshot base, Delta out) {
+		if (out == null) {
+			out = new Delta();
+		}
+		out.m_intCount = out.m_floatCount = 0;
+		out.putInt(m_floatCount);
+		out.putInt(m_intCount);
+
+		// float runs, then int runs, then the changed int values
+		int countPos = out.m_intCount;
+		out.putInt(0);
+		for (int i = 0; i < m_floatCount;) {
+			if (i < base.m_floatCount && same(m_floats[i], base.m_floats[i])) {
+				++i;
+				continue;
+			}
+			int start = i;
+			while (i < m_floatCount && (i >= base.m_floatCount || !same(m_floats[i], base.m_floats[i]))) {
+				out.putFloat(m_floats[i++]);
+			}
+			out.putInt(start);
+			out.putInt(i - start);
+			++out.m_ints[countPos];
+		}
+
+		countPos = out.m_intCount;
+		out.putInt(0);
+		int runsPos = out.m_intCount;
+		for (int i = 0; i < m_intCount;) {
+			if (i < base.m_intCount && m_ints[i] == base.m_ints[i]) {
+				++i;
+				continue;
+			}
+			int start = i;
+			while (i < m_intCount && (i >= base.m_intCount || m_ints[i] != base.m_ints[i])) {
+				++i;
+			}
+			out.putInt(start);
+			out.putInt(i - start);
+			++out.m_ints[countPos];
+		}
+		for (int r = 0, runs = out.m_ints[countPos]; r < runs; ++r) {
+			int start = out.m_ints[runsPos + 2 * r], length = out.m_ints[runsPos + 2 * r + 1];
+			for (int i = start; i < start + length; ++i) {
+				out.putInt(m_ints[i]);
+			}
+		}
+		return out;
+	}
+
+	/**
+	 * Sets this snapshot to <code>base</code> with the supplied changes applied.
+	 */
+	public void apply(WorldSnapshot base, Delta delta) {
+		int[] dints = delta.m_ints;
+		int dpos = 0;
+		int floatCount = dints[dpos++], intCount = dints[dpos++];
+
+		float[] floats = (m_floats.length < floatCount) ? new float[floatCount] : m_floats;
+		System.arraycopy(base.m_floats, 0, floats, 0, Math.min(base.m_floatCount, floatCount));
+		int fpos = 0;
+		for (int r = 0, runs = dints[dpos++]; r < runs; ++r) {
+			int start = dints[dpos++], length = dints[dpos++];
+			System.arraycopy(delta.m_floats, fpos, floats, start, length);
+			fpos += length;
+		}
+
+		int[] ints = (m_ints.length < intCount) ? new int[intCount] : m_ints;
+		System.arraycopy(base.m_ints, 0, ints, 0, Math.min(base.m_intCount, intCount));
+		int runs = dints[dpos++];
+		int vpos = dpos + 2 * runs;
+		for (int r = 0; r < runs; ++r) {
+			int start = dints[dpos++], length = dints[dpos++];
+			System.arraycopy(dints, vpos, ints, start, length);
+			vpos += length;
+		}
+
+		m_floats = floats;
+		m_floatCount = floatCount;
+		m_ints = ints;
+		m_intCount = intCount;
+	}
+
+	void reset() {
+		m_floatCount = m_intCount = 0;
+	}
+
+	void rewind() {
+		m_floatPos = m_intPos = 0;
+	}
+
+	public void putFloat(float value) {
+		if (m_floatCount == m_floats.length) {
+			m_floats = grow(m_floats, m_floatCount + 1);
+		}
+		m_floats[m_floatCount++] = value;
+	}
+
+	public void putVec2(Vec2 value) {
+		putFloat(value.x);
+		putFloat(value.y);
+	}
+
+	public void putInt(int value) {
+		if (m_intCount == m_ints.length) {
+			m_ints = grow(m_ints, m_intCount + 1);
+		}
+		m_ints[m_intCount++] = value;
+	}
+
+	public float getFloat() {
+		return m_floats[m_floatPos++];
+	}
+
+	public void getVec2(Vec2 out) {
+		out.x = m_floats[m_floatPos++];
+		out.y = m_floats[m_floatPos++];
+	}
+
+	public int getInt() {
+		return m_ints[m_intPos++];
+	}
+
+	// compares bit patterns, so that restoring a delta reproduces the exact state (including the
+	// sign of zero, which == ignores)
+	private static boolean same(float a, float b) {
+		return (a == b) ? (a != 0 || 1 / a == 1 / b) : (a != a && b != b);
+	}
+
+	private static float[] grow(float[] array, int minLength) {
+		float[] grown = new float[Math.max(minLength, array.length * 2)];
+		System.arraycopy(array, 0, grown, 0, array.length);
+		return grown;
+	}
+
+	private static int[] grow(int[] array, int minLength) {
+		int[] grown = new int[Math.max(minLength, array.length * 2)];
+		System.arraycopy(array, 0, grown, 0, array.length);
+		return grown;
+	}
+}
@@ -51,8 +51,8 @@ public class CircleContact extends Contact {
 	}
 	
 	@Override
-	public void evaluate(Manifold manifold, Transform xfA, Transform xfB) {
-		pool.getCollision().collideCircles(manifold,
+	public void evaluate(IWorldPool argPool, Manifold manifold, Transform xfA, Transform xfB) {
+		argPool.getCollision().collideCircles(manifold,
 				(CircleShape)m_fixtureA.getShape(), xfA,
 				(CircleShape)m_fixtureB.getShape(), xfB);
 	}
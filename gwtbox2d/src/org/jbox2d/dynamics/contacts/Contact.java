@@ -37,7 +37,6 @@ import org.jbox2d.common.Transform;
 import org.jbox2d.dynamics.Body;
 import org.jbox2d.dynamics.Fixture;
 import org.jbox2d.pooling.IWorldPool;
-import org.jbox2d.pooling.TLManifold;
 
 // updated to rev 100
 /**
@@ -195,9 +194,16 @@ public abstract class Contact {
 		return m_fixtureB;
 	}
 
-	public abstract void evaluate(Manifold manifold, Transform xfA,
+	/**
+	 * Computes this contact's manifold, using the supplied pool for temporaries.
+	 */
+	public abstract void evaluate(IWorldPool argPool, Manifold manifold, Transform xfA,
 			Transform xfB);
 
+	public void evaluate(Manifold manifold, Transform xfA, Transform xfB) {
+		evaluate(pool, manifold, xfA, xfB);
+	}
+
 	/**
 	 * Flag this contact for filtering. Filtering will occur the next time step.
 	 */
@@ -206,11 +212,22 @@ public abstract class Contact {
 	}
 
 	// djm pooling
-	private static final TLManifold tloldManifold = new TLManifold();
+	private final Manifold m_oldManifold = new Manifold();
+	private boolean m_wasTouching;
 
 	public void update(ContactListener listener) {
+		updateManifold(pool);
+		finishUpdate(listener);
+	}
+
+	/**
+	 * The first half of {@link #update}: recomputes the manifold and touching state. This reads
+	 * the bodies but writes only to this contact, so contacts may be updated concurrently (each
+	 * thread using its own pool). {@link #finishUpdate} must then be called on the world's thread.
+	 */
+	public void updateManifold(IWorldPool argPool) {
 
-		Manifold oldManifold = tloldManifold.get();
+		Manifold oldManifold = m_oldManifold;
 		oldManifold.set(m_manifold);
 
 		// Re-enable this contact.
@@ -218,6 +235,7 @@ public abstract class Contact {
 
 		boolean touching = false;
 		boolean wasTouching = (m_flags & TOUCHING_FLAG) == TOUCHING_FLAG;
+		m_wasTouching = wasTouching;
 
 		boolean sensorA = m_fixtureA.isSensor();
 		boolean sensorB = m_fixtureB.isSensor();
@@ -233,13 +251,13 @@ public abstract class Contact {
 		if (sensor) {
 			Shape shapeA = m_fixtureA.getShape();
 			Shape shapeB = m_fixtureB.getShape();
-			touching = pool.getCollision().testOverlap(shapeA, shapeB,
+			touching = argPool.getCollision().testOverlap(shapeA, shapeB,
 					xfA, xfB);
 
 			// Sensors don't generate manifolds.
 			m_manifold.pointCount = 0;
 		} else {
-			evaluate(m_manifold, xfA, xfB);
+			evaluate(argPool, m_manifold, xfA, xfB);
 			touching = m_manifold.pointCount > 0;
 
 			// Match old contact ids to new contact ids and copy the
@@ -260,11 +278,6 @@ public abstract class Contact {
 					}
 				}
 			}
-
-			if (touching != wasTouching) {
-				bodyA.setAwake(true);
-				bodyB.setAwake(true);
-			}
 		}
 
 		if (touching) {
@@ -272,6 +285,21 @@ public abstract class Contact {
 		} else {
 			m_flags &= ~TOUCHING_FLAG;
 		}
+	}
+
+	/**
+	 * The second half of {@link #update}: wakes the bodies if the touching state changed and
+	 * notifies the listener.
+	 */
+	public void finishUpdate(ContactListener listener) {
+		boolean wasTouching = m_wasTouching;
+		boolean touching = (m_flags & TOUCHING_FLAG) == TOUCHING_FLAG;
+		boolean sensor = m_fixtureA.isSensor() || m_fixtureB.isSensor();
+
+		if (sensor == false && touching != wasTouching) {
+			m_fixtureA.getBody().setAwake(true);
+			m_fixtureB.getBody().setAwake(true);
+		}
 
 		if (listener == null) {
 			return;
@@ -286,7 +314,7 @@ public abstract class Contact {
 		}
 
 		if (sensor == false && touching) {
-			listener.preSolve(this, oldManifold);
+			listener.preSolve(this, m_oldManifold);
 		}
 	}
 
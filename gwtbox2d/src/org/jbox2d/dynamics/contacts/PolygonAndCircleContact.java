@@ -52,8 +52,8 @@ public class PolygonAndCircleContact extends Contact {
 	}
 
 	@Override
-	public void evaluate(Manifold manifold, Transform xfA, Transform xfB) {
-		pool.getCollision().collidePolygonAndCircle(m_manifold,
+	public void evaluate(IWorldPool argPool, Manifold manifold, Transform xfA, Transform xfB) {
+		argPool.getCollision().collidePolygonAndCircle(m_manifold,
 				(PolygonShape)m_fixtureA.getShape(), xfA,
 				(CircleShape)m_fixtureB.getShape(), xfB);
 	}
@@ -48,8 +48,8 @@ public class PolygonContact extends Contact {
 	}
 
 	@Override
-	public void evaluate(Manifold manifold, Transform xfA, Transform xfB) {
-		pool.getCollision().collidePolygons(m_manifold,
+	public void evaluate(IWorldPool argPool, Manifold manifold, Transform xfA, Transform xfB) {
+		argPool.getCollision().collidePolygons(m_manifold,
 				(PolygonShape)m_fixtureA.getShape(), xfA,
 				(PolygonShape)m_fixtureB.getShape(), xfB);
 	}
@@ -32,6 +32,7 @@ import org.jbox2d.common.Vec2;
 import org.jbox2d.dynamics.Body;
 import org.jbox2d.dynamics.TimeStep;
 import org.jbox2d.dynamics.World;
+import org.jbox2d.dynamics.WorldSnapshot;
 
 public class ConstantVolumeJoint extends Joint {
 	Body[] bodies;
@@ -233,5 +234,16 @@ public class ConstantVolumeJoint extends Joint {
 	public float getReactionTorque(float inv_dt) {
 		return 0;
 	}
-
+	
+	@Override
+	public void saveState(WorldSnapshot snapshot) {
+		snapshot.putFloat(m_impulse);
+		snapshot.putFloat(targetVolume);
+	}
+	
+	@Override
+	public void restoreState(WorldSnapshot snapshot) {
+		m_impulse = snapshot.getFloat();
+		targetVolume = snapshot.getFloat();
+	}
 }
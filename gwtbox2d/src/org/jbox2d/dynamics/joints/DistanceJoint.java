@@ -55,6 +55,7 @@ import org.jbox2d.common.Settings;
 import org.jbox2d.common.Vec2;
 import org.jbox2d.dynamics.Body;
 import org.jbox2d.dynamics.TimeStep;
+import org.jbox2d.dynamics.WorldSnapshot;
 import org.jbox2d.pooling.IWorldPool;
 
 //Updated to rev 56->130->142 of b2DistanceJoint.cpp/.h
@@ -308,4 +309,14 @@ public class DistanceJoint extends Joint {
 		
 		return MathUtils.abs(C) < Settings.linearSlop;
 	}
+	
+	@Override
+	public void saveState(WorldSnapshot snapshot) {
+		snapshot.putFloat(m_impulse);
+	}
+	
+	@Override
+	public void restoreState(WorldSnapshot snapshot) {
+		m_impulse = snapshot.getFloat();
+	}
 }
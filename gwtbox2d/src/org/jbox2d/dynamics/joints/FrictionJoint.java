@@ -34,6 +34,7 @@ import org.jbox2d.common.MathUtils;
 import org.jbox2d.common.Vec2;
 import org.jbox2d.dynamics.Body;
 import org.jbox2d.dynamics.TimeStep;
+import org.jbox2d.dynamics.WorldSnapshot;
 import org.jbox2d.pooling.IWorldPool;
 
 /**
@@ -292,4 +293,16 @@ public class FrictionJoint extends Joint {
 	public boolean solvePositionConstraints(float baumgarte) {
 		return true;
 	}
+	
+	@Override
+	public void saveState(WorldSnapshot snapshot) {
+		snapshot.putVec2(m_linearImpulse);
+		snapshot.putFloat(m_angularImpulse);
+	}
+	
+	@Override
+	public void restoreState(WorldSnapshot snapshot) {
+		snapshot.getVec2(m_linearImpulse);
+		m_angularImpulse = snapshot.getFloat();
+	}
 }
@@ -35,6 +35,7 @@ import org.jbox2d.common.Vec2;
 import org.jbox2d.dynamics.Body;
 import org.jbox2d.dynamics.BodyType;
 import org.jbox2d.dynamics.TimeStep;
+import org.jbox2d.dynamics.WorldSnapshot;
 import org.jbox2d.pooling.IWorldPool;
 
 //Gear Joint:
@@ -356,4 +357,14 @@ public class GearJoint extends Joint {
 		// TODO_ERIN not implemented
 		return linearError < Settings.linearSlop;
 	}
+	
+	@Override
+	public void saveState(WorldSnapshot snapshot) {
+		snapshot.putFloat(m_impulse);
+	}
+	
+	@Override
+	public void restoreState(WorldSnapshot snapshot) {
+		m_impulse = snapshot.getFloat();
+	}
 }
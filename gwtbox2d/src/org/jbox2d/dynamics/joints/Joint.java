@@ -30,6 +30,7 @@ import org.jbox2d.common.Vec2;
 import org.jbox2d.dynamics.Body;
 import org.jbox2d.dynamics.TimeStep;
 import org.jbox2d.dynamics.World;
+import org.jbox2d.dynamics.WorldSnapshot;
 import org.jbox2d.pooling.IWorldPool;
 
 // updated to rev 100
@@ -206,6 +207,21 @@ public abstract class Joint {
 		return m_bodyA.isActive() && m_bodyB.isActive();
 	}
 	
+	/**
+	 * Internal: returns the pool from which this joint obtains its temporaries.
+	 */
+	public IWorldPool getPool() {
+		return pool;
+	}
+	
+	/**
+	 * Internal: sets the pool from which this joint obtains its temporaries. Pools are not
+	 * thread-safe, so a joint must use the pool of whichever thread is solving it.
+	 */
+	public void setPool(IWorldPool argPool) {
+		pool = argPool;
+	}
+	
 	public abstract void initVelocityConstraints(TimeStep step);
 	
 	public abstract void solveVelocityConstraints(TimeStep step);
@@ -222,4 +238,30 @@ public abstract class Joint {
 	 * Override to handle destruction of joint
 	 */
 	public void destructor() { }
+	
+	/**
+	 * Writes the state of this joint that carries over from one time step to the next (its
+	 * impulses, for warm starting) to the supplied snapshot.
+	 */
+	public void saveState(WorldSnapshot snapshot) { }
+	
+	/**
+	 * Reads the state written by {@link #saveState}.
+	 */
+	public void restoreState(WorldSnapshot snapshot) { }
+	
+	/**
+	 * Writes a limit state, which may be null if the joint has not yet been solved.
+	 */
+	protected static void putLimitState(WorldSnapshot snapshot, LimitState state) {
+		snapshot.putInt(state == null ? -1 : state.ordinal());
+	}
+	
+	/**
+	 * Reads a limit state written by {@link #putLimitState}.
+	 */
+	protected static LimitState getLimitState(WorldSnapshot snapshot) {
+		int ordinal = snapshot.getInt();
+		return ordinal < 0 ? null : LimitState.values()[ordinal];
+	}
 }
@@ -36,6 +36,7 @@ import org.jbox2d.common.Transform;
 import org.jbox2d.common.Vec2;
 import org.jbox2d.dynamics.Body;
 import org.jbox2d.dynamics.TimeStep;
+import org.jbox2d.dynamics.WorldSnapshot;
 import org.jbox2d.pooling.IWorldPool;
 
 /**
@@ -637,4 +638,18 @@ public class LineJoint extends Joint {
 		
 		return linearError <= Settings.linearSlop && angularError <= Settings.angularSlop;
 	}
+	
+	@Override
+	public void saveState(WorldSnapshot snapshot) {
+		snapshot.putVec2(m_impulse);
+		snapshot.putFloat(m_motorImpulse);
+		putLimitState(snapshot, m_limitState);
+	}
+	
+	@Override
+	public void restoreState(WorldSnapshot snapshot) {
+		snapshot.getVec2(m_impulse);
+		m_motorImpulse = snapshot.getFloat();
+		m_limitState = getLimitState(snapshot);
+	}
 }
@@ -33,6 +33,7 @@ import org.jbox2d.common.Transform;
 import org.jbox2d.common.Vec2;
 import org.jbox2d.dynamics.Body;
 import org.jbox2d.dynamics.TimeStep;
+import org.jbox2d.dynamics.WorldSnapshot;
 import org.jbox2d.pooling.IWorldPool;
 
 public class MouseJoint extends Joint {
@@ -239,5 +240,16 @@ public class MouseJoint extends Joint {
 		
 		pool.pushVec2(4);
 	}
-
+	
+	@Override
+	public void saveState(WorldSnapshot snapshot) {
+		snapshot.putVec2(m_target);
+		snapshot.putVec2(m_impulse);
+	}
+	
+	@Override
+	public void restoreState(WorldSnapshot snapshot) {
+		snapshot.getVec2(m_target);
+		snapshot.getVec2(m_impulse);
+	}
 }
@@ -35,6 +35,7 @@ import org.jbox2d.common.Settings;
 import org.jbox2d.common.Vec2;
 import org.jbox2d.dynamics.Body;
 import org.jbox2d.dynamics.TimeStep;
+import org.jbox2d.dynamics.WorldSnapshot;
 import org.jbox2d.pooling.IWorldPool;
 
 /**
@@ -546,4 +547,24 @@ public class PulleyJoint extends Joint {
 		
 		return linearError < Settings.linearSlop;
 	}
+	
+	@Override
+	public void saveState(WorldSnapshot snapshot) {
+		snapshot.putFloat(m_impulse);
+		snapshot.putFloat(m_limitImpulse1);
+		snapshot.putFloat(m_limitImpulse2);
+		putLimitState(snapshot, m_state);
+		putLimitState(snapshot, m_limitState1);
+		putLimitState(snapshot, m_limitState2);
+	}
+	
+	@Override
+	public void restoreState(WorldSnapshot snapshot) {
+		m_impulse = snapshot.getFloat();
+		m_limitImpulse1 = snapshot.getFloat();
+		m_limitImpulse2 = snapshot.getFloat();
+		m_state = getLimitState(snapshot);
+		m_limitState1 = getLimitState(snapshot);
+		m_limitState2 = getLimitState(snapshot);
+	}
 }
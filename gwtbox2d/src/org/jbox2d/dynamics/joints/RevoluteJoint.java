@@ -57,6 +57,7 @@ import org.jbox2d.common.Vec2;
 import org.jbox2d.common.Vec3;
 import org.jbox2d.dynamics.Body;
 import org.jbox2d.dynamics.TimeStep;
+import org.jbox2d.dynamics.WorldSnapshot;
 import org.jbox2d.pooling.IWorldPool;
 
 //Point-to-point constraint
@@ -582,4 +583,22 @@ public class RevoluteJoint extends Joint {
 		m_lowerAngle = lower;
 		m_upperAngle = upper;
 	}
+	
+	@Override
+	public void saveState(WorldSnapshot snapshot) {
+		snapshot.putFloat(m_impulse.x);
+		snapshot.putFloat(m_impulse.y);
+		snapshot.putFloat(m_impulse.z);
+		snapshot.putFloat(m_motorImpulse);
+		putLimitState(snapshot, m_limitState);
+	}
+	
+	@Override
+	public void restoreState(WorldSnapshot snapshot) {
+		m_impulse.x = snapshot.getFloat();
+		m_impulse.y = snapshot.getFloat();
+		m_impulse.z = snapshot.getFloat();
+		m_motorImpulse = snapshot.getFloat();
+		m_limitState = getLimitState(snapshot);
+	}
 }
@@ -37,6 +37,7 @@ import org.jbox2d.common.Vec2;
 import org.jbox2d.common.Vec3;
 import org.jbox2d.dynamics.Body;
 import org.jbox2d.dynamics.TimeStep;
+import org.jbox2d.dynamics.WorldSnapshot;
 import org.jbox2d.pooling.IWorldPool;
 
 /**
@@ -293,4 +294,17 @@ public class WeldJoint extends Joint {
 		return positionError <= Settings.linearSlop && angularError <= Settings.angularSlop;
 	}
 	
+	@Override
+	public void saveState(WorldSnapshot snapshot) {
+		snapshot.putFloat(m_impulse.x);
+		snapshot.putFloat(m_impulse.y);
+		snapshot.putFloat(m_impulse.z);
+	}
+	
+	@Override
+	public void restoreState(WorldSnapshot snapshot) {
+		m_impulse.x = snapshot.getFloat();
+		m_impulse.y = snapshot.getFloat();
+		m_impulse.z = snapshot.getFloat();
+	}
 }
@@ -0,0 +1,248 @@
+/**
+ * Copyright 2011 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.jbox2d.collision.broadphase;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.jbox2d.callbacks.TreeCallback;
+import org.jbox2d.callbacks.TreeRayCastCallback;
+import org.jbox2d.collision.AABB;
+import org.jbox2d.collision.RayCastInput;
+import org.jbox2d.common.Vec2;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests {@link DynamicTree}.
+ */
+public class DynamicTreeTest {
+
+	@Test
+	public void testQuery() {
+		DynamicTree tree = new DynamicTree();
+		List<DynamicTreeNode> proxies = createProxies(tree, 500, new Random(42));
+		Random random = new Random(7);
+		for (int ii = 0; ii < 100; ii++) {
+			AABB aabb = randomAABB(random, 20);
+			Set<DynamicTreeNode> expected = new HashSet<DynamicTreeNode>();
+			for (DynamicTreeNode proxy : proxies) {
+				if (AABB.testOverlap(proxy.aabb, aabb)) {
+					expected.add(proxy);
+				}
+			}
+			assertEquals(expected, query(tree, aabb));
+		}
+	}
+
+	@Test
+	public void testRaycast() {
+		DynamicTree tree = new DynamicTree();
+		List<DynamicTreeNode> proxies = createProxies(tree, 500, new Random(42));
+		Random random = new Random(7);
+		for (int ii = 0; ii < 100; ii++) {
+			RayCastInput input = new RayCastInput();
+			input.p1.set(random.nextFloat() * 100, random.nextFloat() * 100);
+			input.p2.set(random.nextFloat() * 100, random.nextFloat() * 100);
+			input.maxFraction = 1;
+			Set<DynamicTreeNode> expected = new HashSet<DynamicTreeNode>();
+			for (DynamicTreeNode proxy : proxies) {
+				if (intersects(proxy.aabb, input.p1, input.p2)) {
+					expected.add(proxy);
+				}
+			}
+			assertEquals(expected, raycast(tree, input));
+			// the caller's input is not modified
+			assertEquals(1, input.maxFraction, 0);
+		}
+
+		// a callback may end the cast
+		final List<DynamicTreeNode> hits = new ArrayList<DynamicTreeNode>();
+		RayCastInput input = new RayCastInput();
+		input.p1.set(0, 0);
+		input.p2.set(100, 100);
+		input.maxFraction = 1;
+		tree.raycast(new TreeRayCastCallback() {
+			public float raycastCallback(RayCastInput argInput, DynamicTreeNode argNode) {
+				hits.add(argNode);
+				return 0;
+			}
+		}, input);
+		assertEquals(1, hits.size());
+	}
+
+	@Test
+	public void testMoveProxy() {
+		DynamicTree tree = new DynamicTree();
+		createProxies(tree, 100, new Random(42));
+		DynamicTreeNode proxy = tree.createProxy(box(50, 50, 1), null);
+
+		// a small move stays within the fat AABB
+		assertFalse(tree.moveProxy(proxy, box(50.05f, 50, 1), new Vec2(0.05f, 0)));
+		assertTrue(query(tree, box(50, 50, 0.1f)).contains(proxy));
+
+		// a larger one reinserts the proxy, extending its AABB in the direction of motion
+		assertTrue(tree.moveProxy(proxy, box(150, 150, 1), new Vec2(1, 0)));
+		assertFalse(query(tree, box(50, 50, 0.1f)).contains(proxy));
+		Set<DynamicTreeNode> found = query(tree, box(150, 150, 0.1f));
+		assertEquals(1, found.size());
+		assertTrue(found.contains(proxy));
+		assertTrue(proxy.aabb.upperBound.x - 151 > 149 - proxy.aabb.lowerBound.x);
+		assertEquals(proxy, tree.getProxy(proxy.getId()));
+	}
+
+	@Test
+	public void testFreeListReuse() {
+		DynamicTree tree = new DynamicTree();
+		List<DynamicTreeNode> proxies = createProxies(tree, 100, new Random(42));
+		DynamicTreeNode removed = proxies.get(37);
+		int id = removed.getId();
+		tree.destroyProxy(removed);
+		assertFalse(query(tree, box(50, 50, 100)).contains(removed));
+
+		// the next proxy takes the freed node, and the tree remains consistent
+		DynamicTreeNode added = tree.createProxy(box(200, 200, 1), null);
+		assertEquals(id, added.getId());
+		Set<Integer> ids = new HashSet<Integer>();
+		for (DynamicTreeNode proxy : query(tree, box(100, 100, 200))) {
+			assertTrue(ids.add(proxy.getId()));
+			assertSame(proxy, tree.getProxy(proxy.getId()));
+		}
+		assertEquals(100, ids.size());
+		assertTrue(ids.contains(added.getId()));
+
+		// destroying everything and starting again reuses the nodes, rather than allocating more
+		for (DynamicTreeNode proxy : query(tree, box(100, 100, 200))) {
+			tree.destroyProxy(proxy);
+		}
+		assertTrue(query(tree, box(100, 100, 200)).isEmpty());
+		for (int ii = 0; ii < 3; ii++) {
+			for (DynamicTreeNode proxy : createProxies(tree, 100, new Random(ii))) {
+				// 100 leaves need 199 nodes in all, which were allocated before
+				assertTrue(proxy.getId() < 2 * 100);
+				tree.destroyProxy(proxy);
+			}
+		}
+	}
+
+	@Test
+	public void testNestedTraversal() {
+		final DynamicTree tree = new DynamicTree();
+		for (int ii = 0; ii < 200; ii++) {
+			tree.createProxy(box(ii % 20 * 3, ii / 20 * 3, 1), null);
+		}
+
+		// cast a ray and run a query from within each callback of a query
+		final Set<DynamicTreeNode> outer = new HashSet<DynamicTreeNode>();
+		final int[] nested = new int[2];
+		tree.query(new TreeCallback() {
+			public boolean treeCallback(DynamicTreeNode node) {
+				assertTrue(outer.add(node));
+				RayCastInput input = new RayCastInput();
+				input.p1.set(-5, 0);
+				input.p2.set(65, 0);
+				input.maxFraction = 1;
+				if (!raycast(tree, input).isEmpty()) {
+					nested[0]++;
+				}
+				if (query(tree, node.aabb).contains(node)) {
+					nested[1]++;
+				}
+				return true;
+			}
+		}, box(30, 15, 100));
+		assertEquals(200, outer.size());
+		assertEquals(200, nested[0]);
+		assertEquals(200, nested[1]);
+
+		// and a query from within each callback of a ray cast
+		final Set<DynamicTreeNode> hits = new HashSet<DynamicTreeNode>();
+		RayCastInput input = new RayCastInput();
+		input.p1.set(-5, 0);
+		input.p2.set(65, 0);
+		input.maxFraction = 1;
+		tree.raycast(new TreeRayCastCallback() {
+			public float raycastCallback(RayCastInput argInput, DynamicTreeNode argNode) {
+				assertTrue(hits.add(argNode));
+				assertEquals(200, query(tree, box(30, 15, 100)).size());
+				return argInput.maxFraction;
+			}
+		}, input);
+		assertEquals(20, hits.size());
+	}
+
+	protected static List<DynamicTreeNode> createProxies(DynamicTree tree, int count, Random random) {
+		List<DynamicTreeNode> proxies = new ArrayList<DynamicTreeNode>();
+		for (int ii = 0; ii < count; ii++) {
+			proxies.add(tree.createProxy(randomAABB(random, 5), null));
+		}
+		return proxies;
+	}
+
+	protected static AABB randomAABB(Random random, float maxSize) {
+		float x = random.nextFloat() * 100, y = random.nextFloat() * 100;
+		return new AABB(new Vec2(x, y), new Vec2(x + random.nextFloat() * maxSize,
+				y + random.nextFloat() * maxSize));
+	}
+
+	protected static AABB box(float x, float y, float halfSize) {
+		return new AABB(new Vec2(x - halfSize, y - halfSize), new Vec2(x + halfSize, y + halfSize));
+	}
+
+	protected static Set<DynamicTreeNode> query(DynamicTree tree, AABB aabb) {
+		final Set<DynamicTreeNode> found = new HashSet<DynamicTreeNode>();
+		tree.query(new TreeCallback() {
+			public boolean treeCallback(DynamicTreeNode node) {
+				assertTrue(found.add(node));
+				return true;
+			}
+		}, aabb);
+		return found;
+	}
+
+	protected static Set<DynamicTreeNode> raycast(DynamicTree tree, RayCastInput input) {
+		final Set<DynamicTreeNode> found = new HashSet<DynamicTreeNode>();
+		tree.raycast(new TreeRayCastCallback() {
+			public float raycastCallback(RayCastInput argInput, DynamicTreeNode argNode) {
+				assertTrue(found.add(argNode));
+				// continue without clipping the ray
+				return argInput.maxFraction;
+			}
+		}, input);
+		return found;
+	}
+
+	// returns true if the segment from p1 to p2 intersects the AABB, via the slab test
+	protected static boolean intersects(AABB aabb, Vec2 p1, Vec2 p2) {
+		float tmin = 0, tmax = 1;
+		float[] p = { p1.x, p1.y }, d = { p2.x - p1.x, p2.y - p1.y };
+		float[] lower = { aabb.lowerBound.x, aabb.lowerBound.y };
+		float[] upper = { aabb.upperBound.x, aabb.upperBound.y };
+		for (int ii = 0; ii < 2; ii++) {
+			if (d[ii] == 0) {
+				if (p[ii] < lower[ii] || p[ii] > upper[ii]) {
+					return false;
+				}
+				continue;
+			}
+			float t1 = (lower[ii] - p[ii]) / d[ii], t2 = (upper[ii] - p[ii]) / d[ii];
+			tmin = Math.max(tmin, Math.min(t1, t2));
+			tmax = Math.min(tmax, Math.max(t1, t2));
+		}
+		return tmin <= tmax;
+	}
+}
@@ -0,0 +1,228 @@
+/**
+ * Copyright 2011 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.jbox2d.dynamics;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jbox2d.callbacks.ContactImpulse;
+import org.jbox2d.callbacks.ContactListener;
+import org.jbox2d.collision.Manifold;
+import org.jbox2d.collision.shapes.PolygonShape;
+import org.jbox2d.common.Vec2;
+import org.jbox2d.dynamics.contacts.Contact;
+import org.jbox2d.dynamics.joints.RevoluteJointDef;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests that stepping with a {@link ParallelExecutor} gives exactly the results of a serial step.
+ */
+public class ParallelExecutorTest {
+
+	@Test
+	public void testMatchesSerial() {
+		World serial = createWorld();
+		List<String> serialEvents = listen(serial);
+
+		World parallel = createWorld();
+		List<String> parallelEvents = listen(parallel);
+		ParallelExecutor executor = new ParallelExecutor(4);
+		parallel.setIslandExecutor(executor);
+		parallel.setContactExecutor(executor);
+
+		try {
+			for (int i = 0; i < 300; ++i) {
+				serial.step(1 / 60f, 8, 3);
+				parallel.step(1 / 60f, 8, 3);
+				assertSameBodies(serial, parallel);
+			}
+		}
+		finally {
+			executor.shutdown();
+		}
+		assertEquals(serialEvents, parallelEvents);
+		assertTrue(serialEvents.size() > 0);
+		// the stacks should have settled and gone to sleep
+		assertFalse(serial.getBodyList().getNext().isAwake());
+	}
+
+	@Test
+	public void testListenerOrder() {
+		// find the step in which the dropped box lands on the sleeping stack
+		World probe = createDropWorld();
+		List<String> probeEvents = listen(probe);
+		int landing = -1;
+		for (int i = 0; i < 600 && landing < 0; ++i) {
+			probe.step(1 / 60f, 8, 3);
+			if (probeEvents.contains("begin 3/4") || probeEvents.contains("begin 4/3")) {
+				landing = i;
+			}
+		}
+		assertTrue(landing > 0);
+
+		World serial = createDropWorld();
+		List<String> serialEvents = listen(serial);
+		World parallel = createDropWorld();
+		List<String> parallelEvents = listen(parallel);
+		ParallelExecutor executor = new ParallelExecutor(4);
+		parallel.setContactExecutor(executor);
+
+		Filter none = new Filter();
+		none.maskBits = 0;
+		boolean ended = false;
+		try {
+			for (int i = 0; i < landing + 60; ++i) {
+				if (i == landing) {
+					// in the same step as the landing, the awake box's touching contact with the
+					// ground is filtered out, so the contact is destroyed and ended
+					bodyWithId(serial, 1).getFixtureList().setFilterData(none);
+					bodyWithId(parallel, 1).getFixtureList().setFilterData(none);
+				}
+				serial.step(1 / 60f, 8, 3);
+				parallel.step(1 / 60f, 8, 3);
+				assertEquals("step " + i, serialEvents, parallelEvents);
+				assertSameBodies(serial, parallel);
+				ended |= serialEvents.contains("end 0/1") || serialEvents.contains("end 1/0");
+				serialEvents.clear();
+				parallelEvents.clear();
+			}
+		}
+		finally {
+			executor.shutdown();
+		}
+		assertTrue(ended);
+	}
+
+	/**
+	 * Creates a world with several stacks of boxes on one static ground body, so that each stack
+	 * is its own island but all share the ground, and a pendulum jointed to the ground.
+	 */
+	protected static World createWorld() {
+		World world = new World(new Vec2(0, -10), true);
+		int id = 0;
+
+		BodyDef groundDef = new BodyDef();
+		Body ground = world.createBody(groundDef);
+		ground.setUserData(id++);
+		PolygonShape groundShape = new PolygonShape();
+		groundShape.setAsBox(50, 1);
+		ground.createFixture(groundShape, 0);
+
+		PolygonShape box = new PolygonShape();
+		box.setAsBox(0.5f, 0.5f);
+		for (int stack = 0; stack < 6; ++stack) {
+			for (int level = 0; level < 5; ++level) {
+				BodyDef def = new BodyDef();
+				def.type = BodyType.DYNAMIC;
+				def.position.set(-20 + stack * 6 + level * 0.05f, 1.5f + level * 1.05f);
+				Body body = world.createBody(def);
+				body.setUserData(id++);
+				body.createFixture(box, 1);
+			}
+		}
+
+		BodyDef bobDef = new BodyDef();
+		bobDef.type = BodyType.DYNAMIC;
+		bobDef.position.set(25, 8);
+		Body bob = world.createBody(bobDef);
+		bob.setUserData(id++);
+		bob.createFixture(box, 1);
+		RevoluteJointDef joint = new RevoluteJointDef();
+		joint.initialize(ground, bob, new Vec2(20, 8));
+		world.createJoint(joint);
+
+		return world;
+	}
+
+	/**
+	 * Creates a world with a box (1) that never sleeps resting on the ground (0), a stack of two
+	 * boxes (2 and 3) that will go to sleep, and a box (4) that falls onto the stack once it has.
+	 */
+	protected static World createDropWorld() {
+		World world = new World(new Vec2(0, -10), true);
+		Body ground = world.createBody(new BodyDef());
+		ground.setUserData(0);
+		PolygonShape groundShape = new PolygonShape();
+		groundShape.setAsBox(50, 1);
+		ground.createFixture(groundShape, 0);
+
+		float[][] boxes = { { -10, 1.5f }, { 10, 1.5f }, { 10, 2.55f }, { 10.2f, 40 } };
+		PolygonShape box = new PolygonShape();
+		box.setAsBox(0.5f, 0.5f);
+		for (int i = 0; i < boxes.length; ++i) {
+			BodyDef def = new BodyDef();
+			def.type = BodyType.DYNAMIC;
+			def.allowSleep = (i != 0);
+			def.position.set(boxes[i][0], boxes[i][1]);
+			Body body = world.createBody(def);
+			body.setUserData(i + 1);
+			body.createFixture(box, 1);
+		}
+		return world;
+	}
+
+	protected static Body bodyWithId(World world, int id) {
+		for (Body b = world.getBodyList(); b != null; b = b.getNext()) {
+			if (b.getUserData().equals(id)) {
+				return b;
+			}
+		}
+		throw new IllegalArgumentException("No body " + id);
+	}
+
+	protected static List<String> listen(World world) {
+		final List<String> events = new ArrayList<String>();
+		world.setContactListener(new ContactListener() {
+			public void beginContact(Contact contact) {
+				events.add("begin " + describe(contact));
+			}
+			public void endContact(Contact contact) {
+				events.add("end " + describe(contact));
+			}
+			public void preSolve(Contact contact, Manifold oldManifold) {
+				events.add("pre " + describe(contact));
+			}
+			public void postSolve(Contact contact, ContactImpulse impulse) {
+				events.add("post " + describe(contact) + " " + impulse.normalImpulses[0]);
+			}
+		});
+		return events;
+	}
+
+	protected static String describe(Contact contact) {
+		return contact.getFixtureA().getBody().getUserData() + "/" +
+			contact.getFixtureB().getBody().getUserData();
+	}
+
+	protected static void assertSameBodies(World expect, World actual) {
+		Body eb = expect.getBodyList(), ab = actual.getBodyList();
+		for (; eb != null; eb = eb.getNext(), ab = ab.getNext()) {
+			assertNotNull(ab);
+			String id = String.valueOf(eb.getUserData());
+			assertEquals(id, eb.getUserData(), ab.getUserData());
+			assertEquals(id, eb.m_xf.position.x, ab.m_xf.position.x, 0);
+			assertEquals(id, eb.m_xf.position.y, ab.m_xf.position.y, 0);
+			assertEquals(id, eb.m_xf.R.m11, ab.m_xf.R.m11, 0);
+			assertEquals(id, eb.m_xf.R.m12, ab.m_xf.R.m12, 0);
+			assertEquals(id, eb.m_linearVelocity.x, ab.m_linearVelocity.x, 0);
+			assertEquals(id, eb.m_linearVelocity.y, ab.m_linearVelocity.y, 0);
+			assertEquals(id, eb.m_angularVelocity, ab.m_angularVelocity, 0);
+			if (eb.getType() != BodyType.STATIC) {
+				assertEquals(id, eb.isAwake(), ab.isAwake());
+			}
+		}
+		assertNull(ab);
+	}
+}
@@ -0,0 +1,251 @@
+/**
+ * Copyright 2011 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.jbox2d.dynamics;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.jbox2d.callbacks.QueryCallback;
+import org.jbox2d.callbacks.RayCastCallback;
+import org.jbox2d.collision.AABB;
+import org.jbox2d.collision.shapes.CircleShape;
+import org.jbox2d.collision.shapes.PolygonShape;
+import org.jbox2d.common.Vec2;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests that {@link WorldQuery} gives the results of {@link World#raycast} and {@link
+ * World#queryAABB}.
+ */
+public class WorldQueryTest {
+
+	private static final int RAYS = 500;
+
+	@Test
+	public void testRaycast() {
+		World world = createWorld();
+		float[] rays = randomBoxes(new Random(7), RAYS, 100);
+		int[] fixtures = new int[RAYS];
+		float[] fractions = new float[RAYS], normals = new float[2 * RAYS];
+		WorldQuery query = new WorldQuery(world);
+		int hits = query.raycast(rays, RAYS, fixtures, fractions, normals);
+
+		int expectHits = 0;
+		for (int i = 0; i < RAYS; i++) {
+			ClosestHit hit = new ClosestHit();
+			world.raycast(hit, new Vec2(rays[4 * i], rays[4 * i + 1]),
+					new Vec2(rays[4 * i + 2], rays[4 * i + 3]));
+			if (hit.fixture == null) {
+				assertEquals(WorldQuery.NO_FIXTURE, fixtures[i]);
+				assertEquals(1, fractions[i], 0);
+				continue;
+			}
+			expectHits++;
+			assertSame(hit.fixture, query.getFixture(fixtures[i]));
+			// the results are computed in the same way, so should be identical
+			assertEquals(Float.floatToIntBits(hit.fraction), Float.floatToIntBits(fractions[i]));
+			assertEquals(Float.floatToIntBits(hit.normal.x), Float.floatToIntBits(normals[2 * i]));
+			assertEquals(Float.floatToIntBits(hit.normal.y), Float.floatToIntBits(normals[2 * i + 1]));
+		}
+		assertEquals(expectHits, hits);
+		// make sure that the rays exercise both outcomes
+		assertTrue(hits > RAYS / 4 && hits < RAYS);
+	}
+
+	/**
+	 * Ensures that edges beyond a closer hit are treated as {@link World#raycast} treats them: it
+	 * tests edges against the whole ray, rather than the part up to the closest hit so far.
+	 */
+	@Test
+	public void testEdgeBeyondHit() {
+		// the outcome depends on which fixture the tree visits first, so try both orders
+		for (int order = 0; order < 2; order++) {
+			World world = new World(new Vec2(0, -10), true);
+			for (int i = 0; i < 2; i++) {
+				Body body = world.createBody(new BodyDef());
+				if (i == order) {
+					PolygonShape box = new PolygonShape();
+					box.setAsBox(1, 1);
+					body.createFixture(box, 0);
+				}
+				else {
+					// crosses the ray just beyond the box, within the box's part of the ray's bounds
+					PolygonShape edge = new PolygonShape();
+					edge.setAsEdge(new Vec2(-10, 10), new Vec2(10, -10));
+					body.createFixture(edge, 0);
+				}
+			}
+
+			float[] rays = { -20, 0.5f, 20, 0.5f, 20, -0.5f, -20, -0.5f };
+			int[] fixtures = new int[2];
+			float[] fractions = new float[2];
+			WorldQuery query = new WorldQuery(world);
+			query.raycast(rays, 2, fixtures, fractions, null);
+			for (int i = 0; i < 2; i++) {
+				ClosestHit hit = new ClosestHit();
+				world.raycast(hit, new Vec2(rays[4 * i], rays[4 * i + 1]),
+						new Vec2(rays[4 * i + 2], rays[4 * i + 3]));
+				assertSame(hit.fixture, query.getFixture(fixtures[i]));
+				assertEquals(Float.floatToIntBits(hit.fraction), Float.floatToIntBits(fractions[i]));
+			}
+		}
+	}
+
+	@Test
+	public void testLineOfSight() {
+		World world = createWorld();
+		float[] rays = randomBoxes(new Random(11), RAYS, 100);
+		boolean[] clear = new boolean[RAYS];
+		int clearCount = new WorldQuery(world).lineOfSight(rays, RAYS, clear);
+
+		int expectClear = 0;
+		for (int i = 0; i < RAYS; i++) {
+			ClosestHit hit = new ClosestHit();
+			world.raycast(hit, new Vec2(rays[4 * i], rays[4 * i + 1]),
+					new Vec2(rays[4 * i + 2], rays[4 * i + 3]));
+			assertEquals(hit.fixture == null, clear[i]);
+			if (clear[i]) {
+				expectClear++;
+			}
+		}
+		assertEquals(expectClear, clearCount);
+	}
+
+	@Test
+	public void testQueryAABB() {
+		World world = createWorld();
+		int count = 100;
+		float[] boxes = randomBoxes(new Random(13), count, 100);
+		// make the boxes well formed
+		for (int b = 0; b < 4 * count; b += 4) {
+			boxes[b + 2] = boxes[b] + boxes[b + 2] / 10;
+			boxes[b + 3] = boxes[b + 1] + boxes[b + 3] / 10;
+		}
+		WorldQuery query = new WorldQuery(world);
+		int[] offsets = new int[count + 1];
+		int total = query.queryAABB(boxes, count, new int[0], offsets);
+		int[] fixtures = new int[total];
+		assertEquals(total, query.queryAABB(boxes, count, fixtures, offsets));
+
+		for (int i = 0, b = 0; i < count; i++, b += 4) {
+			final Set<Fixture> expect = new HashSet<Fixture>();
+			world.queryAABB(new QueryCallback() {
+				public boolean reportFixture(Fixture fixture) {
+					expect.add(fixture);
+					return true;
+				}
+			}, new AABB(new Vec2(boxes[b], boxes[b + 1]), new Vec2(boxes[b + 2], boxes[b + 3])));
+			Set<Fixture> found = new HashSet<Fixture>();
+			for (int f = offsets[i]; f < offsets[i + 1]; f++) {
+				assertTrue(found.add(query.getFixture(fixtures[f])));
+			}
+			assertEquals(expect, found);
+		}
+	}
+
+	@Test
+	public void testConcurrentQueries() throws InterruptedException {
+		final World world = createWorld();
+		final float[] rays = randomBoxes(new Random(17), RAYS, 100);
+		final int[] expect = new int[RAYS];
+		final float[] expectFractions = new float[RAYS];
+		new WorldQuery(world).raycast(rays, RAYS, expect, expectFractions, null);
+
+		Thread[] threads = new Thread[4];
+		final boolean[] matched = new boolean[threads.length];
+		for (int t = 0; t < threads.length; t++) {
+			final int index = t;
+			threads[t] = new Thread() {
+				@Override
+				public void run() {
+					WorldQuery query = new WorldQuery(world);
+					int[] fixtures = new int[RAYS];
+					float[] fractions = new float[RAYS];
+					boolean same = true;
+					for (int i = 0; i < 50; i++) {
+						query.raycast(rays, RAYS, fixtures, fractions, null);
+						same &= Arrays.equals(expect, fixtures) && Arrays.equals(expectFractions, fractions);
+					}
+					matched[index] = same;
+				}
+			};
+			threads[t].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		for (boolean same : matched) {
+			assertTrue(same);
+		}
+	}
+
+	/**
+	 * Creates a world of static boxes, rotated boxes, offset circles and edges.
+	 */
+	protected static World createWorld() {
+		World world = new World(new Vec2(0, -10), true);
+		Random random = new Random(42);
+		for (int i = 0; i < 150; i++) {
+			BodyDef def = new BodyDef();
+			def.position.set(random.nextFloat() * 100, random.nextFloat() * 100);
+			def.angle = random.nextFloat() * 3;
+			Body body = world.createBody(def);
+			switch (i % 3) {
+			case 0:
+				PolygonShape box = new PolygonShape();
+				box.setAsBox(0.5f + random.nextFloat() * 2, 0.5f + random.nextFloat() * 2);
+				body.createFixture(box, 0);
+				break;
+			case 1:
+				CircleShape circle = new CircleShape();
+				circle.m_radius = 0.5f + random.nextFloat() * 2;
+				circle.m_p.set(random.nextFloat(), random.nextFloat());
+				body.createFixture(circle, 0);
+				break;
+			default:
+				PolygonShape edge = new PolygonShape();
+				edge.setAsEdge(new Vec2(-2, -1), new Vec2(2, random.nextFloat()));
+				body.createFixture(edge, 0);
+				break;
+			}
+		}
+		return world;
+	}
+
+	// returns count groups of four floats in [0, size)
+	protected static float[] randomBoxes(Random random, int count, float size) {
+		float[] values = new float[4 * count];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = random.nextFloat() * size;
+		}
+		return values;
+	}
+
+	/** Records the closest fixture hit by a ray. */
+	protected static class ClosestHit implements RayCastCallback {
+		public Fixture fixture;
+		public float fraction;
+		public final Vec2 normal = new Vec2();
+
+		public float reportFixture(Fixture fixture, Vec2 point, Vec2 normal, float fraction) {
+			this.fixture = fixture;
+			this.fraction = fraction;
+			this.normal.set(normal);
+			return fraction;
+		}
+	}
+}
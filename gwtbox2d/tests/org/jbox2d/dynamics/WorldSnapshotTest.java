@@ -0,0 +1,135 @@
+/**
+ * Copyright 2011 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.jbox2d.dynamics;
+
+import org.jbox2d.collision.shapes.PolygonShape;
+import org.jbox2d.common.Vec2;
+import org.jbox2d.dynamics.joints.RevoluteJointDef;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests {@link World#snapshot} and {@link World#restore}.
+ */
+public class WorldSnapshotTest {
+
+	// the number of steps simulated before the snapshot, and after it
+	private static final int BEFORE = 60, AFTER = 120;
+
+	@Test
+	public void testRestore() {
+		World world = createWorld();
+		step(world, BEFORE);
+		WorldSnapshot snapshot = world.snapshot(null);
+		step(world, AFTER);
+		int[] expect = state(world);
+
+		world.restore(snapshot);
+		step(world, AFTER);
+		assertArrayEquals(expect, state(world));
+
+		// and again, to be sure that restoring does not disturb the snapshot
+		world.restore(snapshot);
+		step(world, AFTER);
+		assertArrayEquals(expect, state(world));
+	}
+
+	@Test
+	public void testDelta() {
+		World world = createWorld();
+		step(world, BEFORE);
+		WorldSnapshot base = world.snapshot(null);
+		step(world, 1);
+		WorldSnapshot next = world.snapshot(null);
+		step(world, AFTER);
+		int[] expect = state(world);
+
+		// a delta applied to its base recreates the later snapshot
+		WorldSnapshot.Delta delta = next.delta(base, null);
+		WorldSnapshot rebuilt = new WorldSnapshot();
+		rebuilt.apply(base, delta);
+		world.restore(rebuilt);
+		step(world, AFTER);
+		assertArrayEquals(expect, state(world));
+	}
+
+	@Test(expected=IllegalStateException.class)
+	public void testStructureChanged() {
+		World world = createWorld();
+		WorldSnapshot snapshot = world.snapshot(null);
+		world.createBody(new BodyDef());
+		world.restore(snapshot);
+	}
+
+	/**
+	 * Creates a world with a toppling stack of boxes, a pendulum, and a box that falls onto the
+	 * ground after the snapshot has been taken, so that restoring must discard its contacts.
+	 */
+	protected static World createWorld() {
+		World world = new World(new Vec2(0, -10), true);
+		Body ground = world.createBody(new BodyDef());
+		PolygonShape groundShape = new PolygonShape();
+		groundShape.setAsBox(50, 1);
+		ground.createFixture(groundShape, 0);
+
+		PolygonShape box = new PolygonShape();
+		box.setAsBox(0.5f, 0.5f);
+		for (int i = 0; i < 6; ++i) {
+			createBox(world, box, i * 0.2f, 1.5f + i * 1.05f);
+		}
+		createBox(world, box, 10, 12);
+
+		Body bob = createBox(world, box, 25, 8);
+		RevoluteJointDef joint = new RevoluteJointDef();
+		joint.initialize(ground, bob, new Vec2(20, 8));
+		world.createJoint(joint);
+		return world;
+	}
+
+	protected static Body createBox(World world, PolygonShape box, float x, float y) {
+		BodyDef def = new BodyDef();
+		def.type = BodyType.DYNAMIC;
+		def.position.set(x, y);
+		Body body = world.createBody(def);
+		body.createFixture(box, 1);
+		return body;
+	}
+
+	protected static void step(World world, int steps) {
+		for (int i = 0; i < steps; ++i) {
+			world.step(1 / 60f, 8, 3);
+		}
+	}
+
+	/**
+	 * Returns the bits of every body's transform and velocity, so that states can be compared
+	 * exactly.
+	 */
+	protected static int[] state(World world) {
+		int[] state = new int[world.getBodyCount() * 9];
+		int i = 0;
+		for (Body b = world.getBodyList(); b != null; b = b.getNext()) {
+			state[i++] = Float.floatToIntBits(b.m_xf.position.x);
+			state[i++] = Float.floatToIntBits(b.m_xf.position.y);
+			state[i++] = Float.floatToIntBits(b.m_xf.R.m11);
+			state[i++] = Float.floatToIntBits(b.m_xf.R.m12);
+			state[i++] = Float.floatToIntBits(b.m_xf.R.m21);
+			state[i++] = Float.floatToIntBits(b.m_xf.R.m22);
+			state[i++] = Float.floatToIntBits(b.m_linearVelocity.x);
+			state[i++] = Float.floatToIntBits(b.m_linearVelocity.y);
+			state[i++] = Float.floatToIntBits(b.m_angularVelocity);
+		}
+		return state;
+	}
+}
@@ -0,0 +1,168 @@
+/**
+ * Copyright 2011 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package playn.html;
+
+import com.google.gwt.typedarrays.client.ArrayBuffer;
+import com.google.gwt.typedarrays.client.DataView;
+import com.google.gwt.typedarrays.client.Uint8Array;
+
+import playn.core.AbstractBinary;
+
+/**
+ * Stores binary data in an {@link ArrayBuffer}, accessed via a {@link DataView} for multi-byte
+ * values and a {@link Uint8Array} for single bytes.
+ */
+class HtmlBinary extends AbstractBinary {
+
+  static class HtmlBytes extends Bytes {
+    private Uint8Array bytes;
+    private DataView view;
+
+    HtmlBytes(int capacity) {
+      setBuffer(ArrayBuffer.create(capacity));
+    }
+
+    @Override
+    public int capacity() {
+      return bytes.getLength();
+    }
+
+    @Override
+    public void reserve(int capacity) {
+      if (capacity > bytes.getLength()) {
+        Uint8Array obytes = bytes;
+        setBuffer(ArrayBuffer.create(capacity));
+        bytes.set(obytes);
+      }
+    }
+
+    @Override
+    public void move(int from, int to, int length) {
+      // set() copies the source first when it shares a buffer with the target
+      bytes.set(bytes.subarray(from, from + length), to);
+    }
+
+    @Override
+    public void setByte(int pos, int value) {
+      bytes.set(pos, value);
+    }
+
+    @Override
+    public void setShort(int pos, int value) {
+      view.setInt16(pos, (short) value, false);
+    }
+
+    @Override
+    public void setInt(int pos, int value) {
+      view.setInt32(pos, value, false);
+    }
+
+    @Override
+    public void setFloat(int pos, float value) {
+      setFloat32(view, pos, value);
+    }
+
+    @Override
+    public void setDouble(int pos, double value) {
+      setFloat64(view, pos, value);
+    }
+
+    @Override
+    public int getByte(int pos) {
+      return bytes.get(pos);
+    }
+
+    @Override
+    public int getShort(int pos) {
+      return view.getInt16(pos, false);
+    }
+
+    @Override
+    public int getInt(int pos) {
+      return view.getInt32(pos, false);
+    }
+
+    @Override
+    public float getFloat(int pos) {
+      return getFloat32(view, pos);
+    }
+
+    @Override
+    public double getDouble(int pos) {
+      return getFloat64(view, pos);
+    }
+
+    @Override
+    public String toBase64(int length) {
+      return toBase64(bytes, length);
+    }
+
+    @Override
+    public int fromBase64(String data) {
+      return fromBase64(this, data);
+    }
+
+    private void setBuffer(ArrayBuffer buffer) {
+      bytes = Uint8Array.create(buffer);
+      view = createView(buffer);
+    }
+
+    private static native DataView createView(ArrayBuffer buffer) /*-{
+      return new DataView(buffer);
+    }-*/;
+
+    // the DataView wrapper calls getFloat/setFloat and getDouble/setDouble, which browsers do not
+    // provide, so we call the standard methods ourselves
+    private static native void setFloat32(DataView view, int pos, float value) /*-{
+      view.setFloat32(pos, value, false);
+    }-*/;
+
+    private static native void setFloat64(DataView view, int pos, double value) /*-{
+      view.setFloat64(pos, value, false);
+    }-*/;
+
+    private static native float getFloat32(DataView view, int pos) /*-{
+      return view.getFloat32(pos, false);
+    }-*/;
+
+    private static native double getFloat64(DataView view, int pos) /*-{
+      return view.getFloat64(pos, false);
+    }-*/;
+
+    private static native String toBase64(Uint8Array bytes, int length) /*-{
+      // convert in chunks, to stay within the browser's limit on the number of arguments
+      var chunks = [];
+      for (var ii = 0; ii < length; ii += 8192) {
+        var chunk = bytes.subarray(ii, Math.min(ii + 8192, length));
+        chunks.push(String.fromCharCode.apply(null, chunk));
+      }
+      return $wnd.btoa(chunks.join(''));
+    }-*/;
+
+    private static native int fromBase64(HtmlBytes target, String data) /*-{
+      var chars = $wnd.atob(data), length = chars.length;
+      target.@playn.html.HtmlBinary.HtmlBytes::reserve(I)(length);
+      var bytes = target.@playn.html.HtmlBinary.HtmlBytes::bytes;
+      for (var ii = 0; ii < length; ii++) {
+        bytes[ii] = chars.charCodeAt(ii);
+      }
+      return length;
+    }-*/;
+  }
+
+  @Override
+  protected Bytes createBytes(int capacity) {
+    return new HtmlBytes(capacity);
+  }
+}
@@ -18,9 +18,11 @@ package playn.html;
 import playn.core.Canvas;
 import playn.core.CanvasImage;
 
+import com.google.gwt.webgl.client.WebGLTexture;
+
 class HtmlCanvasImage extends HtmlImage implements CanvasImage {
 
-  private Canvas canvas;
+  private HtmlCanvas canvas;
 
   public HtmlCanvasImage(HtmlCanvas surface) {
     super(surface.canvas());
@@ -30,4 +32,14 @@ class HtmlCanvasImage extends HtmlImage implements CanvasImage {
   public Canvas canvas() {
     return canvas;
   }
+
+  @Override
+  WebGLTexture ensureTexture(HtmlGraphicsGL gfx, boolean repeatX, boolean repeatY) {
+    // if the canvas has been drawn into since our textures were created, they're stale
+    if (canvas.dirty()) {
+      clearTexture(gfx);
+      canvas.clearDirty();
+    }
+    return super.ensureTexture(gfx, repeatX, repeatY);
+  }
 }
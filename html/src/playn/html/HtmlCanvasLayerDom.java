@@ -62,11 +62,11 @@ class HtmlCanvasLayerDom extends HtmlLayerDom implements CanvasLayer {
 
   @Override
   public float scaledWidth() {
-    return transform().scaleX() * width();
+    return transform.scaleX() * width();
   }
 
   @Override
   public float scaledHeight() {
-    return transform().scaleY() * height();
+    return transform.scaleY() * height();
   }
 }
@@ -19,6 +19,8 @@ import playn.core.Asserts;
 import playn.core.Canvas;
 import playn.core.CanvasLayer;
 import playn.core.InternalTransform;
+import playn.core.PlayN;
+import playn.core.Stats;
 
 import com.google.gwt.dom.client.CanvasElement;
 import com.google.gwt.dom.client.Document;
@@ -59,9 +61,15 @@ class HtmlCanvasLayerGL extends HtmlLayerGL implements CanvasLayer {
     canvas = null;
   }
 
+  @Override
+  public boolean culled(InternalTransform parentTransform, float viewWidth, float viewHeight) {
+    return culled(parentTransform, width, height, viewWidth, viewHeight);
+  }
+
   @Override
   public  void paint(InternalTransform parentTransform, float parentAlpha) {
     if (!visible()) return;
+    PlayN.stats().increment(Stats.Count.LAYERS_DRAWN);
 
     if (canvas.dirty()) {
       canvas.clearDirty();
@@ -85,11 +93,11 @@ class HtmlCanvasLayerGL extends HtmlLayerGL implements CanvasLayer {
 
   @Override
   public float scaledWidth() {
-    return transform().scaleX() * width();
+    return transform.scaleX() * width();
   }
 
   @Override
   public float scaledHeight() {
-    return transform().scaleY() * height();
+    return transform.scaleY() * height();
   }
 }
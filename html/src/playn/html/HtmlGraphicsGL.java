@@ -45,6 +45,7 @@ import playn.core.Image;
 import playn.core.ImageLayer;
 import playn.core.InternalTransform;
 import playn.core.PlayN;
+import playn.core.Stats;
 import playn.core.SurfaceLayer;
 
 import com.google.gwt.dom.client.CanvasElement;
@@ -67,16 +68,9 @@ import com.google.gwt.webgl.client.WebGLUtil;
 class HtmlGraphicsGL extends HtmlGraphics {
 
   private static final int VERTEX_SIZE = 10;              // 10 floats per vertex
-
-// TODO(jgw): Re-enable longer element buffers once we figure out why they're causing weird
-// performance degradation.
-//  private static final int MAX_VERTS = 400;               // 100 quads
-//  private static final int MAX_ELEMS = MAX_VERTS * 6 / 4; // At most 6 verts per quad
-
-// These values allow only one quad at a time (there's no generalized polygon rendering available
-// in Surface yet that would use more than 4 points / 2 triangles).
-  private static final int MAX_VERTS = 4;
-  private static final int MAX_ELEMS = 6;
+  private static final int MAX_QUADS = 4096;              // quads per batch
+  private static final int MAX_VERTS = MAX_QUADS * 4;     // 4 verts per quad (fits in 16 bits)
+  private static final int MAX_ELEMS = MAX_QUADS * 6;     // 6 elements per quad
 
   private class Shader {
     WebGLProgram program;
@@ -137,15 +131,15 @@ class HtmlGraphicsGL extends HtmlGraphics {
         return;
       }
 
-      // TODO(jgw): Change this back. It only works because we've limited MAX_VERTS, which only
-      // works because there are no >4 vertex draws happening.
-      // gl.bufferData(ARRAY_BUFFER, vertexData.subarray(0, vertexOffset), STREAM_DRAW);
-      // gl.bufferData(ELEMENT_ARRAY_BUFFER, elementData.subarray(0, elementOffset), STREAM_DRAW);
-      gl.bufferData(ARRAY_BUFFER, vertexData, STREAM_DRAW);
-      gl.bufferData(ELEMENT_ARRAY_BUFFER, elementData, STREAM_DRAW);
+      // only upload the portion of the buffers that we actually filled; uploading the entire
+      // (large) buffer on every flush is what made long batches slow
+      gl.bufferData(ARRAY_BUFFER, vertexData.subarray(0, vertexOffset), STREAM_DRAW);
+      gl.bufferData(ELEMENT_ARRAY_BUFFER, elementData.subarray(0, elementOffset), STREAM_DRAW);
 
       gl.drawElements(TRIANGLES, elementOffset, UNSIGNED_SHORT, 0);
       vertexOffset = elementOffset = 0;
+      ++drawCalls;
+      PlayN.stats().increment(Stats.Count.FLUSHES);
     }
 
     int beginPrimitive(int vertexCount, int elemCount) {
@@ -263,6 +257,7 @@ class HtmlGraphicsGL extends HtmlGraphics {
 
   // Debug counters.
   // private int texCount;
+  private int drawCalls, lastDrawCalls;
 
   HtmlGraphicsGL() {
     rootLayer = new HtmlGroupLayerGL(this);
@@ -325,6 +320,16 @@ class HtmlGraphicsGL extends HtmlGraphics {
     return canvas.getOffsetWidth();
   }
 
+  /** Returns the width of the currently bound framebuffer. */
+  int fbufWidth() {
+    return screenWidth;
+  }
+
+  /** Returns the height of the currently bound framebuffer. */
+  int fbufHeight() {
+    return screenHeight;
+  }
+
   void bindFramebuffer() {
     bindFramebuffer(null, canvas.getWidth(), canvas.getHeight());
   }
@@ -357,6 +362,8 @@ class HtmlGraphicsGL extends HtmlGraphics {
   }
 
   void destroyTexture(WebGLTexture tex) {
+    // flush in case this texture is queued up to be drawn
+    flush();
     gl.deleteTexture(tex);
     // --texCount;
   }
@@ -372,11 +379,26 @@ class HtmlGraphicsGL extends HtmlGraphics {
 
     // Guarantee a flush.
     useShader(null);
+
+    lastDrawCalls = drawCalls;
+    drawCalls = 0;
+  }
+
+  /**
+   * Returns the number of draw calls (batch flushes) issued while painting the most recently
+   * completed frame.
+   */
+  int drawCalls() {
+    return lastDrawCalls;
   }
 
   public void updateTexture(WebGLTexture tex, Element img) {
+    // the texture may be referenced by quads in the current batch, which must be drawn with its
+    // old contents
+    flush();
     gl.bindTexture(TEXTURE_2D, tex);
     gl.texImage2D(TEXTURE_2D, 0, RGBA, RGBA, UNSIGNED_BYTE, img.<ImageElement>cast());
+    PlayN.stats().increment(Stats.Count.TEXTURE_UPLOADS);
   }
 
   void drawTexture(WebGLTexture tex, float texWidth, float texHeight, InternalTransform local,
@@ -447,8 +469,8 @@ class HtmlGraphicsGL extends HtmlGraphics {
   void fillPoly(InternalTransform local, float[] positions, int color, float alpha) {
     colorShader.prepare(color, alpha);
 
-    int idx = colorShader.beginPrimitive(4, 6);
     int points = positions.length / 2;
+    int idx = colorShader.beginPrimitive(points, (points - 2) * 3);
     for (int i = 0; i < points; ++i) {
       float dx = positions[i * 2];
       float dy = positions[i * 2 + 1];
@@ -96,6 +96,31 @@ class HtmlGroupLayerDom extends HtmlLayerDom implements GroupLayer, ParentLayer
     return impl.children.size();
   }
 
+  @Override
+  public void setCulling(boolean culling) {
+    impl.culling = culling;
+  }
+
+  @Override
+  public boolean culling() {
+    return impl.culling;
+  }
+
+  @Override
+  public void setHitIndex(float cellSize) {
+    impl.setHitIndex(cellSize);
+  }
+
+  @Override
+  public Layer hitTest(float x, float y) {
+    return impl.hitTest(this, x, y);
+  }
+
+  @Override
+  public void childBoundsChanged(Layer layer) {
+    impl.childBoundsChanged(this, layer);
+  }
+
   @Override
   public void destroy() {
     super.destroy();
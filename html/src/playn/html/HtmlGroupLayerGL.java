@@ -19,6 +19,8 @@ import playn.core.GroupLayerImpl;
 import playn.core.InternalTransform;
 import playn.core.Layer;
 import playn.core.ParentLayer;
+import playn.core.PlayN;
+import playn.core.Stats;
 
 class HtmlGroupLayerGL extends HtmlLayerGL implements GroupLayer, ParentLayer {
 
@@ -66,6 +68,31 @@ class HtmlGroupLayerGL extends HtmlLayerGL implements GroupLayer, ParentLayer {
     return impl.children.size();
   }
 
+  @Override
+  public void setCulling(boolean culling) {
+    impl.culling = culling;
+  }
+
+  @Override
+  public boolean culling() {
+    return impl.culling;
+  }
+
+  @Override
+  public void setHitIndex(float cellSize) {
+    impl.setHitIndex(cellSize);
+  }
+
+  @Override
+  public Layer hitTest(float x, float y) {
+    return impl.hitTest(this, x, y);
+  }
+
+  @Override
+  public void childBoundsChanged(Layer layer) {
+    impl.childBoundsChanged(this, layer);
+  }
+
   @Override
   public void destroy() {
     super.destroy();
@@ -93,8 +120,14 @@ class HtmlGroupLayerGL extends HtmlLayerGL implements GroupLayer, ParentLayer {
   public void paint(InternalTransform parentTransform, float parentAlpha) {
     if (!visible()) return;
 
+    PlayN.stats().add(Stats.Count.LAYERS_VISITED, impl.children.size());
+    InternalTransform xform = localTransform(parentTransform);
+    float xalpha = parentAlpha * alpha;
+    boolean cull = impl.culling;
+    float viewWidth = gfx.fbufWidth(), viewHeight = gfx.fbufHeight();
     for (HtmlLayerGL child : impl.children) {
-      child.paint(localTransform(parentTransform), parentAlpha * alpha);
+      if (cull && child.culled(xform, viewWidth, viewHeight)) continue;
+      child.paint(xform, xalpha);
     }
   }
 }
@@ -24,6 +24,7 @@ import com.google.gwt.dom.client.Style.Unit;
 import playn.core.Asserts;
 import playn.core.Image;
 import playn.core.ImageLayer;
+import playn.core.PlayN;
 import playn.core.ResourceCallback;
 
 class HtmlImageLayerDom extends HtmlLayerDom implements ImageLayer {
@@ -35,6 +36,8 @@ class HtmlImageLayerDom extends HtmlLayerDom implements ImageLayer {
   private boolean repeatX, repeatY;
 
   private HtmlImage htmlImage;
+  // whether we hold a pin on our image in the asset cache
+  private boolean pinned;
 
   public HtmlImageLayerDom() {
     super(Document.get().createDivElement());
@@ -52,6 +55,7 @@ class HtmlImageLayerDom extends HtmlLayerDom implements ImageLayer {
   public void clearHeight() {
     heightSet = true;
     applySize();
+    boundsChanged();
   }
 
   @Override
@@ -64,6 +68,7 @@ class HtmlImageLayerDom extends HtmlLayerDom implements ImageLayer {
   public void clearWidth() {
     widthSet = true;
     applySize();
+    boundsChanged();
   }
 
   @Override
@@ -78,6 +83,7 @@ class HtmlImageLayerDom extends HtmlLayerDom implements ImageLayer {
     heightSet = true;
     this.height = height;
     applySize();
+    boundsChanged();
   }
 
   @Override
@@ -89,7 +95,11 @@ class HtmlImageLayerDom extends HtmlLayerDom implements ImageLayer {
       return;
     }
 
+    unpinImage();
     htmlImage = (HtmlImage) img;
+    if (parent() != null) {
+      pinImage();
+    }
     ImageElement imgElem = htmlImage.img.cast();
     element().getStyle().setBackgroundImage("url(" + imgElem.getSrc() + ")");
     element().getStyle().setOverflow(Overflow.HIDDEN);
@@ -106,6 +116,7 @@ class HtmlImageLayerDom extends HtmlLayerDom implements ImageLayer {
         // Nothing to be done about errors.
       }
     });
+    boundsChanged();
   }
 
   @Override
@@ -151,6 +162,7 @@ class HtmlImageLayerDom extends HtmlLayerDom implements ImageLayer {
     widthSet = true;
     this.width = width;
     applySize();
+    boundsChanged();
   }
 
   @Override
@@ -163,6 +175,7 @@ class HtmlImageLayerDom extends HtmlLayerDom implements ImageLayer {
     heightSet = true;
     this.height = height;
     applySize();
+    boundsChanged();
   }
 
   private void applyBackgroundSize() {
@@ -205,6 +218,18 @@ class HtmlImageLayerDom extends HtmlLayerDom implements ImageLayer {
     }
   }
 
+  @Override
+  public void onAdd() {
+    super.onAdd();
+    pinImage();
+  }
+
+  @Override
+  public void onRemove() {
+    unpinImage();
+    super.onRemove();
+  }
+
   @Override
   public float width() {
     Asserts.checkNotNull(htmlImage, "Image must not be null");
@@ -227,11 +252,26 @@ class HtmlImageLayerDom extends HtmlLayerDom implements ImageLayer {
 
   @Override
   public float scaledWidth() {
-    return transform().scaleX() * width();
+    return transform.scaleX() * width();
   }
 
   @Override
   public float scaledHeight() {
-    return transform().scaleY() * height();
+    return transform.scaleY() * height();
+  }
+
+  // keeps our image in the asset cache while we're in the scene graph
+  private void pinImage() {
+    if (!pinned && htmlImage != null) {
+      ((HtmlAssetManager) PlayN.assetManager()).pinImage(htmlImage);
+      pinned = true;
+    }
+  }
+
+  private void unpinImage() {
+    if (pinned) {
+      ((HtmlAssetManager) PlayN.assetManager()).unpinImage(htmlImage);
+      pinned = false;
+    }
   }
 }
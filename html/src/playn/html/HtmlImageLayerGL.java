@@ -17,6 +17,8 @@ import playn.core.Asserts;
 import playn.core.Image;
 import playn.core.ImageLayer;
 import playn.core.InternalTransform;
+import playn.core.PlayN;
+import playn.core.Stats;
 
 import com.google.gwt.dom.client.ImageElement;
 import com.google.gwt.webgl.client.WebGLTexture;
@@ -30,6 +32,8 @@ class HtmlImageLayerGL extends HtmlLayerGL implements ImageLayer {
   private boolean repeatX, repeatY;
 
   private HtmlImage img;
+  // whether we hold a pin on our image in the asset cache
+  private boolean pinned;
 
   public HtmlImageLayerGL(HtmlGraphicsGL gfx) {
     super(gfx);
@@ -43,6 +47,7 @@ class HtmlImageLayerGL extends HtmlLayerGL implements ImageLayer {
   @Override
   public void clearHeight() {
     heightSet = false;
+    boundsChanged();
   }
 
   @Override
@@ -53,6 +58,7 @@ class HtmlImageLayerGL extends HtmlLayerGL implements ImageLayer {
   @Override
   public void clearWidth() {
     widthSet = false;
+    boundsChanged();
   }
 
   @Override
@@ -66,13 +72,19 @@ class HtmlImageLayerGL extends HtmlLayerGL implements ImageLayer {
 
     heightSet = true;
     this.height = height;
+    boundsChanged();
   }
 
   @Override
   public void setImage(Image img) {
     Asserts.checkArgument(img instanceof HtmlImage);
 
+    unpinImage();
     this.img = (HtmlImage) img;
+    if (parent() != null) {
+      pinImage();
+    }
+    boundsChanged();
   }
 
   @Override
@@ -106,6 +118,7 @@ class HtmlImageLayerGL extends HtmlLayerGL implements ImageLayer {
 
     widthSet = true;
     this.width = width;
+    boundsChanged();
   }
 
   @Override
@@ -117,11 +130,18 @@ class HtmlImageLayerGL extends HtmlLayerGL implements ImageLayer {
     this.width = width;
     heightSet = true;
     this.height = height;
+    boundsChanged();
+  }
+
+  @Override
+  public boolean culled(InternalTransform parentTransform, float viewWidth, float viewHeight) {
+    return img != null && culled(parentTransform, width(), height(), viewWidth, viewHeight);
   }
 
   @Override
   public void paint(InternalTransform parentTransform, float parentAlpha) {
     if (!visible()) return;
+    PlayN.stats().increment(Stats.Count.LAYERS_DRAWN);
 
     // TODO(jgw): Assert exclusive source-rect vs. repeat.
 
@@ -145,6 +165,18 @@ class HtmlImageLayerGL extends HtmlLayerGL implements ImageLayer {
     }
   }
 
+  @Override
+  public void onAdd() {
+    super.onAdd();
+    pinImage();
+  }
+
+  @Override
+  public void onRemove() {
+    unpinImage();
+    super.onRemove();
+  }
+
   @Override
   public float width() {
     Asserts.checkNotNull(img, "Image must not be null");
@@ -174,4 +206,19 @@ class HtmlImageLayerGL extends HtmlLayerGL implements ImageLayer {
   public float scaledHeight() {
     return transform.scaleY() * height();
   }
+
+  // keeps our image in the asset cache while we're in the scene graph
+  private void pinImage() {
+    if (!pinned && img != null) {
+      ((HtmlAssetManager) PlayN.assetManager()).pinImage(img);
+      pinned = true;
+    }
+  }
+
+  private void unpinImage() {
+    if (pinned) {
+      ((HtmlAssetManager) PlayN.assetManager()).unpinImage(img);
+      pinned = false;
+    }
+  }
 }
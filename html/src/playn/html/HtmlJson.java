@@ -22,6 +22,7 @@ import com.google.gwt.core.client.JavaScriptObject;
 import playn.core.Asserts;
 import playn.core.Json;
 import playn.core.TypedArrayBuilder;
+import playn.core.util.JsonReader;
 
 class HtmlJson implements Json {
 
@@ -284,6 +285,11 @@ class HtmlJson implements Json {
     return object;
   }
 
+  @Override
+  public Reader newReader(String json) {
+    return new JsonReader(json);
+  }
+
   private static native JavaScriptObject jsonParse(String json) /*-{
     return JSON.parse(json);
   }-*/;
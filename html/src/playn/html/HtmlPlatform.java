@@ -21,9 +21,11 @@ import com.google.gwt.dom.client.Element;
 import com.google.gwt.dom.client.Style.Cursor;
 import com.google.gwt.user.client.Window;
 
+import playn.core.Stats;
 import playn.core.Storage;
 import playn.core.Analytics;
 import playn.core.Audio;
+import playn.core.Binary;
 import playn.core.PlayN;
 import playn.core.Game;
 import playn.core.Graphics;
@@ -130,6 +132,7 @@ public class HtmlPlatform implements Platform {
   private Game game;
   private HtmlGraphics graphics;
   private HtmlJson json = new HtmlJson();
+  private HtmlBinary binary = new HtmlBinary();
   private HtmlKeyboard keyboard = new HtmlKeyboard();
   private HtmlLog log;
   private HtmlNet net = new HtmlNet();
@@ -138,6 +141,7 @@ public class HtmlPlatform implements Platform {
   private HtmlTouch touch;
   private HtmlStorage storage = new HtmlStorage();
   private HtmlAnalytics analytics = new HtmlAnalytics();
+  private Stats stats = new Stats();
 
   private TimerCallback paintCallback;
   private TimerCallback updateCallback;
@@ -202,6 +206,11 @@ public class HtmlPlatform implements Platform {
     return json;
   }
 
+  @Override
+  public Binary binary() {
+    return binary;
+  }
+
   @Override
   public Keyboard keyboard() {
     return keyboard;
@@ -242,6 +251,11 @@ public class HtmlPlatform implements Platform {
     return analytics;
   }
 
+  @Override
+  public Stats stats() {
+    return stats;
+  }
+
   @Override
   public float random() {
     return (float) Math.random();
@@ -272,6 +286,7 @@ public class HtmlPlatform implements Platform {
         if (delta > MAX_DELTA) {
           delta = MAX_DELTA;
         }
+        stats.addTime(Stats.Phase.FRAME, (float) (now - lastTime));
         lastTime = now;
 
         if (updateRate == 0) {
@@ -284,9 +299,16 @@ public class HtmlPlatform implements Platform {
             accum -= updateRate;
           }
         }
+        double updated = time();
+        stats.addTime(Stats.Phase.UPDATE, (float) (updated - now));
 
         game.paint(accum / updateRate);
+        double painted = time();
+        stats.addTime(Stats.Phase.PAINT, (float) (painted - updated));
+
         graphics.updateLayers();
+        stats.addTime(Stats.Phase.LAYERS, (float) (time() - painted));
+        stats.endFrame();
       }
     };
     requestAnimationFrame(paintCallback);
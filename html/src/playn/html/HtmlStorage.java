@@ -73,4 +73,9 @@ class HtmlStorage implements Storage {
   public boolean isPersisted() {
     return isPersisted;
   }
+
+  @Override
+  public void flush() {
+    // changes are written as they are made
+  }
 }
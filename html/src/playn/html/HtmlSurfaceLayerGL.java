@@ -23,6 +23,8 @@ import playn.core.Asserts;
 import playn.core.InternalTransform;
 import playn.core.Surface;
 import playn.core.SurfaceLayer;
+import playn.core.PlayN;
+import playn.core.Stats;
 
 class HtmlSurfaceLayerGL extends HtmlLayerGL implements SurfaceLayer {
 
@@ -70,9 +72,15 @@ class HtmlSurfaceLayerGL extends HtmlLayerGL implements SurfaceLayer {
     return surface;
   }
 
+  @Override
+  public boolean culled(InternalTransform parentTransform, float viewWidth, float viewHeight) {
+    return culled(parentTransform, width, height, viewWidth, viewHeight);
+  }
+
   @Override
   public void paint(InternalTransform parentTransform, float parentAlpha) {
     if (!visible()) return;
+    PlayN.stats().increment(Stats.Count.LAYERS_DRAWN);
 
     // Draw this layer to the screen upside-down, because its contents are flipped
     // (This happens because it uses the same vertex program as everything else,
@@ -95,11 +103,11 @@ class HtmlSurfaceLayerGL extends HtmlLayerGL implements SurfaceLayer {
 
   @Override
   public float scaledWidth() {
-    return transform().scaleX() * width();
+    return transform.scaleX() * width();
   }
 
   @Override
   public float scaledHeight() {
-    return transform().scaleY() * height();
+    return transform.scaleY() * height();
   }
 }
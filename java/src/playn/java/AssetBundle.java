@@ -0,0 +1,229 @@
+/**
+ * Copyright 2011 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package playn.java;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * A read-only archive of assets, built by {@link AssetBundler}. The whole bundle is memory-mapped
+ * when it is opened, and its entries are served from the mapping, so reading an asset involves no
+ * file opens or read calls, just (at most) page faults. This makes a bundle much cheaper to load
+ * from than a directory of many small files.
+ *
+ * <p> A bundle starts with an index, which maps each asset's path to the offset and length of its
+ * data, and the codec with which the data is encoded:
+ * <pre>
+ * int magic, int version, int count,
+ * count * (int pathLength, byte[pathLength] path (UTF-8), int offset, int length, int size,
+ *          byte codec)
+ * </pre>
+ * followed by the assets' data. Offsets are relative to the start of the bundle, and {@code size}
+ * is the size of the asset once decoded. All values are big-endian. </p>
+ *
+ * <p> A bundle may be safely read by multiple threads. </p>
+ */
+public class AssetBundle {
+
+  /** The first four bytes of every bundle: "PLNB". */
+  public static final int MAGIC = 0x504C4E42;
+
+  /** The version of the bundle format. */
+  public static final int VERSION = 1;
+
+  /** The codec for data that is stored as is. */
+  public static final byte STORED = 0;
+
+  /** The codec for data that is compressed with deflate, in the zlib format. */
+  public static final byte DEFLATED = 1;
+
+  private final ByteBuffer data;
+  private final Map<String, Entry> entries = new HashMap<String, Entry>();
+
+  /**
+   * Maps the bundle in the specified file.
+   */
+  public static AssetBundle open(File file) throws IOException {
+    FileInputStream in = new FileInputStream(file);
+    try {
+      FileChannel channel = in.getChannel();
+      return new AssetBundle(channel, 0, channel.size());
+    } finally {
+      // the mapping remains valid after the channel is closed
+      in.close();
+    }
+  }
+
+  /**
+   * Maps a bundle that occupies the specified region of a file. This allows a bundle to be read
+   * from inside another archive, so long as it is stored there uncompressed.
+   */
+  public AssetBundle(FileChannel channel, long offset, long length) throws IOException {
+    if (length > Integer.MAX_VALUE) {
+      throw new IOException("Bundle is too large to map: " + length);
+    }
+    data = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+    readIndex();
+  }
+
+  /**
+   * Returns true if this bundle contains the asset at the specified path.
+   */
+  public boolean contains(String path) {
+    return entries.containsKey(path);
+  }
+
+  /**
+   * Returns the paths of all of the assets in this bundle.
+   */
+  public Set<String> paths() {
+    return Collections.unmodifiableSet(entries.keySet());
+  }
+
+  /**
+   * Returns the (decoded) contents of the asset at the specified path. Stored assets are returned
+   * as a view of the mapping, without copying. The returned buffer is the caller's to use, and
+   * is positioned at zero.
+   *
+   * @throws FileNotFoundException if the bundle contains no such asset.
+   */
+  public ByteBuffer get(String path) throws IOException {
+    Entry entry = entries.get(path);
+    if (entry == null) {
+      throw new FileNotFoundException(path);
+    }
+    ByteBuffer raw = data.duplicate();
+    raw.limit(entry.offset + entry.length).position(entry.offset);
+    raw = raw.slice();
+
+    switch (entry.codec) {
+    case STORED:
+      return raw;
+
+    case DEFLATED:
+      byte[] input = new byte[entry.length], output = new byte[entry.size];
+      raw.get(input);
+      Inflater inflater = new Inflater();
+      try {
+        inflater.setInput(input);
+        int read = 0;
+        while (read < output.length && !inflater.finished()) {
+          int count = inflater.inflate(output, read, output.length - read);
+          if (count == 0) {
+            break; // the data ended early
+          }
+          read += count;
+        }
+        if (read != output.length) {
+          throw new IOException("Truncated asset " + path + ": " + read + " < " + output.length);
+        }
+      } catch (DataFormatException e) {
+        throw new IOException("Corrupt asset " + path + ": " + e.getMessage());
+      } finally {
+        inflater.end();
+      }
+      return ByteBuffer.wrap(output);
+
+    default:
+      throw new IOException("Unknown codec for " + path + ": " + entry.codec);
+    }
+  }
+
+  /**
+   * Returns a stream that reads the (decoded) contents of the asset at the specified path.
+   *
+   * @throws FileNotFoundException if the bundle contains no such asset.
+   */
+  public InputStream open(String path) throws IOException {
+    final ByteBuffer buf = get(path);
+    return new InputStream() {
+      @Override
+      public int read() {
+        return buf.hasRemaining() ? (buf.get() & 0xFF) : -1;
+      }
+      @Override
+      public int read(byte[] b, int off, int len) {
+        if (len == 0) {
+          return 0;
+        }
+        if (!buf.hasRemaining()) {
+          return -1;
+        }
+        len = Math.min(len, buf.remaining());
+        buf.get(b, off, len);
+        return len;
+      }
+      @Override
+      public long skip(long n) {
+        int count = (int) Math.max(0, Math.min(n, buf.remaining()));
+        buf.position(buf.position() + count);
+        return count;
+      }
+      @Override
+      public int available() {
+        return buf.remaining();
+      }
+    };
+  }
+
+  private void readIndex() throws IOException {
+    ByteBuffer index = data.duplicate();
+    try {
+      if (index.getInt() != MAGIC) {
+        throw new IOException("Not an asset bundle");
+      }
+      int version = index.getInt();
+      if (version != VERSION) {
+        throw new IOException("Unsupported bundle version " + version);
+      }
+      int count = index.getInt();
+      for (int ii = 0; ii < count; ii++) {
+        byte[] path = new byte[index.getInt()];
+        index.get(path);
+        Entry entry = new Entry(index.getInt(), index.getInt(), index.getInt(), index.get());
+        if (entry.offset < 0 || entry.length < 0 || entry.size < 0 ||
+            entry.offset > data.capacity() - entry.length) {
+          throw new IOException("Corrupt bundle index");
+        }
+        entries.put(new String(path, "UTF-8"), entry);
+      }
+    } catch (RuntimeException e) {
+      // BufferUnderflowException or a negative array size
+      throw new IOException("Corrupt bundle index: " + e);
+    }
+  }
+
+  private static class Entry {
+    public final int offset, length, size;
+    public final byte codec;
+
+    public Entry(int offset, int length, int size, byte codec) {
+      this.offset = offset;
+      this.length = length;
+      this.size = size;
+      this.codec = codec;
+    }
+  }
+}
@@ -0,0 +1,170 @@
+/**
+ * Copyright 2011 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package playn.java;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.Deflater;
+
+import com.google.common.io.Files;
+
+/**
+ * Builds an {@link AssetBundle}. From the command line:
+ * <pre>
+ * java -cp playn-java.jar playn.java.AssetBundler assets.bundle assetdir [assetdir ...]
+ * </pre>
+ * bundles every file beneath each directory, under its path relative to that directory (with
+ * {@code /} as the separator), which is the path by which the game requests it.
+ *
+ * <p> An asset is compressed if that saves a worthwhile amount of space, which is typically the
+ * case for text. Images and sounds are usually compressed already, so are stored as is, and may be
+ * read directly from the mapped bundle. </p>
+ */
+public class AssetBundler {
+
+  // compressed data must be no more than this fraction of the original size to be worth inflating
+  private static final float MAX_COMPRESSED_RATIO = 0.875f;
+
+  private final Map<String, Asset> assets = new TreeMap<String, Asset>();
+
+  public static void main(String[] args) throws IOException {
+    if (args.length < 2) {
+      System.err.println("Usage: AssetBundler bundle-file asset-dir [asset-dir ...]");
+      System.exit(255);
+    }
+    AssetBundler bundler = new AssetBundler();
+    for (int ii = 1; ii < args.length; ii++) {
+      bundler.addDirectory(new File(args[ii]));
+    }
+    bundler.write(new File(args[0]));
+    System.out.println("Bundled " + bundler.assets.size() + " assets into " + args[0]);
+  }
+
+  /**
+   * Adds every file beneath the specified directory, under its path relative to the directory.
+   */
+  public void addDirectory(File dir) throws IOException {
+    if (!dir.isDirectory()) {
+      throw new IOException("Not a directory: " + dir);
+    }
+    addFiles(dir, "");
+  }
+
+  /**
+   * Adds an asset with the specified path and contents, replacing any previously added asset with
+   * the same path.
+   */
+  public void add(String path, byte[] data) {
+    byte[] compressed = deflate(data);
+    if (compressed.length <= data.length * MAX_COMPRESSED_RATIO) {
+      assets.put(path, new Asset(compressed, data.length, AssetBundle.DEFLATED));
+    } else {
+      assets.put(path, new Asset(data, data.length, AssetBundle.STORED));
+    }
+  }
+
+  /**
+   * Writes a bundle containing the assets added so far to the specified file.
+   */
+  public void write(File file) throws IOException {
+    // encode the paths, and compute the size of the index, which precedes the data
+    Map<String, byte[]> paths = new TreeMap<String, byte[]>();
+    long offset = 12;
+    for (String path : assets.keySet()) {
+      byte[] bytes = path.getBytes("UTF-8");
+      paths.put(path, bytes);
+      offset += 17 + bytes.length;
+    }
+    for (Asset asset : assets.values()) {
+      asset.offset = (int) offset;
+      offset += asset.data.length;
+      if (offset > Integer.MAX_VALUE) {
+        throw new IOException("Too much data to bundle: " + offset + " bytes");
+      }
+    }
+
+    DataOutputStream out = new DataOutputStream(
+      new BufferedOutputStream(new FileOutputStream(file)));
+    try {
+      out.writeInt(AssetBundle.MAGIC);
+      out.writeInt(AssetBundle.VERSION);
+      out.writeInt(assets.size());
+      for (Map.Entry<String, Asset> entry : assets.entrySet()) {
+        Asset asset = entry.getValue();
+        byte[] path = paths.get(entry.getKey());
+        out.writeInt(path.length);
+        out.write(path);
+        out.writeInt(asset.offset);
+        out.writeInt(asset.data.length);
+        out.writeInt(asset.size);
+        out.writeByte(asset.codec);
+      }
+      for (Asset asset : assets.values()) {
+        out.write(asset.data);
+      }
+    } finally {
+      out.close();
+    }
+  }
+
+  private void addFiles(File dir, String prefix) throws IOException {
+    File[] files = dir.listFiles();
+    if (files == null) {
+      throw new IOException("Unable to list " + dir);
+    }
+    for (File file : files) {
+      String path = prefix + file.getName();
+      if (file.isDirectory()) {
+        addFiles(file, path + "/");
+      } else {
+        add(path, Files.toByteArray(file));
+      }
+    }
+  }
+
+  private static byte[] deflate(byte[] data) {
+    Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+    try {
+      deflater.setInput(data);
+      deflater.finish();
+      ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 2 + 64);
+      byte[] buf = new byte[8192];
+      while (!deflater.finished()) {
+        out.write(buf, 0, deflater.deflate(buf));
+      }
+      return out.toByteArray();
+    } finally {
+      deflater.end();
+    }
+  }
+
+  private static class Asset {
+    public final byte[] data;
+    public final int size;
+    public final byte codec;
+    public int offset;
+
+    public Asset(byte[] data, int size, byte codec) {
+      this.data = data;
+      this.size = size;
+      this.codec = codec;
+    }
+  }
+}
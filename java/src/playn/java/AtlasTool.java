@@ -0,0 +1,189 @@
+/**
+ * Copyright 2011 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package playn.java;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import javax.imageio.ImageIO;
+
+import pythagoras.i.Rectangle;
+
+import playn.core.Json;
+import playn.core.util.SkylinePacker;
+
+/**
+ * Packs a directory of images into one or more atlas pages offline, writing the pages as PNGs
+ * along with a JSON index that can be registered at runtime via
+ * {@link playn.core.ImageAtlas#addPacked}.
+ *
+ * <pre>
+ * java playn.java.AtlasTool [-size 1024] [-padding 1] imagedir out/atlas
+ * </pre>
+ *
+ * produces {@code out/atlas-0.png}, {@code out/atlas-1.png}, ... and {@code out/atlas.json}. The
+ * regions in the index are keyed by each image's path relative to {@code imagedir}.
+ */
+public class AtlasTool {
+
+  protected final int pageWidth, pageHeight, padding;
+  protected final List<Entry> entries = new ArrayList<Entry>();
+
+  public static void main(String[] args) throws IOException {
+    int size = 1024, padding = 1, argidx = 0;
+    for (; argidx < args.length && args[argidx].startsWith("-"); argidx += 2) {
+      if (argidx + 1 >= args.length) usage();
+      if (args[argidx].equals("-size")) size = Integer.parseInt(args[argidx + 1]);
+      else if (args[argidx].equals("-padding")) padding = Integer.parseInt(args[argidx + 1]);
+      else usage();
+    }
+    if (args.length - argidx != 2) usage();
+
+    File root = new File(args[argidx]);
+    AtlasTool tool = new AtlasTool(size, size, padding);
+    tool.addDirectory(root, "");
+    tool.write(new File(args[argidx + 1]));
+  }
+
+  /**
+   * Creates a tool that packs into pages of the specified size.
+   */
+  public AtlasTool(int pageWidth, int pageHeight, int padding) {
+    this.pageWidth = pageWidth;
+    this.pageHeight = pageHeight;
+    this.padding = padding;
+  }
+
+  /**
+   * Adds all the images in the supplied directory (and its subdirectories) to this atlas, keying
+   * them by {@code prefix} plus their path relative to the directory.
+   */
+  public void addDirectory(File dir, String prefix) throws IOException {
+    File[] files = dir.listFiles();
+    if (files == null) {
+      throw new IOException("Not a directory: " + dir);
+    }
+    for (File file : files) {
+      String name = file.getName();
+      if (file.isDirectory()) {
+        addDirectory(file, prefix + name + "/");
+      } else if (name.endsWith(".png") || name.endsWith(".jpg") || name.endsWith(".gif")) {
+        addImage(prefix + name, file);
+      }
+    }
+  }
+
+  /**
+   * Adds the specified image to this atlas.
+   */
+  public void addImage(String path, File file) throws IOException {
+    BufferedImage image = ImageIO.read(file);
+    if (image == null) {
+      throw new IOException("Unable to decode image: " + file);
+    }
+    if (image.getWidth() + 2 * padding > pageWidth ||
+        image.getHeight() + 2 * padding > pageHeight) {
+      throw new IOException("Image too large for atlas page: " + file);
+    }
+    entries.add(new Entry(path, image));
+  }
+
+  /**
+   * Packs the images added so far and writes the atlas pages and index. The pages are written
+   * alongside the index file, named {@code <prefix>-N.png}; the index is {@code <prefix>.json}.
+   */
+  public void write(File prefix) throws IOException {
+    // packing tallest first gives the skyline heuristic a much flatter skyline to work with
+    Collections.sort(entries, new Comparator<Entry>() {
+      public int compare(Entry a, Entry b) {
+        int dh = b.image.getHeight() - a.image.getHeight();
+        return (dh != 0) ? dh : b.image.getWidth() - a.image.getWidth();
+      }
+    });
+
+    List<SkylinePacker> packers = new ArrayList<SkylinePacker>();
+    List<List<Entry>> pages = new ArrayList<List<Entry>>();
+    for (Entry entry : entries) {
+      int w = entry.image.getWidth() + 2 * padding, h = entry.image.getHeight() + 2 * padding;
+      Rectangle rect = null;
+      int page = 0;
+      for (; page < packers.size(); page++) {
+        if ((rect = packers.get(page).pack(w, h)) != null) break;
+      }
+      if (rect == null) {
+        packers.add(new SkylinePacker(pageWidth, pageHeight));
+        pages.add(new ArrayList<Entry>());
+        rect = packers.get(page).pack(w, h);
+      }
+      entry.x = rect.x + padding;
+      entry.y = rect.y + padding;
+      pages.get(page).add(entry);
+    }
+
+    File dir = prefix.getAbsoluteFile().getParentFile();
+    String base = prefix.getName();
+    Json.Writer index = new JavaJson().newWriter();
+    index.object().key("pages").array();
+    for (int ii = 0; ii < pages.size(); ii++) {
+      String name = base + "-" + ii + ".png";
+      BufferedImage pimg = new BufferedImage(pageWidth, pageHeight, BufferedImage.TYPE_INT_ARGB);
+      Graphics2D gfx = pimg.createGraphics();
+      index.object().key("image").value(name).key("regions").object();
+      for (Entry entry : pages.get(ii)) {
+        gfx.drawImage(entry.image, entry.x, entry.y, null);
+        index.key(entry.path).object().
+          key("x").value(entry.x).key("y").value(entry.y).
+          key("w").value(entry.image.getWidth()).key("h").value(entry.image.getHeight()).
+          endObject();
+      }
+      gfx.dispose();
+      index.endObject().endObject();
+      ImageIO.write(pimg, "png", new File(dir, name));
+    }
+    index.endArray().endObject();
+
+    File indexFile = new File(dir, base + ".json");
+    Writer out = new OutputStreamWriter(new FileOutputStream(indexFile), "UTF-8");
+    try {
+      out.write(index.write());
+    } finally {
+      out.close();
+    }
+  }
+
+  protected static void usage() {
+    System.err.println("Usage: AtlasTool [-size N] [-padding N] imagedir outprefix");
+    System.exit(255);
+  }
+
+  protected static class Entry {
+    public final String path;
+    public final BufferedImage image;
+    public int x, y;
+
+    public Entry(String path, BufferedImage image) {
+      this.path = path;
+      this.image = image;
+    }
+  }
+}
@@ -15,8 +15,20 @@ package playn.java;
 
 import java.awt.image.BufferedImage;
 import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import javax.imageio.ImageIO;
+import javax.imageio.stream.MemoryCacheImageInputStream;
 
 import com.google.common.base.Charsets;
 import com.google.common.io.Files;
@@ -28,11 +40,49 @@ import playn.core.ResourceCallback;
 import playn.core.Sound;
 
 /**
+ * Loads images and text on a pool of background threads, as the html platform loads them in the
+ * background, so that a screenful of images doesn't stall the game loop while each is decoded in
+ * turn. Loads are started in order of {@link Priority}, and concurrent requests for the same image
+ * share a single load. Results are delivered on the game thread at the start of the next frame.
+ *
+ * <p> Images and text may also be loaded from an {@link AssetBundle}, which avoids opening a file
+ * for each asset. Assets that are not in the bundle are loaded from the filesystem. </p>
+ *
  * TODO(jgw): Make it possible to add more filesystem roots.
  */
 public class JavaAssetManager extends AbstractAssetManager {
 
+  // decoding is largely CPU bound, so we use a thread per core, less one for the game itself
+  private static final int LOADER_THREADS =
+    Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+
+  // idle loader threads exit after this many seconds
+  private static final int THREAD_KEEP_ALIVE = 10;
+
   private String pathPrefix = "war";
+  private volatile AssetBundle bundle;
+
+  private final ThreadPoolExecutor loader;
+  // images being loaded, by path; accessed only on the game thread
+  private final Map<String, ImageLoad> loading = new HashMap<String, ImageLoad>();
+  // completed loads, waiting to be delivered on the game thread
+  private final Queue<Runnable> completed = new ConcurrentLinkedQueue<Runnable>();
+  private long loadCount;
+
+  public JavaAssetManager() {
+    loader = new ThreadPoolExecutor(
+      LOADER_THREADS, LOADER_THREADS, THREAD_KEEP_ALIVE, TimeUnit.SECONDS,
+      new PriorityBlockingQueue<Runnable>(), new ThreadFactory() {
+        private int count;
+        public synchronized Thread newThread(Runnable r) {
+          Thread thread = new Thread(r, "PlayN loader " + (++count));
+          thread.setDaemon(true);
+          thread.setPriority(Thread.NORM_PRIORITY - 1);
+          return thread;
+        }
+      });
+    loader.allowCoreThreadTimeOut(true);
+  }
 
   public void setPathPrefix(String prefix) {
     pathPrefix = prefix;
@@ -42,20 +92,63 @@ public class JavaAssetManager extends AbstractAssetManager {
       return pathPrefix;
   }
 
+  /**
+   * Configures a bundle from which to load images and text in preference to the filesystem.
+   * Sounds are always loaded from the filesystem.
+   */
+  public void setBundle(AssetBundle bundle) {
+    this.bundle = bundle;
+  }
+
+  public AssetBundle getBundle() {
+    return bundle;
+  }
+
+  /**
+   * Delivers the results of completed loads. This is called by the game loop, on the game thread,
+   * once per frame.
+   */
+  void dispatchLoaded() {
+    for (Runnable result; (result = completed.poll()) != null; ) {
+      result.run();
+    }
+  }
+
   /**
    * @param collection is ignored
    * @param key the path to the file
    */
   @Override
   protected Image doGetImage(String path) {
+    return doGetImage(path, Priority.IMMEDIATE);
+  }
+
+  @Override
+  protected Image doGetImage(String path, Priority priority) {
+    ImageLoad load = loading.get(path);
+    if (load != null) {
+      // if this request is more urgent than the one in progress, move the load up the queue; if
+      // it has already started, it can't be removed, and needn't be
+      if (priority.compareTo(load.priority) < 0 && loader.remove(load)) {
+        load.priority = priority;
+        loader.execute(load);
+      }
+      return load.image;
+    }
+
+    // report missing images immediately; only the decoding is worth doing in the background
+    AssetBundle bundle = this.bundle;
     File imgFile = new File(pathPrefix, path);
-    try {
-      BufferedImage img = ImageIO.read(imgFile);
-      return new JavaImage(img);
-    } catch (Exception e) {
+    if ((bundle == null || !bundle.contains(path)) && !imgFile.isFile()) {
+      FileNotFoundException e = new FileNotFoundException(imgFile.getPath());
       PlayN.log().warn("Could not load image at " + imgFile, e);
       return new JavaImage(e);
     }
+
+    load = new ImageLoad(path, priority);
+    loading.put(path, load);
+    loader.execute(load);
+    return load.image;
   }
 
   @Override
@@ -67,11 +160,86 @@ public class JavaAssetManager extends AbstractAssetManager {
   }
 
   @Override
-  protected void doGetText(String path, ResourceCallback<String> callback) {
-    try {
-      callback.done(Files.toString(new File(pathPrefix, path), Charsets.UTF_8));
-    } catch (Throwable e) {
-      callback.error(e);
+  protected void doGetText(final String path, final ResourceCallback<String> callback) {
+    loader.execute(new Load(Priority.IMMEDIATE) {
+      public void run() {
+        try {
+          AssetBundle bundle = JavaAssetManager.this.bundle;
+          final String text = (bundle != null && bundle.contains(path)) ?
+            Charsets.UTF_8.decode(bundle.get(path)).toString() :
+            Files.toString(new File(pathPrefix, path), Charsets.UTF_8);
+          completed.add(new Runnable() {
+            public void run() {
+              callback.done(text);
+            }
+          });
+        } catch (final Throwable e) {
+          completed.add(new Runnable() {
+            public void run() {
+              callback.error(e);
+            }
+          });
+        }
+      }
+    });
+  }
+
+  /** A task for the loader pool, ordered by priority and then by the order of the requests. */
+  private abstract class Load implements Runnable, Comparable<Load> {
+    public Priority priority;
+    public final long order = loadCount++;
+
+    public Load(Priority priority) {
+      this.priority = priority;
+    }
+
+    public int compareTo(Load other) {
+      int cmp = priority.compareTo(other.priority);
+      return (cmp != 0) ? cmp : (order < other.order ? -1 : (order == other.order ? 0 : 1));
+    }
+  }
+
+  private class ImageLoad extends Load {
+    public final String path;
+    public final JavaImage image = new JavaImage();
+
+    public ImageLoad(String path, Priority priority) {
+      super(priority);
+      this.path = path;
+    }
+
+    public void run() {
+      BufferedImage img = null;
+      Exception error = null;
+      try {
+        AssetBundle bundle = JavaAssetManager.this.bundle;
+        if (bundle != null && bundle.contains(path)) {
+          // read from memory, rather than via ImageIO's default temporary file cache
+          InputStream in = bundle.open(path);
+          img = ImageIO.read(new MemoryCacheImageInputStream(in));
+        } else {
+          img = ImageIO.read(new File(pathPrefix, path));
+        }
+        if (img == null) {
+          error = new IOException("Unsupported image format");
+        }
+      } catch (Exception e) {
+        error = e;
+      }
+
+      final BufferedImage fimg = img;
+      final Exception ferror = error;
+      completed.add(new Runnable() {
+        public void run() {
+          loading.remove(path);
+          if (ferror == null) {
+            image.loaded(fimg);
+          } else {
+            PlayN.log().warn("Could not load image at " + path, ferror);
+            image.failed(ferror);
+          }
+        }
+      });
     }
   }
 }
@@ -0,0 +1,107 @@
+/**
+ * Copyright 2011 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package playn.java;
+
+import java.nio.ByteBuffer;
+
+import playn.core.AbstractBinary;
+
+/**
+ * Stores binary data in a {@link ByteBuffer}. Public because it's currently being used by Android.
+ */
+public class JavaBinary extends AbstractBinary {
+
+  static class JavaBytes extends Bytes {
+    private ByteBuffer buffer;
+
+    JavaBytes(int capacity) {
+      buffer = ByteBuffer.allocate(capacity);
+    }
+
+    @Override
+    public int capacity() {
+      return buffer.capacity();
+    }
+
+    @Override
+    public void reserve(int capacity) {
+      if (capacity > buffer.capacity()) {
+        ByteBuffer nbuffer = ByteBuffer.allocate(capacity);
+        System.arraycopy(buffer.array(), 0, nbuffer.array(), 0, buffer.capacity());
+        buffer = nbuffer;
+      }
+    }
+
+    @Override
+    public void move(int from, int to, int length) {
+      byte[] array = buffer.array();
+      System.arraycopy(array, from, array, to, length);
+    }
+
+    @Override
+    public void setByte(int pos, int value) {
+      buffer.put(pos, (byte) value);
+    }
+
+    @Override
+    public void setShort(int pos, int value) {
+      buffer.putShort(pos, (short) value);
+    }
+
+    @Override
+    public void setInt(int pos, int value) {
+      buffer.putInt(pos, value);
+    }
+
+    @Override
+    public void setFloat(int pos, float value) {
+      buffer.putFloat(pos, value);
+    }
+
+    @Override
+    public void setDouble(int pos, double value) {
+      buffer.putDouble(pos, value);
+    }
+
+    @Override
+    public int getByte(int pos) {
+      return buffer.get(pos) & 0xFF;
+    }
+
+    @Override
+    public int getShort(int pos) {
+      return buffer.getShort(pos);
+    }
+
+    @Override
+    public int getInt(int pos) {
+      return buffer.getInt(pos);
+    }
+
+    @Override
+    public float getFloat(int pos) {
+      return buffer.getFloat(pos);
+    }
+
+    @Override
+    public double getDouble(int pos) {
+      return buffer.getDouble(pos);
+    }
+  }
+
+  @Override
+  protected Bytes createBytes(int capacity) {
+    return new JavaBytes(capacity);
+  }
+}
@@ -38,6 +38,12 @@ class JavaCanvas implements Canvas {
   private final int width, height;
   private Deque<JavaCanvasState> stateStack = new LinkedList<JavaCanvasState>();
 
+  /** If non-null, drawing is restricted to the damaged region of the screen. */
+  JavaDamage damage;
+
+  /** Incremented every time something is drawn into this canvas. */
+  int version;
+
   private Ellipse2D.Float ellipse = new Ellipse2D.Float();
   private Line2D.Float line = new Line2D.Float();
   private Rectangle2D.Float rect = new Rectangle2D.Float();
@@ -59,7 +65,16 @@ class JavaCanvas implements Canvas {
   }
 
   public void clear() {
-    gfx.clearRect(0, 0, width, height);
+    version++;
+    if (damage != null) {
+      AffineTransform xform = gfx.getTransform();
+      gfx.setTransform(new AffineTransform());
+      gfx.setClip(damage.clip());
+      gfx.clearRect(0, 0, width, height);
+      gfx.setTransform(xform);
+    } else {
+      gfx.clearRect(0, 0, width, height);
+    }
   }
 
   @Override
@@ -71,8 +86,9 @@ class JavaCanvas implements Canvas {
   public void drawImage(Image img, float x, float y) {
     Asserts.checkArgument(img instanceof JavaImage);
     JavaImage jimg = (JavaImage) img;
+    if (jimg.isLoading()) return;
 
-    currentState().prepareFill(gfx);
+    prepareFill();
     int dx = (int) x, dy = (int) y, w = jimg.width(), h = jimg.height();
     gfx.drawImage(jimg.img, dx, dy, dx + w, dy + h, 0, 0, w, h, null);
   }
@@ -84,11 +100,12 @@ class JavaCanvas implements Canvas {
   public void drawImage(Image img, float x, float y, float w, float h) {
     Asserts.checkArgument(img instanceof JavaImage);
     JavaImage jimg = (JavaImage) img;
+    if (jimg.isLoading()) return;
 
     // For non-integer scaling, we have to use AffineTransform.
     AffineTransform tx = new AffineTransform(w / jimg.width(), 0f, 0f, h / jimg.height(), x, y);
 
-    currentState().prepareFill(gfx);
+    prepareFill();
     gfx.drawImage(jimg.img, tx, null);
   }
 
@@ -97,42 +114,43 @@ class JavaCanvas implements Canvas {
                         float sx, float sy, float sw, float sh) {
     Asserts.checkArgument(img instanceof JavaImage);
     JavaImage jimg = (JavaImage) img;
+    if (jimg.isLoading()) return;
 
     // TODO: use AffineTransform here as well?
 
-    currentState().prepareFill(gfx);
+    prepareFill();
     gfx.drawImage(jimg.img, (int)dx, (int)dy, (int)(dx + dw), (int)(dy + dh),
                   (int)sx, (int)sy, (int)(sx + sw), (int)(sy + sh), null);
   }
 
   @Override
   public void drawLine(float x0, float y0, float x1, float y1) {
-    currentState().prepareStroke(gfx);
+    prepareStroke();
     line.setLine(x0, y0, x1, y1);
     gfx.draw(line);
   }
 
   @Override
   public void drawPoint(float x, float y) {
-    currentState().prepareStroke(gfx);
+    prepareStroke();
     gfx.drawLine((int) x, (int) y, (int) x, (int) y);
   }
 
   @Override
   public void drawText(String text, float x, float y) {
-    currentState().prepareFill(gfx);
+    prepareFill();
     gfx.drawString(text, x, y);
   }
 
   @Override
   public void drawText(TextLayout layout, float x, float y) {
-    currentState().prepareFill(gfx);
+    prepareFill();
     ((JavaTextLayout)layout).paint(gfx, x, y);
   }
 
   @Override
   public void fillCircle(float x, float y, float radius) {
-    currentState().prepareFill(gfx);
+    prepareFill();
     ellipse.setFrame(x - radius, y - radius, 2 * radius, 2 * radius);
     gfx.fill(ellipse);
   }
@@ -141,13 +159,13 @@ class JavaCanvas implements Canvas {
   public void fillPath(Path path) {
     Asserts.checkArgument(path instanceof JavaPath);
 
-    currentState().prepareFill(gfx);
+    prepareFill();
     gfx.fill(((JavaPath) path).path);
   }
 
   @Override
   public void fillRect(float x, float y, float width, float height) {
-    currentState().prepareFill(gfx);
+    prepareFill();
     rect.setRect(x, y, width, height);
     gfx.fill(rect);
   }
@@ -248,21 +266,21 @@ class JavaCanvas implements Canvas {
 
   @Override
   public void strokeCircle(float x, float y, float radius) {
-    currentState().prepareStroke(gfx);
+    prepareStroke();
     ellipse.setFrame(x - radius, y - radius, 2 * radius, 2 * radius);
     gfx.draw(ellipse);
   }
 
   @Override
   public void strokePath(Path path) {
-    currentState().prepareStroke(gfx);
+    prepareStroke();
     gfx.setColor(new Color(currentState().strokeColor, false));
     gfx.draw(((JavaPath) path).path);
   }
 
   @Override
   public void strokeRect(float x, float y, float width, float height) {
-    currentState().prepareStroke(gfx);
+    prepareStroke();
     rect.setRect(x, y, width, height);
     gfx.draw(rect);
   }
@@ -282,6 +300,16 @@ class JavaCanvas implements Canvas {
     return width;
   }
 
+  private void prepareFill() {
+    version++;
+    currentState().prepareFill(gfx, damage == null ? null : damage.clip());
+  }
+
+  private void prepareStroke() {
+    version++;
+    currentState().prepareStroke(gfx, damage == null ? null : damage.clip());
+  }
+
   private JavaCanvasState currentState() {
     return stateStack.getFirst();
   }
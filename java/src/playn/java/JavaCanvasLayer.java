@@ -20,6 +20,8 @@ import static playn.core.PlayN.*;
 import playn.core.Canvas;
 import playn.core.CanvasImage;
 import playn.core.CanvasLayer;
+import playn.core.PlayN;
+import playn.core.Stats;
 
 class JavaCanvasLayer extends JavaLayer implements CanvasLayer {
 
@@ -44,6 +46,7 @@ class JavaCanvasLayer extends JavaLayer implements CanvasLayer {
   @Override
   void paint(JavaCanvas surf) {
     if (!visible()) return;
+    PlayN.stats().increment(Stats.Count.LAYERS_DRAWN);
 
     surf.save();
     transform(surf);
@@ -52,6 +55,16 @@ class JavaCanvasLayer extends JavaLayer implements CanvasLayer {
     surf.restore();
   }
 
+  @Override
+  void updateBounds(boolean changed, JavaDamage damage) {
+    updateBounds(changed, damage, width(), height());
+  }
+
+  @Override
+  int contentVersion() {
+    return ((JavaImage) canvas).version();
+  }
+
   @Override
   public float width() {
     Asserts.checkNotNull(canvas, "Canvas must not be null");
@@ -66,11 +79,11 @@ class JavaCanvasLayer extends JavaLayer implements CanvasLayer {
 
   @Override
   public float scaledWidth() {
-    return transform().scaleX() * width();
+    return transform.scaleX() * width();
   }
 
   @Override
   public float scaledHeight() {
-    return transform().scaleY() * height();
+    return transform.scaleY() * height();
   }
 }
@@ -24,10 +24,13 @@ import java.awt.AlphaComposite;
 import java.awt.BasicStroke;
 import java.awt.Color;
 import java.awt.Graphics2D;
+import java.awt.Shape;
 import java.awt.geom.AffineTransform;
 
 class JavaCanvasState {
 
+  private static final AffineTransform IDENTITY = new AffineTransform();
+
   int fillColor;
   int strokeColor;
   JavaGradient fillGradient;
@@ -69,15 +72,15 @@ class JavaCanvasState {
   }
 
   // TODO: optimize this so we're not setting this stuff all the time.
-  void prepareStroke(Graphics2D gfx) {
+  void prepareStroke(Graphics2D gfx, Shape deviceClip) {
     gfx.setStroke(new BasicStroke(strokeWidth, convertLineCap(), convertLineJoin(), miterLimit));
     gfx.setColor(convertColor(strokeColor));
-    gfx.setClip(clip != null ? clip.path : null);
+    prepareClip(gfx, deviceClip);
     gfx.setComposite(convertComposite(composite, alpha));
   }
 
   // TODO: optimize this so we're not setting this stuff all the time.
-  void prepareFill(Graphics2D gfx) {
+  void prepareFill(Graphics2D gfx, Shape deviceClip) {
     if (fillGradient != null) {
       gfx.setPaint(fillGradient.paint);
     } else if (fillPattern != null) {
@@ -86,10 +89,25 @@ class JavaCanvasState {
     } else {
       gfx.setPaint(convertColor(fillColor));
     }
-    gfx.setClip(clip != null ? clip.path : null);
+    prepareClip(gfx, deviceClip);
     gfx.setComposite(convertComposite(composite, alpha));
   }
 
+  // the device clip is in screen coordinates, but our clip path is in the current user space
+  private void prepareClip(Graphics2D gfx, Shape deviceClip) {
+    if (deviceClip == null) {
+      gfx.setClip(clip != null ? clip.path : null);
+    } else {
+      AffineTransform xform = gfx.getTransform();
+      gfx.setTransform(IDENTITY);
+      gfx.setClip(deviceClip);
+      gfx.setTransform(xform);
+      if (clip != null) {
+        gfx.clip(clip.path);
+      }
+    }
+  }
+
   static Color convertColor(int color) {
     float a = (color >>> 24) / 255.0f;
     float r = ((color >>> 16) & 0xff) / 255.0f;
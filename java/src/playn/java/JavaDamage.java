@@ -0,0 +1,128 @@
+/**
+ * Copyright 2011 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package playn.java;
+
+import java.awt.Rectangle;
+import java.awt.Shape;
+import java.awt.geom.Area;
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Accumulates the regions of the screen that must be repainted in a frame. Overlapping rectangles
+ * are merged as they are added, and if too many disjoint rectangles accumulate they are collapsed
+ * into their bounding box, so that clipping and intersection tests stay cheap.
+ */
+class JavaDamage {
+
+  // beyond this, the cost of a complex clip outweighs the savings from painting less
+  private static final int MAX_RECTS = 16;
+
+  private final List<Rectangle> rects = new ArrayList<Rectangle>();
+  private Rectangle bounds;
+  private Shape clip;
+
+  /**
+   * Configures the size of the screen. Damage outside the screen is discarded, so that layers
+   * which are entirely off screen are never repainted.
+   */
+  void setBounds(int width, int height) {
+    bounds = new Rectangle(0, 0, width, height);
+  }
+
+  /**
+   * Adds the supplied screen area to the damaged region. The area is expanded to whole pixels
+   * (plus a pixel of slop to account for antialiasing).
+   */
+  void add(Rectangle2D area) {
+    if (area.isEmpty()) {
+      return;
+    }
+    int x0 = (int) Math.floor(area.getX()) - 1, y0 = (int) Math.floor(area.getY()) - 1;
+    int x1 = (int) Math.ceil(area.getMaxX()) + 1, y1 = (int) Math.ceil(area.getMaxY()) + 1;
+    add(new Rectangle(x0, y0, x1 - x0, y1 - y0));
+  }
+
+  void add(Rectangle rect) {
+    if (bounds != null) {
+      rect = rect.intersection(bounds);
+      if (rect.isEmpty()) {
+        return;
+      }
+    }
+    clip = null;
+    // absorb any existing rectangles that overlap the new one, growing it as we go
+    for (int ii = rects.size() - 1; ii >= 0; ii--) {
+      Rectangle r = rects.get(ii);
+      if (r.contains(rect)) {
+        return;
+      }
+      if (r.intersects(rect)) {
+        rect.add(r);
+        rects.remove(ii);
+        ii = rects.size();
+      }
+    }
+    rects.add(rect);
+
+    if (rects.size() > MAX_RECTS) {
+      Rectangle bounds = rects.get(0);
+      for (int ii = 1, ll = rects.size(); ii < ll; ii++) {
+        bounds.add(rects.get(ii));
+      }
+      rects.clear();
+      rects.add(bounds);
+    }
+  }
+
+  boolean isEmpty() {
+    return rects.isEmpty();
+  }
+
+  /**
+   * Returns true if the supplied screen area overlaps the damaged region.
+   */
+  boolean intersects(Rectangle2D area) {
+    for (int ii = 0, ll = rects.size(); ii < ll; ii++) {
+      if (rects.get(ii).intersects(area)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns the damaged region as a shape suitable for use as a device-space clip.
+   */
+  Shape clip() {
+    if (clip == null) {
+      if (rects.size() == 1) {
+        clip = rects.get(0);
+      } else {
+        Area area = new Area();
+        for (Rectangle r : rects) {
+          area.add(new Area(r));
+        }
+        clip = area;
+      }
+    }
+    return clip;
+  }
+
+  void clear() {
+    rects.clear();
+    clip = null;
+  }
+}
@@ -0,0 +1,208 @@
+/**
+ * Copyright 2011 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package playn.java;
+
+import static playn.core.PlayN.log;
+import static playn.core.PlayN.stats;
+
+import java.awt.Canvas;
+import java.awt.EventQueue;
+import java.awt.Graphics2D;
+import java.awt.Toolkit;
+import java.awt.image.BufferStrategy;
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.locks.LockSupport;
+
+import playn.core.Game;
+import playn.core.InputQueue;
+import playn.core.Stats;
+
+/**
+ * Drives the game on the Java platform. A dedicated thread paces frames using {@link
+ * System#nanoTime} and, once per frame, runs the game's update and paint on the AWT event thread
+ * (so that game code never races with AWT) before rendering the layers directly to the screen via
+ * a {@link BufferStrategy}. Input that arrived since the previous frame is delivered from an
+ * {@link InputQueue} just before the update.
+ */
+class JavaGameLoop implements Runnable {
+
+  // Maximum delta time to consider between update() calls (in milliseconds). If the delta between
+  // two update()s is greater than MAX_DELTA, we clamp to MAX_DELTA.
+  private static final float MAX_DELTA = 100;
+
+  // Thread sleep granularity is a millisecond or worse on most platforms, so we park until this
+  // many nanoseconds before the frame deadline and yield away the remainder.
+  private static final long SPIN_NANOS = 2000000L;
+
+  private final Game game;
+  private final JavaGraphics graphics;
+  private final InputQueue input;
+  private final JavaNet net;
+  private final JavaAssetManager assets;
+  private final Canvas canvas;
+  private final int updateRate;
+
+  private volatile long frameNanos;
+  private volatile boolean running;
+  private Thread thread;
+
+  private long lastTime;
+  private float accum;
+
+  private final Runnable frame = new Runnable() {
+    public void run() {
+      if (running) {
+        tick();
+      }
+    }
+  };
+
+  JavaGameLoop(Game game, JavaGraphics graphics, InputQueue input, JavaNet net,
+               JavaAssetManager assets, Canvas canvas, int targetFPS) {
+    this.game = game;
+    this.graphics = graphics;
+    this.input = input;
+    this.net = net;
+    this.assets = assets;
+    this.canvas = canvas;
+    this.updateRate = game.updateRate();
+    setTargetFPS(targetFPS);
+  }
+
+  /**
+   * Configures the rate at which frames are painted.
+   */
+  void setTargetFPS(int fps) {
+    frameNanos = 1000000000L / fps;
+  }
+
+  void start() {
+    if (thread == null) {
+      running = true;
+      lastTime = System.nanoTime();
+      thread = new Thread(this, "PlayN game loop");
+      thread.setDaemon(true);
+      thread.start();
+    }
+  }
+
+  void stop() {
+    running = false;
+    if (thread != null) {
+      thread.interrupt();
+      thread = null;
+    }
+  }
+
+  @Override
+  public void run() {
+    long deadline = System.nanoTime();
+    while (running) {
+      try {
+        EventQueue.invokeAndWait(frame);
+      } catch (InterruptedException e) {
+        break;
+      } catch (InvocationTargetException e) {
+        log().warn("Game loop frame failed", e.getCause());
+      }
+
+      // if we've fallen more than a frame behind, don't try to catch up by rushing frames out
+      long period = frameNanos;
+      deadline += period;
+      long now = System.nanoTime();
+      if (now - deadline > period) {
+        deadline = now;
+      }
+      waitUntil(deadline);
+    }
+  }
+
+  private void waitUntil(long deadline) {
+    long remain;
+    while (running && (remain = deadline - System.nanoTime()) > 0) {
+      if (remain > SPIN_NANOS) {
+        LockSupport.parkNanos(remain - SPIN_NANOS);
+      } else {
+        Thread.yield();
+      }
+    }
+  }
+
+  private void tick() {
+    Stats stats = stats();
+    long now = System.nanoTime();
+    float elapsed = (now - lastTime) / 1000000f;
+    float delta = Math.min(elapsed, MAX_DELTA);
+    lastTime = now;
+    stats.addTime(Stats.Phase.FRAME, elapsed);
+
+    // deliver the input that arrived since the last frame
+    input.dispatch(System.currentTimeMillis(), stats);
+    long dispatched = System.nanoTime();
+    stats.addTime(Stats.Phase.INPUT, (dispatched - now) / 1000000f);
+
+    // deliver the results of any network requests and asset loads completed since the last frame
+    net.dispatchResults();
+    assets.dispatchLoaded();
+
+    if (updateRate == 0) {
+      game.update(delta);
+      accum = 0;
+    } else {
+      accum += delta;
+      while (accum >= updateRate) {
+        game.update(updateRate);
+        accum -= updateRate;
+      }
+    }
+    long updated = System.nanoTime();
+    stats.addTime(Stats.Phase.UPDATE, (updated - dispatched) / 1000000f);
+
+    game.paint((updateRate == 0) ? 0 : accum / updateRate);
+    long painted = System.nanoTime();
+    stats.addTime(Stats.Phase.PAINT, (painted - updated) / 1000000f);
+
+    render();
+    stats.addTime(Stats.Phase.LAYERS, (System.nanoTime() - painted) / 1000000f);
+    stats.endFrame();
+  }
+
+  private void render() {
+    if (!canvas.isDisplayable() || canvas.getWidth() <= 0 || canvas.getHeight() <= 0) {
+      return;
+    }
+    BufferStrategy strategy = canvas.getBufferStrategy();
+    if (strategy == null) {
+      canvas.createBufferStrategy(2);
+      strategy = canvas.getBufferStrategy();
+    }
+
+    // the strategy's buffers may be lost at any time (e.g. on a display mode change), in which case
+    // we simply render again
+    do {
+      do {
+        Graphics2D g = (Graphics2D) strategy.getDrawGraphics();
+        try {
+          graphics.paintLayers(g);
+        } finally {
+          g.dispose();
+        }
+      } while (strategy.contentsRestored());
+      strategy.show();
+    } while (strategy.contentsLost());
+
+    // flush the windowing system's queue so that frames go out as they are shown
+    Toolkit.getDefaultToolkit().sync();
+  }
+}
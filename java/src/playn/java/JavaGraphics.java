@@ -29,19 +29,45 @@ import playn.core.Pattern;
 import playn.core.SurfaceLayer;
 import playn.core.TextFormat;
 import playn.core.TextLayout;
+import playn.core.util.WeightedCache;
 
 import java.awt.Component;
 import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Rectangle;
+import java.awt.font.FontRenderContext;
 import java.awt.image.BufferedImage;
 
 import javax.swing.JFrame;
 
 class JavaGraphics implements Graphics {
 
+  /** The default number of text layouts retained by {@link #layoutCache}. */
+  public static final int DEFAULT_LAYOUT_CACHE_SIZE = 256;
+
   private final Component component;
   private final JavaGroupLayer rootLayer;
   private final JFrame frame;
 
+  /** The areas of the screen that must be repainted on the next frame. */
+  final JavaDamage damage = new JavaDamage();
+
+  // we paint into a persistent backbuffer so that only the damaged areas need be repainted
+  private BufferedImage backbuffer;
+  private JavaCanvas backCanvas;
+
+  // games tend to lay out the same strings (scores, labels) repeatedly, and layouts are immutable,
+  // so we cache them; each layout weighs one, so the budget is a number of layouts
+  private final WeightedCache<LayoutKey, JavaTextLayout> layouts =
+    new WeightedCache<LayoutKey, JavaTextLayout>(
+      DEFAULT_LAYOUT_CACHE_SIZE, new WeightedCache.Weigher<LayoutKey, JavaTextLayout>() {
+        public int weigh(LayoutKey key, JavaTextLayout layout) {
+          return 1;
+        }
+      });
+  private FontRenderContext fontContext;
+
   JavaGraphics(JFrame frame, Component component) {
     this.frame = frame;
     this.component = component;
@@ -111,7 +137,66 @@ class JavaGraphics implements Graphics {
 
   @Override
   public TextLayout layoutText(String text, TextFormat format) {
-    return new JavaTextLayout(frame, text, format);
+    LayoutKey key = new LayoutKey(text, format);
+    JavaTextLayout layout = layouts.get(key);
+    if (layout == null) {
+      layouts.put(key, layout = new JavaTextLayout(fontContext(), text, format));
+    }
+    return layout;
+  }
+
+  /**
+   * Returns the cache of text layouts, via which its budget may be adjusted and its effectiveness
+   * monitored.
+   */
+  public WeightedCache<?, ?> layoutCache() {
+    return layouts;
+  }
+
+  /**
+   * Repaints the damaged areas of the layer tree into the backbuffer and copies the backbuffer to
+   * the supplied graphics context.
+   */
+  void paintLayers(Graphics2D g) {
+    int width = component.getWidth(), height = component.getHeight();
+    if (width <= 0 || height <= 0) {
+      return;
+    }
+    if (backbuffer == null || backbuffer.getWidth() != width ||
+        backbuffer.getHeight() != height) {
+      if (backCanvas != null) {
+        backCanvas.gfx.dispose();
+      }
+      GraphicsConfiguration config = component.getGraphicsConfiguration();
+      backbuffer = (config != null) ? config.createCompatibleImage(width, height) :
+        new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+      backCanvas = new JavaCanvas(backbuffer.createGraphics(), width, height);
+      backCanvas.damage = damage;
+      damage.setBounds(width, height);
+      damage.add(new Rectangle(0, 0, width, height));
+    }
+
+    rootLayer.updateDamage(false, damage);
+    if (!damage.isEmpty()) {
+      backCanvas.clear();
+      rootLayer.paint(backCanvas);
+      damage.clear();
+    }
+    g.drawImage(backbuffer, 0, 0, null);
+  }
+
+  private FontRenderContext fontContext() {
+    // obtaining a graphics context just to read its font render context is costly, and the
+    // context does not change, so we do so only once
+    if (fontContext == null) {
+      Graphics2D gfx = (Graphics2D)frame.getGraphics();
+      try {
+        fontContext = gfx.getFontRenderContext();
+      } finally {
+        gfx.dispose();
+      }
+    }
+    return fontContext;
   }
 
   @Override
@@ -141,4 +226,29 @@ class JavaGraphics implements Graphics {
     component.setPreferredSize(new Dimension(width, height));
     frame.pack();
   }
+
+  private static class LayoutKey {
+    public final String text;
+    public final TextFormat format;
+
+    public LayoutKey(String text, TextFormat format) {
+      this.text = text;
+      this.format = format;
+    }
+
+    @Override
+    public int hashCode() {
+      return text.hashCode() ^ format.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      if (other instanceof LayoutKey) {
+        LayoutKey okey = (LayoutKey)other;
+        return text.equals(okey.text) && format.equals(okey.format);
+      } else {
+        return false;
+      }
+    }
+  }
 }
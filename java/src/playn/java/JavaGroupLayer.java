@@ -15,11 +15,15 @@
  */
 package playn.java;
 
+import java.awt.geom.Rectangle2D;
+
 import playn.core.Asserts;
 import playn.core.GroupLayer;
 import playn.core.GroupLayerImpl;
 import playn.core.Layer;
 import playn.core.ParentLayer;
+import playn.core.PlayN;
+import playn.core.Stats;
 
 class JavaGroupLayer extends JavaLayer implements GroupLayer, ParentLayer {
 
@@ -63,6 +67,31 @@ class JavaGroupLayer extends JavaLayer implements GroupLayer, ParentLayer {
     return impl.children.size();
   }
 
+  @Override
+  public void setCulling(boolean culling) {
+    impl.culling = culling;
+  }
+
+  @Override
+  public boolean culling() {
+    return impl.culling;
+  }
+
+  @Override
+  public void setHitIndex(float cellSize) {
+    impl.setHitIndex(cellSize);
+  }
+
+  @Override
+  public Layer hitTest(float x, float y) {
+    return impl.hitTest(this, x, y);
+  }
+
+  @Override
+  public void childBoundsChanged(Layer layer) {
+    impl.childBoundsChanged(this, layer);
+  }
+
   @Override
   public void destroy() {
     super.destroy();
@@ -86,6 +115,24 @@ class JavaGroupLayer extends JavaLayer implements GroupLayer, ParentLayer {
     impl.depthChanged(this, layer, oldDepth);
   }
 
+  @Override
+  void updateBounds(boolean changed, JavaDamage damage) {
+    // our bounds are the union of those of our painted children
+    boolean any = false;
+    PlayN.stats().add(Stats.Count.LAYERS_VISITED, impl.children.size());
+    for (JavaLayer child : impl.children) {
+      child.updateDamage(changed, damage);
+      if (!child.painted) continue;
+      if (any) {
+        Rectangle2D.union(screenBounds, child.screenBounds, screenBounds);
+      } else {
+        screenBounds.setRect(child.screenBounds);
+        any = true;
+      }
+    }
+    painted = any;
+  }
+
   @Override
   void paint(JavaCanvas surf) {
     if (!visible()) return;
@@ -94,7 +141,11 @@ class JavaGroupLayer extends JavaLayer implements GroupLayer, ParentLayer {
     transform(surf);
     surf.setAlpha(surf.alpha() * alpha);
     for (JavaLayer child : impl.children) {
-      child.paint(surf);
+      // skip children that lie entirely outside the region being repainted (which never extends
+      // beyond the screen)
+      if (!impl.culling || surf.damage == null || surf.damage.intersects(child.screenBounds)) {
+        child.paint(surf);
+      }
     }
     surf.restore();
   }
@@ -18,6 +18,8 @@ package playn.java;
 import java.awt.Color;
 import java.awt.Graphics2D;
 import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
 
 import playn.core.Asserts;
 import playn.core.Image;
@@ -30,11 +32,22 @@ class JavaImage implements CanvasImage {
   BufferedImage img;
   private JavaCanvas canvas;
   private Exception exception;
+  private int replacements;
+  // callbacks awaiting the completion of an asynchronous load
+  private List<ResourceCallback<Image>> callbacks;
 
   JavaImage(BufferedImage img) {
     this.img = img;
   }
 
+  /**
+   * Creates an image that is loading asynchronously; its data is supplied later via {@link
+   * #loaded} or {@link #failed}.
+   */
+  JavaImage() {
+    callbacks = new ArrayList<ResourceCallback<Image>>();
+  }
+
   public JavaImage(Exception assetLoadException) {
     this.exception = assetLoadException;
 
@@ -56,11 +69,48 @@ class JavaImage implements CanvasImage {
   public void replaceWith(Image img) {
     Asserts.checkArgument(img instanceof JavaImage);
     this.img = ((JavaImage) img).img;
+    replacements++;
+  }
+
+  /**
+   * Returns a value that changes whenever the contents of this image change, either by drawing
+   * into its canvas or replacing its underlying image.
+   */
+  int version() {
+    return replacements + (canvas == null ? 0 : canvas.version);
+  }
+
+  /**
+   * Completes an asynchronous load, notifying any callbacks. Must be called on the game thread.
+   */
+  void loaded(BufferedImage img) {
+    this.img = img;
+    replacements++;
+    notifyCallbacks();
+  }
+
+  /**
+   * Fails an asynchronous load, notifying any callbacks. Must be called on the game thread.
+   */
+  void failed(Exception exception) {
+    this.exception = exception;
+    img = createErrorImage(100, 100);
+    replacements++;
+    notifyCallbacks();
+  }
+
+  /**
+   * Returns true if this image's data is still being loaded.
+   */
+  boolean isLoading() {
+    return img == null && exception == null;
   }
 
   @Override
   public void addCallback(ResourceCallback<Image> callback) {
-    if (img == null) {
+    if (isLoading()) {
+      callbacks.add(callback);
+    } else if (img == null) {
       callback.error(exception != null ? exception : new RuntimeException("Error loading image"));
     } else {
       callback.done(this);
@@ -69,12 +119,12 @@ class JavaImage implements CanvasImage {
 
   @Override
   public int width() {
-    return img.getWidth();
+    return (img == null) ? 0 : img.getWidth();
   }
 
   @Override
   public int height() {
-    return img.getHeight();
+    return (img == null) ? 0 : img.getHeight();
   }
 
   @Override
@@ -82,6 +132,14 @@ class JavaImage implements CanvasImage {
     return (img != null && exception == null);
   }
 
+  private void notifyCallbacks() {
+    List<ResourceCallback<Image>> callbacks = this.callbacks;
+    this.callbacks = null;
+    for (ResourceCallback<Image> callback : callbacks) {
+      addCallback(callback);
+    }
+  }
+
   private BufferedImage createErrorImage(int width, int height) {
     BufferedImage img = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
     Graphics2D g = img.createGraphics();
@@ -23,6 +23,8 @@ import static playn.core.PlayN.graphics;
 import playn.core.Asserts;
 import playn.core.Image;
 import playn.core.ImageLayer;
+import playn.core.PlayN;
+import playn.core.Stats;
 
 class JavaImageLayer extends JavaLayer implements ImageLayer {
 
@@ -48,16 +50,21 @@ class JavaImageLayer extends JavaLayer implements ImageLayer {
   @Override
   public void clearHeight() {
     heightSet = false;
+    setFlag(Flag.DIRTY, true);
+    boundsChanged();
   }
 
   @Override
   public void clearSourceRect() {
     sourceRectSet = false;
+    setFlag(Flag.DIRTY, true);
   }
 
   @Override
   public void clearWidth() {
     widthSet = false;
+    setFlag(Flag.DIRTY, true);
+    boundsChanged();
   }
 
   @Override
@@ -73,7 +80,9 @@ class JavaImageLayer extends JavaLayer implements ImageLayer {
     if (this.height != height) {
       this.height = height;
       dirty = true;
+      setFlag(Flag.DIRTY, true);
     }
+    boundsChanged();
   }
 
   @Override
@@ -81,6 +90,8 @@ class JavaImageLayer extends JavaLayer implements ImageLayer {
     Asserts.checkArgument(image instanceof JavaImage);
     this.image = (JavaImage) image;
     dirty = true;
+    setFlag(Flag.DIRTY, true);
+    boundsChanged();
   }
 
   @Override
@@ -90,6 +101,7 @@ class JavaImageLayer extends JavaLayer implements ImageLayer {
     if (repeatX != repeat) {
       repeatX = repeat;
       dirty = true;
+      setFlag(Flag.DIRTY, true);
     }
   }
 
@@ -100,6 +112,7 @@ class JavaImageLayer extends JavaLayer implements ImageLayer {
     if (repeatY != repeat) {
       repeatY = repeat;
       dirty = true;
+      setFlag(Flag.DIRTY, true);
     }
   }
 
@@ -112,6 +125,7 @@ class JavaImageLayer extends JavaLayer implements ImageLayer {
     this.sy = sy;
     this.sw = sw;
     this.sh = sh;
+    setFlag(Flag.DIRTY, true);
   }
 
   @Override
@@ -122,7 +136,9 @@ class JavaImageLayer extends JavaLayer implements ImageLayer {
     if (this.width != width) {
       this.width = width;
       dirty = true;
+      setFlag(Flag.DIRTY, true);
     }
+    boundsChanged();
   }
 
   @Override
@@ -134,17 +150,21 @@ class JavaImageLayer extends JavaLayer implements ImageLayer {
     if (this.width != width) {
       this.width = width;
       dirty = true;
+      setFlag(Flag.DIRTY, true);
     }
     heightSet = true;
     if (this.height != height) {
       this.height = height;
       dirty = true;
+      setFlag(Flag.DIRTY, true);
     }
+    boundsChanged();
   }
 
   @Override
   void paint(JavaCanvas canvas) {
-    if (!visible()) return;
+    if (!visible() || !hasContent()) return;
+    PlayN.stats().increment(Stats.Count.LAYERS_DRAWN);
 
     canvas.save();
     transform(canvas);
@@ -178,6 +198,21 @@ class JavaImageLayer extends JavaLayer implements ImageLayer {
     canvas.restore();
   }
 
+  @Override
+  void updateBounds(boolean changed, JavaDamage damage) {
+    updateBounds(changed, damage, width(), height());
+  }
+
+  @Override
+  boolean hasContent() {
+    return image != null && !image.isLoading();
+  }
+
+  @Override
+  int contentVersion() {
+    return image.version();
+  }
+
   @Override
   public float width() {
     Asserts.checkNotNull(image, "Image must not be null");
@@ -200,11 +235,11 @@ class JavaImageLayer extends JavaLayer implements ImageLayer {
 
   @Override
   public float scaledWidth() {
-    return transform().scaleX() * width();
+    return transform.scaleX() * width();
   }
 
   @Override
   public float scaledHeight() {
-    return transform().scaleY() * height();
+    return transform.scaleY() * height();
   }
 }
@@ -17,12 +17,13 @@ package playn.java;
 
 import playn.core.Json;
 import playn.core.TypedArrayBuilder;
+import playn.core.util.JsonReader;
+import playn.core.util.JsonWriter;
 import playn.java.json.JSONArray;
 import playn.java.json.JSONException;
 import playn.java.json.JSONObject;
-import playn.java.json.JSONWriter;
 
-import java.io.StringWriter;
+import java.io.IOException;
 import java.util.Arrays;
 
 /**
@@ -30,107 +31,6 @@ import java.util.Arrays;
  */
 public class JavaJson implements Json {
 
-  static class JavaWriter implements Json.Writer {
-    private StringWriter sw;
-    private JSONWriter w;
-
-    JavaWriter() {
-      reset();
-    }
-
-    public Writer key(String key) {
-      try {
-        w.key(key);
-      } catch (JSONException e) {
-        throw new RuntimeException(e);
-      }
-      return this;
-    }
-
-    public Writer value(boolean x) {
-      try {
-        w.value(x);
-      } catch (JSONException e) {
-        throw new RuntimeException(e);
-      }
-      return this;
-    }
-
-    public Writer value(int x) {
-      try {
-        w.value(x);
-      } catch (JSONException e) {
-        throw new RuntimeException(e);
-      }
-      return this;
-    }
-
-    public Writer value(double x) {
-      try {
-        w.value(x);
-      } catch (JSONException e) {
-        throw new RuntimeException(e);
-      }
-      return this;
-    }
-
-    public Writer value(String x) {
-      try {
-        w.value(x);
-      } catch (JSONException e) {
-        throw new RuntimeException(e);
-      }
-      return this;
-    }
-
-    public Writer object() {
-      try {
-        w.object();
-      } catch (JSONException e) {
-        throw new RuntimeException(e);
-      }
-      return this;
-    }
-
-    public Writer endObject() {
-      try {
-        w.endObject();
-      } catch (JSONException e) {
-        throw new RuntimeException(e);
-      }
-      return this;
-    }
-
-    public Writer array() {
-      try {
-        w.array();
-      } catch (JSONException e) {
-        throw new RuntimeException(e);
-      }
-      return this;
-    }
-
-    public Writer endArray() {
-      try {
-        w.endArray();
-      } catch (JSONException e) {
-        throw new RuntimeException(e);
-      }
-      return this;
-    }
-
-    public String write() {
-      String result = sw.toString();
-      reset();
-      return result;
-    }
-
-    private void reset() {
-      sw = new StringWriter();
-      w = new JSONWriter(sw);
-    }
-  }
-
   static class JavaObject implements Json.Object {
     private JSONObject jso;
 
@@ -225,7 +125,7 @@ public class JavaJson implements Json {
 
   @Override
   public Writer newWriter() {
-    return new JavaWriter();
+    return new JsonWriter();
   }
 
   @Override
@@ -237,6 +137,29 @@ public class JavaJson implements Json {
     }
   }
 
+  @Override
+  public Reader newReader(String json) {
+    return new JsonReader(json);
+  }
+
+  /**
+   * Creates a {@link Json.Reader} that streams its document from the supplied character stream,
+   * so that the document need never be held in memory in its entirety. The stream is not closed
+   * by the reader.
+   */
+  public Reader newReader(final java.io.Reader in) {
+    return new JsonReader() {
+      @Override
+      protected int fill(char[] buffer, int offset, int length) {
+        try {
+          return in.read(buffer, offset, length);
+        } catch (IOException e) {
+          throw new RuntimeException(e);
+        }
+      }
+    };
+  }
+
   private static TypedArrayBuilder<JSONArray> arrayBuilder = new TypedArrayBuilder<JSONArray>() {
     public int length(JSONArray array) {
       return array.length();
@@ -15,6 +15,7 @@
  */
 package playn.java;
 
+import playn.core.InputQueue;
 import playn.core.Keyboard;
 
 import java.awt.event.KeyEvent;
@@ -24,28 +25,17 @@ import javax.swing.JFrame;
 
 class JavaKeyboard implements Keyboard {
 
-  private Listener listener;
+  private final InputQueue input;
 
-  JavaKeyboard(JFrame frame) {
+  JavaKeyboard(JFrame frame, final InputQueue input) {
+    this.input = input;
     frame.addKeyListener(new KeyListener() {
       public void keyPressed(KeyEvent nativeEvent) {
-        if (listener != null) {
-          Event.Impl event = new Event.Impl(nativeEvent.getWhen(), nativeEvent.getKeyCode());
-          listener.onKeyDown(event);
-          if (event.getPreventDefault()) {
-            nativeEvent.consume();
-          }
-        }
+        input.keyDown(nativeEvent.getWhen(), nativeEvent.getKeyCode());
       }
 
       public void keyReleased(KeyEvent nativeEvent) {
-        if (listener != null) {
-          Event.Impl event = new Event.Impl(nativeEvent.getWhen(), nativeEvent.getKeyCode());
-          listener.onKeyUp(event);
-          if (event.getPreventDefault()) {
-            nativeEvent.consume();
-          }
-        }
+        input.keyUp(nativeEvent.getWhen(), nativeEvent.getKeyCode());
       }
 
       public void keyTyped(KeyEvent e) {
@@ -55,6 +45,6 @@ class JavaKeyboard implements Keyboard {
 
   @Override
   public void setListener(Listener listener) {
-    this.listener = listener;
+    input.setKeyboardListener(listener);
   }
 }
@@ -15,21 +15,112 @@
  */
 package playn.java;
 
+import static playn.core.PlayN.graphics;
+
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Rectangle2D;
+
 import playn.core.AbstractLayer;
-import playn.core.Canvas;
 
 abstract class JavaLayer extends AbstractLayer {
 
+  /** This layer's transform in screen coordinates as of the last damage update. */
+  final AffineTransform screenTransform = new AffineTransform();
+
+  /** The screen area covered by this layer as of the last damage update. */
+  final Rectangle2D.Float screenBounds = new Rectangle2D.Float();
+
+  /** Whether this layer occupied {@link #screenBounds} as of the last damage update. */
+  boolean painted;
+
+  private int paintedVersion;
+
   public JavaLayer() {
     super();
   }
 
   abstract void paint(JavaCanvas canvas);
 
-  void transform(Canvas canvas) {
-    canvas.translate(originX, originY);
-    canvas.transform(transform.m00(), transform.m01(), transform.m10(),
-        transform.m11(), transform.tx() - originX, transform.ty() - originY);
-    canvas.translate(-originX, -originY);
+  @Override
+  public void onRemove() {
+    super.onRemove();
+    if (painted) {
+      ((JavaGraphics) graphics()).damage.add(screenBounds);
+      painted = false;
+    }
+  }
+
+  /**
+   * Updates this layer's screen transform and bounds, adding to {@code damage} any area of the
+   * screen that must be repainted because this layer moved or changed appearance.
+   *
+   * @param parentChanged whether any of this layer's ancestors moved or changed appearance.
+   */
+  void updateDamage(boolean parentChanged, JavaDamage damage) {
+    boolean changed = updateTransform() || parentChanged || isSet(Flag.DIRTY);
+    setFlag(Flag.DIRTY, false);
+    if (!visible() || !hasContent()) {
+      if (painted) {
+        damage.add(screenBounds);
+        painted = false;
+      }
+    } else {
+      updateBounds(changed, damage);
+    }
+  }
+
+  /**
+   * Updates {@link #screenBounds} for this layer, which is visible.
+   */
+  abstract void updateBounds(boolean changed, JavaDamage damage);
+
+  /**
+   * Updates {@link #screenBounds} for a layer that covers {@code (0, 0, width, height)}, damaging
+   * the old and new bounds if the layer changed or its {@link #contentVersion} moved on.
+   */
+  void updateBounds(boolean changed, JavaDamage damage, float width, float height) {
+    int version = contentVersion();
+    if (changed || !painted || version != paintedVersion) {
+      if (painted) {
+        damage.add(screenBounds);
+      }
+      screenBounds.setRect(0, 0, width, height);
+      screenBounds.setRect(screenTransform.createTransformedShape(screenBounds).getBounds2D());
+      damage.add(screenBounds);
+      painted = true;
+      paintedVersion = version;
+    }
+  }
+
+  /** Returns false if this layer currently has nothing to paint. */
+  boolean hasContent() {
+    return true;
+  }
+
+  /** Returns a value that changes whenever this layer's pixels change. */
+  int contentVersion() {
+    return 0;
+  }
+
+  /**
+   * Sets the canvas transform to this layer's screen transform. Layers are only painted into the
+   * screen's back buffer, once their transforms have been brought up to date by {@link
+   * #updateDamage}.
+   */
+  void transform(JavaCanvas canvas) {
+    canvas.gfx.setTransform(screenTransform);
+  }
+
+  // brings our world transform up to date, updating our screen transform if it changed
+  private boolean updateTransform() {
+    JavaLayer parent = (JavaLayer) parent();
+    boolean changed = (parent == null) ? updateWorld(null, 1, 0) :
+      updateWorld(parent.worldTransform, parent.worldAlpha, parent.worldVersion);
+    if (changed) {
+      screenTransform.setTransform(worldTransform.m00(), worldTransform.m01(),
+                                   worldTransform.m10(), worldTransform.m11(),
+                                   worldTransform.tx(), worldTransform.ty());
+    }
+    return changed;
   }
 }
@@ -15,43 +15,30 @@
  */
 package playn.java;
 
+import java.awt.Component;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseListener;
 import java.awt.event.MouseMotionListener;
 import java.awt.event.MouseWheelEvent;
 import java.awt.event.MouseWheelListener;
 
-import javax.swing.JComponent;
-
+import playn.core.InputQueue;
 import playn.core.Mouse;
 
 class JavaMouse implements Mouse {
 
-  private Listener listener;
+  private final InputQueue input;
 
-  JavaMouse(JComponent frame) {
+  JavaMouse(Component frame, final InputQueue input) {
+    this.input = input;
     frame.addMouseMotionListener(new MouseMotionListener() {
       public void mouseDragged(MouseEvent nativeEvent) {
         // mouseMoved(MouseEvent) does not fire when dragged
-        if (listener != null) {
-          MotionEvent.Impl event = new MotionEvent.Impl(nativeEvent.getWhen(), nativeEvent.getX(),
-              nativeEvent.getY());
-          listener.onMouseMove(event);
-          if (event.getPreventDefault()) {
-            nativeEvent.consume();
-          }
-        }
+        input.mouseMove(nativeEvent.getWhen(), nativeEvent.getX(), nativeEvent.getY());
       }
 
       public void mouseMoved(MouseEvent nativeEvent) {
-        if (listener != null) {
-          MotionEvent.Impl event = new MotionEvent.Impl(nativeEvent.getWhen(), nativeEvent.getX(),
-              nativeEvent.getY());
-          listener.onMouseMove(event);
-          if (event.getPreventDefault()) {
-            nativeEvent.consume();
-          }
-        }
+        input.mouseMove(nativeEvent.getWhen(), nativeEvent.getX(), nativeEvent.getY());
       }
     });
 
@@ -66,46 +53,27 @@ class JavaMouse implements Mouse {
       }
 
       public void mousePressed(MouseEvent nativeEvent) {
-        if (listener != null) {
-          ButtonEvent.Impl event = new ButtonEvent.Impl(nativeEvent.getWhen(), nativeEvent.getX(),
-              nativeEvent.getY(), getMouseButton(nativeEvent));
-          listener.onMouseDown(event);
-          if (event.getPreventDefault()) {
-            nativeEvent.consume();
-          }
-        }
+        input.mouseDown(nativeEvent.getWhen(), nativeEvent.getX(), nativeEvent.getY(),
+                        getMouseButton(nativeEvent));
       }
 
       public void mouseReleased(MouseEvent nativeEvent) {
-        if (listener != null) {
-          ButtonEvent.Impl event = new ButtonEvent.Impl(nativeEvent.getWhen(), nativeEvent.getX(),
-              nativeEvent.getY(), getMouseButton(nativeEvent));
-          listener.onMouseUp(event);
-          if (event.getPreventDefault()) {
-            nativeEvent.consume();
-          }
-        }
+        input.mouseUp(nativeEvent.getWhen(), nativeEvent.getX(), nativeEvent.getY(),
+                      getMouseButton(nativeEvent));
       }
     });
 
     frame.addMouseWheelListener(new MouseWheelListener() {
       @Override
       public void mouseWheelMoved(MouseWheelEvent nativeEvent) {
-        if (listener != null) {
-          WheelEvent.Impl event = new WheelEvent.Impl(nativeEvent.getWhen(),
-              nativeEvent.getWheelRotation());
-          listener.onMouseWheelScroll(event);
-          if (event.getPreventDefault()) {
-            nativeEvent.consume();
-          }
-        }
+        input.mouseWheel(nativeEvent.getWhen(), nativeEvent.getWheelRotation());
       }
     });
   }
 
   @Override
   public void setListener(Listener listener) {
-    this.listener = listener;
+    input.setMouseListener(listener);
   }
 
   /**
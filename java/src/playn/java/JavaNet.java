@@ -21,53 +21,122 @@ import playn.core.util.Callback;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.io.Reader;
 import java.net.HttpURLConnection;
-import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Performs requests on a small pool of background threads and delivers their results on the game
+ * thread, at the start of the next frame, as the html platform does. Responses are read fully and
+ * their streams closed (rather than the connection disconnected), which lets the JVM reuse the
+ * underlying keep-alive connection for the next request to the same server.
+ */
 public class JavaNet implements Net {
 
+  // the maximum number of requests in flight at once; further requests wait their turn
+  private static final int MAX_CONCURRENT_REQUESTS = 4;
+
+  // idle request threads exit after this many seconds
+  private static final int THREAD_KEEP_ALIVE = 30;
+
+  private static final int CONNECT_TIMEOUT = 10 * 1000; // millis
+  private static final int READ_TIMEOUT = 30 * 1000; // millis
+
   private static final int BUF_SIZE = 4096;
 
+  private final ThreadPoolExecutor executor;
+
+  // results of completed requests, waiting to be delivered on the game thread
+  private final Queue<Runnable> results = new ConcurrentLinkedQueue<Runnable>();
+
+  public JavaNet() {
+    executor = new ThreadPoolExecutor(
+      MAX_CONCURRENT_REQUESTS, MAX_CONCURRENT_REQUESTS, THREAD_KEEP_ALIVE, TimeUnit.SECONDS,
+      new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+        private int count;
+        public synchronized Thread newThread(Runnable r) {
+          Thread thread = new Thread(r, "PlayN net " + (++count));
+          thread.setDaemon(true);
+          return thread;
+        }
+      });
+    executor.allowCoreThreadTimeOut(true);
+  }
+
   public void get(String urlStr, Callback<String> callback) {
-    // TODO: Make this non-blocking so that it doesn't differ from the html
-    // version's behavior.
-    try {
-      URL url = new URL(canonicalizeUrl(urlStr));
-      InputStream stream = url.openStream();
-      InputStreamReader reader = new InputStreamReader(stream);
-
-      callback.onSuccess(readFully(reader));
-    } catch (MalformedURLException e) {
-      callback.onFailure(e);
-    } catch (IOException e) {
-      callback.onFailure(e);
-    }
+    request(urlStr, null, callback);
   }
 
   public void post(String urlStr, String data, Callback<String> callback) {
-    // TODO: Make this non-blocking so that it doesn't differ from the html
-    // version's behavior.
-    try {
-      URL url = new URL(canonicalizeUrl(urlStr));
-      HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+    request(urlStr, data, callback);
+  }
+
+  /**
+   * Delivers the results of completed requests to their callbacks. This is called by the game
+   * loop, on the game thread, once per frame.
+   */
+  void dispatchResults() {
+    for (Runnable result; (result = results.poll()) != null; ) {
+      result.run();
+    }
+  }
+
+  private void request(final String urlStr, final String data, final Callback<String> callback) {
+    executor.execute(new Runnable() {
+      public void run() {
+        try {
+          final String response = execute(urlStr, data);
+          results.add(new Runnable() {
+            public void run() {
+              callback.onSuccess(response);
+            }
+          });
+        } catch (final Exception e) {
+          results.add(new Runnable() {
+            public void run() {
+              callback.onFailure(e);
+            }
+          });
+        }
+      }
+    });
+  }
+
+  private String execute(String urlStr, String data) throws IOException {
+    URL url = new URL(canonicalizeUrl(urlStr));
+    HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+    conn.setConnectTimeout(CONNECT_TIMEOUT);
+    conn.setReadTimeout(READ_TIMEOUT);
+    conn.setAllowUserInteraction(false);
+    if (data != null) {
+      byte[] bytes = data.getBytes("UTF-8");
       conn.setRequestMethod("POST");
       conn.setDoOutput(true);
-      conn.setDoInput(true);
-      conn.setAllowUserInteraction(false);
+      conn.setFixedLengthStreamingMode(bytes.length);
       conn.setRequestProperty("Content-type", "text/xml; charset=UTF-8");
+      OutputStream out = conn.getOutputStream();
+      try {
+        out.write(bytes);
+      } finally {
+        out.close();
+      }
+    }
 
-      conn.connect();
-      conn.getOutputStream().write(data.getBytes("UTF-8"));
-      conn.getOutputStream().close();
-      callback.onSuccess(readFully(new InputStreamReader(conn.getInputStream())));
-      conn.disconnect();
-    } catch (MalformedURLException e) {
-      callback.onFailure(e);
-    } catch (IOException e) {
-      callback.onFailure(e);
+    int code = conn.getResponseCode();
+    if (code >= 400) {
+      // read the error body so that the connection may be reused
+      InputStream err = conn.getErrorStream();
+      String body = (err == null) ? "" : readFully(err, charset(conn));
+      throw new IOException("HTTP " + code + " for " + url + ": " + body);
     }
+    return readFully(conn.getInputStream(), charset(conn));
   }
 
   // Super-simple url-cleanup: assumes it either starts with "http", or that
@@ -84,12 +153,28 @@ public class JavaNet implements Net {
     return "127.0.0.1:8080";
   }
 
-  private String readFully(Reader reader) throws IOException {
-    StringBuffer result = new StringBuffer();
-    char[] buf = new char[BUF_SIZE];
-    while (-1 != reader.read(buf)) {
-      result.append(buf);
+  private static String charset(HttpURLConnection conn) {
+    String type = conn.getContentType();
+    int idx = (type == null) ? -1 : type.toLowerCase().indexOf("charset=");
+    if (idx < 0) {
+      return "UTF-8";
+    }
+    String charset = type.substring(idx + "charset=".length());
+    int end = charset.indexOf(';');
+    return ((end < 0) ? charset : charset.substring(0, end)).trim().replace("\"", "");
+  }
+
+  private static String readFully(InputStream stream, String charset) throws IOException {
+    Reader reader = new InputStreamReader(stream, charset);
+    try {
+      StringBuilder result = new StringBuilder();
+      char[] buf = new char[BUF_SIZE];
+      for (int read; (read = reader.read(buf)) != -1; ) {
+        result.append(buf, 0, read);
+      }
+      return result.toString();
+    } finally {
+      reader.close();
     }
-    return result.toString();
   }
 }
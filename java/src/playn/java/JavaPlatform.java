@@ -15,19 +15,23 @@
  */
 package playn.java;
 
+import java.awt.Canvas;
 import java.awt.Dimension;
-import java.awt.Graphics;
-import java.awt.Graphics2D;
+import java.awt.DisplayMode;
+import java.awt.GraphicsDevice;
+import java.awt.GraphicsEnvironment;
 import java.io.IOException;
 
-import javax.swing.JComponent;
 import javax.swing.JFrame;
 
 import playn.core.Analytics;
+import playn.core.Asserts;
 import playn.core.Audio;
+import playn.core.Binary;
 import playn.core.PlayN;
 import playn.core.Game;
 import playn.core.Json;
+import playn.core.InputQueue;
 import playn.core.Keyboard;
 import playn.core.Log;
 import playn.core.Net;
@@ -35,20 +39,12 @@ import playn.core.Platform;
 import playn.core.Pointer;
 import playn.core.Mouse;
 import playn.core.Touch;
-import playn.core.Storage;
+import playn.core.Stats;
 import playn.core.RegularExpression;
 
 public class JavaPlatform implements Platform {
-  // Maximum delta time to consider between update() calls (in milliseconds). If the delta between
-  // two update()s is greater than MAX_DELTA, we clamp to MAX_DELTA.
-  private static final float MAX_DELTA = 100;
-
-  // Minimum time between any two paint() calls (in milliseconds). We will paint every
-  // FRAME_TIME ms, which is equivalent to (1000 * 1 / FRAME_TIME) frames per second.
-  // TODO(pdr): this is set ridiculously low because we're using Java's software renderer which
-  // causes the paint loop to be quite slow. Setting this to 10 prevents hitching that occurs when
-  // we try to squeeze a paint() near max bound of FRAME_TIME.
-  private static final float FRAME_TIME = 10;
+  // The frame rate we target if we can't determine the display's refresh rate.
+  private static final int DEFAULT_FPS = 60;
 
   public static JavaPlatform register() {
     JavaPlatform platform = new JavaPlatform();
@@ -57,14 +53,18 @@ public class JavaPlatform implements Platform {
     return platform;
   }
 
-  private JComponent component;
+  private Canvas component;
   private JFrame frame;
   private Game game;
+  private JavaGameLoop loop;
+  private int targetFPS = displayRefreshRate();
 
   private JavaRegularExpression regularExpression = new JavaRegularExpression();
   private JavaAudio audio = new JavaAudio();
   private JavaGraphics graphics;
   private JavaJson json = new JavaJson();
+  private JavaBinary binary = new JavaBinary();
+  private InputQueue input = new InputQueue();
   private JavaKeyboard keyboard;
   private JavaLog log = new JavaLog();
   private JavaNet net = new JavaNet();
@@ -73,15 +73,15 @@ public class JavaPlatform implements Platform {
   private JavaStorage storage = new JavaStorage();
   private JavaAssetManager assetManager = new JavaAssetManager();
 
-  private int updateRate = 0;
   private Analytics analytics = new JavaAnalytics();
+  private Stats stats = new Stats();
 
   private JavaPlatform() {
     ensureFrame();
     graphics = new JavaGraphics(frame, component);
-    keyboard = new JavaKeyboard(frame);
-    pointer = new JavaPointer(component);
-    mouse = new JavaMouse(component);
+    keyboard = new JavaKeyboard(frame, input);
+    pointer = new JavaPointer(component, input);
+    mouse = new JavaMouse(component, input);
   }
 
   private void init() {
@@ -103,6 +103,18 @@ public class JavaPlatform implements Platform {
     return json;
   }
 
+  @Override
+  public Binary binary() {
+    return binary;
+  }
+
+  /**
+   * Returns the queue via which keyboard, mouse and pointer events are delivered to the game.
+   */
+  public InputQueue input() {
+    return input;
+  }
+
   @Override
   public Keyboard keyboard() {
     return keyboard;
@@ -135,7 +147,7 @@ public class JavaPlatform implements Platform {
   }
 
   @Override
-  public Storage storage() {
+  public JavaStorage storage() {
     return storage;
   }
 
@@ -144,6 +156,11 @@ public class JavaPlatform implements Platform {
     return analytics;
   }
 
+  @Override
+  public Stats stats() {
+    return stats;
+  }
+
   @Override
   public JavaAssetManager assetManager() {
     return assetManager;
@@ -156,11 +173,13 @@ public class JavaPlatform implements Platform {
 
   @Override
   public void run(final Game game) {
-    this.updateRate = game.updateRate();
     this.game = game;
 
     game.init();
     frame.setVisible(true);
+
+    loop = new JavaGameLoop(game, graphics, input, net, assetManager, component, targetFPS);
+    loop.start();
   }
 
   @Override
@@ -177,63 +196,10 @@ public class JavaPlatform implements Platform {
     frame = new JFrame();
     frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
 
-    component = new JComponent() {
-      private float accum = updateRate;
-      private double lastUpdateTime;
-      private double lastPaintTime;
-      private boolean isPaintDirty;
-
-      @Override
-      public void paint(Graphics g) {
-        isPaintDirty = false; // clean by default
-
-        if (game != null) {
-          double now = time();
-          float updateDelta = (float)(now - lastUpdateTime);
-          if (updateDelta > 1) {
-            updateDelta = updateDelta > MAX_DELTA ? MAX_DELTA : updateDelta;
-            lastUpdateTime = now;
-
-            if (updateRate == 0) {
-              game.update(updateDelta);
-              accum = 0;
-              isPaintDirty = true; // we made a mess
-            } else {
-              accum += updateDelta;
-              while (accum > updateRate) {
-                game.update(updateRate);
-                accum -= updateRate;
-                isPaintDirty = true; // we made a mess
-              }
-            }
-          }
-
-          float paintDelta = (float)(now - lastPaintTime);
-          if (isPaintDirty || paintDelta > FRAME_TIME) {
-            if (updateRate == 0) {
-              game.paint(0);
-            } else {
-              game.paint(accum / updateRate);
-            }
-
-            int width = component.getWidth();
-            int height = component.getHeight();
-            JavaCanvas canvas = new JavaCanvas((Graphics2D) g, width, height);
-            graphics.rootLayer().paint(canvas);
-
-            lastPaintTime = now;
-          }
-        }
-
-        try {
-          Thread.sleep(1L);
-        } catch (InterruptedException e) {
-          // ignore
-        }
-        repaint();
-      }
-    };
-    component.setOpaque(true); // ensures graphics context is not cleared automatically
+    // we render actively via a buffer strategy, so we don't want Swing repainting us as well
+    component = new Canvas();
+    component.setIgnoreRepaint(true);
+    component.setFocusable(false); // leave keyboard focus with the frame
     frame.add(component);
     frame.setResizable(false);
 
@@ -258,6 +224,18 @@ public class JavaPlatform implements Platform {
     }
   }
 
+  /**
+   * Sets the rate at which the game is painted. This defaults to the refresh rate of the display
+   * (or 60 frames per second if that cannot be determined).
+   */
+  public void setTargetFPS(int fps) {
+    Asserts.checkArgument(fps > 0, "Target FPS must be > 0");
+    targetFPS = fps;
+    if (loop != null) {
+      loop.setTargetFPS(fps);
+    }
+  }
+
   /**
    * Sets the title of the window.
    *
@@ -266,4 +244,14 @@ public class JavaPlatform implements Platform {
   public void setTitle(String title) {
     frame.setTitle(title);
   }
+
+  private static int displayRefreshRate() {
+    if (GraphicsEnvironment.isHeadless()) {
+      return DEFAULT_FPS;
+    }
+    GraphicsDevice device =
+      GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice();
+    int rate = device.getDisplayMode().getRefreshRate();
+    return (rate == DisplayMode.REFRESH_RATE_UNKNOWN) ? DEFAULT_FPS : rate;
+  }
 }
@@ -15,30 +15,24 @@
  */
 package playn.java;
 
+import java.awt.Component;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseListener;
 import java.awt.event.MouseMotionListener;
 
-import javax.swing.JComponent;
-
+import playn.core.InputQueue;
 import playn.core.Pointer;
 
 // TODO(pdr): add touch support.
 class JavaPointer implements Pointer {
 
-  private Listener listener;
+  private final InputQueue input;
 
-  JavaPointer(JComponent frame) {
+  JavaPointer(Component frame, final InputQueue input) {
+    this.input = input;
     frame.addMouseMotionListener(new MouseMotionListener() {
       public void mouseDragged(MouseEvent nativeEvent) {
-        if (listener != null) {
-          Event.Impl event = new Event.Impl(nativeEvent.getWhen(), nativeEvent.getX(),
-              nativeEvent.getY());
-          listener.onPointerDrag(event);
-          if (event.getPreventDefault()) {
-            nativeEvent.consume();
-          }
-        }
+        input.pointerDrag(nativeEvent.getWhen(), nativeEvent.getX(), nativeEvent.getY());
       }
 
       public void mouseMoved(MouseEvent e) {
@@ -56,31 +50,17 @@ class JavaPointer implements Pointer {
       }
 
       public void mousePressed(MouseEvent nativeEvent) {
-        if (listener != null) {
-          Event.Impl event = new Event.Impl(nativeEvent.getWhen(), nativeEvent.getX(),
-              nativeEvent.getY());
-          listener.onPointerStart(event);
-          if (event.getPreventDefault()) {
-            nativeEvent.consume();
-          }
-        }
+        input.pointerStart(nativeEvent.getWhen(), nativeEvent.getX(), nativeEvent.getY());
       }
 
       public void mouseReleased(MouseEvent nativeEvent) {
-        if (listener != null) {
-          Event.Impl event = new Event.Impl(nativeEvent.getWhen(), nativeEvent.getX(),
-              nativeEvent.getY());
-          listener.onPointerEnd(event);
-          if (event.getPreventDefault()) {
-            nativeEvent.consume();
-          }
-        }
+        input.pointerEnd(nativeEvent.getWhen(), nativeEvent.getX(), nativeEvent.getY());
       }
     });
   }
 
   @Override
   public void setListener(Listener listener) {
-    this.listener = listener;
+    input.setPointerListener(listener);
   }
 }
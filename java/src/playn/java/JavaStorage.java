@@ -15,42 +15,119 @@
  */
 package playn.java;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 
 import playn.core.PlayN;
 import playn.core.Storage;
 
 /**
- * JavaStorage is backed by a properties file stored in the temp directory.
+ * JavaStorage is backed by a properties file stored in the temp directory. Changes are applied
+ * in memory immediately and written behind: they are coalesced and, after a short interval,
+ * appended to a log file by a background thread. When the log grows larger than the properties
+ * file, the two are compacted into a new properties file, which atomically replaces the old one
+ * by renaming. A crash loses at most the changes made since the last flush, and never corrupts
+ * the data that was already written.
  *
  * TODO(pdr): probably want better handling on where the file is stored
  */
-class JavaStorage implements Storage {
-  private static String tempFile = System.getProperty("java.io.tmpdir") + "playn.tmp";
-  private boolean isPersisted = false; // false by default
-  private Properties properties;
+public class JavaStorage implements Storage {
+
+  // the default interval between a change and its being written, in milliseconds
+  private static final int DEFAULT_FLUSH_INTERVAL = 1000;
+
+  // the log is compacted once it reaches this size, or the size of the properties, if larger
+  private static final long MIN_COMPACT_SIZE = 64 * 1024;
+
+  // log record types
+  private static final byte SET = 1;
+  private static final byte REMOVE = 2;
+
+  private final File file, logFile, newFile;
+  private final Properties properties = new Properties();
+
+  // changes not yet written, mapping each key to its latest value, or null if it was removed
+  private Map<String, String> pending = new LinkedHashMap<String, String>();
+  // guards the files, so that only one flush writes at a time
+  private final Object writeLock = new Object();
+  private ScheduledExecutorService flusher;
+  private int flushInterval = DEFAULT_FLUSH_INTERVAL;
+  private boolean flushScheduled;
+  private volatile boolean isPersisted = false; // false by default
+
+  public JavaStorage() {
+    this(new File(System.getProperty("java.io.tmpdir"), "playn.tmp"));
+  }
+
+  JavaStorage(File file) {
+    this.file = file;
+    this.logFile = new File(file.getPath() + ".log");
+    this.newFile = new File(file.getPath() + ".new");
+  }
 
   public void init() {
-    properties = maybeRetrieveProperties();
+    maybeRetrieveProperties();
+    flusher = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+      public Thread newThread(Runnable r) {
+        Thread thread = new Thread(r, "PlayN storage");
+        thread.setDaemon(true);
+        return thread;
+      }
+    });
+    // write anything outstanding when the JVM exits normally
+    Runtime.getRuntime().addShutdownHook(new Thread() {
+      @Override
+      public void run() {
+        flush();
+      }
+    });
+  }
+
+  /**
+   * Configures the time between a change being made and its being written to disk. Changes made
+   * in the interim are written along with it, and repeated changes to a key are only written
+   * once.
+   */
+  public synchronized void setFlushInterval(int millis) {
+    flushInterval = millis;
   }
 
   @Override
   public void setItem(String key, String value) throws RuntimeException {
-    properties.setProperty(key, value);
-    maybePersistProperties(properties);
+    synchronized (this) {
+      properties.setProperty(key, value);
+      pending.put(key, value);
+      scheduleFlush();
+    }
   }
 
   @Override
   public void removeItem(String key) {
-    properties.remove(key);
-    maybePersistProperties(properties);
+    synchronized (this) {
+      properties.remove(key);
+      pending.put(key, null);
+      scheduleFlush();
+    }
   }
 
   @Override
-  public String getItem(String key) {
+  public synchronized String getItem(String key) {
     return properties.getProperty(key);
   }
 
@@ -59,30 +136,169 @@ class JavaStorage implements Storage {
     return isPersisted;
   }
 
-  private void maybePersistProperties(Properties properties) {
+  @Override
+  public void flush() {
+    synchronized (writeLock) {
+      Map<String, String> changes;
+      synchronized (this) {
+        changes = pending;
+        if (changes.isEmpty()) {
+          return;
+        }
+        pending = new LinkedHashMap<String, String>();
+      }
+      try {
+        appendLog(changes);
+        if (logFile.length() > Math.max(MIN_COMPACT_SIZE, file.length())) {
+          compact();
+        }
+        isPersisted = true;
+      } catch (IOException e) {
+        PlayN.log().info("Error persisting properties: " + e.getMessage());
+        isPersisted = false;
+        // put the changes back, beneath any made since, so that they're tried again
+        synchronized (this) {
+          changes.putAll(pending);
+          pending = changes;
+        }
+      }
+    }
+  }
+
+  private void scheduleFlush() {
+    if (flushScheduled || flusher == null) {
+      return;
+    }
+    flushScheduled = true;
+    flusher.schedule(new Runnable() {
+      public void run() {
+        synchronized (JavaStorage.this) {
+          flushScheduled = false;
+        }
+        flush();
+      }
+    }, flushInterval, TimeUnit.MILLISECONDS);
+  }
+
+  private void appendLog(Map<String, String> changes) throws IOException {
+    FileOutputStream fout = new FileOutputStream(logFile, true);
+    try {
+      DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fout));
+      for (Map.Entry<String, String> entry : changes.entrySet()) {
+        if (entry.getValue() == null) {
+          out.writeByte(REMOVE);
+          writeString(out, entry.getKey());
+        } else {
+          out.writeByte(SET);
+          writeString(out, entry.getKey());
+          writeString(out, entry.getValue());
+        }
+      }
+      out.flush();
+      fout.getFD().sync();
+    } finally {
+      fout.close();
+    }
+  }
+
+  private void compact() throws IOException {
+    Properties snapshot;
+    synchronized (this) {
+      snapshot = (Properties) properties.clone();
+    }
+    // the snapshot may include changes that are pending rather than logged, which is harmless, as
+    // they will be logged (again) by a later flush
+    FileOutputStream fout = new FileOutputStream(newFile);
+    try {
+      BufferedOutputStream out = new BufferedOutputStream(fout);
+      snapshot.store(out, null);
+      out.flush();
+      fout.getFD().sync();
+    } finally {
+      fout.close();
+    }
+    // renameTo will not replace an existing file on some platforms; if we die between the delete
+    // and rename, we'll recover from the new file on restart
+    if (!newFile.renameTo(file) && !(file.delete() && newFile.renameTo(file))) {
+      throw new IOException("Unable to replace " + file);
+    }
+    // if we die before deleting the log, replaying it over the new properties is harmless
+    if (!logFile.delete()) {
+      throw new IOException("Unable to delete " + logFile);
+    }
+  }
+
+  private void maybeRetrieveProperties() {
+    File source = file.exists() ? file : newFile;
     try {
-      properties.store(new FileOutputStream(tempFile), null);
+      if (source.exists()) {
+        InputStream in = new BufferedInputStream(new FileInputStream(source));
+        try {
+          properties.load(in);
+        } finally {
+          in.close();
+        }
+      }
+      if (logFile.exists()) {
+        replayLog();
+      }
       isPersisted = true;
-    } catch (Exception e) {
-      PlayN.log().info("Error persisting properties: " + e.getMessage());
+    } catch (IOException e) {
+      PlayN.log().info("Error retrieving file: " + e.getMessage());
       isPersisted = false;
     }
   }
 
-  private Properties maybeRetrieveProperties() {
-    Properties properties = new Properties();
-    if (new File(tempFile).exists()) {
+  private void replayLog() throws IOException {
+    long length = logFile.length(), valid = 0;
+    DataInputStream in = new DataInputStream(
+      new BufferedInputStream(new FileInputStream(logFile)));
+    try {
+      while (valid < length) {
+        int type = in.readByte();
+        if (type != SET && type != REMOVE) {
+          break;
+        }
+        byte[] key = readBytes(in, length), value = (type == SET) ? readBytes(in, length) : null;
+        if (type == SET) {
+          properties.setProperty(new String(key, "UTF-8"), new String(value, "UTF-8"));
+          valid += 9 + key.length + value.length;
+        } else {
+          properties.remove(new String(key, "UTF-8"));
+          valid += 5 + key.length;
+        }
+      }
+    } catch (EOFException e) {
+      // fall through
+    } finally {
+      in.close();
+    }
+
+    // if the last record was only partially written before a crash, it's lost; truncate it so
+    // that new records are appended after the last complete one
+    if (valid < length) {
+      RandomAccessFile raf = new RandomAccessFile(logFile, "rw");
       try {
-        properties.load(new FileInputStream(tempFile));
-        isPersisted = true;
-      } catch(Exception e) {
-        PlayN.log().info("Error retrieving file: " + e.getMessage());
-        isPersisted = false;
+        raf.setLength(valid);
+      } finally {
+        raf.close();
       }
-    } else {
-      // Attempt to write newly created properties immediately to make the isPersisted valid
-      maybePersistProperties(properties);
     }
-    return properties;
+  }
+
+  private static void writeString(DataOutputStream out, String value) throws IOException {
+    byte[] bytes = value.getBytes("UTF-8");
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private static byte[] readBytes(DataInputStream in, long limit) throws IOException {
+    int length = in.readInt();
+    if (length < 0 || length > limit) {
+      throw new EOFException(); // a partially written length
+    }
+    byte[] bytes = new byte[length];
+    in.readFully(bytes);
+    return bytes;
   }
 }
@@ -21,6 +21,8 @@ import static playn.core.PlayN.graphics;
 import playn.core.CanvasSurface;
 import playn.core.Surface;
 import playn.core.SurfaceLayer;
+import playn.core.PlayN;
+import playn.core.Stats;
 
 class JavaSurfaceLayer extends JavaLayer implements SurfaceLayer {
 
@@ -48,6 +50,7 @@ class JavaSurfaceLayer extends JavaLayer implements SurfaceLayer {
   @Override
   void paint(JavaCanvas canvas) {
     if (!visible()) return;
+    PlayN.stats().increment(Stats.Count.LAYERS_DRAWN);
 
     canvas.save();
     transform(canvas);
@@ -56,6 +59,16 @@ class JavaSurfaceLayer extends JavaLayer implements SurfaceLayer {
     canvas.restore();
   }
 
+  @Override
+  void updateBounds(boolean changed, JavaDamage damage) {
+    updateBounds(changed, damage, width(), height());
+  }
+
+  @Override
+  int contentVersion() {
+    return img.version();
+  }
+
   @Override
   public float width() {
     Asserts.checkNotNull(surface, "Surface must not be null");
@@ -70,11 +83,11 @@ class JavaSurfaceLayer extends JavaLayer implements SurfaceLayer {
 
   @Override
   public float scaledWidth() {
-    return transform().scaleX() * width();
+    return transform.scaleX() * width();
   }
 
   @Override
   public float scaledHeight() {
-    return transform().scaleY() * height();
+    return transform.scaleY() * height();
   }
 }
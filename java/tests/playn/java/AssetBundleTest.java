@@ -0,0 +1,111 @@
+/**
+ * Copyright 2011 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package playn.java;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.Files;
+
+/**
+ * Tests {@link AssetBundle} and {@link AssetBundler}.
+ */
+public class AssetBundleTest {
+
+  private File file;
+
+  @Before
+  public void createFile() throws IOException {
+    file = File.createTempFile("playn", ".bundle");
+  }
+
+  @After
+  public void deleteFile() {
+    file.delete();
+  }
+
+  @Test
+  public void testRoundTrip() throws IOException {
+    StringBuilder text = new StringBuilder();
+    for (int ii = 0; ii < 100; ii++) {
+      text.append("line ").append(ii).append(" of some very compressible text\n");
+    }
+    byte[] noise = new byte[5000];
+    new Random(42).nextBytes(noise);
+
+    AssetBundler bundler = new AssetBundler();
+    bundler.add("text/lines.txt", text.toString().getBytes(Charsets.UTF_8));
+    bundler.add("images/noise.png", noise);
+    bundler.add("empty", new byte[0]);
+    bundler.write(file);
+    // the text was compressed, and the noise was not
+    assertTrue(file.length() < noise.length + text.length() / 2);
+
+    AssetBundle bundle = AssetBundle.open(file);
+    assertEquals(3, bundle.paths().size());
+    assertTrue(bundle.contains("images/noise.png"));
+    assertFalse(bundle.contains("noise.png"));
+    assertEquals(text.toString(), Charsets.UTF_8.decode(bundle.get("text/lines.txt")).toString());
+    assertArrayEquals(noise, ByteStreams.toByteArray(bundle.open("images/noise.png")));
+    assertEquals(0, bundle.get("empty").remaining());
+
+    // each caller gets its own view of the data
+    ByteBuffer first = bundle.get("images/noise.png");
+    first.get(new byte[100]);
+    assertEquals(noise.length, bundle.get("images/noise.png").remaining());
+  }
+
+  @Test
+  public void testAddDirectory() throws IOException {
+    File dir = Files.createTempDir();
+    try {
+      new File(dir, "sub").mkdir();
+      Files.write("hello", new File(dir, "sub/hello.txt"), Charsets.UTF_8);
+      Files.write("top", new File(dir, "top.txt"), Charsets.UTF_8);
+      AssetBundler.main(new String[] { file.getPath(), dir.getPath() });
+    } finally {
+      new File(dir, "sub/hello.txt").delete();
+      new File(dir, "sub").delete();
+      new File(dir, "top.txt").delete();
+      dir.delete();
+    }
+
+    AssetBundle bundle = AssetBundle.open(file);
+    assertEquals("hello", Charsets.UTF_8.decode(bundle.get("sub/hello.txt")).toString());
+    assertEquals("top", Charsets.UTF_8.decode(bundle.get("top.txt")).toString());
+  }
+
+  @Test(expected=FileNotFoundException.class)
+  public void testMissing() throws IOException {
+    new AssetBundler().write(file);
+    AssetBundle.open(file).get("missing.png");
+  }
+
+  @Test(expected=IOException.class)
+  public void testNotBundle() throws IOException {
+    Files.write("not a bundle at all", file, Charsets.UTF_8);
+    AssetBundle.open(file);
+  }
+}
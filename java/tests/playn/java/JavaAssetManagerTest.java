@@ -0,0 +1,172 @@
+/**
+ * Copyright 2011 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package playn.java;
+
+import static org.junit.Assert.*;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+
+import javax.imageio.ImageIO;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Files;
+
+import playn.core.AssetManager;
+import playn.core.Image;
+import playn.core.ResourceCallback;
+
+/**
+ * Tests {@link JavaAssetManager}'s background loading.
+ */
+public class JavaAssetManagerTest {
+
+  private static final int IMAGES = 20;
+
+  private File dir;
+  private JavaAssetManager assets = new JavaAssetManager();
+
+  @Before
+  public void writeImages() throws IOException {
+    dir = File.createTempFile("playn", "assets");
+    dir.delete();
+    dir.mkdir();
+    for (int ii = 0; ii < IMAGES; ii++) {
+      ImageIO.write(new BufferedImage(10 + ii, 20, BufferedImage.TYPE_INT_ARGB), "png",
+                    new File(dir, "image" + ii + ".png"));
+    }
+    assets.setPathPrefix(dir.getPath());
+  }
+
+  @After
+  public void deleteImages() {
+    for (File file : dir.listFiles()) {
+      file.delete();
+    }
+    dir.delete();
+  }
+
+  @Test
+  public void testLoad() throws InterruptedException {
+    final int[] done = new int[1];
+    Image[] images = new Image[IMAGES];
+    for (int ii = 0; ii < IMAGES; ii++) {
+      AssetManager.Priority priority = (ii % 2 == 0) ?
+        AssetManager.Priority.PREFETCH : AssetManager.Priority.IMMEDIATE;
+      images[ii] = assets.getImage("image" + ii + ".png", priority);
+      images[ii].addCallback(new ResourceCallback<Image>() {
+        public void done(Image image) {
+          done[0]++;
+        }
+        public void error(Throwable err) {
+          fail("Unexpected error " + err);
+        }
+      });
+    }
+
+    // nothing is delivered until the game loop dispatches it
+    Thread.sleep(200);
+    assertEquals(0, done[0]);
+    assertFalse(assets.isDone());
+    assertFalse(images[0].isReady());
+    assertEquals(0, images[0].width());
+
+    awaitLoads();
+    assertEquals(IMAGES, done[0]);
+    for (int ii = 0; ii < IMAGES; ii++) {
+      assertTrue(images[ii].isReady());
+      assertEquals(10 + ii, images[ii].width());
+      assertEquals(20, images[ii].height());
+    }
+  }
+
+  @Test
+  public void testSharedLoad() throws InterruptedException {
+    Image first = assets.getImage("image0.png", AssetManager.Priority.PREFETCH);
+    Image second = assets.getImage("image0.png");
+    assertSame(first, second);
+    awaitLoads();
+    assertTrue(first.isReady());
+    assertEquals(0, assets.getPendingRequestCount());
+  }
+
+  @Test
+  public void testText() throws Exception {
+    Files.write("héllo", new File(dir, "text.txt"), Charsets.UTF_8);
+    final String[] text = new String[1];
+    assets.getText("text.txt", new ResourceCallback<String>() {
+      public void done(String resource) {
+        text[0] = resource;
+      }
+      public void error(Throwable err) {
+        fail("Unexpected error " + err);
+      }
+    });
+    long deadline = System.currentTimeMillis() + 10000;
+    while (text[0] == null && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+      assets.dispatchLoaded();
+    }
+    assertEquals("héllo", text[0]);
+  }
+
+  @Test
+  public void testBundle() throws Exception {
+    File bundleFile = new File(dir, "assets.bundle");
+    Files.write("bundled", new File(dir, "text.txt"), Charsets.UTF_8);
+    AssetBundler.main(new String[] { bundleFile.getPath(), dir.getPath() });
+    // remove the originals, so that they can only come from the bundle
+    for (File file : dir.listFiles()) {
+      if (!file.equals(bundleFile)) {
+        file.delete();
+      }
+    }
+    assets.setBundle(AssetBundle.open(bundleFile));
+
+    Image image = assets.getImage("image3.png");
+    awaitLoads();
+    assertTrue(image.isReady());
+    assertEquals(13, image.width());
+
+    final String[] text = new String[1];
+    assets.getText("text.txt", new ResourceCallback<String>() {
+      public void done(String resource) {
+        text[0] = resource;
+      }
+      public void error(Throwable err) {
+        fail("Unexpected error " + err);
+      }
+    });
+    long deadline = System.currentTimeMillis() + 10000;
+    while (text[0] == null && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+      assets.dispatchLoaded();
+    }
+    assertEquals("bundled", text[0]);
+  }
+
+  private void awaitLoads() throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 10000;
+    while (!assets.isDone() && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+      assets.dispatchLoaded();
+    }
+    assertTrue(assets.isDone());
+  }
+}
@@ -0,0 +1,202 @@
+/**
+ * Copyright 2011 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package playn.java;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import playn.core.Binary;
+import playn.core.Json;
+
+/**
+ * Tests {@link JavaBinary}.
+ */
+public class JavaBinaryTest {
+
+  @Test
+  public void testValues() {
+    Binary binary = new JavaBinary();
+    Json.Object o = binary.parse(binary.newWriter().object().
+      key("true").value(true).key("false").value(false).
+      key("small").value(7).key("byte").value(200).key("short").value(-30000).
+      key("int").value(Integer.MIN_VALUE).key("max").value(Integer.MAX_VALUE).
+      key("float").value(0.5f).key("double").value(Math.PI).key("whole").value(1e12).
+      key("negzero").value(-0.0).key("string").value("héllo € 😀").
+      key("null").value((String) null).endObject().write());
+
+    assertTrue(o.getBoolean("true"));
+    assertFalse(o.getBoolean("false"));
+    assertEquals(7, o.getInt("small"));
+    assertEquals(200, o.getInt("byte"));
+    assertEquals(-30000, o.getInt("short"));
+    assertEquals(Integer.MIN_VALUE, o.getInt("int"));
+    assertEquals(Integer.MAX_VALUE, o.getInt("max"));
+    assertEquals(0.5, o.getNumber("float"), 0);
+    assertEquals(Math.PI, o.getNumber("double"), 0);
+    assertEquals(1e12, o.getNumber("whole"), 0);
+    assertEquals(Double.doubleToLongBits(-0.0), Double.doubleToLongBits(o.getNumber("negzero")));
+    assertEquals("héllo € 😀", o.getString("string"));
+    assertNull(o.getString("null"));
+    assertTrue(o.containsKey("null"));
+    assertFalse(o.containsKey("notthere"));
+    assertNull(o.getObject("notthere"));
+    assertNull(o.getArray("string"));
+    assertEquals(0, o.getInt("notthere"));
+    assertEquals(13, o.getKeys().length());
+  }
+
+  /**
+   * Ensures that containers too large for the single byte header, which must be moved to make
+   * room for a larger one, round trip correctly.
+   */
+  @Test
+  public void testLargeContainers() {
+    Binary binary = new JavaBinary();
+    for (int size : new int[] { 15, 16, 65535, 65536 }) {
+      Binary.Writer w = binary.newWriter().object().key("values").array();
+      for (int ii = 0; ii < size; ii++) {
+        w.value(ii);
+      }
+      w.endArray().key("map").object();
+      for (int ii = 0; ii < size; ii++) {
+        w.key("k" + ii).array().value(ii).endArray();
+      }
+      w.endObject().key("after").value("end").endObject();
+
+      Json.Object o = binary.parse(w.write());
+      Json.Array values = o.getArray("values");
+      assertEquals(size, values.length());
+      Json.TypedArray<Integer> ints = o.getArray("values", Integer.class);
+      Json.Object map = o.getObject("map");
+      assertEquals(size, map.getKeys().length());
+      for (int ii = 0; ii < size; ii++) {
+        assertEquals(ii, values.getInt(ii));
+        assertEquals(ii, ints.get(ii).intValue());
+        assertEquals(ii, map.getArray("k" + ii).getInt(0));
+      }
+      assertEquals("end", o.getString("after"));
+    }
+  }
+
+  @Test
+  public void testNesting() {
+    Binary binary = new JavaBinary();
+    Binary.Writer w = binary.newWriter().object().key("root");
+    for (int ii = 0; ii < 100; ii++) {
+      w.object().key("depth").value(ii).key("child");
+    }
+    w.value("leaf");
+    for (int ii = 0; ii < 100; ii++) {
+      w.endObject();
+    }
+    Json.Object o = binary.parse(w.endObject().write()).getObject("root");
+    for (int ii = 0; ii < 99; ii++) {
+      assertEquals(ii, o.getInt("depth"));
+      o = o.getObject("child");
+    }
+    assertEquals("leaf", o.getString("child"));
+  }
+
+  /**
+   * Ensures that entries are found regardless of the order in which they are first looked up.
+   */
+  @Test
+  public void testLookupOrder() {
+    Binary binary = new JavaBinary();
+    Binary.Writer w = binary.newWriter().object();
+    for (int ii = 0; ii < 20; ii++) {
+      w.key("k" + ii).object().key("v").value(ii).endObject();
+    }
+    w.key("list").array();
+    for (int ii = 0; ii < 20; ii++) {
+      w.array().value(ii).endArray();
+    }
+    Json.Object o = binary.parse(w.endArray().endObject().write());
+
+    Json.Array list = o.getArray("list");
+    for (int ii = 19; ii >= 0; ii--) {
+      assertEquals(ii, list.getArray(ii).getInt(0));
+    }
+    assertEquals(10, o.getObject("k10").getInt("v"));
+    assertEquals(3, o.getObject("k3").getInt("v"));
+    assertFalse(o.containsKey("k20"));
+    for (int ii = 19; ii >= 0; ii--) {
+      assertEquals(ii, o.getObject("k" + ii).getInt("v"));
+    }
+    assertEquals(21, o.getKeys().length());
+    assertEquals("list", o.getKeys().get(20));
+  }
+
+  /**
+   * Ensures that values stored as 32 and 64 bit floats are read back exactly.
+   */
+  @Test
+  public void testFloatRoundTrip() {
+    Binary binary = new JavaBinary();
+    float[] floats = { 0.1f, -1.5e-30f, Float.MAX_VALUE, Float.MIN_VALUE, Float.NEGATIVE_INFINITY };
+    double[] doubles = { 0.1, -1e300, Double.MIN_VALUE, Double.MAX_VALUE, Double.NaN };
+    Binary.Writer w = binary.newWriter().object().key("floats").array();
+    for (float f : floats) {
+      w.value(f);
+    }
+    w.endArray().key("doubles").array();
+    for (double d : doubles) {
+      w.value(d);
+    }
+    Json.Object o = binary.parse(w.endArray().endObject().write());
+
+    Json.Array fa = o.getArray("floats");
+    for (int ii = 0; ii < floats.length; ii++) {
+      float value = (float) fa.getNumber(ii);
+      assertEquals(Float.floatToIntBits(floats[ii]), Float.floatToIntBits(value));
+    }
+    Json.Array da = o.getArray("doubles");
+    for (int ii = 0; ii < doubles.length; ii++) {
+      assertEquals(Double.doubleToLongBits(doubles[ii]), Double.doubleToLongBits(da.getNumber(ii)));
+    }
+  }
+
+  @Test
+  public void testWriterReuse() {
+    Binary binary = new JavaBinary();
+    Binary.Writer w = binary.newWriter();
+    String first = w.object().key("a").value(1).endObject().write();
+    String second = w.object().key("a").value(1).endObject().write();
+    assertEquals(first, second);
+    assertEquals(1, binary.parse(second).getInt("a"));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testMisplacedKey() {
+    new JavaBinary().newWriter().array().key("a");
+  }
+
+  @Test
+  public void testSmallerThanJson() {
+    Binary.Writer bw = new JavaBinary().newWriter();
+    Json.Writer jw = new JavaJson().newWriter();
+    bw.object().key("points").array();
+    jw.object().key("points").array();
+    for (int ii = 0; ii < 1000; ii++) {
+      float x = ii * 1.37f, y = ii * -2.91f;
+      bw.object().key("x").value(x).key("y").value(y).key("id").value(ii).endObject();
+      jw.object().key("x").value(x).key("y").value(y).key("id").value(ii).endObject();
+    }
+    String bin = bw.endArray().endObject().write();
+    String json = jw.endArray().endObject().write();
+    // even after base64 expands the binary data by a third, it should be smaller
+    assertTrue(bin.length() + " vs " + json.length(), bin.length() < json.length());
+  }
+}
@@ -18,6 +18,8 @@ package playn.java;
 import static playn.core.PlayN.*;
 import static org.junit.Assert.*;
 
+import java.io.StringReader;
+
 import org.junit.Test;
 
 import playn.core.Json;
@@ -38,4 +40,28 @@ public class JavaJsonTest extends AbstractPlayNTest {
     assertNull(a.getArray(0));
     assertNull(a.getArray(1));
   }
+
+  /**
+   * Ensures that a reader streaming from a character stream sees the same tokens as one reading
+   * from a string.
+   */
+  @Test
+  public void testStreamingReader() {
+    Json.Writer w = json().newWriter();
+    w.array();
+    for (int ii = 0; ii < 3000; ii++) {
+      w.object().key("id").value(ii).key("name").value("entity-" + ii).endObject();
+    }
+    String doc = w.endArray().write();
+
+    Json.Reader sr = json().newReader(doc);
+    Json.Reader rr = new JavaJson().newReader(new StringReader(doc));
+    Json.Token token;
+    do {
+      token = sr.next();
+      assertEquals(token, rr.next());
+      assertEquals(sr.getString(), rr.getString());
+      assertEquals(sr.depth(), rr.depth());
+    } while (token != Json.Token.END_DOCUMENT);
+  }
 }
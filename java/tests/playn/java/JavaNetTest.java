@@ -0,0 +1,155 @@
+/**
+ * Copyright 2011 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package playn.java;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import playn.core.util.Callback;
+
+/**
+ * Tests {@link JavaNet} against a local server.
+ */
+public class JavaNetTest {
+
+  private HttpServer server;
+  private String base;
+  private JavaNet net = new JavaNet();
+
+  @Before
+  public void startServer() throws IOException {
+    server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    server.createContext("/echo", new HttpHandler() {
+      public void handle(HttpExchange exchange) throws IOException {
+        InputStream in = exchange.getRequestBody();
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        byte[] buf = new byte[1024];
+        for (int read; (read = in.read(buf)) != -1; ) {
+          body.write(buf, 0, read);
+        }
+        String reply = exchange.getRequestMethod() + ":" + body.toString("UTF-8");
+        respond(exchange, 200, reply);
+      }
+    });
+    server.createContext("/missing", new HttpHandler() {
+      public void handle(HttpExchange exchange) throws IOException {
+        respond(exchange, 404, "not here");
+      }
+    });
+    server.start();
+    base = "http://127.0.0.1:" + server.getAddress().getPort();
+  }
+
+  @After
+  public void stopServer() {
+    server.stop(0);
+  }
+
+  @Test
+  public void testGetAndPost() throws InterruptedException {
+    Recorder get = new Recorder(), post = new Recorder();
+    net.get(base + "/echo", get);
+    net.post(base + "/echo", "héllo", post);
+    await(get, post);
+    assertEquals("GET:", get.result);
+    assertEquals("POST:héllo", post.result);
+  }
+
+  @Test
+  public void testFailure() throws InterruptedException {
+    Recorder missing = new Recorder();
+    net.get(base + "/missing", missing);
+    await(missing);
+    assertNull(missing.result);
+    assertTrue(missing.error instanceof IOException);
+    assertTrue(missing.error.getMessage(), missing.error.getMessage().contains("404"));
+  }
+
+  /**
+   * Ensures that results are only delivered when the game loop dispatches them.
+   */
+  @Test
+  public void testDeliveredOnDispatch() throws InterruptedException {
+    List<Recorder> recorders = new ArrayList<Recorder>();
+    for (int ii = 0; ii < 20; ii++) {
+      Recorder recorder = new Recorder();
+      recorders.add(recorder);
+      net.post(base + "/echo", "" + ii, recorder);
+    }
+    Thread.sleep(500);
+    for (Recorder recorder : recorders) {
+      assertFalse(recorder.done);
+    }
+    await(recorders.toArray(new Recorder[recorders.size()]));
+    for (int ii = 0; ii < 20; ii++) {
+      assertEquals("POST:" + ii, recorders.get(ii).result);
+    }
+  }
+
+  private void await(Recorder... recorders) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 10000;
+    while (System.currentTimeMillis() < deadline) {
+      net.dispatchResults();
+      boolean done = true;
+      for (Recorder recorder : recorders) {
+        done &= recorder.done;
+      }
+      if (done) {
+        return;
+      }
+      Thread.sleep(10);
+    }
+    fail("Requests did not complete");
+  }
+
+  private static void respond(HttpExchange exchange, int code, String reply) throws IOException {
+    byte[] bytes = reply.getBytes("UTF-8");
+    exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=UTF-8");
+    exchange.sendResponseHeaders(code, bytes.length);
+    OutputStream out = exchange.getResponseBody();
+    out.write(bytes);
+    out.close();
+  }
+
+  private static class Recorder implements Callback<String> {
+    public boolean done;
+    public String result;
+    public Throwable error;
+
+    public void onSuccess(String result) {
+      this.result = result;
+      done = true;
+    }
+
+    public void onFailure(Throwable error) {
+      this.error = error;
+      done = true;
+    }
+  }
+}
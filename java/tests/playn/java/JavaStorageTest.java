@@ -0,0 +1,135 @@
+/**
+ * Copyright 2011 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package playn.java;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests {@link JavaStorage}.
+ */
+public class JavaStorageTest {
+
+  private File file;
+
+  @Before
+  public void createFile() throws IOException {
+    file = File.createTempFile("playn", ".tmp");
+    file.delete();
+  }
+
+  @After
+  public void deleteFiles() {
+    file.delete();
+    log().delete();
+    new File(file.getPath() + ".new").delete();
+  }
+
+  @Test
+  public void testFlushAndReload() {
+    JavaStorage storage = open();
+    storage.setItem("a", "1");
+    storage.setItem("b", "two");
+    storage.setItem("c", "héllo");
+    storage.removeItem("b");
+    assertEquals("1", storage.getItem("a"));
+    assertNull(storage.getItem("b"));
+    storage.flush();
+    assertTrue(storage.isPersisted());
+
+    JavaStorage reloaded = open();
+    assertEquals("1", reloaded.getItem("a"));
+    assertNull(reloaded.getItem("b"));
+    assertEquals("héllo", reloaded.getItem("c"));
+  }
+
+  @Test
+  public void testWriteBehind() throws InterruptedException {
+    JavaStorage storage = open();
+    storage.setFlushInterval(50);
+    for (int ii = 0; ii < 2000; ii++) {
+      storage.setItem("key" + ii, "value" + ii);
+    }
+    // nothing is written until the interval elapses
+    assertFalse(log().exists());
+    Thread.sleep(500);
+    assertEquals("value1999", open().getItem("key1999"));
+  }
+
+  @Test
+  public void testCoalesce() {
+    JavaStorage storage = open();
+    for (int ii = 0; ii < 100; ii++) {
+      storage.setItem("counter", "" + ii);
+    }
+    storage.flush();
+    // only the latest value is written
+    assertTrue(log().length() < 100);
+    assertEquals("99", open().getItem("counter"));
+  }
+
+  @Test
+  public void testCompaction() {
+    JavaStorage storage = open();
+    StringBuilder big = new StringBuilder();
+    for (int ii = 0; ii < 1000; ii++) {
+      big.append("0123456789");
+    }
+    for (int ii = 0; ii < 20; ii++) {
+      storage.setItem("save", big.toString() + ii);
+      storage.flush();
+    }
+    // the log will have been compacted into the properties file at least once
+    assertTrue(file.exists());
+    assertTrue(log().length() < 20 * big.length());
+    assertEquals(big.toString() + 19, open().getItem("save"));
+  }
+
+  @Test
+  public void testTornLog() throws IOException {
+    JavaStorage storage = open();
+    storage.setItem("a", "1");
+    storage.flush();
+    // simulate a crash partway through writing a record
+    FileOutputStream out = new FileOutputStream(log(), true);
+    out.write(new byte[] { 1, 0, 0, 0, 9, 'x' });
+    out.close();
+
+    storage = open();
+    assertEquals("1", storage.getItem("a"));
+    // records written after recovery must be readable
+    storage.setItem("b", "2");
+    storage.flush();
+    storage = open();
+    assertEquals("1", storage.getItem("a"));
+    assertEquals("2", storage.getItem("b"));
+  }
+
+  private JavaStorage open() {
+    JavaStorage storage = new JavaStorage(file);
+    storage.init();
+    return storage;
+  }
+
+  private File log() {
+    return new File(file.getPath() + ".log");
+  }
+}
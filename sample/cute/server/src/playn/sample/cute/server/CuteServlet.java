@@ -18,63 +18,77 @@ package playn.sample.cute.server;
 import static playn.core.PlayN.*;
 
 import playn.core.Json;
+import playn.core.PlayN;
 import playn.java.JavaPlatform;
 import playn.sample.cute.core.CuteWorld;
+import playn.server.WorldSync;
+import playn.server.WorldSyncServlet;
 
-import java.io.IOException;
-import java.io.Reader;
-
-import javax.servlet.ServletException;
-import javax.servlet.http.HttpServlet;
-import javax.servlet.http.HttpServletRequest;
-import javax.servlet.http.HttpServletResponse;
-
-public class CuteServlet extends HttpServlet {
+/**
+ * Serves the shared {@link CuteWorld}, via the protocol described in {@link WorldSyncServlet}.
+ * Clients first fetch with no {@code since}, which returns a snapshot of the whole world and its
+ * version, then {@code ?since=V&wait=T} for the tile operations posted by other clients since.
+ */
+public class CuteServlet extends WorldSyncServlet<CuteWorld> {
 
-  private static final int BUF_SIZE = 4096;
+  // the number of tile operations to retain for clients that fall behind
+  private static final int MAX_CHANGES = 1024;
 
   static {
     JavaPlatform.register();
   }
 
-  private CuteWorld world = blankWorld(16, 16);
-
-  @Override
-  protected void doGet(HttpServletRequest req, HttpServletResponse rsp)
-      throws ServletException, IOException {
-    String query = req.getQueryString();
-    if ("map".equals(query)) {
-      Json.Writer w = json().newWriter();
-      world.write(w);
-      rsp.getWriter().write(w.write());
-      rsp.setStatus(HttpServletResponse.SC_OK);
-    }
+  public CuteServlet() {
+    super(new WorldSync<CuteWorld>(blankWorld(16, 16), new WorldSync.Snapshotter<CuteWorld>() {
+      public String snapshot(CuteWorld world) {
+        Json.Writer w = json().newWriter();
+        world.write(w);
+        return w.write();
+      }
+    }, MAX_CHANGES, new WorldSync.ErrorHandler<CuteWorld>() {
+      public void mutationFailed(WorldSync.Mutation<CuteWorld> mutation, RuntimeException cause) {
+        // qualified, as the servlet's own log methods hide the static import
+        PlayN.log().warn("Tile operation failed", cause);
+      }
+    }));
   }
 
   @Override
-  protected void doPost(HttpServletRequest req, HttpServletResponse resp)
-      throws ServletException, IOException {
-    String payload = readFully(req.getReader());
-    Json.Object data = json().parse(payload);
-
-    String op = data.getString("op");
-    if (op.equals("addTop")) {
-      int tx = data.getInt("x");
-      int ty = data.getInt("y");
-      int type = data.getInt("type");
-
-      System.out.println("addTop " + tx + ", " + ty + " : " + type);
-      world.addTile(tx, ty, type);
-    } else if (op.equals("removeTop")) {
-      int tx = data.getInt("x");
-      int ty = data.getInt("y");
+  protected WorldSync.Mutation<CuteWorld> parseMutation(final String payload) {
+    String op;
+    final int tx, ty, type;
+    try {
+      Json.Object data = json().parse(payload);
+      op = data.getString("op");
+      tx = data.getInt("x");
+      ty = data.getInt("y");
+      type = data.getInt("type");
+    } catch (RuntimeException e) {
+      // the payload is not JSON, or not the JSON we expect
+      return null;
+    }
 
-      System.out.println("removeTop " + tx + ", " + ty);
-      world.removeTopTile(tx, ty);
+    if ("addTop".equals(op)) {
+      return new WorldSync.Mutation<CuteWorld>() {
+        public String apply(CuteWorld world) {
+          System.out.println("addTop " + tx + ", " + ty + " : " + type);
+          world.addTile(tx, ty, type);
+          return payload;
+        }
+      };
+    } else if ("removeTop".equals(op)) {
+      return new WorldSync.Mutation<CuteWorld>() {
+        public String apply(CuteWorld world) {
+          System.out.println("removeTop " + tx + ", " + ty);
+          world.removeTopTile(tx, ty);
+          return payload;
+        }
+      };
     }
+    return null;
   }
 
-  private CuteWorld blankWorld(int width, int height) {
+  private static CuteWorld blankWorld(int width, int height) {
     CuteWorld world = new CuteWorld(width, height);
     for (int ty = 0; ty < height; ++ty) {
       for (int tx = 0; tx < width; ++tx) {
@@ -83,13 +97,4 @@ public class CuteServlet extends HttpServlet {
     }
     return world;
   }
-
-  private String readFully(Reader reader) throws IOException {
-    StringBuffer result = new StringBuffer();
-    char[] buf = new char[BUF_SIZE];
-    while (-1 != reader.read(buf)) {
-      result.append(buf);
-    }
-    return result.toString();
-  }
 }
@@ -0,0 +1,300 @@
+/**
+ * Copyright 2011 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package playn.server;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Keeps a shared game world in sync with any number of clients. Mutations are queued and applied
+ * to the world by a single writer thread, which records the change each one makes in a versioned
+ * log. Clients track the version they have seen (their cursor) and fetch only the changes made
+ * since, or a snapshot of the whole world if they are new or so far behind that the changes they
+ * need have been discarded. The log is published as an immutable structure, so readers never
+ * block on the writer or on each other, and never touch the world itself.
+ *
+ * <p> Clients may also wait for changes, rather than polling for them, via {@link #await}. </p>
+ */
+public class WorldSync<W> {
+
+  /**
+   * A change to the world, applied on the writer thread.
+   */
+  public interface Mutation<W> {
+    /**
+     * Applies this mutation to the world and returns the change to send to clients, or null if
+     * the world was not changed.
+     */
+    String apply(W world);
+  }
+
+  /**
+   * Serializes the whole world, for clients that have no usable cursor. Called on the writer
+   * thread.
+   */
+  public interface Snapshotter<W> {
+    String snapshot(W world);
+  }
+
+  /**
+   * Notified when a mutation fails. Called on the writer thread.
+   */
+  public interface ErrorHandler<W> {
+    /**
+     * Reports that the specified mutation threw an exception. The world may have been partially
+     * modified, but any other mutations are still applied.
+     */
+    void mutationFailed(Mutation<W> mutation, RuntimeException cause);
+  }
+
+  /**
+   * Notified when changes arrive for a client waiting via {@link #await}. Called on the writer
+   * thread, so it should hand the update off rather than doing any real work.
+   */
+  public interface Listener {
+    void onUpdate(Update update);
+  }
+
+  /**
+   * The data a client needs to bring itself up to date.
+   */
+  public static class Update {
+    /** The version of the world after applying this update; the client's new cursor. */
+    public final long version;
+
+    /** A snapshot of the whole world, to replace the client's, or null if it was not needed. */
+    public final String snapshot;
+
+    /** The changes to apply, in order, after the snapshot (if any). */
+    public final List<String> changes;
+
+    Update(long version, String snapshot, List<String> changes) {
+      this.version = version;
+      this.snapshot = snapshot;
+      this.changes = changes;
+    }
+  }
+
+  private final W world;
+  private final Snapshotter<W> snapshotter;
+  private final ErrorHandler<W> errorHandler;
+  private final int maxChanges;
+  private final Thread writer;
+
+  // mutations waiting to be applied by the writer
+  private final BlockingQueue<Mutation<W>> mutations = new LinkedBlockingQueue<Mutation<W>>();
+  // clients waiting for changes
+  private final Queue<Waiter> waiters = new ConcurrentLinkedQueue<Waiter>();
+  // the latest change log, replaced (never modified) by the writer
+  private volatile Log log;
+
+  /**
+   * Creates a world sync, and starts its writer thread.
+   *
+   * @param world the world, which must not be accessed by any other thread from now on.
+   * @param snapshotter serializes the world when a client needs a snapshot.
+   * @param maxChanges the number of changes retained in the log. Once this many accumulate, a new
+   * snapshot is taken and the older half are discarded, so a larger log means fewer snapshots
+   * but more memory, and longer catch-ups for clients that are behind.
+   * @param errorHandler notified of mutations that fail.
+   */
+  public WorldSync(W world, Snapshotter<W> snapshotter, int maxChanges,
+                   ErrorHandler<W> errorHandler) {
+    if (maxChanges < 2) {
+      throw new IllegalArgumentException("Log must retain at least two changes");
+    }
+    this.world = world;
+    this.snapshotter = snapshotter;
+    this.errorHandler = errorHandler;
+    this.maxChanges = maxChanges;
+    log = new Log(0, snapshotter.snapshot(world), 0, new String[0]);
+
+    writer = new Thread(new Runnable() {
+      public void run() {
+        runWriter();
+      }
+    }, "PlayN world sync");
+    writer.setDaemon(true);
+    writer.start();
+  }
+
+  /**
+   * Queues a mutation to be applied to the world. This does not block.
+   */
+  public void apply(Mutation<W> mutation) {
+    mutations.add(mutation);
+  }
+
+  /**
+   * Returns the current version of the world.
+   */
+  public long version() {
+    return log.head();
+  }
+
+  /**
+   * Returns the update that brings a client at the specified version up to date. Clients with no
+   * version should pass -1. If the client is already up to date, the update will have no
+   * changes.
+   */
+  public Update poll(long since) {
+    return log.since(since);
+  }
+
+  /**
+   * Notifies the listener once the world has changed since the specified version, which is
+   * immediately if it already has. The wait may be abandoned via {@link #cancel}.
+   */
+  public void await(long since, Listener listener) {
+    Waiter waiter = new Waiter(since, listener);
+    waiters.add(waiter);
+    // the writer may have published between the caller polling and our adding the waiter, in
+    // which case it may not have seen us; whoever removes the waiter delivers the update
+    Log log = this.log;
+    if (log.head() > since && waiters.remove(waiter)) {
+      listener.onUpdate(log.since(since));
+    }
+  }
+
+  /**
+   * Abandons a wait started by {@link #await}. Returns false if the listener was already notified
+   * (or is being notified).
+   */
+  public boolean cancel(Listener listener) {
+    for (Waiter waiter : waiters) {
+      if (waiter.listener == listener) {
+        return waiters.remove(waiter);
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Stops the writer thread. Queued mutations that have not yet been applied are discarded.
+   */
+  public void shutdown() {
+    writer.interrupt();
+  }
+
+  private void runWriter() {
+    List<Mutation<W>> batch = new ArrayList<Mutation<W>>();
+    List<String> changes = new ArrayList<String>();
+    try {
+      while (true) {
+        batch.add(mutations.take());
+        mutations.drainTo(batch);
+        for (Mutation<W> mutation : batch) {
+          try {
+            String change = mutation.apply(world);
+            if (change != null) {
+              changes.add(change);
+            }
+          } catch (RuntimeException e) {
+            errorHandler.mutationFailed(mutation, e);
+          }
+        }
+        batch.clear();
+        if (!changes.isEmpty()) {
+          publish(changes);
+          changes.clear();
+        }
+      }
+    } catch (InterruptedException e) {
+      // shutting down
+    }
+  }
+
+  private void publish(List<String> added) {
+    Log old = log;
+    int count = old.changes.length + added.size();
+    String[] changes = new String[count];
+    System.arraycopy(old.changes, 0, changes, 0, old.changes.length);
+    for (int ii = 0; ii < added.size(); ii++) {
+      changes[old.changes.length + ii] = added.get(ii);
+    }
+
+    if (count <= maxChanges) {
+      log = new Log(old.snapshotVersion, old.snapshot, old.firstVersion, changes);
+    } else {
+      // take a new snapshot, and keep enough changes that recently synced clients needn't use it
+      int keep = maxChanges / 2;
+      long head = old.firstVersion + count;
+      log = new Log(head, snapshotter.snapshot(world), head - keep,
+                    Arrays.copyOfRange(changes, count - keep, count));
+    }
+
+    Log log = this.log;
+    for (Waiter waiter : waiters) {
+      if (log.head() > waiter.since && waiters.remove(waiter)) {
+        waiter.listener.onUpdate(log.since(waiter.since));
+      }
+    }
+  }
+
+  /** An immutable view of the change log. */
+  private static class Log {
+    /** The version of the world captured by the snapshot. */
+    public final long snapshotVersion;
+    public final String snapshot;
+
+    /** The version of the world before the first retained change. */
+    public final long firstVersion;
+    public final String[] changes;
+
+    public Log(long snapshotVersion, String snapshot, long firstVersion, String[] changes) {
+      this.snapshotVersion = snapshotVersion;
+      this.snapshot = snapshot;
+      this.firstVersion = firstVersion;
+      this.changes = changes;
+    }
+
+    public long head() {
+      return firstVersion + changes.length;
+    }
+
+    public Update since(long version) {
+      long head = head();
+      if (version >= firstVersion && version <= head) {
+        return new Update(head, null, slice(version));
+      }
+      // the client has no version, or is too far behind (or ahead, if the server restarted)
+      return new Update(head, snapshot, slice(snapshotVersion));
+    }
+
+    private List<String> slice(long from) {
+      int start = (int) (from - firstVersion);
+      if (start == changes.length) {
+        return Collections.emptyList();
+      }
+      return Collections.unmodifiableList(
+        Arrays.asList(changes).subList(start, changes.length));
+    }
+  }
+
+  private static class Waiter {
+    public final long since;
+    public final Listener listener;
+
+    public Waiter(long since, Listener listener) {
+      this.since = since;
+      this.listener = listener;
+    }
+  }
+}
@@ -0,0 +1,150 @@
+/**
+ * Copyright 2011 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package playn.server;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Reader;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.eclipse.jetty.continuation.Continuation;
+import org.eclipse.jetty.continuation.ContinuationSupport;
+
+/**
+ * Serves a {@link WorldSync} over HTTP.
+ *
+ * <p> {@code GET ?since=V&wait=T} returns the update that brings a client at version {@code V}
+ * up to date, as {@code {"version":V, "snapshot":S, "changes":[C, ...]}}, where the snapshot (if
+ * present) and changes are the JSON produced by the world's snapshotter and mutations. Clients
+ * with no version omit {@code since}. If the client is up to date, the request is held for up to
+ * {@code T} milliseconds until a change arrives, without tying up a thread, rather than the
+ * client having to poll. </p>
+ *
+ * <p> {@code POST} queues the mutation described by the request body, as decoded by {@link
+ * #parseMutation}. </p>
+ */
+public abstract class WorldSyncServlet<W> extends HttpServlet {
+
+  private static final long serialVersionUID = 1L;
+
+  // the longest we'll hold a request waiting for changes, in milliseconds
+  private static final long MAX_WAIT = 30 * 1000;
+
+  private static final String UPDATE_ATTR = WorldSyncServlet.class.getName() + ".update";
+  private static final String LISTENER_ATTR = WorldSyncServlet.class.getName() + ".listener";
+
+  private static final int BUF_SIZE = 4096;
+
+  protected final WorldSync<W> sync;
+
+  protected WorldSyncServlet(WorldSync<W> sync) {
+    this.sync = sync;
+  }
+
+  /**
+   * Decodes a mutation posted by a client, or returns null if the payload is invalid. This is
+   * called on the request thread, so it must not access the world.
+   */
+  protected abstract WorldSync.Mutation<W> parseMutation(String payload);
+
+  @Override
+  public void destroy() {
+    sync.shutdown();
+    super.destroy();
+  }
+
+  @Override
+  protected void doGet(HttpServletRequest req, HttpServletResponse rsp)
+      throws ServletException, IOException {
+    long since, wait;
+    try {
+      since = longParam(req, "since", -1);
+      wait = Math.min(longParam(req, "wait", 0), MAX_WAIT);
+    } catch (NumberFormatException e) {
+      rsp.sendError(HttpServletResponse.SC_BAD_REQUEST);
+      return;
+    }
+
+    WorldSync.Update update = (WorldSync.Update) req.getAttribute(UPDATE_ATTR);
+    if (update == null) {
+      final Continuation cont = ContinuationSupport.getContinuation(req);
+      if (cont.isExpired()) {
+        sync.cancel((WorldSync.Listener) req.getAttribute(LISTENER_ATTR));
+      }
+      update = sync.poll(since);
+      if (!cont.isExpired() && wait > 0 && update.snapshot == null && update.changes.isEmpty()) {
+        WorldSync.Listener listener = new WorldSync.Listener() {
+          public void onUpdate(WorldSync.Update update) {
+            cont.setAttribute(UPDATE_ATTR, update);
+            cont.resume();
+          }
+        };
+        cont.setTimeout(wait);
+        cont.suspend();
+        req.setAttribute(LISTENER_ATTR, listener);
+        sync.await(since, listener);
+        return;
+      }
+    }
+
+    rsp.setContentType("application/json; charset=UTF-8");
+    rsp.setHeader("Cache-Control", "no-cache");
+    PrintWriter out = rsp.getWriter();
+    out.write("{\"version\":");
+    out.print(update.version);
+    if (update.snapshot != null) {
+      out.write(",\"snapshot\":");
+      out.write(update.snapshot);
+    }
+    out.write(",\"changes\":[");
+    for (int ii = 0; ii < update.changes.size(); ii++) {
+      if (ii > 0) {
+        out.write(',');
+      }
+      out.write(update.changes.get(ii));
+    }
+    out.write("]}");
+    rsp.setStatus(HttpServletResponse.SC_OK);
+  }
+
+  @Override
+  protected void doPost(HttpServletRequest req, HttpServletResponse rsp)
+      throws ServletException, IOException {
+    WorldSync.Mutation<W> mutation = parseMutation(readFully(req.getReader()));
+    if (mutation == null) {
+      rsp.sendError(HttpServletResponse.SC_BAD_REQUEST);
+      return;
+    }
+    sync.apply(mutation);
+    rsp.setStatus(HttpServletResponse.SC_OK);
+  }
+
+  private static long longParam(HttpServletRequest req, String name, long defval) {
+    String value = req.getParameter(name);
+    return (value == null) ? defval : Long.parseLong(value);
+  }
+
+  private static String readFully(Reader reader) throws IOException {
+    StringBuilder result = new StringBuilder();
+    char[] buf = new char[BUF_SIZE];
+    for (int read; (read = reader.read(buf)) != -1; ) {
+      result.append(buf, 0, read);
+    }
+    return result.toString();
+  }
+}
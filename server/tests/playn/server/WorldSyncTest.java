@@ -0,0 +1,208 @@
+/**
+ * Copyright 2011 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package playn.server;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Tests {@link WorldSync}.
+ */
+public class WorldSyncTest {
+
+  protected WorldSync<StringBuilder> sync;
+  protected final List<RuntimeException> failures = new ArrayList<RuntimeException>();
+
+  @After
+  public void shutdown() {
+    if (sync != null) {
+      sync.shutdown();
+    }
+  }
+
+  @Test
+  public void testMutationOrder() throws InterruptedException {
+    sync = createSync(1000);
+    for (int ii = 0; ii < 500; ii++) {
+      sync.apply(append(String.valueOf(ii)));
+    }
+    waitFor(500);
+
+    WorldSync.Update update = sync.poll(0);
+    assertEquals(500, update.version);
+    assertNull(update.snapshot);
+    assertEquals(expected(0, 500), update.changes);
+    // a client with no version gets the initial (empty) snapshot, and every change since
+    update = sync.poll(-1);
+    assertEquals("", update.snapshot);
+    assertEquals(expected(0, 500), update.changes);
+  }
+
+  @Test
+  public void testSince() throws InterruptedException {
+    sync = createSync(1000);
+    for (int ii = 0; ii < 10; ii++) {
+      sync.apply(append(String.valueOf(ii)));
+    }
+    waitFor(10);
+
+    assertEquals(expected(4, 10), sync.poll(4).changes);
+    assertTrue(sync.poll(10).changes.isEmpty());
+    assertNull(sync.poll(10).snapshot);
+
+    // a client that is behind is notified immediately
+    Updates behind = new Updates();
+    sync.await(7, behind);
+    assertEquals(expected(7, 10), behind.next().changes);
+
+    // a client that is up to date is notified once, with only the change it has not seen
+    Updates current = new Updates();
+    sync.await(10, current);
+    assertNull(current.poll());
+    sync.apply(append("10"));
+    WorldSync.Update update = current.next();
+    assertEquals(11, update.version);
+    assertNull(update.snapshot);
+    assertEquals(expected(10, 11), update.changes);
+    sync.apply(append("11"));
+    waitFor(12);
+    assertNull(current.poll());
+
+    // a cancelled wait is not notified
+    Updates cancelled = new Updates();
+    sync.await(12, cancelled);
+    assertTrue(sync.cancel(cancelled));
+    sync.apply(append("12"));
+    waitFor(13);
+    assertNull(cancelled.poll());
+  }
+
+  @Test
+  public void testTruncatedLog() throws InterruptedException {
+    sync = createSync(4);
+    for (int ii = 0; ii < 10; ii++) {
+      sync.apply(append(String.valueOf(ii)));
+      // apply them one at a time, so that the log is truncated as each one is published
+      waitFor(ii + 1);
+    }
+
+    // clients too far behind get a snapshot, then the changes made since it was taken
+    WorldSync.Update update = sync.poll(0);
+    assertEquals(10, update.version);
+    assertNotNull(update.snapshot);
+    StringBuilder world = new StringBuilder(update.snapshot);
+    for (String change : update.changes) {
+      world.append(change);
+    }
+    assertEquals(join(expected(0, 10)), world.toString());
+    // recently synced clients need no snapshot
+    update = sync.poll(9);
+    assertNull(update.snapshot);
+    assertEquals(expected(9, 10), update.changes);
+  }
+
+  @Test
+  public void testFailedMutation() throws InterruptedException {
+    sync = createSync(1000);
+    final RuntimeException failure = new RuntimeException("Nope");
+    sync.apply(append("0"));
+    sync.apply(new WorldSync.Mutation<StringBuilder>() {
+      public String apply(StringBuilder world) {
+        throw failure;
+      }
+    });
+    sync.apply(append("1"));
+    waitFor(2);
+
+    // the failure is reported, and the mutations around it are still applied
+    assertEquals(1, failures.size());
+    assertSame(failure, failures.get(0));
+    assertEquals(expected(0, 2), sync.poll(0).changes);
+  }
+
+  protected static class Updates implements WorldSync.Listener {
+    protected final BlockingQueue<WorldSync.Update> updates =
+      new LinkedBlockingQueue<WorldSync.Update>();
+
+    public void onUpdate(WorldSync.Update update) {
+      updates.add(update);
+    }
+
+    public WorldSync.Update next() throws InterruptedException {
+      WorldSync.Update update = updates.poll(5, TimeUnit.SECONDS);
+      assertNotNull("Timed out waiting for update", update);
+      return update;
+    }
+
+    public WorldSync.Update poll() {
+      return updates.poll();
+    }
+  }
+
+  protected WorldSync<StringBuilder> createSync(int maxChanges) {
+    return new WorldSync<StringBuilder>(new StringBuilder(),
+                                        new WorldSync.Snapshotter<StringBuilder>() {
+      public String snapshot(StringBuilder world) {
+        return world.toString();
+      }
+    }, maxChanges, new WorldSync.ErrorHandler<StringBuilder>() {
+      public void mutationFailed(WorldSync.Mutation<StringBuilder> mutation,
+                                 RuntimeException cause) {
+        failures.add(cause);
+      }
+    });
+  }
+
+  protected static WorldSync.Mutation<StringBuilder> append(final String value) {
+    return new WorldSync.Mutation<StringBuilder>() {
+      public String apply(StringBuilder world) {
+        world.append(value).append(';');
+        return value + ";";
+      }
+    };
+  }
+
+  protected static List<String> expected(int from, int to) {
+    List<String> changes = new ArrayList<String>();
+    for (int ii = from; ii < to; ii++) {
+      changes.add(ii + ";");
+    }
+    return changes;
+  }
+
+  protected static String join(List<String> changes) {
+    StringBuilder buf = new StringBuilder();
+    for (String change : changes) {
+      buf.append(change);
+    }
+    return buf.toString();
+  }
+
+  // waits until the writer has published the specified version
+  protected void waitFor(long version) throws InterruptedException {
+    for (long current; (current = sync.version()) < version; ) {
+      Updates updates = new Updates();
+      sync.await(current, updates);
+      updates.next();
+    }
+  }
+}
@@ -0,0 +1,105 @@
+/**
+ * Copyright 2011 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package playn.bench.jmh;
+
+import playn.core.Canvas;
+import playn.core.GroupLayer;
+import playn.core.GroupLayerImpl;
+import playn.core.Layer;
+import playn.core.ParentLayer;
+
+/**
+ * A platform-independent group layer backed by {@link GroupLayerImpl}.
+ */
+class BenchGroupLayer extends BenchLayer implements GroupLayer, ParentLayer {
+
+  final GroupLayerImpl<BenchLayer> impl = new GroupLayerImpl<BenchLayer>();
+
+  @Override
+  public Layer get(int index) {
+    return impl.children.get(index);
+  }
+
+  @Override
+  public void add(Layer layer) {
+    impl.add(this, (BenchLayer) layer);
+  }
+
+  @Override @Deprecated
+  public void add(int index, Layer layer) {
+    impl.add(this, index, (BenchLayer) layer);
+  }
+
+  @Override
+  public void remove(Layer layer) {
+    impl.remove(this, (BenchLayer) layer);
+  }
+
+  @Override @Deprecated
+  public void remove(int index) {
+    impl.remove(this, index);
+  }
+
+  @Override
+  public void clear() {
+    impl.clear(this);
+  }
+
+  @Override
+  public int size() {
+    return impl.children.size();
+  }
+
+  @Override
+  public void setCulling(boolean culling) {
+    impl.culling = culling;
+  }
+
+  @Override
+  public boolean culling() {
+    return impl.culling;
+  }
+
+  @Override
+  public void setHitIndex(float cellSize) {
+    impl.setHitIndex(cellSize);
+  }
+
+  @Override
+  public Layer hitTest(float x, float y) {
+    return impl.hitTest(this, x, y);
+  }
+
+  @Override
+  public void childBoundsChanged(Layer layer) {
+    impl.childBoundsChanged(this, layer);
+  }
+
+  @Override
+  public void depthChanged(Layer layer, float oldDepth) {
+    impl.depthChanged(this, layer, oldDepth);
+  }
+
+  @Override
+  void paint(Canvas canvas) {
+    if (!visible()) return;
+
+    canvas.save();
+    transform(canvas);
+    for (BenchLayer child : impl.children) {
+      child.paint(canvas);
+    }
+    canvas.restore();
+  }
+}
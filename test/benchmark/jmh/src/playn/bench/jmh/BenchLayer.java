@@ -0,0 +1,40 @@
+/**
+ * Copyright 2011 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package playn.bench.jmh;
+
+import playn.core.AbstractLayer;
+import playn.core.Canvas;
+
+/**
+ * A platform-independent leaf layer that paints itself into a {@link Canvas} the same way the Java
+ * backend's layers do, so that the scene graph can be exercised on a headless JVM.
+ */
+class BenchLayer extends AbstractLayer {
+
+  void paint(Canvas canvas) {
+    if (!visible()) return;
+
+    canvas.save();
+    transform(canvas);
+    canvas.fillRect(0, 0, 1, 1);
+    canvas.restore();
+  }
+
+  void transform(Canvas canvas) {
+    canvas.translate(originX, originY);
+    canvas.transform(transform.m00(), transform.m01(), transform.m10(),
+        transform.m11(), transform.tx() - originX, transform.ty() - originY);
+    canvas.translate(-originX, -originY);
+  }
+}
@@ -0,0 +1,127 @@
+/**
+ * Copyright 2011 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package playn.bench.jmh;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures child management in {@link playn.core.GroupLayerImpl} for large groups. Children
+ * either all share one depth (the common case for particles and tiles) or have distinct depths.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class GroupLayerBenchmark {
+
+  // a fixed sequence of "random" child indices, so that every run does the same work
+  private static final int PICKS = 1024;
+
+  @Param({"10000", "100000"})
+  public int children;
+
+  @Param({"true", "false"})
+  public boolean sameDepth;
+
+  private BenchGroupLayer group;
+  private BenchLayer[] layers;
+  private int[] picks;
+  private int pick;
+
+  @Setup
+  public void setup() {
+    Random rando = new Random(42);
+    group = new BenchGroupLayer();
+    layers = new BenchLayer[children];
+    for (int ii = 0; ii < children; ii++) {
+      layers[ii] = new BenchLayer();
+      layers[ii].setDepth(sameDepth ? 0 : ii);
+      group.add(layers[ii]);
+    }
+    picks = new int[PICKS];
+    for (int ii = 0; ii < PICKS; ii++) {
+      picks[ii] = rando.nextInt(children);
+    }
+  }
+
+  /**
+   * Layers with no parent, created anew for each invocation of {@link #addAll}, so that it
+   * measures only adding them, and not removing them from a previous parent. This is a separate
+   * state so that the other benchmarks don't pay for the per-invocation setup.
+   */
+  @State(Scope.Thread)
+  public static class Orphans {
+    public BenchLayer[] layers;
+
+    @Setup(Level.Invocation)
+    public void create(GroupLayerBenchmark bench) {
+      layers = new BenchLayer[bench.children];
+      for (int ii = 0; ii < layers.length; ii++) {
+        layers[ii] = new BenchLayer();
+        layers[ii].setDepth(bench.sameDepth ? 0 : ii);
+      }
+    }
+  }
+
+  /** Fills an empty group with a fresh set of parentless children. */
+  @Benchmark
+  public int addAll(Orphans orphans) {
+    BenchGroupLayer fresh = new BenchGroupLayer();
+    for (BenchLayer layer : orphans.layers) {
+      fresh.add(layer);
+    }
+    return fresh.size();
+  }
+
+  /** Removes a child from the middle of the group and adds it back. */
+  @Benchmark
+  public int removeAndAdd() {
+    BenchLayer layer = layers[nextPick()];
+    group.remove(layer);
+    group.add(layer);
+    return group.size();
+  }
+
+  /** Moves a child to a new depth and back again. */
+  @Benchmark
+  public int depthChanged() {
+    BenchLayer layer = layers[nextPick()];
+    float depth = layer.depth();
+    layer.setDepth(depth + 1.5f);
+    layer.setDepth(depth);
+    return group.size();
+  }
+
+  private int nextPick() {
+    int idx = picks[pick];
+    pick = (pick + 1) % PICKS;
+    return idx;
+  }
+}
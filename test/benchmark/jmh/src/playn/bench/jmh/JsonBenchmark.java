@@ -0,0 +1,129 @@
+/**
+ * Copyright 2011 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package playn.bench.jmh;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import playn.core.Json;
+import playn.java.JavaJson;
+
+/**
+ * Measures parsing and writing JSON via {@link JavaJson}, reading parsed arrays via the
+ * {@link Json.TypedArray} wrappers produced by {@link playn.core.TypedArrayBuilder}, and reading
+ * the same data via a streaming {@link Json.Reader}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class JsonBenchmark {
+
+  /** The number of entities in the benchmark document. */
+  @Param({"100", "1000"})
+  public int entities;
+
+  private final JavaJson json = new JavaJson();
+  private String document;
+  private Json.Object parsed;
+
+  @Setup
+  public void setup() {
+    document = write();
+    parsed = json.parse(document);
+  }
+
+  @Benchmark
+  public Json.Object parse() {
+    return json.parse(document);
+  }
+
+  @Benchmark
+  public double streamingRead() {
+    // reads the same values as typedArrayAccess, but straight from the document
+    double total = 0;
+    Json.Reader r = json.newReader(document);
+    while (r.next() != Json.Token.END_DOCUMENT) {
+      if (r.token() != Json.Token.KEY) {
+        continue;
+      }
+      if (r.keyEquals("pos") || r.keyEquals("tags")) {
+        r.next();
+        while (r.next() == Json.Token.NUMBER) {
+          total += r.getNumber();
+        }
+      } else if (r.keyEquals("name")) {
+        r.next();
+      }
+    }
+    return total;
+  }
+
+  @Benchmark
+  public String writeDocument() {
+    return write();
+  }
+
+  @Benchmark
+  public double typedArrayAccess() {
+    double total = 0;
+    Json.TypedArray<Json.Object> ents = parsed.getArray("entities", Json.Object.class);
+    for (int ii = 0, ll = ents.length(); ii < ll; ii++) {
+      Json.TypedArray<Double> pos = ents.get(ii).getArray("pos", Double.class);
+      total += pos.get(0) + pos.get(1);
+      Json.TypedArray<Integer> tags = ents.get(ii).getArray("tags", Integer.class);
+      for (int tt = 0, tl = tags.length(); tt < tl; tt++) {
+        total += tags.get(tt);
+      }
+    }
+    return total;
+  }
+
+  // writes a document describing some game entities, generated from a fixed seed
+  protected String write() {
+    Random rando = new Random(42);
+    Json.Writer w = json.newWriter();
+    w.object().key("version").value(1).key("entities").array();
+    for (int ii = 0; ii < entities; ii++) {
+      w.object();
+      w.key("id").value(ii);
+      w.key("name").value("entity-" + ii);
+      w.key("visible").value(rando.nextBoolean());
+      w.key("pos").array().value(rando.nextDouble() * 1000).value(rando.nextDouble() * 1000).
+        endArray();
+      w.key("tags").array();
+      for (int tt = 0; tt < 5; tt++) {
+        w.value(rando.nextInt(100));
+      }
+      w.endArray();
+      w.endObject();
+    }
+    w.endArray().endObject();
+    return w.write();
+  }
+}
@@ -0,0 +1,95 @@
+/**
+ * Copyright 2011 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package playn.bench.jmh;
+
+import playn.core.Canvas;
+import playn.core.Gradient;
+import playn.core.Image;
+import playn.core.Path;
+import playn.core.Pattern;
+import playn.core.TextLayout;
+
+/**
+ * A canvas that draws nothing, but counts the calls made on it and keeps the last transform so
+ * that the work done by callers cannot be optimized away.
+ */
+class RecordingCanvas implements Canvas {
+
+  /** The number of calls made on this canvas. */
+  int ops;
+
+  /** The sum of all the values passed to transform calls. */
+  float transformSum;
+
+  private final int width, height;
+
+  RecordingCanvas(int width, int height) {
+    this.width = width;
+    this.height = height;
+  }
+
+  @Override public void clear() { ops++; }
+  @Override public void clip(Path clipPath) { ops++; }
+  @Override public void drawImage(Image image, float dx, float dy) { ops++; }
+  @Override public void drawImageCentered(Image image, float dx, float dy) { ops++; }
+  @Override public void drawImage(Image image, float dx, float dy, float dw, float dh) { ops++; }
+  @Override public void drawImage(Image image, float dx, float dy, float dw, float dh,
+                                  float sx, float sy, float sw, float sh) { ops++; }
+  @Override public void drawLine(float x0, float y0, float x1, float y1) { ops++; }
+  @Override public void drawPoint(float x, float y) { ops++; }
+  @Override public void drawText(String text, float x, float y) { ops++; }
+  @Override public void drawText(TextLayout layout, float x, float y) { ops++; }
+  @Override public void fillCircle(float x, float y, float radius) { ops++; }
+  @Override public void fillPath(Path path) { ops++; }
+  @Override public void fillRect(float x, float y, float width, float height) { ops++; }
+  @Override public void restore() { ops++; }
+  @Override public void rotate(float radians) { ops++; transformSum += radians; }
+  @Override public void save() { ops++; }
+  @Override public void scale(float x, float y) { ops++; transformSum += x + y; }
+  @Override public void setCompositeOperation(Composite composite) { ops++; }
+  @Override public void setFillColor(int color) { ops++; }
+  @Override public void setFillGradient(Gradient gradient) { ops++; }
+  @Override public void setFillPattern(Pattern pattern) { ops++; }
+  @Override public void setLineCap(LineCap cap) { ops++; }
+  @Override public void setLineJoin(LineJoin join) { ops++; }
+  @Override public void setMiterLimit(float miter) { ops++; }
+  @Override public void setStrokeColor(int color) { ops++; }
+  @Override public void setStrokeWidth(float strokeWidth) { ops++; }
+  @Override public void strokeCircle(float x, float y, float radius) { ops++; }
+  @Override public void strokePath(Path path) { ops++; }
+  @Override public void strokeRect(float x, float y, float width, float height) { ops++; }
+  @Override public void translate(float x, float y) { ops++; transformSum += x + y; }
+
+  @Override
+  public void setTransform(float m11, float m12, float m21, float m22, float dx, float dy) {
+    ops++;
+    transformSum += m11 + m12 + m21 + m22 + dx + dy;
+  }
+
+  @Override
+  public void transform(float m11, float m12, float m21, float m22, float dx, float dy) {
+    ops++;
+    transformSum += m11 + m12 + m21 + m22 + dx + dy;
+  }
+
+  @Override
+  public int width() {
+    return width;
+  }
+
+  @Override
+  public int height() {
+    return height;
+  }
+}
@@ -0,0 +1,67 @@
+/**
+ * Copyright 2011 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package playn.bench.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import playn.core.InternalTransform;
+import playn.core.StockInternalTransform;
+
+/**
+ * Measures {@link StockInternalTransform#concatenate}, which the GL backends perform for every
+ * layer they paint.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class TransformBenchmark {
+
+  private StockInternalTransform parent, local, result;
+
+  @Setup
+  public void setup() {
+    parent = new StockInternalTransform();
+    parent.setTransform(1.5f, 0.25f, -0.25f, 1.5f, 100, 50);
+    local = new StockInternalTransform();
+    local.setRotation(0.3f);
+    local.setScale(2, 0.5f);
+    local.setTranslation(17, 23);
+    result = new StockInternalTransform();
+  }
+
+  @Benchmark
+  public InternalTransform concatenateTransform() {
+    return result.set(parent).concatenate(local, 8, 8);
+  }
+
+  @Benchmark
+  public InternalTransform concatenateComponents() {
+    return result.set(parent).concatenate(local.m00(), local.m01(), local.m10(), local.m11(),
+                                          local.tx(), local.ty(), 8, 8);
+  }
+}
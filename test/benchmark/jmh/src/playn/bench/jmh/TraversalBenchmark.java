@@ -0,0 +1,80 @@
+/**
+ * Copyright 2011 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package playn.bench.jmh;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures a full paint traversal of a layer tree into a {@link RecordingCanvas}, which isolates
+ * the cost of walking the tree and computing transforms from the cost of actually drawing.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class TraversalBenchmark {
+
+  /** The number of children of each group in the tree. */
+  @Param({"10", "100"})
+  public int fanout;
+
+  /** The number of levels of groups in the tree. */
+  @Param({"2", "3"})
+  public int depth;
+
+  private BenchGroupLayer root;
+  private RecordingCanvas canvas;
+
+  @Setup
+  public void setup() {
+    Random rando = new Random(42);
+    root = createGroup(rando, depth);
+    canvas = new RecordingCanvas(1024, 768);
+  }
+
+  @Benchmark
+  public int paint() {
+    canvas.ops = 0;
+    root.paint(canvas);
+    return canvas.ops;
+  }
+
+  protected BenchGroupLayer createGroup(Random rando, int levels) {
+    BenchGroupLayer group = new BenchGroupLayer();
+    for (int ii = 0; ii < fanout; ii++) {
+      BenchLayer child = (levels > 1) ? createGroup(rando, levels - 1) : new BenchLayer();
+      child.setTranslation(rando.nextFloat() * 1024, rando.nextFloat() * 768);
+      if (rando.nextInt(4) == 0) {
+        child.setRotation(rando.nextFloat());
+      }
+      group.add(child);
+    }
+    return group;
+  }
+}